@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import javax.servlet.ServletException;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.Lifecycle;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.WebResourceRoot;
+import org.apache.catalina.startup.Tomcat;
+import org.apache.catalina.webresources.DirResourceSet;
+import org.apache.catalina.webresources.StandardRoot;
+import org.apache.log4j.Logger;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+import fll.util.FLLRuntimeException;
+import fll.util.LogUtils;
+import fll.xml.XMLUtils;
+import net.mtu.eggplant.xml.NodelistElementCollectionAdapter;
+
+/**
+ * Runs the web application in the current JVM. JSPs that were compiled by
+ * the build are registered as servlets so that the first request for a page
+ * doesn't wait on the JSP compiler. The listener is told when the server is
+ * accepting requests and when it has stopped.
+ */
+public final class EmbeddedServer {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  /**
+   * Port that the web server listens on, same as the standalone server.
+   */
+  public static final int PORT = 9080;
+
+  /**
+   * Context path of the web application.
+   */
+  public static final String CONTEXT_PATH = "/fll-sw";
+
+  /**
+   * Classes for the JSPs compiled by the build, relative to the web
+   * application directory.
+   */
+  private static final String JSP_CLASSES = "WEB-INF/jsp-classes";
+
+  /**
+   * Servlet definitions for the JSPs compiled by the build, relative to the
+   * web application directory.
+   */
+  private static final String JSP_WEB_XML = "WEB-INF/jsp-web.xml";
+
+  /**
+   * Notified of changes in the state of the server. Methods are called on a
+   * server thread.
+   */
+  public interface Listener {
+    /**
+     * The web application is started and the server is accepting requests.
+     */
+    void serverReady();
+
+    /**
+     * The server has stopped.
+     */
+    void serverStopped();
+
+    /**
+     * The server could not be started.
+     */
+    void serverFailed(Exception e);
+  }
+
+  /**
+   * @param tomcatDirectory the directory containing "webapps", see
+   *          {@link #findTomcatDirectory()}
+   * @param listener notified when the server is ready and when it stops
+   */
+  public EmbeddedServer(@Nonnull final File tomcatDirectory,
+                        @Nonnull final Listener listener) {
+    mTomcatDirectory = tomcatDirectory;
+    mListener = listener;
+  }
+
+  private final File mTomcatDirectory;
+
+  private final Listener mListener;
+
+  private Tomcat mTomcat = null;
+
+  private Context mContext = null;
+
+  private final Thread mShutdownHook = new Thread(() -> {
+    stop();
+  }, "Embedded web server shutdown");
+
+  /**
+   * Find the tomcat directory of the distribution or build.
+   *
+   * @return null if the directory cannot be found
+   */
+  @CheckForNull
+  public static File findTomcatDirectory() {
+    final String[] possibleLocations = { "tomcat", "build/tomcat", "scoring/build/tomcat" };
+    for (final String location : possibleLocations) {
+      final File webapp = new File(location
+          + "/webapps"
+          + CONTEXT_PATH);
+      if (webapp.isDirectory()) {
+        return new File(location).getAbsoluteFile();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Start the server and wait for it to start. The listener is notified
+   * before this method returns.
+   */
+  public synchronized void start() {
+    if (null != mTomcat) {
+      throw new IllegalStateException("The server has already been started");
+    }
+
+    try {
+      final long startTime = System.nanoTime();
+      long phaseStart = startTime;
+
+      final Tomcat tomcat = new Tomcat();
+      tomcat.setBaseDir(mTomcatDirectory.getAbsolutePath());
+      tomcat.setPort(PORT);
+      tomcat.getConnector();
+      tomcat.getServer().addLifecycleListener(event -> {
+        if (Lifecycle.AFTER_STOP_EVENT.equals(event.getType())) {
+          mListener.serverStopped();
+        }
+      });
+      mTomcat = tomcat;
+      phaseStart = logPhase("configure", phaseStart);
+
+      final File webappsDirectory = new File(mTomcatDirectory, "webapps");
+      final File rootDirectory = new File(webappsDirectory, "ROOT");
+      if (rootDirectory.isDirectory()) {
+        tomcat.addWebapp("", rootDirectory.getAbsolutePath());
+      }
+      final File webappDirectory = new File(webappsDirectory, CONTEXT_PATH.substring(1));
+      mContext = tomcat.addWebapp(CONTEXT_PATH, webappDirectory.getAbsolutePath());
+      phaseStart = logPhase("deploy", phaseStart);
+
+      final int numPrecompiled = addPrecompiledJsps(mContext, webappDirectory);
+      phaseStart = logPhase("register "
+          + numPrecompiled
+          + " precompiled JSPs", phaseStart);
+
+      tomcat.start();
+      logPhase("start", phaseStart);
+
+      // the database needs to be shutdown cleanly when the JVM exits
+      Runtime.getRuntime().addShutdownHook(mShutdownHook);
+
+      LOGGER.info("Embedded web server started in "
+          + TimeUnit.NANOSECONDS.toMillis(System.nanoTime()
+              - startTime)
+          + "ms");
+
+      final Exception failure = checkStarted();
+      if (null == failure) {
+        mListener.serverReady();
+      } else {
+        stop();
+        mListener.serverFailed(failure);
+      }
+    } catch (final LifecycleException | ServletException | IOException | SAXException e) {
+      LOGGER.error("Unable to start the embedded web server", e);
+      stop();
+      mListener.serverFailed(e);
+    }
+  }
+
+  /**
+   * Tomcat logs failures of the connector and the web application rather
+   * than failing to start, for example when the port is in use, in which
+   * case the server isn't useful.
+   *
+   * @return the reason the server isn't usable or null if it started
+   */
+  @CheckForNull
+  private Exception checkStarted() {
+    if (!mTomcat.getConnector().getState().isAvailable()) {
+      return new FLLRuntimeException("Unable to listen on port "
+          + PORT
+          + ", is another web server running?");
+    } else if (!mContext.getState().isAvailable()) {
+      return new FLLRuntimeException("The web application failed to start, check the logs");
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Stop the server if it is running.
+   */
+  public synchronized void stop() {
+    if (null == mTomcat) {
+      return;
+    }
+
+    try {
+      mTomcat.stop();
+      mTomcat.destroy();
+    } catch (final LifecycleException e) {
+      LOGGER.error("Error stopping the embedded web server", e);
+    }
+    mTomcat = null;
+    mContext = null;
+
+    try {
+      Runtime.getRuntime().removeShutdownHook(mShutdownHook);
+    } catch (final IllegalStateException e) {
+      // already shutting down
+    }
+  }
+
+  /**
+   * @return true if the server has been started and not stopped
+   */
+  public synchronized boolean isRunning() {
+    return null != mTomcat;
+  }
+
+  /**
+   * Register the JSPs compiled by the build so that requests for them go
+   * directly to the compiled classes. JSPs that aren't registered are
+   * compiled on first use as before.
+   *
+   * @return the number of JSPs registered
+   */
+  private static int addPrecompiledJsps(final Context context,
+                                        final File webappDirectory)
+      throws IOException, SAXException {
+    final File classesDirectory = new File(webappDirectory, JSP_CLASSES);
+    final File webXml = new File(webappDirectory, JSP_WEB_XML);
+    if (!classesDirectory.isDirectory()
+        || !webXml.isFile()) {
+      LOGGER.info("No precompiled JSPs found, pages will be compiled on first use");
+      return 0;
+    }
+
+    final WebResourceRoot resources = new StandardRoot(context);
+    resources.addPostResources(new DirResourceSet(resources, "/WEB-INF/classes", classesDirectory.getAbsolutePath(),
+                                                  "/"));
+    context.setResources(resources);
+
+    // the build writes a fragment of web.xml without a root element
+    final String fragment = new String(Files.readAllBytes(webXml.toPath()), StandardCharsets.UTF_8);
+    final Document document = XMLUtils.parseXMLDocument(new StringReader("<jsp-servlets>"
+        + fragment
+        + "</jsp-servlets>"));
+
+    int numServlets = 0;
+    for (final Element servlet : new NodelistElementCollectionAdapter(document.getDocumentElement()
+                                                                              .getElementsByTagName("servlet"))) {
+      Tomcat.addServlet(context, getChildText(servlet, "servlet-name"), getChildText(servlet, "servlet-class"));
+      ++numServlets;
+    }
+    for (final Element mapping : new NodelistElementCollectionAdapter(document.getDocumentElement()
+                                                                              .getElementsByTagName("servlet-mapping"))) {
+      context.addServletMappingDecoded(getChildText(mapping, "url-pattern"), getChildText(mapping, "servlet-name"));
+    }
+    return numServlets;
+  }
+
+  private static String getChildText(final Element element,
+                                     final String childName) {
+    return element.getElementsByTagName(childName).item(0).getTextContent().trim();
+  }
+
+  /**
+   * Log how long a phase of startup took.
+   *
+   * @return the time the next phase starts
+   */
+  private static long logPhase(final String phase,
+                               final long phaseStart) {
+    final long now = System.nanoTime();
+    LOGGER.info("Embedded web server "
+        + phase
+        + ": "
+        + TimeUnit.NANOSECONDS.toMillis(now
+            - phaseStart)
+        + "ms");
+    return now;
+  }
+
+}
@@ -0,0 +1,752 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fll.ScoreStandardization.TooFewScoresException;
+import fll.db.GlobalParameters;
+import fll.db.Queries;
+import fll.db.TournamentParameters;
+import fll.xml.ChallengeDescription;
+import fll.xml.ScoreCategory;
+
+/**
+ * Keeps the summarized scores of a tournament up to date as scores are
+ * written. The count, sum and sum of squares of the scores of each judge and
+ * of the seeding performance scores are kept in memory, so the mean and
+ * standard deviation are updated in constant time when a score changes. Only
+ * the standardized scores of the judge of a changed score and the
+ * FinalScores rows that depend on them are written. The results are the same
+ * as
+ * {@link ScoreStandardization#summarizeTournament(Connection, ChallengeDescription, int)}.
+ * Instances are not thread safe.
+ */
+public final class IncrementalScoreSummary {
+
+  /**
+   * Identifies a subjective score that was written.
+   */
+  public static final class SubjectiveScoreKey {
+    private final String category;
+
+    private final int teamNumber;
+
+    private final String judge;
+
+    /**
+     * @param category the name of the subjective category
+     * @param teamNumber the team that was scored
+     * @param judge the judge that scored the team
+     */
+    public SubjectiveScoreKey(final String category,
+                              final int teamNumber,
+                              final String judge) {
+      this.category = category;
+      this.teamNumber = teamNumber;
+      this.judge = judge;
+    }
+
+    /**
+     * @return the name of the subjective category
+     */
+    public String getCategory() {
+      return category;
+    }
+
+    /**
+     * @return the team that was scored
+     */
+    public int getTeamNumber() {
+      return teamNumber;
+    }
+
+    /**
+     * @return the judge that scored the team
+     */
+    public String getJudge() {
+      return judge;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(category, teamNumber, judge);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (o == this) {
+        return true;
+      } else if (o instanceof SubjectiveScoreKey) {
+        final SubjectiveScoreKey other = (SubjectiveScoreKey) o;
+        return category.equals(other.category)
+            && teamNumber == other.teamNumber && judge.equals(other.judge);
+      } else {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Count, sum and sum of squares of a set of scores.
+   */
+  private static final class RunningStatistics {
+    private int count = 0;
+
+    private double sum = 0;
+
+    private double sumOfSquares = 0;
+
+    public void add(final double value) {
+      ++count;
+      sum += value;
+      sumOfSquares += value
+          * value;
+    }
+
+    public void remove(final double value) {
+      --count;
+      sum -= value;
+      sumOfSquares -= value
+          * value;
+    }
+
+    public int getCount() {
+      return count;
+    }
+
+    public double getMean() {
+      return sum
+          / count;
+    }
+
+    /**
+     * @return the population standard deviation, like stddev_pop in the
+     *         database
+     */
+    public double getStandardDeviation() {
+      final double mean = getMean();
+      return Math.sqrt(Math.max(0, sumOfSquares
+          / count - mean
+              * mean));
+    }
+  }
+
+  /**
+   * The scores of one judge in a subjective category.
+   */
+  private static final class JudgeScores {
+    private final RunningStatistics statistics = new RunningStatistics();
+
+    /**
+     * Team number to total. Teams that weren't scored or were a no show
+     * aren't included.
+     */
+    private final Map<Integer, Double> totals = new HashMap<>();
+  }
+
+  /**
+   * The scores of a subjective category.
+   */
+  private static final class CategoryScores {
+    private final ScoreCategory category;
+
+    private final Map<String, JudgeScores> judges = new HashMap<>();
+
+    /**
+     * Team number to the judges that have a total for the team.
+     */
+    private final Map<Integer, Set<String>> teamJudges = new HashMap<>();
+
+    CategoryScores(final ScoreCategory category) {
+      this.category = category;
+    }
+  }
+
+  private final ChallengeDescription description;
+
+  private final int tournament;
+
+  private final int seedingRounds;
+
+  private final double mean;
+
+  private final double sigma;
+
+  private final Set<Integer> tournamentTeams;
+
+  /**
+   * Team number to the best seeding performance score. The score is null if
+   * none of the team's seeding runs have a total. Like the
+   * performance_seeding_max view, these are the teams that get a row in
+   * FinalScores.
+   */
+  private final Map<Integer, Double> performance = new HashMap<>();
+
+  private final RunningStatistics performanceStatistics = new RunningStatistics();
+
+  private final Map<String, CategoryScores> subjective = new LinkedHashMap<>();
+
+  /**
+   * Number of judges that have exactly one score. Scores can't be
+   * standardized while this is not zero.
+   */
+  private int judgesWithOneScore = 0;
+
+  /**
+   * True when the database matches the scores in memory.
+   */
+  private boolean written = false;
+
+  private IncrementalScoreSummary(final ChallengeDescription description,
+                                  final int tournament,
+                                  final int seedingRounds,
+                                  final double mean,
+                                  final double sigma,
+                                  final Set<Integer> tournamentTeams) {
+    this.description = description;
+    this.tournament = tournament;
+    this.seedingRounds = seedingRounds;
+    this.mean = mean;
+    this.sigma = sigma;
+    this.tournamentTeams = tournamentTeams;
+
+    for (final ScoreCategory category : description.getSubjectiveCategories()) {
+      subjective.put(category.getName(), new CategoryScores(category));
+    }
+  }
+
+  /**
+   * Read all of the scores of a tournament and write the summarized scores
+   * if there are enough scores.
+   *
+   * @param connection connection to the database with write privileges
+   * @param description the challenge description
+   * @param tournament the tournament to summarize, must be the current
+   *          tournament
+   * @return the summary to pass the scores that are written to
+   * @throws SQLException on an error talking to the database
+   */
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines table name")
+  public static IncrementalScoreSummary load(final Connection connection,
+                                             final ChallengeDescription description,
+                                             final int tournament)
+      throws SQLException {
+    synchronized (ScoreStandardization.SUMMARY_LOCK) {
+      final boolean autoCommit = connection.getAutoCommit();
+      boolean committed = false;
+      try {
+        connection.setAutoCommit(false);
+
+        final IncrementalScoreSummary summary = new IncrementalScoreSummary(description, tournament,
+                                                                            TournamentParameters.getNumSeedingRounds(connection,
+                                                                                                                     tournament),
+                                                                            getStandardizedMean(connection),
+                                                                            getStandardizedSigma(connection),
+                                                                            new HashSet<>(Queries.getTournamentTeams(connection,
+                                                                                                                     tournament)
+                                                                                                 .keySet()));
+
+        Queries.updateModifiedScoreTotals(description, connection, tournament);
+
+        try (PreparedStatement prep = connection.prepareStatement("SELECT TeamNumber, MAX(ComputedTotal)" //
+            + " FROM Performance" //
+            + " WHERE Tournament = ? AND RunNumber <= ?" //
+            + " GROUP BY TeamNumber")) {
+          prep.setInt(1, tournament);
+          prep.setInt(2, summary.seedingRounds);
+          try (ResultSet rs = prep.executeQuery()) {
+            while (rs.next()) {
+              final double score = rs.getDouble(2);
+              summary.setPerformance(rs.getInt(1), rs.wasNull() ? null : score);
+            }
+          }
+        }
+
+        for (final CategoryScores category : summary.subjective.values()) {
+          try (PreparedStatement prep = connection.prepareStatement("SELECT TeamNumber, Judge, ComputedTotal" //
+              + " FROM " + category.category.getName() //
+              + " WHERE Tournament = ?" //
+              + " AND ComputedTotal IS NOT NULL AND NoShow = false")) {
+            prep.setInt(1, tournament);
+            try (ResultSet rs = prep.executeQuery()) {
+              while (rs.next()) {
+                summary.setSubjective(category, rs.getInt(1), rs.getString(2), rs.getDouble(3));
+              }
+            }
+          }
+        }
+
+        if (summary.isComplete()) {
+          summary.writeAll(connection);
+        }
+
+        connection.commit();
+        committed = true;
+        return summary;
+      } finally {
+        if (!committed) {
+          connection.rollback();
+        }
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  /**
+   * @param connection connection to the database
+   * @param description the current challenge description
+   * @param tournament the current tournament
+   * @return true if this summary is for the tournament and the parameters
+   *         used to summarize haven't changed
+   * @throws SQLException on an error talking to the database
+   */
+  public boolean isCurrent(final Connection connection,
+                           final ChallengeDescription description,
+                           final int tournament)
+      throws SQLException {
+    return this.description == description
+        && this.tournament == tournament
+        && seedingRounds == TournamentParameters.getNumSeedingRounds(connection, tournament)
+        && Double.compare(mean, getStandardizedMean(connection)) == 0
+        && Double.compare(sigma, getStandardizedSigma(connection)) == 0;
+  }
+
+  /**
+   * @return true if there are enough scores to standardize
+   */
+  public boolean isComplete() {
+    return performanceStatistics.getCount() != 1
+        && 0 == judgesWithOneScore;
+  }
+
+  /**
+   * @throws TooFewScoresException if there aren't enough scores to
+   *           standardize
+   */
+  public void checkComplete() {
+    if (1 == performanceStatistics.getCount()) {
+      throw new TooFewScoresException("Not enough scores for in category: Performance");
+    }
+    if (0 != judgesWithOneScore) {
+      for (final CategoryScores category : subjective.values()) {
+        for (final Map.Entry<String, JudgeScores> entry : category.judges.entrySet()) {
+          if (1 == entry.getValue().statistics.getCount()) {
+            throw new TooFewScoresException("Not enough scores for Judge: "
+                + entry.getKey() + " in category: " + category.category.getName());
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Read the scores that were written and update the summarized scores that
+   * depend on them. Nothing is written while there aren't enough scores to
+   * standardize. If an exception is thrown the summary no longer matches the
+   * database and needs to be loaded again.
+   *
+   * @param connection connection to the database with write privileges
+   * @param performanceTeams the teams that had a performance score written
+   * @param subjectiveScores the subjective scores that were written
+   * @throws SQLException on an error talking to the database
+   */
+  public void update(final Connection connection,
+                     final Collection<Integer> performanceTeams,
+                     final Collection<SubjectiveScoreKey> subjectiveScores)
+      throws SQLException {
+    synchronized (ScoreStandardization.SUMMARY_LOCK) {
+      final boolean autoCommit = connection.getAutoCommit();
+      boolean committed = false;
+      try {
+        connection.setAutoCommit(false);
+
+        final boolean hadPerformance = performanceStatistics.getCount() > 0;
+        final Set<Integer> previousPerformanceTeams = new HashSet<>(performance.keySet());
+        boolean performanceModified = false;
+        for (final int teamNumber : performanceTeams) {
+          performanceModified |= readPerformance(connection, teamNumber);
+        }
+
+        final Map<CategoryScores, Set<String>> modifiedJudges = new HashMap<>();
+        final Set<Integer> modifiedTeams = new HashSet<>();
+        for (final SubjectiveScoreKey key : subjectiveScores) {
+          final CategoryScores category = subjective.get(key.getCategory());
+          if (null != category
+              && readSubjective(connection, category, key.getTeamNumber(), key.getJudge())) {
+            modifiedJudges.computeIfAbsent(category, k -> new HashSet<>()).add(key.getJudge());
+            modifiedTeams.add(key.getTeamNumber());
+          }
+        }
+
+        if (!isComplete()) {
+          // leave the last summary in place until there are enough scores
+          written = false;
+        } else if (!written
+            || hadPerformance != performanceStatistics.getCount() > 0) {
+          writeAll(connection);
+        } else if (performanceModified
+            || !modifiedJudges.isEmpty()) {
+          for (final Map.Entry<CategoryScores, Set<String>> entry : modifiedJudges.entrySet()) {
+            final CategoryScores category = entry.getKey();
+            for (final String judge : entry.getValue()) {
+              writeStandardizedScores(connection, category, judge);
+              modifiedTeams.addAll(category.judges.get(judge).totals.keySet());
+            }
+          }
+
+          final Set<Integer> removedTeams = new HashSet<>(previousPerformanceTeams);
+          removedTeams.removeAll(performance.keySet());
+          deleteFinalScores(connection, removedTeams);
+
+          final Set<Integer> addedTeams = new HashSet<>(performance.keySet());
+          addedTeams.removeAll(previousPerformanceTeams);
+          insertFinalScores(connection, addedTeams);
+
+          if (performanceModified) {
+            // the mean and standard deviation of performance affect every
+            // team
+            writeFinalScores(connection, performance.keySet());
+          } else {
+            modifiedTeams.retainAll(performance.keySet());
+            writeFinalScores(connection, modifiedTeams);
+          }
+
+          recordSummaryUpdated(connection);
+        }
+
+        connection.commit();
+        committed = true;
+      } finally {
+        if (!committed) {
+          connection.rollback();
+        }
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  /**
+   * @return true if the team's best seeding score changed
+   */
+  private boolean readPerformance(final Connection connection,
+                                  final int teamNumber)
+      throws SQLException {
+    try (PreparedStatement prep = connection.prepareStatement("SELECT COUNT(*), MAX(ComputedTotal)" //
+        + " FROM Performance" //
+        + " WHERE Tournament = ? AND TeamNumber = ? AND RunNumber <= ?")) {
+      prep.setInt(1, tournament);
+      prep.setInt(2, teamNumber);
+      prep.setInt(3, seedingRounds);
+      try (ResultSet rs = prep.executeQuery()) {
+        final boolean haveRuns = rs.next()
+            && rs.getInt(1) > 0;
+        final boolean hadRuns = performance.containsKey(teamNumber);
+        final Double previous = performance.get(teamNumber);
+
+        if (hadRuns
+            && null != previous) {
+          performanceStatistics.remove(previous);
+        }
+        performance.remove(teamNumber);
+
+        if (haveRuns) {
+          final double score = rs.getDouble(2);
+          final Double current = rs.wasNull() ? null : score;
+          setPerformance(teamNumber, current);
+          return !hadRuns
+              || !Objects.equals(previous, current);
+        } else {
+          return hadRuns;
+        }
+      }
+    }
+  }
+
+  private void setPerformance(final int teamNumber,
+                              final Double score) {
+    performance.put(teamNumber, score);
+    if (null != score) {
+      performanceStatistics.add(score);
+    }
+  }
+
+  /**
+   * @return true if the total of the score changed
+   */
+  private boolean readSubjective(final Connection connection,
+                                 final CategoryScores category,
+                                 final int teamNumber,
+                                 final String judge)
+      throws SQLException {
+    final Double total = Queries.updateSubjectiveScoreTotal(category.category, connection, tournament, teamNumber,
+                                                            judge);
+
+    final JudgeScores judgeScores = category.judges.get(judge);
+    final Double previous = null == judgeScores ? null : judgeScores.totals.get(teamNumber);
+    if (Objects.equals(previous, total)) {
+      return false;
+    }
+
+    if (null != previous) {
+      final boolean hadOneScore = 1 == judgeScores.statistics.getCount();
+      judgeScores.statistics.remove(previous);
+      judgeScores.totals.remove(teamNumber);
+      category.teamJudges.get(teamNumber).remove(judge);
+      updateJudgesWithOneScore(hadOneScore, judgeScores);
+    }
+    if (null != total) {
+      setSubjective(category, teamNumber, judge, total);
+    }
+    return true;
+  }
+
+  private void setSubjective(final CategoryScores category,
+                             final int teamNumber,
+                             final String judge,
+                             final double total) {
+    final JudgeScores judgeScores = category.judges.computeIfAbsent(judge, k -> new JudgeScores());
+    final boolean hadOneScore = 1 == judgeScores.statistics.getCount();
+    judgeScores.statistics.add(total);
+    judgeScores.totals.put(teamNumber, total);
+    category.teamJudges.computeIfAbsent(teamNumber, k -> new HashSet<>()).add(judge);
+    updateJudgesWithOneScore(hadOneScore, judgeScores);
+  }
+
+  private void updateJudgesWithOneScore(final boolean hadOneScore,
+                                        final JudgeScores judgeScores) {
+    if (hadOneScore) {
+      --judgesWithOneScore;
+    }
+    if (1 == judgeScores.statistics.getCount()) {
+      ++judgesWithOneScore;
+    }
+  }
+
+  private double standardize(final RunningStatistics statistics,
+                             final double score) {
+    return ((score
+        - statistics.getMean())
+        * (sigma
+            / statistics.getStandardDeviation()))
+        + mean;
+  }
+
+  /**
+   * @return the average of the standardized scores of the team in the
+   *         category, null if the team doesn't have any
+   */
+  private Double getCategoryScore(final CategoryScores category,
+                                  final int teamNumber) {
+    final Set<String> judges = category.teamJudges.get(teamNumber);
+    if (null == judges
+        || judges.isEmpty()) {
+      return null;
+    }
+
+    double sum = 0;
+    for (final String judge : judges) {
+      final JudgeScores judgeScores = category.judges.get(judge);
+      sum += standardize(judgeScores.statistics, judgeScores.totals.get(teamNumber));
+    }
+    return sum
+        / judges.size();
+  }
+
+  /**
+   * Write all of the standardized scores and FinalScores rows.
+   */
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines table name")
+  private void writeAll(final Connection connection) throws SQLException {
+    for (final CategoryScores category : subjective.values()) {
+      try (PreparedStatement prep = connection.prepareStatement("UPDATE "
+          + category.category.getName() + " SET StandardizedScore = NULL WHERE Tournament = ?")) {
+        prep.setInt(1, tournament);
+        prep.executeUpdate();
+      }
+      for (final String judge : category.judges.keySet()) {
+        writeStandardizedScores(connection, category, judge);
+      }
+    }
+
+    try (PreparedStatement prep = connection.prepareStatement("DELETE FROM FinalScores WHERE Tournament = ?")) {
+      prep.setInt(1, tournament);
+      prep.executeUpdate();
+    }
+
+    // like summarizeScores, there are no summarized scores without a
+    // performance score
+    if (performanceStatistics.getCount() > 0) {
+      insertFinalScores(connection, performance.keySet());
+      writeFinalScores(connection, performance.keySet());
+    }
+
+    recordSummaryUpdated(connection);
+    written = true;
+  }
+
+  /**
+   * Write the standardized scores of a judge.
+   */
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines table name")
+  private void writeStandardizedScores(final Connection connection,
+                                       final CategoryScores category,
+                                       final String judge)
+      throws SQLException {
+    final RunningStatistics statistics = category.judges.get(judge).statistics;
+    if (0 == statistics.getCount()) {
+      try (PreparedStatement prep = connection.prepareStatement("UPDATE "
+          + category.category.getName() + " SET StandardizedScore = NULL WHERE Judge = ? AND Tournament = ?")) {
+        prep.setString(1, judge);
+        prep.setInt(2, tournament);
+        prep.executeUpdate();
+      }
+    } else {
+      // same formula as ScoreStandardization.standardizeSubjectiveScores
+      try (PreparedStatement prep = connection.prepareStatement("UPDATE "
+          + category.category.getName() + " SET StandardizedScore = ((ComputedTotal - ?) * ? ) + ?"
+          + " WHERE Judge = ? AND Tournament = ?")) {
+        prep.setDouble(1, statistics.getMean());
+        prep.setDouble(2, sigma
+            / statistics.getStandardDeviation());
+        prep.setDouble(3, mean);
+        prep.setString(4, judge);
+        prep.setInt(5, tournament);
+        prep.executeUpdate();
+      }
+    }
+  }
+
+  private void deleteFinalScores(final Connection connection,
+                                 final Collection<Integer> teams)
+      throws SQLException {
+    if (teams.isEmpty()) {
+      return;
+    }
+
+    try (PreparedStatement prep = connection.prepareStatement("DELETE FROM FinalScores WHERE Tournament = ? AND TeamNumber = ?")) {
+      prep.setInt(1, tournament);
+      for (final int teamNumber : teams) {
+        prep.setInt(2, teamNumber);
+        prep.addBatch();
+      }
+      prep.executeBatch();
+    }
+  }
+
+  /**
+   * Add empty FinalScores rows, filled in by
+   * {@link #writeFinalScores(Connection, Collection)}.
+   */
+  private void insertFinalScores(final Connection connection,
+                                 final Collection<Integer> teams)
+      throws SQLException {
+    if (teams.isEmpty()) {
+      return;
+    }
+
+    try (PreparedStatement prep = connection.prepareStatement("INSERT INTO FinalScores (TeamNumber, Tournament) VALUES(?, ?)")) {
+      prep.setInt(2, tournament);
+      for (final int teamNumber : teams) {
+        prep.setInt(1, teamNumber);
+        prep.addBatch();
+      }
+      prep.executeBatch();
+    }
+  }
+
+  /**
+   * Write the summarized scores and overall score of the teams. The overall
+   * score is computed like
+   * {@link ScoreStandardization#updateTeamTotalScores(Connection, ChallengeDescription, int)}.
+   */
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines column name")
+  private void writeFinalScores(final Connection connection,
+                                final Collection<Integer> teams)
+      throws SQLException {
+    if (teams.isEmpty()) {
+      return;
+    }
+
+    final StringBuilder sql = new StringBuilder();
+    sql.append("UPDATE FinalScores SET performance = ?");
+    for (final CategoryScores category : subjective.values()) {
+      sql.append(", "
+          + category.category.getName() + " = ?");
+    }
+    sql.append(", OverallScore = ? WHERE Tournament = ? AND TeamNumber = ?");
+
+    final double performanceWeight = description.getPerformance().getWeight();
+    try (PreparedStatement prep = connection.prepareStatement(sql.toString())) {
+      for (final int teamNumber : teams) {
+        double overallScore = 0;
+        int column = 1;
+
+        final Double performanceScore = performance.get(teamNumber);
+        if (null == performanceScore) {
+          prep.setNull(column, Types.DOUBLE);
+        } else {
+          final double standardized = standardize(performanceStatistics, performanceScore);
+          prep.setDouble(column, standardized);
+          overallScore += standardized
+              * performanceWeight;
+        }
+        ++column;
+
+        for (final CategoryScores category : subjective.values()) {
+          final Double categoryScore = getCategoryScore(category, teamNumber);
+          if (null == categoryScore) {
+            prep.setNull(column, Types.DOUBLE);
+          } else {
+            prep.setDouble(column, categoryScore);
+            overallScore += categoryScore
+                * category.category.getWeight();
+          }
+          ++column;
+        }
+
+        if (tournamentTeams.contains(teamNumber)) {
+          prep.setDouble(column, overallScore);
+        } else {
+          prep.setNull(column, Types.DOUBLE);
+        }
+        ++column;
+
+        prep.setInt(column, tournament);
+        ++column;
+        prep.setInt(column, teamNumber);
+        prep.addBatch();
+      }
+      prep.executeBatch();
+    }
+  }
+
+  private void recordSummaryUpdated(final Connection connection) throws SQLException {
+    Tournament.findTournamentByID(connection, tournament).recordScoreSummariesUpdated(connection);
+  }
+
+  private static double getStandardizedMean(final Connection connection) throws SQLException {
+    return GlobalParameters.getDoubleGlobalParameter(connection, GlobalParameters.STANDARDIZED_MEAN);
+  }
+
+  private static double getStandardizedSigma(final Connection connection) throws SQLException {
+    return GlobalParameters.getDoubleGlobalParameter(connection, GlobalParameters.STANDARDIZED_SIGMA);
+  }
+
+}
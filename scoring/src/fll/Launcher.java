@@ -28,6 +28,7 @@ import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.WindowConstants;
@@ -72,9 +73,8 @@ public class Launcher extends JFrame {
       final Launcher frame = new Launcher();
       frame.addWindowListener(new WindowAdapter() {
         @Override
-        @SuppressFBWarnings(value = { "DM_EXIT" }, justification = "Exiting from main is OK")
         public void windowClosing(final WindowEvent e) {
-          System.exit(0);
+          frame.exit();
         }
 
         @Override
@@ -114,9 +114,19 @@ public class Launcher extends JFrame {
 
   private static final Color OFFLINE_COLOR = Color.RED;
 
+  /**
+   * Set this system property to true to run the web server with the tomcat
+   * scripts rather than in the launcher's JVM.
+   */
+  public static final String EXTERNAL_WEBSERVER_PROPERTY = "fll.webserver.external";
+
+  private final boolean mExternalWebserver = Boolean.getBoolean(EXTERNAL_WEBSERVER_PROPERTY);
+
   public Launcher() {
     super();
-    setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+    // closing goes through exit() so that stopping the web server can be
+    // confirmed
+    setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
 
     final Container cpane = getContentPane();
     cpane.setLayout(new BorderLayout());
@@ -170,13 +180,32 @@ public class Launcher extends JFrame {
 
     final JButton exit = new JButton("Exit");
     exit.addActionListener(ae -> {
-      setVisible(false);
+      exit();
     });
     cpane.add(exit, BorderLayout.SOUTH);
 
     pack();
 
-    startWebserverMonitor();
+    if (mExternalWebserver) {
+      startWebserverMonitor();
+    }
+  }
+
+  /**
+   * Hide the launcher, which exits the program. If the web server is running
+   * in this JVM, exiting stops it for every computer using it, so ask first.
+   */
+  private void exit() {
+    if (null != embeddedServer) {
+      final int result = JOptionPane.showConfirmDialog(this,
+                                                       "The web server is running inside this program. Exiting will stop the web server and scoring will be unavailable on all computers.\nExit anyway?",
+                                                       "Stop the web server?", JOptionPane.YES_NO_OPTION,
+                                                       JOptionPane.WARNING_MESSAGE);
+      if (JOptionPane.YES_OPTION != result) {
+        return;
+      }
+    }
+    setVisible(false);
   }
 
   private void startWebserverMonitor() {
@@ -198,6 +227,13 @@ public class Launcher extends JFrame {
         LOGGER.trace("Error checking web server, probably down", ex);
       }
     }
+    setServerOnline(newServerOnline);
+  }
+
+  /**
+   * Update the status label if the state of the server changed.
+   */
+  private void setServerOnline(final boolean newServerOnline) {
     if (newServerOnline != mServerOnline) {
       // change detected
       mServerOnline = newServerOnline;
@@ -290,6 +326,78 @@ public class Launcher extends JFrame {
   private transient Thread webserverThread = null;
 
   private void controlWebserver(final boolean start) {
+    if (mExternalWebserver) {
+      controlExternalWebserver(start);
+    } else {
+      controlEmbeddedWebserver(start);
+    }
+  }
+
+  private transient EmbeddedServer embeddedServer = null;
+
+  /**
+   * Start or stop the web server in this JVM. The status label is updated by
+   * the server's listener, so there is no need to poll the server.
+   */
+  private void controlEmbeddedWebserver(final boolean start) {
+    if (start) {
+      if (null != embeddedServer) {
+        JOptionPane.showMessageDialog(this, "Webserver has already been told to start");
+        return;
+      }
+
+      final File tomcatDirectory = EmbeddedServer.findTomcatDirectory();
+      if (null == tomcatDirectory) {
+        JOptionPane.showMessageDialog(this, "Cannot find the web application, unable to start the web server.",
+                                      "Error", JOptionPane.ERROR_MESSAGE);
+        return;
+      }
+
+      final EmbeddedServer server = new EmbeddedServer(tomcatDirectory, new EmbeddedServer.Listener() {
+        @Override
+        public void serverReady() {
+          SwingUtilities.invokeLater(() -> {
+            setServerOnline(true);
+            loadFllHtml();
+          });
+        }
+
+        @Override
+        public void serverStopped() {
+          SwingUtilities.invokeLater(() -> {
+            setServerOnline(false);
+          });
+        }
+
+        @Override
+        public void serverFailed(final Exception e) {
+          SwingUtilities.invokeLater(() -> {
+            embeddedServer = null;
+            JOptionPane.showMessageDialog(Launcher.this, "Unable to start the web server: "
+                + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+          });
+        }
+      });
+      embeddedServer = server;
+
+      final Thread thread = new Thread(() -> {
+        server.start();
+      }, "Embedded web server startup");
+      thread.setDaemon(true);
+      thread.start();
+    } else if (null != embeddedServer) {
+      final EmbeddedServer server = embeddedServer;
+      embeddedServer = null;
+
+      final Thread thread = new Thread(() -> {
+        server.stop();
+      }, "Embedded web server shutdown");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  private void controlExternalWebserver(final boolean start) {
     if (start
         && null != webserverThread) {
       JOptionPane.showMessageDialog(this, "Webserver has already been told to start");
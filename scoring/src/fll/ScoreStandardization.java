@@ -11,8 +11,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.ParseException;
-import java.util.Collection;
-import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 
 import net.mtu.eggplant.util.sql.SQLFunctions;
@@ -33,6 +32,71 @@ public final class ScoreStandardization {
     // no instances
   }
 
+  /**
+   * Thrown when there aren't enough scores to standardize yet. This is
+   * expected until each judge has scored more than one team.
+   */
+  public static class TooFewScoresException extends FLLRuntimeException {
+    /**
+     * @param message which scores are missing
+     */
+    public TooFewScoresException(final String message) {
+      super(message);
+    }
+  }
+
+  /**
+   * Held while the summarized scores are being written so that summaries
+   * computed in the background and from the web pages don't interleave.
+   */
+  /* package */ static final Object SUMMARY_LOCK = new Object();
+
+  /**
+   * Compute the score totals that may have changed, standardize the scores and
+   * store the summarized scores in FinalScores. This is done in a single
+   * transaction so that FinalScores is left unchanged if there aren't enough
+   * scores yet.
+   * 
+   * @param connection connection to the database with delete and insert
+   *          privileges
+   * @param tournament which tournament to summarize scores for, must be the
+   *          current tournament
+   * @throws SQLException on an error talking to the database
+   * @throws ParseException on an error reading the team information
+   * @throws TooFewScoresException if there aren't enough scores to
+   *           standardize
+   * @see Queries#updateModifiedScoreTotals(ChallengeDescription, Connection,
+   *      int)
+   * @see #standardizeSubjectiveScores(Connection, ChallengeDescription, int)
+   * @see #summarizeScores(Connection, ChallengeDescription, int)
+   * @see #updateTeamTotalScores(Connection, ChallengeDescription, int)
+   */
+  public static void summarizeTournament(final Connection connection,
+                                         final ChallengeDescription description,
+                                         final int tournament)
+      throws SQLException, ParseException {
+    synchronized (SUMMARY_LOCK) {
+      final boolean autoCommit = connection.getAutoCommit();
+      boolean committed = false;
+      try {
+        connection.setAutoCommit(false);
+
+        Queries.updateModifiedScoreTotals(description, connection, tournament);
+        standardizeSubjectiveScores(connection, description, tournament);
+        summarizeScores(connection, description, tournament);
+        updateTeamTotalScores(connection, description, tournament);
+
+        connection.commit();
+        committed = true;
+      } finally {
+        if (!committed) {
+          connection.rollback();
+        }
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
   /**
    * Summarize the scores for the given tournament. This puts the standardized
    * scores in the FinalScores table to be weighted and then summed.
@@ -50,6 +114,17 @@ public final class ScoreStandardization {
       throw new FLLRuntimeException("Cannot compute summarized scores for a tournament other than the current tournament");
     }
 
+    synchronized (SUMMARY_LOCK) {
+      internalSummarizeScores(connection, description, tournament);
+    }
+  }
+
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Can't use variable param for column to set")
+  private static void internalSummarizeScores(final Connection connection,
+                                              final ChallengeDescription description,
+                                              final int tournament)
+      throws SQLException {
+
     Statement stmt = null;
     PreparedStatement deletePrep = null;
     PreparedStatement insertPrep = null;
@@ -95,7 +170,7 @@ public final class ScoreStandardization {
               / sgStdev);
           insertPrep.executeUpdate();
         } else {
-          throw new RuntimeException("Not enough scores for in category: Performance");
+          throw new TooFewScoresException("Not enough scores for in category: Performance");
         }
 
         // subjective
@@ -120,7 +195,7 @@ public final class ScoreStandardization {
         }
 
       } else {
-        throw new RuntimeException("No performance scores for standardization");
+        throw new TooFewScoresException("No performance scores for standardization");
       }
       SQLFunctions.close(rs);
 
@@ -149,6 +224,16 @@ public final class ScoreStandardization {
                                                  final ChallengeDescription description,
                                                  final int tournament)
       throws SQLException {
+    synchronized (SUMMARY_LOCK) {
+      internalStandardizeSubjectiveScores(connection, description, tournament);
+    }
+  }
+
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Can't use variable for column name in update")
+  private static void internalStandardizeSubjectiveScores(final Connection connection,
+                                                          final ChallengeDescription description,
+                                                          final int tournament)
+      throws SQLException {
     ResultSet rs = null;
     PreparedStatement updatePrep = null;
     PreparedStatement selectPrep = null;
@@ -188,6 +273,7 @@ public final class ScoreStandardization {
             + " and ComputedTotal IS NOT NULL AND NoShow = false GROUP BY Judge");
         selectPrep.setInt(1, tournament);
         rs = selectPrep.executeQuery();
+        boolean haveUpdates = false;
         while (rs.next()) {
           final String judge = rs.getString(1);
           final int sgCount = rs.getInt(3);
@@ -198,13 +284,19 @@ public final class ScoreStandardization {
             updatePrep.setDouble(2, sigma
                 / sgStdev);
             updatePrep.setString(4, judge);
-            updatePrep.executeUpdate();
+            updatePrep.addBatch();
+            haveUpdates = true;
           } else { // if(sgCount == 1) {
-            throw new RuntimeException("Not enough scores for Judge: "
+            throw new TooFewScoresException("Not enough scores for Judge: "
                 + judge + " in category: " + category);
           } // ignore 0 in a judging group
         }
+        if (haveUpdates) {
+          updatePrep.executeBatch();
+        }
         SQLFunctions.close(rs);
+        SQLFunctions.close(selectPrep);
+        SQLFunctions.close(updatePrep);
 
       }
 
@@ -218,7 +310,8 @@ public final class ScoreStandardization {
 
   /**
    * Updates FinalScores with the sum of the the scores times the weights for
-   * the given tournament.
+   * the given tournament. The summarized scores are read in one query and
+   * the totals are computed in memory.
    * 
    * @param connection database connection
    * @param tournament the tournament to add scores for
@@ -233,71 +326,62 @@ public final class ScoreStandardization {
 
     final Tournament currentTournament = Tournament.findTournamentByID(connection, tournament);
 
-    PreparedStatement update = null;
-    ResultSet rs = null;
-    PreparedStatement perfSelect = null;
-    final Collection<PreparedStatement> subjectiveSelects = new LinkedList<PreparedStatement>();
-    try {
-      for (final ScoreCategory catElement : description.getSubjectiveCategories()) {
-        final String catName = catElement.getName();
-        final double catWeight = catElement.getWeight();
-        final PreparedStatement prep = connection.prepareStatement("SELECT "
-            + catName + " * " + catWeight + " FROM FinalScores WHERE Tournament = ? AND TeamNumber = ?");
-        prep.setInt(1, tournament);
-        subjectiveSelects.add(prep);
-      }
+    final PerformanceScoreCategory performanceElement = description.getPerformance();
+    final List<ScoreCategory> subjectiveCategories = description.getSubjectiveCategories();
 
-      final PerformanceScoreCategory performanceElement = description.getPerformance();
-      final double performanceWeight = performanceElement.getWeight();
-      perfSelect = connection.prepareStatement("SELECT performance * "
-          + performanceWeight + " FROM FinalScores WHERE Tournament = ? AND TeamNumber = ?");
-      perfSelect.setInt(1, tournament);
-
-      update = connection.prepareStatement("UPDATE FinalScores SET OverallScore = ? WHERE Tournament = ? AND TeamNumber = ?");
-      update.setInt(2, tournament);
-
-      // compute scores for all teams treating NULL as 0
-      for (final int teamNumber : tournamentTeams.keySet()) {
-        double overallScore = 0;
-
-        perfSelect.setInt(2, teamNumber);
-        rs = perfSelect.executeQuery();
-        if (rs.next()) {
-          final double score = rs.getDouble(1);
-          if (!rs.wasNull()) {
-            overallScore += score;
-          }
-        }
-        SQLFunctions.close(rs);
-        rs = null;
+    final StringBuilder select = new StringBuilder();
+    select.append("SELECT TeamNumber, performance");
+    for (final ScoreCategory catElement : subjectiveCategories) {
+      select.append(", "
+          + catElement.getName());
+    }
+    select.append(" FROM FinalScores WHERE Tournament = ?");
 
-        for (final PreparedStatement prep : subjectiveSelects) {
-          prep.setInt(2, teamNumber);
-          rs = prep.executeQuery();
-          if (rs.next()) {
-            final double value = rs.getDouble(1);
+    synchronized (SUMMARY_LOCK) {
+      try (PreparedStatement selectPrep = connection.prepareStatement(select.toString());
+          PreparedStatement update = connection.prepareStatement("UPDATE FinalScores SET OverallScore = ? WHERE Tournament = ? AND TeamNumber = ?")) {
+        selectPrep.setInt(1, tournament);
+        update.setInt(2, tournament);
+
+        // compute scores for all teams treating NULL as 0
+        boolean haveUpdates = false;
+        try (ResultSet rs = selectPrep.executeQuery()) {
+          while (rs.next()) {
+            final int teamNumber = rs.getInt(1);
+            if (!tournamentTeams.containsKey(teamNumber)) {
+              continue;
+            }
+
+            double overallScore = 0;
+
+            final double performance = rs.getDouble(2);
             if (!rs.wasNull()) {
-              overallScore += value;
+              overallScore += performance
+                  * performanceElement.getWeight();
             }
+
+            int column = 3;
+            for (final ScoreCategory catElement : subjectiveCategories) {
+              final double value = rs.getDouble(column);
+              if (!rs.wasNull()) {
+                overallScore += value
+                    * catElement.getWeight();
+              }
+              ++column;
+            }
+
+            update.setDouble(1, overallScore);
+            update.setInt(3, teamNumber);
+            update.addBatch();
+            haveUpdates = true;
           }
-          SQLFunctions.close(rs);
-          rs = null;
         }
-
-        update.setDouble(1, overallScore);
-        update.setInt(3, teamNumber);
-        update.executeUpdate();
+        if (haveUpdates) {
+          update.executeBatch();
+        }
       }
 
       currentTournament.recordScoreSummariesUpdated(connection);
-
-    } finally {
-      SQLFunctions.close(rs);
-      SQLFunctions.close(update);
-      SQLFunctions.close(perfSelect);
-      for (final PreparedStatement prep : subjectiveSelects) {
-        SQLFunctions.close(prep);
-      }
     }
   }
 
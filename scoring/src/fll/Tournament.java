@@ -21,6 +21,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import fll.db.GenerateDB;
+import fll.db.ParameterCache;
 import fll.util.LogUtils;
 import fll.xml.ChallengeDescription;
 import fll.xml.ScoreCategory;
@@ -305,6 +306,27 @@ public final class Tournament implements Serializable {
     }
   }
 
+  /**
+   * Note that the summarized scores need to be computed from scratch for this
+   * tournament, for instance because the way the scores are computed changed.
+   * 
+   * @throws SQLException
+   * @see fll.db.Queries#updateModifiedScoreTotals(fll.xml.ChallengeDescription,
+   *      Connection, int)
+   */
+  public void clearScoreSummariesUpdated(final Connection connection) throws SQLException {
+    PreparedStatement prep = null;
+    try {
+      prep = connection.prepareStatement("UPDATE Tournaments" //
+          + " SET summary_computed = NULL" //
+          + " WHERE tournament_id = ?");
+      prep.setInt(1, getTournamentID());
+      prep.executeUpdate();
+    } finally {
+      SQLFunctions.close(prep);
+    }
+  }
+
   /**
    * Check if there are scores in the specified table for this tournament.
    * 
@@ -406,6 +428,7 @@ public final class Tournament implements Serializable {
       deleteTournamentParameters = connection.prepareStatement("DELETE FROM tournament_parameters WHERE tournament = ?");
       deleteTournamentParameters.setInt(1, tournamentID);
       deleteTournamentParameters.executeUpdate();
+      ParameterCache.clear();
 
       deleteTournamentTeams = connection.prepareStatement("DELETE FROM TournamentTeams WHERE tournament = ?");
       deleteTournamentTeams.setInt(1, tournamentID);
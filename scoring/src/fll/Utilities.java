@@ -85,6 +85,12 @@ public final class Utilities {
   private Utilities() {
   }
 
+  /**
+   * Number of rows to insert at once in
+   * {@link #loadCSVFile(Connection, String, Map, Reader)}.
+   */
+  private static final int CSV_LOAD_BATCH_SIZE = 500;
+
   /**
    * Load a CSV file into an SQL table. Assumes that the first line in the CSV
    * file specifies the column names. This method is meant as the inverse of
@@ -95,7 +101,8 @@ public final class Utilities {
    * @param connection the database connection to create the table within
    * @param tablename name of the table to create
    * @param reader where to read the data from, a {@link CSVReader} will be
-   *          created from this
+   *          created from this, the rows are read and inserted in batches
+   *          and the reader is not closed
    * @throws SQLException if there is an error putting data in the database
    * @throws IOException if there is an error reading the data
    * @throws RuntimeException if the first line cannot be read
@@ -164,12 +171,22 @@ public final class Utilities {
 
       // load each line into a row in the table
       prep = connection.prepareStatement(insertPrepSQL.append(valuesSQL).toString());
+      int batchSize = 0;
       while (null != (line = csvreader.readNext())) {
         for (int columnIndex = 0; columnIndex < line.length; ++columnIndex) {
           coerceData(line[columnIndex], columnTypes[columnIndex], prep, columnIndex
               + 1);
         }
-        prep.executeUpdate();
+        prep.addBatch();
+
+        ++batchSize;
+        if (batchSize >= CSV_LOAD_BATCH_SIZE) {
+          prep.executeBatch();
+          batchSize = 0;
+        }
+      }
+      if (batchSize > 0) {
+        prep.executeBatch();
       }
 
     } finally {
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and miss counts for the caches in this package. Safe to use from any
+ * thread.
+ */
+/* package */ final class CacheStatistics {
+
+  private final AtomicLong hits = new AtomicLong();
+
+  private final AtomicLong misses = new AtomicLong();
+
+  /**
+   * Record a lookup that was answered from the cache.
+   */
+  public void hit() {
+    hits.incrementAndGet();
+  }
+
+  /**
+   * Record a lookup that needed the database.
+   */
+  public void miss() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * @return the number of lookups answered from the cache
+   */
+  public long getNumHits() {
+    return hits.get();
+  }
+
+  /**
+   * @return the number of lookups that needed the database
+   */
+  public long getNumMisses() {
+    return misses.get();
+  }
+
+  /**
+   * @return hits, misses and the hit rate
+   */
+  @Override
+  public String toString() {
+    final long numHits = getNumHits();
+    final long numMisses = getNumMisses();
+    final long total = numHits
+        + numMisses;
+    return String.format("hits: %d misses: %d hit rate: %d%%", numHits, numMisses, 0 == total ? 0
+        : numHits
+            * 100
+            / total);
+  }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.w3c.dom.Document;
+
+import fll.Utilities;
+import fll.util.FLLInternalException;
+import fll.util.FLLRuntimeException;
+import fll.util.LogUtils;
+import fll.xml.ChallengeDescription;
+import fll.xml.ChallengeParser;
+import net.mtu.eggplant.io.IOUtils;
+import net.mtu.eggplant.util.sql.SQLFunctions;
+
+/**
+ * Parsed challenge documents for each database, so that the XML isn't read
+ * and parsed for every request.
+ * Each entry is stamped with the version of the cache at the time it was
+ * checked. Writing the challenge document increments the version, after which
+ * the stored document for each database is read once more and only parsed
+ * again if its content hash changed.
+ */
+/* package */ final class ChallengeDescriptionCache {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private ChallengeDescriptionCache() {
+  }
+
+  private static final Object LOCK = new Object();
+
+  /**
+   * Maximum number of databases to keep descriptions for. Imports create a
+   * new in-memory database each time, so the least recently used entries are
+   * dropped.
+   */
+  private static final int MAX_ENTRIES = 10;
+
+  /**
+   * database URL -> cached description, in access order. Protected by
+   * {@link #LOCK}.
+   */
+  private static final Map<String, CachedDescription> CACHE = new LinkedHashMap<String, CachedDescription>(16, 0.75f,
+                                                                                                            true) {
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String, CachedDescription> eldest) {
+      return size() > MAX_ENTRIES;
+    }
+  };
+
+  /**
+   * Protected by {@link #LOCK}.
+   */
+  private static long version = 0;
+
+  /**
+   * Called whenever {@link GlobalParameters#CHALLENGE_DOCUMENT} is written.
+   */
+  public static void invalidate() {
+    synchronized (LOCK) {
+      ++version;
+    }
+  }
+
+  /**
+   * Forget the description of a database. Call before the database is shut
+   * down.
+   *
+   * @param connection the database
+   * @throws SQLException on a database error
+   */
+  public static void remove(final Connection connection) throws SQLException {
+    final String key = connection.getMetaData().getURL();
+    synchronized (LOCK) {
+      CACHE.remove(key);
+    }
+  }
+
+  /**
+   * @param connection the database to read from
+   * @return the challenge description stored in the database, shared and
+   *         must not be modified
+   * @throws SQLException on a database error
+   * @throws FLLRuntimeException if the document cannot be found
+   */
+  public static ChallengeDescription getChallengeDescription(final Connection connection) throws SQLException {
+    return getCached(connection).description;
+  }
+
+  /**
+   * @param connection the database to read from
+   * @return the challenge document stored in the database, a new copy that
+   *         the caller may modify
+   * @throws SQLException on a database error
+   * @throws FLLRuntimeException if the document cannot be found
+   */
+  public static Document getChallengeDocument(final Connection connection) throws SQLException {
+    final Document document = getCached(connection).document;
+    // cloning reads the shared document, which isn't thread-safe
+    synchronized (document) {
+      return (Document) document.cloneNode(true);
+    }
+  }
+
+  private static CachedDescription getCached(final Connection connection) throws SQLException {
+    final String key = connection.getMetaData().getURL();
+
+    final CachedDescription existing;
+    final long currentVersion;
+    synchronized (LOCK) {
+      existing = CACHE.get(key);
+      currentVersion = version;
+    }
+    if (null != existing
+        && existing.version == currentVersion) {
+      return existing;
+    }
+
+    final String content = readChallengeDocument(connection);
+    final byte[] hash = computeHash(content);
+
+    final CachedDescription cached;
+    if (null != existing
+        && Arrays.equals(existing.hash, hash)) {
+      cached = new CachedDescription(currentVersion, hash, existing.document, existing.description);
+    } else {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Parsing challenge document for "
+            + key);
+      }
+      final Document document = ChallengeParser.parse(new StringReader(content));
+      cached = new CachedDescription(currentVersion, hash, document,
+                                     new ChallengeDescription(document.getDocumentElement()));
+    }
+
+    synchronized (LOCK) {
+      // don't replace something newer
+      final CachedDescription current = CACHE.get(key);
+      if (null == current
+          || current.version <= currentVersion) {
+        CACHE.put(key, cached);
+      }
+    }
+    return cached;
+  }
+
+  private static String readChallengeDocument(final Connection connection) throws SQLException {
+    PreparedStatement prep = null;
+    ResultSet rs = null;
+    try {
+      prep = GlobalParameters.getGlobalParameterStmt(connection, GlobalParameters.CHALLENGE_DOCUMENT);
+      rs = prep.executeQuery();
+      if (rs.next()) {
+        return IOUtils.readIntoString(new InputStreamReader(rs.getAsciiStream(1), Utilities.DEFAULT_CHARSET));
+      } else {
+        throw new FLLRuntimeException("Could not find challenge document in database");
+      }
+    } catch (final IOException e) {
+      throw new FLLRuntimeException("Error reading challenge document from the database", e);
+    } finally {
+      SQLFunctions.close(rs);
+      SQLFunctions.close(prep);
+    }
+  }
+
+  private static byte[] computeHash(final String content) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return digest.digest(content.getBytes(StandardCharsets.UTF_8));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new FLLInternalException("SHA-256 is not available", e);
+    }
+  }
+
+  private static final class CachedDescription {
+    CachedDescription(final long version,
+                      final byte[] hash,
+                      final Document document,
+                      final ChallengeDescription description) {
+      this.version = version;
+      this.hash = hash;
+      this.document = document;
+      this.description = description;
+    }
+
+    private final long version;
+
+    private final byte[] hash;
+
+    private final Document document;
+
+    private final ChallengeDescription description;
+  }
+
+}
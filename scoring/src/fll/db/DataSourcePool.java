@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tomcat.jdbc.pool.ConnectionPool;
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.JdbcInterceptor;
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.apache.tomcat.jdbc.pool.PooledConnection;
+
+/**
+ * Creates the connection pool that the web application uses for the
+ * tournament database. The pool is the Tomcat JDBC pool wrapped around the
+ * HSQLDB datasource.
+ */
+public final class DataSourcePool {
+
+  /**
+   * Maximum number of connections handed out at once.
+   */
+  public static final int MAX_ACTIVE = 20;
+
+  /**
+   * How long to wait for a connection to be returned.
+   */
+  public static final int MAX_WAIT_MILLIS = (int) TimeUnit.SECONDS.toMillis(30);
+
+  /**
+   * A connection that hasn't been used for this long is considered to be
+   * leaked and is closed by the pool. Each statement executed on the
+   * connection restarts the timer, so long imports aren't affected.
+   */
+  public static final int ABANDONED_TIMEOUT_SECONDS = (int) TimeUnit.MINUTES.toSeconds(5);
+
+  /**
+   * Maximum number of prepared statements cached across all connections.
+   */
+  public static final int STATEMENT_CACHE_SIZE = 200;
+
+  private DataSourcePool() {
+  }
+
+  /**
+   * Create a pool with the default settings.
+   *
+   * @param realDataSource where the connections come from
+   * @return the pool, close it when the database is shutdown
+   * @see #createPool(javax.sql.DataSource, int, int)
+   */
+  public static DataSource createPool(final javax.sql.DataSource realDataSource) {
+    return createPool(realDataSource, MAX_ACTIVE, MAX_WAIT_MILLIS);
+  }
+
+  /**
+   * Create a pool. Connections are rolled back and have auto commit turned
+   * back on when they are returned, and read only and the transaction
+   * isolation are reset before they are handed out again. Prepared
+   * statements are cached and connections that are never closed are
+   * reclaimed after {@link #ABANDONED_TIMEOUT_SECONDS}.
+   *
+   * @param realDataSource where the connections come from
+   * @param maxActive the maximum number of connections handed out at once
+   * @param maxWaitMillis how long to wait for a connection when all are in
+   *          use
+   * @return the pool, close it when the database is shutdown
+   */
+  public static DataSource createPool(final javax.sql.DataSource realDataSource,
+                                      final int maxActive,
+                                      final int maxWaitMillis) {
+    final PoolProperties properties = new PoolProperties();
+    properties.setDataSource(realDataSource);
+    properties.setJmxEnabled(false);
+
+    properties.setMaxActive(maxActive);
+    properties.setMaxIdle(maxActive);
+    properties.setInitialSize(0);
+    properties.setMinIdle(0);
+    properties.setMaxWait(maxWaitMillis);
+    properties.setMinEvictableIdleTimeMillis((int) TimeUnit.MINUTES.toMillis(5));
+
+    properties.setRemoveAbandoned(true);
+    properties.setRemoveAbandonedTimeout(ABANDONED_TIMEOUT_SECONDS);
+    properties.setLogAbandoned(true);
+
+    // ConnectionState puts these back when a connection is borrowed. Auto
+    // commit is left to RollbackOnClose so that an open transaction is rolled
+    // back rather than committed.
+    properties.setDefaultReadOnly(false);
+    properties.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+
+    properties.setJdbcInterceptors(RollbackOnClose.class.getName()
+        + ";org.apache.tomcat.jdbc.pool.interceptor.ConnectionState;"
+        + "org.apache.tomcat.jdbc.pool.interceptor.ResetAbandonedTimer;"
+        + "org.apache.tomcat.jdbc.pool.interceptor.StatementCache(prepared=true,callable=false,max="
+        + STATEMENT_CACHE_SIZE + ")");
+
+    return new TimedDataSource(properties);
+  }
+
+  /**
+   * Pool that keeps track of how long callers wait for a connection.
+   */
+  public static final class TimedDataSource extends DataSource {
+    private final AtomicLong numBorrows = new AtomicLong();
+
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /**
+     * @param properties the pool configuration
+     */
+    public TimedDataSource(final PoolConfiguration properties) {
+      super(properties);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      final long start = System.nanoTime();
+      try {
+        return super.getConnection();
+      } finally {
+        // include waits that time out
+        final long waitNanos = System.nanoTime()
+            - start;
+        numBorrows.incrementAndGet();
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+      }
+    }
+
+    /**
+     * @return the number of calls to {@link #getConnection()}
+     */
+    public long getNumBorrows() {
+      return numBorrows.get();
+    }
+
+    /**
+     * @return the average time spent in {@link #getConnection()}
+     */
+    public long getAverageWaitMillis() {
+      final long borrows = numBorrows.get();
+      return 0 == borrows ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get()
+          / borrows);
+    }
+
+    /**
+     * @return the longest time spent in {@link #getConnection()}
+     */
+    public long getMaxWaitMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+  }
+
+  /**
+   * Rolls back an open transaction and turns auto commit back on when a
+   * connection is returned to the pool, so the next user of the connection
+   * doesn't commit it. The pool only does this itself when the default auto
+   * commit is false.
+   */
+  public static final class RollbackOnClose extends JdbcInterceptor {
+    private PooledConnection pooledConnection = null;
+
+    @Override
+    public void reset(final ConnectionPool parent,
+                      final PooledConnection con) {
+      pooledConnection = con;
+    }
+
+    @Override
+    public Object invoke(final Object proxy,
+                         final Method method,
+                         final Object[] args)
+        throws Throwable {
+      if (compare(CLOSE_VAL, method)
+          && null != pooledConnection
+          && null != pooledConnection.getConnection()) {
+        // go through the proxy so that ConnectionState sees the change
+        final Connection connection = (Connection) proxy;
+        if (!connection.getAutoCommit()) {
+          connection.rollback();
+          connection.setAutoCommit(true);
+        }
+      }
+      return super.invoke(proxy, method, args);
+    }
+  }
+
+  /**
+   * @param datasource the datasource to describe
+   * @return the state of the pool, or a note that the datasource isn't
+   *         pooled
+   */
+  public static String getStatistics(final javax.sql.DataSource datasource) {
+    if (datasource instanceof TimedDataSource) {
+      final TimedDataSource pool = (TimedDataSource) datasource;
+      return String.format("active: %d idle: %d max: %d abandoned: %d borrows: %d average wait: %dms max wait: %dms",
+                           pool.getNumActive(), pool.getNumIdle(), pool.getMaxActive(),
+                           pool.getRemoveAbandonedCount(), pool.getNumBorrows(), pool.getAverageWaitMillis(),
+                           pool.getMaxWaitMillis());
+    } else if (datasource instanceof DataSource) {
+      final DataSource pool = (DataSource) datasource;
+      return String.format("active: %d idle: %d max: %d abandoned: %d", pool.getNumActive(), pool.getNumIdle(),
+                           pool.getMaxActive(), pool.getRemoveAbandonedCount());
+    } else {
+      return "not pooled";
+    }
+  }
+
+}
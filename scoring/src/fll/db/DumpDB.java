@@ -5,14 +5,27 @@
  */
 package fll.db;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Formatter;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -32,6 +45,8 @@ import org.w3c.dom.Document;
 import au.com.bytecode.opencsv.CSVWriter;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import fll.Utilities;
+import fll.util.FLLInternalException;
+import fll.util.FLLRuntimeException;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
@@ -45,14 +60,26 @@ public final class DumpDB extends BaseFLLServlet {
 
   private static final Logger LOGGER = LogUtils.getLogger();
 
+  /**
+   * Compression level used when dumping from the web server. Backups are
+   * taken while the tournament is running, so favor speed over size.
+   */
+  public static final int FAST_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
+
+  /**
+   * @return the number of tables to read at once when dumping from the web
+   *         server
+   */
+  public static int getDefaultDumpThreads() {
+    return Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+  }
+
   protected void processRequest(final HttpServletRequest request,
                                 final HttpServletResponse response,
                                 final ServletContext application,
                                 final HttpSession session) throws IOException, ServletException {
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
-    Connection connection = null;
     try {
-      connection = datasource.getConnection();
       final Document challengeDocument = ApplicationAttributes.getChallengeDocument(application);
 
       response.reset();
@@ -61,14 +88,13 @@ public final class DumpDB extends BaseFLLServlet {
 
       final ZipOutputStream zipOut = new ZipOutputStream(response.getOutputStream());
       try {
-        DumpDB.dumpDatabase(zipOut, connection, challengeDocument);
+        zipOut.setLevel(FAST_COMPRESSION_LEVEL);
+        DumpDB.dumpDatabase(zipOut, datasource, challengeDocument, getDefaultDumpThreads());
       } finally {
         zipOut.close();
       }
     } catch (final SQLException sqle) {
       throw new RuntimeException(sqle);
-    } finally {
-      SQLFunctions.close(connection);
     }
   }
 
@@ -110,6 +136,176 @@ public final class DumpDB extends BaseFLLServlet {
     }
   }
 
+  /**
+   * Dump the database to a zip file reading several tables at once. Each
+   * table is read on its own read-only connection and written to a temporary
+   * file, then the tables are added to the zip in the same order as
+   * {@link #dumpDatabase(ZipOutputStream, Connection, Document)}. The
+   * compression level is taken from output, see
+   * {@link ZipOutputStream#setLevel(int)}.
+   * 
+   * @param output where to dump the database
+   * @param datasource the database to dump
+   * @param challengeDocument the challenge descriptor to include
+   * @param numThreads the number of tables to read at once
+   */
+  public static void dumpDatabase(final ZipOutputStream output,
+                                  final DataSource datasource,
+                                  final Document challengeDocument,
+                                  final int numThreads)
+      throws SQLException, IOException {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be at least 1: "
+          + numThreads);
+    }
+
+    final long start = System.currentTimeMillis();
+
+    final OutputStreamWriter outputWriter = new OutputStreamWriter(output, Utilities.DEFAULT_CHARSET);
+
+    // output the challenge descriptor
+    output.putNextEntry(new ZipEntry("challenge.xml"));
+    XMLUtils.writeXML(challengeDocument, outputWriter, Utilities.DEFAULT_CHARSET.name());
+    output.closeEntry();
+
+    final List<String> tableNames = new LinkedList<>();
+    try (Connection connection = datasource.getConnection()) {
+      // can't use Queries.getTablesInDB because it lowercases names and we
+      // need all names to be the same as the database is expecting them
+      try (ResultSet rs = connection.getMetaData().getTables(null, null, "%", new String[] { "TABLE" })) {
+        while (rs.next()) {
+          tableNames.add(rs.getString("TABLE_NAME").toLowerCase());
+        }
+      }
+    }
+
+    final ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    final List<Future<DumpedTable>> futures = new LinkedList<>();
+    try {
+      for (final String tableName : tableNames) {
+        futures.add(executor.submit(() -> dumpTableToFile(datasource, tableName)));
+      }
+
+      for (final Future<DumpedTable> future : futures) {
+        final DumpedTable table = getDumpedTable(future);
+        try {
+          output.putNextEntry(new ZipEntry(table.tableName
+              + ".types"));
+          outputWriter.write(table.types);
+          outputWriter.flush();
+          output.closeEntry();
+
+          output.putNextEntry(new ZipEntry(table.tableName
+              + ".csv"));
+          Files.copy(table.data.toPath(), output);
+          output.closeEntry();
+        } finally {
+          table.delete();
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+
+      // remove the files of tables that weren't added because of an error
+      for (final Future<DumpedTable> future : futures) {
+        if (future.isDone()
+            && !future.isCancelled()) {
+          try {
+            future.get().delete();
+          } catch (final InterruptedException | ExecutionException e) {
+            // no file was created
+          }
+        }
+      }
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Dumped "
+          + tableNames.size() + " tables in " + (System.currentTimeMillis()
+              - start)
+          + "ms");
+    }
+  }
+
+  private static DumpedTable getDumpedTable(final Future<DumpedTable> future) throws SQLException, IOException {
+    try {
+      return future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FLLRuntimeException("Interrupted while dumping the database", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof SQLException) {
+        throw (SQLException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new FLLInternalException("Unexpected error dumping the database", cause);
+      }
+    }
+  }
+
+  private static DumpedTable dumpTableToFile(final DataSource datasource,
+                                             final String tableName)
+      throws SQLException, IOException {
+    final File data = File.createTempFile("fll-dump-", ".csv");
+    boolean success = false;
+    try (Connection connection = datasource.getConnection()) {
+      // the connection may be pooled, put it back the way it was
+      final boolean readOnly = connection.isReadOnly();
+      connection.setReadOnly(true);
+      try {
+        final StringWriter types = new StringWriter();
+        writeTableTypes(connection.getMetaData(), types, tableName);
+
+        try (Writer dataWriter = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(data)),
+                                                        Utilities.DEFAULT_CHARSET)) {
+          writeTableData(connection, dataWriter, tableName);
+        }
+
+        success = true;
+        return new DumpedTable(tableName, types.toString(), data);
+      } finally {
+        connection.setReadOnly(readOnly);
+      }
+    } finally {
+      if (!success
+          && !data.delete()) {
+        data.deleteOnExit();
+      }
+    }
+  }
+
+  /**
+   * A table that has been read by
+   * {@link DumpDB#dumpTableToFile(DataSource, String)} and is waiting to be
+   * added to the zip file.
+   */
+  private static final class DumpedTable {
+    DumpedTable(final String tableName,
+                final String types,
+                final File data) {
+      this.tableName = tableName;
+      this.types = types;
+      this.data = data;
+    }
+
+    private final String tableName;
+
+    private final String types;
+
+    private final File data;
+
+    void delete() {
+      if (!data.delete()
+          && data.exists()) {
+        data.deleteOnExit();
+      }
+    }
+  }
+
   /**
    * Dump the type information for a table to outputWriter.
    * 
@@ -122,7 +318,7 @@ public final class DumpDB extends BaseFLLServlet {
    */
   private static boolean dumpTableTypes(final String tableName,
                                         final DatabaseMetaData metadata,
-                                        final OutputStreamWriter outputWriter) throws SQLException, IOException {
+                                        final Writer outputWriter) throws SQLException, IOException {
     boolean retval = false;
     ResultSet rs = null;
     try {
@@ -151,45 +347,56 @@ public final class DumpDB extends BaseFLLServlet {
     return retval;
   }
 
-  @SuppressFBWarnings(value = "SQL_NONCONSTANT_STRING_PASSED_TO_EXECUTE", justification = "Dynamic based upon tables in the database")
   private static void dumpTable(final ZipOutputStream output,
                                 final Connection connection,
                                 final DatabaseMetaData metadata,
                                 final OutputStreamWriter outputWriter,
                                 final String tableName) throws IOException, SQLException {
+    output.putNextEntry(new ZipEntry(tableName
+        + ".types"));
+    writeTableTypes(metadata, outputWriter, tableName);
+    output.closeEntry();
+
+    output.putNextEntry(new ZipEntry(tableName
+        + ".csv"));
+    writeTableData(connection, outputWriter, tableName);
+    output.closeEntry();
+  }
+
+  /**
+   * Write the type information for a table trying the different cases that
+   * the database may use for the name.
+   */
+  private static void writeTableTypes(final DatabaseMetaData metadata,
+                                      final Writer outputWriter,
+                                      final String tableName) throws IOException, SQLException {
+    // write table type information
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Dumping type information for "
+          + tableName);
+    }
+    boolean dumpedTypes = dumpTableTypes(tableName, metadata, outputWriter);
+    if (!dumpedTypes) {
+      dumpedTypes = dumpTableTypes(tableName.toUpperCase(), metadata, outputWriter);
+    }
+    if (!dumpedTypes) {
+      dumpTableTypes(tableName.toLowerCase(), metadata, outputWriter);
+    }
+  }
+
+  @SuppressFBWarnings(value = "SQL_NONCONSTANT_STRING_PASSED_TO_EXECUTE", justification = "Dynamic based upon tables in the database")
+  private static void writeTableData(final Connection connection,
+                                     final Writer outputWriter,
+                                     final String tableName) throws IOException, SQLException {
     ResultSet rs = null;
     Statement stmt = null;
     try {
       stmt = connection.createStatement();
-      CSVWriter csvwriter;
-
-      // write table type information
-      if (LOGGER.isTraceEnabled()) {
-        LOGGER.trace("Dumping type information for "
-            + tableName);
-      }
-      output.putNextEntry(new ZipEntry(tableName
-          + ".types"));
-      boolean dumpedTypes = dumpTableTypes(tableName, metadata, outputWriter);
-      if (!dumpedTypes) {
-        dumpedTypes = dumpTableTypes(tableName.toUpperCase(), metadata, outputWriter);
-      }
-      if (!dumpedTypes) {
-        dumpTableTypes(tableName.toLowerCase(), metadata, outputWriter);
-      }
-      output.closeEntry();
-
-      output.putNextEntry(new ZipEntry(tableName
-          + ".csv"));
-      csvwriter = new CSVWriter(outputWriter);
+      final CSVWriter csvwriter = new CSVWriter(outputWriter);
       rs = stmt.executeQuery("SELECT * FROM "
           + tableName);
       csvwriter.writeAll(rs, true);
       csvwriter.flush();
-      output.closeEntry();
-      SQLFunctions.close(rs);
-      rs = null;
-
     } finally {
       SQLFunctions.close(rs);
       SQLFunctions.close(stmt);
@@ -440,6 +440,8 @@ public final class GenerateDB {
     } finally {
       SQLFunctions.close(stmt);
     }
+
+    LoginCache.clear();
   }
 
   /**
@@ -459,6 +461,8 @@ public final class GenerateDB {
     } finally {
       SQLFunctions.close(stmt);
     }
+
+    LoginCache.clear();
   }
 
   /** Table structure for table 'tournament_parameters' */
@@ -475,6 +479,7 @@ public final class GenerateDB {
           + " ,CONSTRAINT tournament_parameters_fk1 FOREIGN KEY(tournament) REFERENCES Tournaments(tournament_id)" //
           + ")");
     } finally {
+      ParameterCache.clear();
       SQLFunctions.close(stmt);
     }
   }
@@ -629,6 +634,7 @@ public final class GenerateDB {
       }
 
     } finally {
+      ParameterCache.clear();
       SQLFunctions.close(globalInsert);
     }
   }
@@ -657,6 +663,8 @@ public final class GenerateDB {
       final ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
       challengePrep.setAsciiStream(1, bais, bytes.length);
       challengePrep.executeUpdate();
+      ChallengeDescriptionCache.invalidate();
+      ParameterCache.invalidateGlobal(connection, GlobalParameters.CHALLENGE_DOCUMENT);
       SQLFunctions.close(challengePrep);
     } finally {
       SQLFunctions.close(challengePrep);
@@ -692,6 +700,7 @@ public final class GenerateDB {
       insertOrUpdateChallengeDocument(document, connection);
 
     } finally {
+      ParameterCache.clear();
       SQLFunctions.close(stmt);
       SQLFunctions.close(insertPrep);
       SQLFunctions.close(deletePrep);
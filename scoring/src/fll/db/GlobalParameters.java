@@ -6,7 +6,6 @@
 
 package fll.db;
 
-import java.io.InputStreamReader;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -14,9 +13,8 @@ import java.sql.SQLException;
 
 import org.w3c.dom.Document;
 
-import fll.Utilities;
 import fll.util.FLLRuntimeException;
-import fll.xml.ChallengeParser;
+import fll.xml.ChallengeDescription;
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
 /**
@@ -77,7 +75,7 @@ public final class GlobalParameters {
    *         values already filled in
    * @throws SQLException
    */
-  private static PreparedStatement getGlobalParameterStmt(final Connection connection,
+  /* package */ static PreparedStatement getGlobalParameterStmt(final Connection connection,
                                                           final String paramName)
       throws SQLException {
     PreparedStatement prep = null;
@@ -103,6 +101,13 @@ public final class GlobalParameters {
   public static double getDoubleGlobalParameter(final Connection connection,
                                                 final String parameter)
       throws SQLException {
+    return ParameterCache.getGlobal(connection, parameter, "double",
+                                    () -> loadDoubleGlobalParameter(connection, parameter));
+  }
+
+  private static double loadDoubleGlobalParameter(final Connection connection,
+                                                  final String parameter)
+      throws SQLException {
     PreparedStatement prep = null;
     ResultSet rs = null;
     try {
@@ -133,6 +138,13 @@ public final class GlobalParameters {
   public static int getIntGlobalParameter(final Connection connection,
                                           final String parameter)
       throws SQLException {
+    return ParameterCache.getGlobal(connection, parameter, "int",
+                                    () -> loadIntGlobalParameter(connection, parameter));
+  }
+
+  private static int loadIntGlobalParameter(final Connection connection,
+                                            final String parameter)
+      throws SQLException {
     PreparedStatement prep = null;
     ResultSet rs = null;
     try {
@@ -179,6 +191,13 @@ public final class GlobalParameters {
   public static boolean globalParameterExists(final Connection connection,
                                               final String paramName)
       throws SQLException {
+    return ParameterCache.getGlobal(connection, paramName, "exists",
+                                    () -> loadGlobalParameterExists(connection, paramName));
+  }
+
+  private static boolean loadGlobalParameterExists(final Connection connection,
+                                                   final String paramName)
+      throws SQLException {
     PreparedStatement prep = null;
     ResultSet rs = null;
     try {
@@ -194,29 +213,31 @@ public final class GlobalParameters {
   /**
    * Get the challenge document out of the database. This method doesn't
    * validate the document, since it's assumed that the document was validated
-   * before it was put in the database.
+   * before it was put in the database. The document is only parsed again when
+   * it has changed in the database.
    * 
    * @param connection connection to the database
-   * @return the document
+   * @return a copy of the document that the caller may modify
    * @throws FLLRuntimeException if the document cannot be found
    * @throws SQLException on a database error
+   * @see #getChallengeDescription(Connection)
    */
   public static Document getChallengeDocument(final Connection connection) throws SQLException, RuntimeException {
-    PreparedStatement prep = null;
-    ResultSet rs = null;
-    try {
+    return ChallengeDescriptionCache.getChallengeDocument(connection);
+  }
 
-      prep = getGlobalParameterStmt(connection, CHALLENGE_DOCUMENT);
-      rs = prep.executeQuery();
-      if (rs.next()) {
-        return ChallengeParser.parse(new InputStreamReader(rs.getAsciiStream(1), Utilities.DEFAULT_CHARSET));
-      } else {
-        throw new FLLRuntimeException("Could not find challenge document in database");
-      }
-    } finally {
-      SQLFunctions.close(rs);
-      SQLFunctions.close(prep);
-    }
+  /**
+   * Get the description of the challenge stored in the database. The
+   * description is cached until the challenge document is written.
+   * 
+   * @param connection connection to the database
+   * @return the challenge description, shared between callers
+   * @throws FLLRuntimeException if the document cannot be found
+   * @throws SQLException on a database error
+   */
+  public static ChallengeDescription getChallengeDescription(final Connection connection)
+      throws SQLException, RuntimeException {
+    return ChallengeDescriptionCache.getChallengeDescription(connection);
   }
 
   public static void setStringGlobalParameter(final Connection connection,
@@ -234,6 +255,8 @@ public final class GlobalParameters {
       prep.setString(1, paramValue);
       prep.setString(2, paramName);
       prep.executeUpdate();
+
+      ParameterCache.invalidateGlobal(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
@@ -254,6 +277,8 @@ public final class GlobalParameters {
       prep.setDouble(1, paramValue);
       prep.setString(2, paramName);
       prep.executeUpdate();
+
+      ParameterCache.invalidateGlobal(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
@@ -274,6 +299,8 @@ public final class GlobalParameters {
       prep.setInt(1, paramValue);
       prep.setString(2, paramName);
       prep.executeUpdate();
+
+      ParameterCache.invalidateGlobal(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
@@ -291,6 +318,13 @@ public final class GlobalParameters {
   public static boolean getBooleanGlobalParameter(final Connection connection,
                                                   final String parameter)
       throws SQLException {
+    return ParameterCache.getGlobal(connection, parameter, "boolean",
+                                    () -> loadBooleanGlobalParameter(connection, parameter));
+  }
+
+  private static boolean loadBooleanGlobalParameter(final Connection connection,
+                                                    final String parameter)
+      throws SQLException {
     PreparedStatement prep = null;
     ResultSet rs = null;
     try {
@@ -324,6 +358,8 @@ public final class GlobalParameters {
       prep.setBoolean(1, paramValue);
       prep.setString(2, paramName);
       prep.executeUpdate();
+
+      ParameterCache.invalidateGlobal(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
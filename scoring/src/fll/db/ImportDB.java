@@ -5,10 +5,12 @@
  */
 package fll.db;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.DriverManager;
@@ -52,7 +54,6 @@ import fll.xml.ChallengeParser;
 import fll.xml.PerformanceScoreCategory;
 import fll.xml.ScoreCategory;
 import fll.xml.XMLUtils;
-import net.mtu.eggplant.io.IOUtils;
 import net.mtu.eggplant.util.ComparisonUtils;
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
@@ -242,6 +243,7 @@ public final class ImportDB {
       }
 
       // remove in-memory database
+      ChallengeDescriptionCache.remove(memConnection);
       memStmt.executeUpdate("SHUTDOWN");
     } finally {
       SQLFunctions.close(memRS);
@@ -322,45 +324,68 @@ public final class ImportDB {
     Document challengeResult = null;
 
     final Map<String, Map<String, String>> typeInfo = new HashMap<String, Map<String, String>>();
-    ZipEntry entry;
-    final Map<String, String> tableData = new HashMap<String, String>();
-    while (null != (entry = zipfile.getNextEntry())) {
-      final String name = entry.getName();
-      if ("challenge.xml".equals(name)) {
-        final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
-        challengeResult = ChallengeParser.parse(reader);
-      } else if (name.endsWith(".csv")) {
-        final String tablename = name.substring(0, name.indexOf(".csv")).toLowerCase();
-        final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
-        final String content = IOUtils.readIntoString(reader);
-        tableData.put(tablename, content);
-      } else if (name.endsWith(".types")) {
-        final String tablename = name.substring(0, name.indexOf(".types")).toLowerCase();
-        final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
-        final Map<String, String> columnTypes = loadTypeInfo(reader);
-        typeInfo.put(tablename, columnTypes);
-      } else {
-        LOGGER.warn("Unexpected file found in imported zip file, skipping: "
-            + name);
+    // tables whose data came before their types, loaded once all entries are
+    // read
+    final Map<String, File> spilledTables = new HashMap<String, File>();
+    final ChallengeDescription description;
+    try {
+      ZipEntry entry;
+      while (null != (entry = zipfile.getNextEntry())) {
+        final String name = entry.getName();
+        if ("challenge.xml".equals(name)) {
+          final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
+          challengeResult = ChallengeParser.parse(reader);
+        } else if (name.endsWith(".csv")) {
+          final String tablename = name.substring(0, name.indexOf(".csv")).toLowerCase();
+          final Map<String, String> tableTypes = typeInfo.get(tablename);
+          if (null != tableTypes) {
+            // dumps write the types before the data, so the rows can be
+            // loaded straight from the zip file
+            final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
+            Utilities.loadCSVFile(connection, tablename, tableTypes, reader);
+          } else {
+            final File file = File.createTempFile("fll-import-", ".csv");
+            spilledTables.put(tablename, file);
+            Files.copy(zipfile, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+          }
+        } else if (name.endsWith(".types")) {
+          final String tablename = name.substring(0, name.indexOf(".types")).toLowerCase();
+          final Reader reader = new InputStreamReader(zipfile, Utilities.DEFAULT_CHARSET);
+          final Map<String, String> columnTypes = loadTypeInfo(reader);
+          typeInfo.put(tablename, columnTypes);
+        } else {
+          LOGGER.warn("Unexpected file found in imported zip file, skipping: "
+              + name);
+        }
+        zipfile.closeEntry();
       }
-      zipfile.closeEntry();
-    }
 
-    if (null == challengeResult) {
-      throw new RuntimeException("Cannot find challenge document in the zipfile");
-    }
+      if (null == challengeResult) {
+        throw new RuntimeException("Cannot find challenge document in the zipfile");
+      }
 
-    final ChallengeDescription description = new ChallengeDescription(challengeResult.getDocumentElement());
-    if (typeInfo.isEmpty()) {
-      // before types were added, assume version 0 types
-      createVersion0TypeInfo(typeInfo, description);
-    }
-    for (Map.Entry<String, String> tableEntry : tableData.entrySet()) {
-      final String tablename = tableEntry.getKey();
-      final String content = tableEntry.getValue();
-      final Map<String, String> tableTypes = typeInfo.get(tablename);
+      description = new ChallengeDescription(challengeResult.getDocumentElement());
+      if (typeInfo.isEmpty()) {
+        // before types were added, assume version 0 types
+        createVersion0TypeInfo(typeInfo, description);
+      }
+      for (final Map.Entry<String, File> tableEntry : spilledTables.entrySet()) {
+        final String tablename = tableEntry.getKey();
+        final Map<String, String> tableTypes = typeInfo.get(tablename);
 
-      Utilities.loadCSVFile(connection, tablename, tableTypes, new StringReader(content));
+        try (Reader reader = Files.newBufferedReader(tableEntry.getValue().toPath(), Utilities.DEFAULT_CHARSET)) {
+          Utilities.loadCSVFile(connection, tablename, tableTypes, reader);
+        }
+      }
+    } finally {
+      // the parameter tables were loaded directly
+      ParameterCache.clear();
+
+      for (final File file : spilledTables.values()) {
+        if (!file.delete()) {
+          file.deleteOnExit();
+        }
+      }
     }
 
     int dbVersion = Queries.getDatabaseVersion(connection);
@@ -577,8 +602,7 @@ public final class ImportDB {
     try {
       stmt = connection.createStatement();
 
-      final Document document = GlobalParameters.getChallengeDocument(connection);
-      final ChallengeDescription description = new ChallengeDescription(document.getDocumentElement());
+      final ChallengeDescription description = GlobalParameters.getChallengeDescription(connection);
       for (final ScoreCategory categoryElement : description.getSubjectiveCategories()) {
         final String tableName = categoryElement.getName();
 
@@ -1125,6 +1149,8 @@ public final class ImportDB {
       setVersion.setInt(1, version);
       setVersion.setString(2, GlobalParameters.DATABASE_VERSION);
       setVersion.executeUpdate();
+
+      ParameterCache.invalidateGlobal(connection, GlobalParameters.DATABASE_VERSION);
     } finally {
       SQLFunctions.close(setVersion);
     }
@@ -1143,14 +1169,44 @@ public final class ImportDB {
    * @param sourceConnection a connection to the source database
    * @param destinationConnection a connection to the destination database
    * @param tournamentName the tournament that the scores are for
+   * @see #importDatabase(Connection, Connection, String, int)
    */
   public static void importDatabase(final Connection sourceConnection,
                                     final Connection destinationConnection,
                                     final String tournamentName)
       throws SQLException {
+    importDatabase(sourceConnection, destinationConnection, tournamentName, DEFAULT_IMPORT_BATCH_SIZE);
+  }
+
+  /**
+   * Default number of score rows inserted at once by
+   * {@link #importDatabase(Connection, Connection, String)}.
+   */
+  public static final int DEFAULT_IMPORT_BATCH_SIZE = 500;
+
+  /**
+   * Import scores from database for tournament into the database for
+   * connection. Each score table is replaced in a single transaction with the
+   * rows inserted in batches.
+   * 
+   * @param sourceConnection a connection to the source database
+   * @param destinationConnection a connection to the destination database
+   * @param tournamentName the tournament that the scores are for
+   * @param batchSize the number of score rows to insert at once
+   */
+  public static void importDatabase(final Connection sourceConnection,
+                                    final Connection destinationConnection,
+                                    final String tournamentName,
+                                    final int batchSize)
+      throws SQLException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1: "
+          + batchSize);
+    }
+
+    final long start = System.currentTimeMillis();
 
-    final Document document = GlobalParameters.getChallengeDocument(destinationConnection);
-    final ChallengeDescription description = new ChallengeDescription(document.getDocumentElement());
+    final ChallengeDescription description = GlobalParameters.getChallengeDescription(destinationConnection);
 
     final Tournament sourceTournament = Tournament.findTournamentByName(sourceConnection, tournamentName);
     final int sourceTournamentID = sourceTournament.getTournamentID();
@@ -1166,9 +1222,11 @@ public final class ImportDB {
 
     importTournamentTeams(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID);
 
-    importPerformance(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID, description);
+    int numScores = importPerformance(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID,
+                                      description, batchSize);
 
-    importSubjective(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID, description);
+    numScores += importSubjective(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID,
+                                  description, batchSize);
 
     importTableNames(sourceConnection, destinationConnection, sourceTournamentID, destTournamentID);
 
@@ -1187,6 +1245,11 @@ public final class ImportDB {
 
     // update score totals
     Queries.updateScoreTotals(description, destinationConnection, destTournamentID);
+
+    LOGGER.info("Imported "
+        + numScores + " scores for tournament " + tournamentName + " in " + (System.currentTimeMillis()
+            - start)
+        + "ms");
   }
 
   private static void importSchedule(final Connection sourceConnection,
@@ -1514,54 +1577,51 @@ public final class ImportDB {
   }
 
   @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Dynamic table based upon categories")
-  private static void importSubjective(final Connection sourceConnection,
-                                       final Connection destinationConnection,
-                                       final int sourceTournamentID,
-                                       final int destTournamentID,
-                                       final ChallengeDescription description)
+  private static int importSubjective(final Connection sourceConnection,
+                                      final Connection destinationConnection,
+                                      final int sourceTournamentID,
+                                      final int destTournamentID,
+                                      final ChallengeDescription description,
+                                      final int batchSize)
       throws SQLException {
-    PreparedStatement destPrep = null;
-    try {
-      // loop over each subjective category
-      for (final ScoreCategory categoryElement : description.getSubjectiveCategories()) {
-        final String tableName = categoryElement.getName();
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("Importing "
-              + tableName);
-        }
+    int numRows = 0;
+    // loop over each subjective category
+    for (final ScoreCategory categoryElement : description.getSubjectiveCategories()) {
+      final String tableName = categoryElement.getName();
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Importing "
+            + tableName);
+      }
 
-        destPrep = destinationConnection.prepareStatement("DELETE FROM "
-            + tableName + " WHERE Tournament = ?");
-        destPrep.setInt(1, destTournamentID);
-        destPrep.executeUpdate();
-        SQLFunctions.close(destPrep);
-
-        final StringBuilder columns = new StringBuilder();
-        columns.append(" Tournament,");
-        columns.append(" TeamNumber,");
-        columns.append(" NoShow,");
-        final List<AbstractGoal> goals = categoryElement.getGoals();
-        int numColumns = 5;
-        for (final AbstractGoal element : goals) {
-          if (!element.isComputed()) {
-            columns.append(" "
-                + element.getName() + ",");
-            ++numColumns;
-          }
+      final StringBuilder columns = new StringBuilder();
+      columns.append(" Tournament,");
+      columns.append(" TeamNumber,");
+      columns.append(" NoShow,");
+      final List<AbstractGoal> goals = categoryElement.getGoals();
+      int numColumns = 5;
+      for (final AbstractGoal element : goals) {
+        if (!element.isComputed()) {
+          columns.append(" "
+              + element.getName() + ",");
+          ++numColumns;
         }
-        columns.append(" note,");
-        columns.append(" Judge");
-
-        importCommon(columns, tableName, numColumns, destinationConnection, destTournamentID, sourceConnection,
-                     sourceTournamentID);
       }
-    } finally {
-      SQLFunctions.close(destPrep);
+      columns.append(" note,");
+      columns.append(" Judge");
+
+      numRows += importCommon(columns, tableName, numColumns, destinationConnection, destTournamentID,
+                              sourceConnection, sourceTournamentID, batchSize);
     }
+    return numRows;
   }
 
   /**
-   * Common import code for importSubjective and importPerformance.
+   * Common import code for importSubjective and importPerformance. The
+   * existing rows for the destination tournament are deleted and the new rows
+   * inserted in batches, all in a single transaction so that a failure leaves
+   * the table as it was. If the destination connection is already in a
+   * transaction, the rows are part of it and committing is left to the
+   * caller.
    * 
    * @param columns the columns in the table, this should include Tournament,
    *          TeamNumber, NoShow, Judge or Verified, then all elements for
@@ -1572,21 +1632,37 @@ public final class ImportDB {
    * @param destTournamentID
    * @param sourceConnection
    * @param sourceTournamentID
+   * @param batchSize the number of rows to insert at once
+   * @return the number of rows imported
    * @throws SQLException
    */
   @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Dynamic based upon goals and category")
-  private static void importCommon(final StringBuilder columns,
-                                   final String tableName,
-                                   final int numColumns,
-                                   final Connection destinationConnection,
-                                   final int destTournamentID,
-                                   final Connection sourceConnection,
-                                   final int sourceTournamentID)
+  private static int importCommon(final StringBuilder columns,
+                                  final String tableName,
+                                  final int numColumns,
+                                  final Connection destinationConnection,
+                                  final int destTournamentID,
+                                  final Connection sourceConnection,
+                                  final int sourceTournamentID,
+                                  final int batchSize)
       throws SQLException {
     PreparedStatement destPrep = null;
     PreparedStatement sourcePrep = null;
     ResultSet sourceRS = null;
+    final boolean autoCommit = destinationConnection.getAutoCommit();
+    boolean committed = false;
     try {
+      if (autoCommit) {
+        destinationConnection.setAutoCommit(false);
+      }
+
+      destPrep = destinationConnection.prepareStatement("DELETE FROM "
+          + tableName + " WHERE Tournament = ?");
+      destPrep.setInt(1, destTournamentID);
+      destPrep.executeUpdate();
+      SQLFunctions.close(destPrep);
+      destPrep = null;
+
       final StringBuffer sql = new StringBuffer();
       sql.append("INSERT INTO ");
       sql.append(tableName);
@@ -1607,6 +1683,7 @@ public final class ImportDB {
           + columns.toString() + " FROM " + tableName + " WHERE Tournament = ?");
       sourcePrep.setInt(1, sourceTournamentID);
       sourceRS = sourcePrep.executeQuery();
+      int numRows = 0;
       while (sourceRS.next()) {
         // skip tournament column
         for (int i = 1; i < numColumns; i++) {
@@ -1618,62 +1695,84 @@ public final class ImportDB {
           destPrep.setObject(i
               + 1, sourceObj);
         }
-        destPrep.executeUpdate();
+        destPrep.addBatch();
+        ++numRows;
+
+        if (numRows
+            % batchSize == 0) {
+          destPrep.executeBatch();
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Imported "
+                + numRows + " rows into " + tableName);
+          }
+        }
+      }
+      if (numRows
+          % batchSize != 0) {
+        destPrep.executeBatch();
+      }
+
+      if (autoCommit) {
+        destinationConnection.commit();
+      }
+      committed = true;
+
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Imported "
+            + numRows + " rows into " + tableName);
       }
+      return numRows;
     } finally {
       SQLFunctions.close(sourceRS);
       SQLFunctions.close(sourcePrep);
       SQLFunctions.close(destPrep);
+      if (autoCommit) {
+        // an exception of any kind must not leave a partial import behind
+        if (!committed) {
+          destinationConnection.rollback();
+        }
+        destinationConnection.setAutoCommit(true);
+      }
     }
 
   }
 
   @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Dynamic table based upon category")
-  private static void importPerformance(final Connection sourceConnection,
-                                        final Connection destinationConnection,
-                                        final int sourceTournamentID,
-                                        final int destTournamentID,
-                                        final ChallengeDescription description)
+  private static int importPerformance(final Connection sourceConnection,
+                                       final Connection destinationConnection,
+                                       final int sourceTournamentID,
+                                       final int destTournamentID,
+                                       final ChallengeDescription description,
+                                       final int batchSize)
       throws SQLException {
-    PreparedStatement destPrep = null;
-    try {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Importing performance scores");
-      }
-      final PerformanceScoreCategory performanceElement = description.getPerformance();
-      final String tableName = "Performance";
-      destPrep = destinationConnection.prepareStatement("DELETE FROM "
-          + tableName + " WHERE Tournament = ?");
-      destPrep.setInt(1, destTournamentID);
-      destPrep.executeUpdate();
-      SQLFunctions.close(destPrep);
-      destPrep = null;
-
-      final StringBuilder columns = new StringBuilder();
-      columns.append(" Tournament,");
-      columns.append(" TeamNumber,");
-      columns.append(" RunNumber,");
-      // Note: If TimeStamp is no longer the 3rd element, then the hack below
-      // needs to be modified
-      columns.append(" TimeStamp,");
-      final List<AbstractGoal> goals = performanceElement.getGoals();
-      int numColumns = 7;
-      for (final AbstractGoal element : goals) {
-        if (!element.isComputed()) {
-          columns.append(" "
-              + element.getName() + ",");
-          ++numColumns;
-        }
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Importing performance scores");
+    }
+    final PerformanceScoreCategory performanceElement = description.getPerformance();
+    final String tableName = "Performance";
+
+    final StringBuilder columns = new StringBuilder();
+    columns.append(" Tournament,");
+    columns.append(" TeamNumber,");
+    columns.append(" RunNumber,");
+    // Note: If TimeStamp is no longer the 3rd element, then the hack below
+    // needs to be modified
+    columns.append(" TimeStamp,");
+    final List<AbstractGoal> goals = performanceElement.getGoals();
+    int numColumns = 7;
+    for (final AbstractGoal element : goals) {
+      if (!element.isComputed()) {
+        columns.append(" "
+            + element.getName() + ",");
+        ++numColumns;
       }
-      columns.append(" NoShow,");
-      columns.append(" Bye,");
-      columns.append(" Verified");
-
-      importCommon(columns, tableName, numColumns, destinationConnection, destTournamentID, sourceConnection,
-                   sourceTournamentID);
-    } finally {
-      SQLFunctions.close(destPrep);
     }
+    columns.append(" NoShow,");
+    columns.append(" Bye,");
+    columns.append(" Verified");
+
+    return importCommon(columns, tableName, numColumns, destinationConnection, destTournamentID, sourceConnection,
+                        sourceTournamentID, batchSize);
   }
 
   /**
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import fll.util.FLLInternalException;
+
+/**
+ * Login keys that are known to be valid so that checking a login doesn't need
+ * the database. Entries expire so that changes made to the database outside
+ * of {@link Queries} are seen eventually. The methods in {@link Queries} and
+ * {@link GenerateDB} that change the valid logins keep the cache up to date.
+ * Keys are stored as hashes so that a lookup doesn't compare the key that
+ * was sent with the stored keys, just like
+ * {@link Queries#checkValidLogin(java.sql.Connection, Collection)}.
+ */
+public final class LoginCache {
+
+  /**
+   * How long a login is trusted without checking the database.
+   */
+  public static final long EXPIRATION_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+  private LoginCache() {
+  }
+
+  private static final class CachedLogin {
+    CachedLogin(final String user,
+                final long expires) {
+      this.user = user;
+      this.expires = expires;
+    }
+
+    private final String user;
+
+    private final long expires;
+  }
+
+  /**
+   * hash of magic key -> login
+   */
+  private static final ConcurrentMap<String, CachedLogin> LOGINS = new ConcurrentHashMap<>();
+
+  private static final CacheStatistics STATISTICS = new CacheStatistics();
+
+  /**
+   * Incremented after logins are removed, see
+   * {@link #addIfUnchanged(String, String, long)}.
+   */
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  /**
+   * Find the user for the first of the keys that is cached.
+   *
+   * @param keys the login keys to check
+   * @return the user or null if none of the keys are cached
+   */
+  public static String findUser(final Collection<String> keys) {
+    final long now = System.currentTimeMillis();
+    for (final String key : keys) {
+      final String hash = hashKey(key);
+      final CachedLogin login = LOGINS.get(hash);
+      if (null != login) {
+        if (login.expires > now) {
+          STATISTICS.hit();
+          return login.user;
+        } else {
+          LOGINS.remove(hash, login);
+        }
+      }
+    }
+    STATISTICS.miss();
+    return null;
+  }
+
+  /**
+   * Remember that a key is valid for a user.
+   */
+  public static void add(final String user,
+                         final String key) {
+    final long now = System.currentTimeMillis();
+
+    // drop expired logins so that the cache doesn't grow without bound
+    LOGINS.values().removeIf(login -> login.expires <= now);
+
+    LOGINS.put(hashKey(key), new CachedLogin(user, now
+        + EXPIRATION_MILLIS));
+  }
+
+  /**
+   * @return the current generation to pass to
+   *         {@link #addIfUnchanged(String, String, long)}
+   */
+  public static long getGeneration() {
+    return GENERATION.get();
+  }
+
+  /**
+   * Remember that a key that was found in the database is valid, unless a
+   * login was removed since the generation was read. This keeps a key that
+   * was removed while it was being checked out of the cache.
+   *
+   * @param generation the value of {@link #getGeneration()} before the
+   *          database was read
+   */
+  public static void addIfUnchanged(final String user,
+                                    final String key,
+                                    final long generation) {
+    add(user, key);
+    if (GENERATION.get() != generation) {
+      removeKey(key);
+    }
+  }
+
+  /**
+   * Forget a key.
+   */
+  public static void removeKey(final String key) {
+    LOGINS.remove(hashKey(key));
+    GENERATION.incrementAndGet();
+  }
+
+  /**
+   * Forget all keys for a user.
+   */
+  public static void removeUser(final String user) {
+    LOGINS.values().removeIf(login -> login.user.equals(user));
+    GENERATION.incrementAndGet();
+  }
+
+  /**
+   * Forget all keys.
+   */
+  public static void clear() {
+    LOGINS.clear();
+    GENERATION.incrementAndGet();
+  }
+
+  /**
+   * @return the number of checks answered from the cache
+   */
+  public static long getNumHits() {
+    return STATISTICS.getNumHits();
+  }
+
+  /**
+   * @return the number of checks that needed the database
+   */
+  public static long getNumMisses() {
+    return STATISTICS.getNumMisses();
+  }
+
+  /**
+   * @return summary of the cache statistics
+   */
+  public static String getStatistics() {
+    return String.format("logins: %d %s", LOGINS.size(), STATISTICS);
+  }
+
+  private static String hashKey(final String key) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+    } catch (final NoSuchAlgorithmException e) {
+      throw new FLLInternalException("SHA-256 is not available", e);
+    }
+  }
+
+}
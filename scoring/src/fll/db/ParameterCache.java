@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Values of the global and tournament parameters so that pages that are
+ * rendered often don't need to query the database for them. Entries are
+ * keyed by database, tournament and parameter. The set and unset methods in
+ * {@link GlobalParameters} and {@link TournamentParameters} invalidate the
+ * parameter they write and code that writes the parameter tables directly
+ * calls {@link #clear()}.
+ */
+public final class ParameterCache {
+
+  private ParameterCache() {
+  }
+
+  /**
+   * Reads a value from the database when it isn't cached.
+   *
+   * @param <T> the type of the value
+   */
+  @FunctionalInterface
+  /* package */ interface Loader<T> {
+    T load() throws SQLException;
+  }
+
+  private static final class Key {
+    Key(final String database,
+        final boolean global,
+        final int tournament,
+        final String param,
+        final String kind) {
+      this.database = database;
+      this.global = global;
+      this.tournament = tournament;
+      this.param = param;
+      this.kind = kind;
+    }
+
+    private final String database;
+
+    private final boolean global;
+
+    private final int tournament;
+
+    private final String param;
+
+    /**
+     * How the value was read, a parameter may be read as more than one type.
+     */
+    private final String kind;
+
+    @Override
+    public int hashCode() {
+      return param.hashCode()
+          * 31
+          + tournament;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+      if (this == o) {
+        return true;
+      } else if (o instanceof Key) {
+        final Key other = (Key) o;
+        return global == other.global
+            && tournament == other.tournament && param.equals(other.param) && kind.equals(other.kind)
+            && database.equals(other.database);
+      } else {
+        return false;
+      }
+    }
+  }
+
+  private static final ConcurrentMap<Key, Object> VALUES = new ConcurrentHashMap<>();
+
+  private static final CacheStatistics STATISTICS = new CacheStatistics();
+
+  /**
+   * Incremented whenever values are invalidated so that a value read from
+   * the database before a write isn't cached after the write.
+   */
+  private static final AtomicLong GENERATION = new AtomicLong();
+
+  /**
+   * Get a global parameter from the cache or the database.
+   *
+   * @param kind how the value is read, for example "int"
+   * @param loader reads the value from the database
+   */
+  /* package */ static <T> T getGlobal(final Connection connection,
+                                       final String param,
+                                       final String kind,
+                                       final Loader<T> loader)
+      throws SQLException {
+    return get(new Key(getDatabase(connection), true, 0, param, kind), loader);
+  }
+
+  /**
+   * Get a tournament parameter from the cache or the database.
+   *
+   * @param kind how the value is read, for example "int"
+   * @param loader reads the value from the database
+   */
+  /* package */ static <T> T getTournament(final Connection connection,
+                                           final int tournament,
+                                           final String param,
+                                           final String kind,
+                                           final Loader<T> loader)
+      throws SQLException {
+    return get(new Key(getDatabase(connection), false, tournament, param, kind), loader);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T get(final Key key,
+                           final Loader<T> loader)
+      throws SQLException {
+    final Object cached = VALUES.get(key);
+    if (null != cached) {
+      STATISTICS.hit();
+      return (T) cached;
+    }
+
+    STATISTICS.miss();
+    final long generation = GENERATION.get();
+    final T value = loader.load();
+    VALUES.put(key, value);
+    if (GENERATION.get() != generation) {
+      VALUES.remove(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * Forget the value of a global parameter. Call after the parameter is
+   * written.
+   */
+  /* package */ static void invalidateGlobal(final Connection connection,
+                                             final String param)
+      throws SQLException {
+    invalidate(getDatabase(connection), true, param);
+  }
+
+  /**
+   * Forget the value of a tournament parameter for all tournaments, as they
+   * share the default value. Call after the parameter is written.
+   */
+  /* package */ static void invalidateTournament(final Connection connection,
+                                                 final String param)
+      throws SQLException {
+    invalidate(getDatabase(connection), false, param);
+  }
+
+  private static void invalidate(final String database,
+                                 final boolean global,
+                                 final String param) {
+    GENERATION.incrementAndGet();
+    VALUES.keySet().removeIf(key -> key.global == global
+        && key.param.equals(param) && key.database.equals(database));
+  }
+
+  /**
+   * Forget all values. Call after the parameter tables are written without
+   * using {@link GlobalParameters} or {@link TournamentParameters}.
+   */
+  public static void clear() {
+    GENERATION.incrementAndGet();
+    VALUES.clear();
+  }
+
+  private static String getDatabase(final Connection connection) throws SQLException {
+    return connection.getMetaData().getURL();
+  }
+
+  /**
+   * @return the number of values read from the cache
+   */
+  public static long getNumHits() {
+    return STATISTICS.getNumHits();
+  }
+
+  /**
+   * @return the number of values read from the database
+   */
+  public static long getNumMisses() {
+    return STATISTICS.getNumMisses();
+  }
+
+  /**
+   * @return summary of the cache statistics
+   */
+  public static String getStatistics() {
+    return String.format("values: %d %s", VALUES.size(), STATISTICS);
+  }
+
+}
@@ -11,6 +11,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Time;
+import java.sql.Timestamp;
 import java.sql.Types;
 import java.text.ParseException;
 import java.util.ArrayList;
@@ -30,7 +31,6 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.log4j.Logger;
-import org.w3c.dom.Document;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import fll.CategoryRank;
@@ -49,6 +49,8 @@ import fll.web.playoff.HttpTeamScore;
 import fll.web.playoff.Playoff;
 import fll.web.playoff.TeamScore;
 import fll.web.scoreEntry.UnverifiedRunsWebSocket;
+import fll.web.scoreboard.AllTeams;
+import fll.web.scoreboard.ScoreboardUpdateWebSocket;
 import fll.xml.AbstractGoal;
 import fll.xml.ChallengeDescription;
 import fll.xml.PerformanceScoreCategory;
@@ -631,6 +633,7 @@ public final class Queries {
                                                     final Connection connection,
                                                     final HttpServletRequest request)
       throws SQLException, ParseException, RuntimeException {
+    final int currentTournament = getCurrentTournament(connection);
     final int oldTransactionIsolation = connection.getTransactionIsolation();
     final boolean oldAutoCommit = connection.getAutoCommit();
     try {
@@ -650,6 +653,12 @@ public final class Queries {
 
     // notify that there may be more runs to verify
     UnverifiedRunsWebSocket.notifyToUpdate();
+
+    // the parameters have been checked by the insert or update
+    final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(request.getParameter("TeamNumber"))
+                                                                   .intValue();
+    final int runNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(request.getParameter("RunNumber")).intValue();
+    ScoreboardUpdateWebSocket.updateTeam(connection, description, currentTournament, teamNumber, runNumber);
   }
 
   /**
@@ -1105,7 +1114,8 @@ public final class Queries {
    *           data would become inconsistent due to the deletion.
    */
   @SuppressFBWarnings(value = "OBL_UNSATISFIED_OBLIGATION", justification = "Bug in findbugs - ticket:2924739")
-  public static void deletePerformanceScore(final Connection connection,
+  public static void deletePerformanceScore(final ChallengeDescription description,
+                                            final Connection connection,
                                             final HttpServletRequest request)
       throws SQLException, RuntimeException, ParseException {
     final int currentTournament = getCurrentTournament(connection);
@@ -1224,6 +1234,8 @@ public final class Queries {
 
     // notify that the list of unverified runs may have changed
     UnverifiedRunsWebSocket.notifyToUpdate();
+
+    ScoreboardUpdateWebSocket.updateTeam(connection, description, currentTournament, teamNumber, irunNumber);
   }
 
   /**
@@ -1324,8 +1336,7 @@ public final class Queries {
       throws SQLException {
     final int maxPlayoffRound = Playoff.getMaxPlayoffRound(connection, currentTournament, bracketName);
 
-    final Document document = GlobalParameters.getChallengeDocument(connection);
-    final ChallengeDescription challengeDescription = new ChallengeDescription(document.getDocumentElement());
+    final ChallengeDescription challengeDescription = GlobalParameters.getChallengeDescription(connection);
     final ScoreType performanceScoreType = challengeDescription.getPerformance().getScoreType();
 
     final Collection<BracketUpdate> updates = new LinkedList<>();
@@ -1736,6 +1747,8 @@ public final class Queries {
       }
       SQLFunctions.close(prep);
     }
+
+    ScoreboardUpdateWebSocket.notifyToReload();
   }
 
   /**
@@ -1751,33 +1764,131 @@ public final class Queries {
   }
 
   /**
-   * Total the scores in the database for the specified tournament.
+   * Total the scores in the database for the specified tournament. The totals
+   * are committed together unless the connection is already in a
+   * transaction, then committing is left to the caller.
    * 
    * @param connection connection to database, needs write privileges
    * @param tournament tournament to update score totals for
    * @throws SQLException if an error occurs
-   * @see #updatePerformanceScoreTotals(ChallengeDescription, Connection, int)
-   * @see #updateSubjectiveScoreTotals(ChallengeDescription, Connection, int)
+   * @see #updatePerformanceScoreTotals(ChallengeDescription, Connection, int,
+   *      boolean)
+   * @see #updateSubjectiveScoreTotals(ChallengeDescription, Connection, int,
+   *      boolean)
    */
   public static void updateScoreTotals(final ChallengeDescription description,
                                        final Connection connection,
                                        final int tournament)
       throws SQLException {
-    updatePerformanceScoreTotals(description, connection, tournament);
+    updateScoreTotals(description, connection, tournament, false);
+  }
+
+  /**
+   * Total only the scores that may have changed since the scores were last
+   * summarized for the specified tournament. These are the scores without a
+   * total. If the scores have never been summarized, all scores are totaled.
+   * The writers of subjective scores clear the total so that it's computed
+   * here. Transactions are handled like
+   * {@link #updateScoreTotals(ChallengeDescription, Connection, int)}.
+   * 
+   * @param connection connection to database, needs write privileges
+   * @param tournament tournament to update score totals for
+   * @throws SQLException if an error occurs
+   * @see #updateScoreTotals(ChallengeDescription, Connection, int)
+   */
+  public static void updateModifiedScoreTotals(final ChallengeDescription description,
+                                               final Connection connection,
+                                               final int tournament)
+      throws SQLException {
+    updateScoreTotals(description, connection, tournament, true);
+  }
+
+  private static void updateScoreTotals(final ChallengeDescription description,
+                                        final Connection connection,
+                                        final int tournament,
+                                        final boolean modifiedOnly)
+      throws SQLException {
+    final boolean autoCommit = connection.getAutoCommit();
+    if (!autoCommit) {
+      // part of the caller's transaction, the caller commits or rolls back
+      computeScoreTotals(description, connection, tournament, modifiedOnly);
+      return;
+    }
+
+    try {
+      connection.setAutoCommit(false);
+
+      computeScoreTotals(description, connection, tournament, modifiedOnly);
+
+      connection.commit();
+    } catch (final SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      try {
+        connection.setAutoCommit(autoCommit);
+      } catch (final SQLException e) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(e, e);
+        }
+      }
+    }
+  }
+
+  private static void computeScoreTotals(final ChallengeDescription description,
+                                         final Connection connection,
+                                         final int tournament,
+                                         final boolean modifiedOnly)
+      throws SQLException {
+    final boolean missingOnly = modifiedOnly
+        && null != getSummaryComputed(connection, tournament);
+
+    updatePerformanceScoreTotals(description, connection, tournament, missingOnly);
 
-    updateSubjectiveScoreTotals(description, connection, tournament);
+    updateSubjectiveScoreTotals(description, connection, tournament, missingOnly);
+  }
+
+  /**
+   * @return when the scores were last summarized, null if never
+   */
+  private static Timestamp getSummaryComputed(final Connection connection,
+                                              final int tournament)
+      throws SQLException {
+    PreparedStatement prep = null;
+    ResultSet rs = null;
+    try {
+      prep = connection.prepareStatement("SELECT summary_computed FROM Tournaments WHERE tournament_id = ?");
+      prep.setInt(1, tournament);
+      rs = prep.executeQuery();
+      if (rs.next()) {
+        return rs.getTimestamp(1);
+      } else {
+        return null;
+      }
+    } finally {
+      SQLFunctions.close(rs);
+      SQLFunctions.close(prep);
+    }
   }
 
   /**
-   * Compute the total scores for all entered subjective scores.
+   * Number of updates to send to the database at once when totaling scores.
+   */
+  private static final int SCORE_TOTAL_BATCH_SIZE = 500;
+
+  /**
+   * Compute the total scores for entered subjective scores.
    * 
    * @param connection
+   * @param missingOnly if true, only compute the totals for the scores that
+   *          don't have one
    * @throws SQLException
    */
   @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines table name")
   private static void updateSubjectiveScoreTotals(final ChallengeDescription description,
                                                   final Connection connection,
-                                                  final int tournament)
+                                                  final int tournament,
+                                                  final boolean missingOnly)
       throws SQLException {
     PreparedStatement updatePrep = null;
     PreparedStatement selectPrep = null;
@@ -1793,10 +1904,12 @@ public final class Queries {
             + " SET ComputedTotal = ? WHERE TeamNumber = ? AND Tournament = ? AND Judge = ?");
         selectPrep = connection.prepareStatement("SELECT * FROM " //
             + categoryName //
-            + " WHERE Tournament = ?");
+            + " WHERE Tournament = ?" //
+            + (missingOnly ? " AND ComputedTotal IS NULL AND NoShow = FALSE" : ""));
         selectPrep.setInt(1, tournament);
         updatePrep.setInt(3, tournament);
         rs = selectPrep.executeQuery();
+        int batchSize = 0;
         while (rs.next()) {
           final int teamNumber = rs.getInt("TeamNumber");
           final TeamScore teamScore = new DatabaseTeamScore(teamNumber, rs);
@@ -1814,7 +1927,16 @@ public final class Queries {
           updatePrep.setInt(2, teamNumber);
           final String judge = rs.getString("Judge");
           updatePrep.setString(4, judge);
-          updatePrep.executeUpdate();
+          updatePrep.addBatch();
+
+          ++batchSize;
+          if (batchSize >= SCORE_TOTAL_BATCH_SIZE) {
+            updatePrep.executeBatch();
+            batchSize = 0;
+          }
+        }
+        if (batchSize > 0) {
+          updatePrep.executeBatch();
         }
         rs.close();
         updatePrep.close();
@@ -1828,16 +1950,86 @@ public final class Queries {
   }
 
   /**
-   * Compute the total scores for all entered performance scores. Uses both
+   * Compute the total of a single subjective score if it doesn't have one
+   * yet.
+   *
+   * @param category the category of the score
+   * @param connection connection to database, needs write privileges
+   * @param tournament the tournament the score is in
+   * @param teamNumber the team that was scored
+   * @param judge the judge that scored the team
+   * @return the total, null if the judge hasn't scored the team or the team
+   *         was a no show
+   * @throws SQLException if an error occurs
+   */
+  @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Category determines table name")
+  public static Double updateSubjectiveScoreTotal(final ScoreCategory category,
+                                                  final Connection connection,
+                                                  final int tournament,
+                                                  final int teamNumber,
+                                                  final String judge)
+      throws SQLException {
+    PreparedStatement selectPrep = null;
+    ResultSet rs = null;
+    try {
+      selectPrep = connection.prepareStatement("SELECT * FROM " //
+          + category.getName() //
+          + " WHERE Tournament = ? AND TeamNumber = ? AND Judge = ?");
+      selectPrep.setInt(1, tournament);
+      selectPrep.setInt(2, teamNumber);
+      selectPrep.setString(3, judge);
+      rs = selectPrep.executeQuery();
+      if (!rs.next()) {
+        return null;
+      }
+
+      final TeamScore teamScore = new DatabaseTeamScore(teamNumber, rs);
+      if (teamScore.isNoShow()) {
+        return null;
+      }
+
+      final double existingTotal = rs.getDouble("ComputedTotal");
+      if (!rs.wasNull()) {
+        return existingTotal;
+      }
+
+      final double computedTotal = category.evaluate(teamScore);
+      if (Double.isNaN(computedTotal)) {
+        return null;
+      }
+
+      try (PreparedStatement updatePrep = connection.prepareStatement("UPDATE "//
+          + category.getName() //
+          + " SET ComputedTotal = ? WHERE TeamNumber = ? AND Tournament = ? AND Judge = ?")) {
+        updatePrep.setDouble(1, computedTotal);
+        updatePrep.setInt(2, teamNumber);
+        updatePrep.setInt(3, tournament);
+        updatePrep.setString(4, judge);
+        updatePrep.executeUpdate();
+      }
+      return computedTotal;
+    } finally {
+      SQLFunctions.close(rs);
+      SQLFunctions.close(selectPrep);
+    }
+  }
+
+  /**
+   * Compute the total scores for entered performance scores. Uses both
    * verified and unverified scores.
    * 
    * @param connection connection to the database
    * @param tournament the tournament to update scores for.
+   * @param missingOnly if true, only compute the totals for the scores that
+   *          don't have one. A timestamp isn't used because a score committed
+   *          while a summary is running can be older than the time the
+   *          summary records.
    * @throws SQLException
    */
   private static void updatePerformanceScoreTotals(final ChallengeDescription description,
                                                    final Connection connection,
-                                                   final int tournament)
+                                                   final int tournament,
+                                                   final boolean missingOnly)
       throws SQLException {
     PreparedStatement updatePrep = null;
     PreparedStatement selectPrep = null;
@@ -1847,12 +2039,14 @@ public final class Queries {
       // build up the SQL
       updatePrep = connection.prepareStatement("UPDATE Performance SET ComputedTotal = ? WHERE TeamNumber = ? AND Tournament = ? AND RunNumber = ?");
       updatePrep.setInt(3, tournament);
-      selectPrep = connection.prepareStatement("SELECT * FROM Performance WHERE Tournament = ?");
+      selectPrep = connection.prepareStatement("SELECT * FROM Performance WHERE Tournament = ?"
+          + (missingOnly ? " AND ComputedTotal IS NULL AND NoShow = FALSE AND Bye = FALSE" : ""));
       selectPrep.setInt(1, tournament);
 
       final PerformanceScoreCategory performanceElement = description.getPerformance();
       final double minimumPerformanceScore = performanceElement.getMinimumScore();
       rs = selectPrep.executeQuery();
+      int batchSize = 0;
       while (rs.next()) {
         if (!rs.getBoolean("Bye")) {
           final int teamNumber = rs.getInt("TeamNumber");
@@ -1877,9 +2071,18 @@ public final class Queries {
           }
           updatePrep.setInt(2, teamNumber);
           updatePrep.setInt(4, runNumber);
-          updatePrep.executeUpdate();
+          updatePrep.addBatch();
+
+          ++batchSize;
+          if (batchSize >= SCORE_TOTAL_BATCH_SIZE) {
+            updatePrep.executeBatch();
+            batchSize = 0;
+          }
         }
       }
+      if (batchSize > 0) {
+        updatePrep.executeBatch();
+      }
       rs.close();
       updatePrep.close();
       selectPrep.close();
@@ -2079,6 +2282,8 @@ public final class Queries {
       SQLFunctions.close(prep);
     }
 
+    ScoreboardUpdateWebSocket.notifyToReload();
+
   }
 
   /**
@@ -2192,6 +2397,7 @@ public final class Queries {
       SQLFunctions.close(prep);
     }
 
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -2212,6 +2418,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -2232,6 +2440,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -2252,6 +2462,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -2270,6 +2482,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -2288,6 +2502,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    AllTeams.invalidateCache();
   }
 
   /**
@@ -3091,6 +3307,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    LoginCache.add(user, magicKey);
   }
 
   /**
@@ -3102,6 +3320,8 @@ public final class Queries {
   public static String checkValidLogin(final Connection connection,
                                        final Collection<String> keys)
       throws SQLException {
+    final long cacheGeneration = LoginCache.getGeneration();
+
     // not doing the comparison with SQL to avoid SQL injection attack
     Statement stmt = null;
     ResultSet rs = null;
@@ -3113,6 +3333,7 @@ public final class Queries {
         final String compare = rs.getString(2);
         for (final String magicKey : keys) {
           if (ComparisonUtils.safeEquals(magicKey, compare)) {
+            LoginCache.addIfUnchanged(user, magicKey, cacheGeneration);
             return user;
           }
         }
@@ -3138,6 +3359,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    LoginCache.removeKey(magicKey);
   }
 
   public static void changePassword(final Connection connection,
@@ -3169,6 +3392,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(prep);
     }
+
+    LoginCache.removeUser(user);
   }
 
   /**
@@ -3182,6 +3407,8 @@ public final class Queries {
     } finally {
       SQLFunctions.close(stmt);
     }
+
+    LoginCache.clear();
   }
 
   /**
@@ -3204,6 +3431,8 @@ public final class Queries {
       SQLFunctions.close(removeKeys);
       SQLFunctions.close(removeUser);
     }
+
+    LoginCache.removeUser(user);
   }
 
   /**
@@ -51,6 +51,14 @@ public final class TournamentParameters {
                                                final int tournament,
                                                final String paramName)
       throws SQLException {
+    return ParameterCache.getTournament(connection, tournament, paramName, "int",
+                                        () -> loadIntTournamentParameter(connection, tournament, paramName));
+  }
+
+  private static int loadIntTournamentParameter(final Connection connection,
+                                                final int tournament,
+                                                final String paramName)
+      throws SQLException {
     ResultSet rs = null;
     PreparedStatement prep = null;
     try {
@@ -83,6 +91,13 @@ public final class TournamentParameters {
   private static int getIntTournamentParameterDefault(final Connection connection,
                                                       final String paramName)
       throws SQLException {
+    return ParameterCache.getTournament(connection, GenerateDB.INTERNAL_TOURNAMENT_ID, paramName, "int",
+                                        () -> loadIntTournamentParameterDefault(connection, paramName));
+  }
+
+  private static int loadIntTournamentParameterDefault(final Connection connection,
+                                                       final String paramName)
+      throws SQLException {
     ResultSet rs = null;
     PreparedStatement prep = null;
     try {
@@ -118,6 +133,14 @@ public final class TournamentParameters {
                                                        final int tournament,
                                                        final String paramName)
       throws SQLException {
+    return ParameterCache.getTournament(connection, tournament, paramName, "exists",
+                                        () -> loadTournamentParameterValueExists(connection, tournament, paramName));
+  }
+
+  private static boolean loadTournamentParameterValueExists(final Connection connection,
+                                                            final int tournament,
+                                                            final String paramName)
+      throws SQLException {
     ResultSet rs = null;
     PreparedStatement prep = null;
     try {
@@ -156,6 +179,8 @@ public final class TournamentParameters {
       prep.setInt(1, tournament);
       prep.setString(2, paramName);
       prep.executeUpdate();
+
+      ParameterCache.invalidateTournament(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
@@ -186,6 +211,8 @@ public final class TournamentParameters {
       prep.setInt(3, tournament);
 
       prep.executeUpdate();
+
+      ParameterCache.invalidateTournament(connection, paramName);
     } finally {
       SQLFunctions.close(prep);
     }
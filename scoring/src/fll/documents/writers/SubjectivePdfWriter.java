@@ -1,16 +1,16 @@
 package fll.documents.writers;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.time.LocalTime;
+import java.util.LinkedList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
 
+import com.itextpdf.text.BadElementException;
 import com.itextpdf.text.BaseColor;
 import com.itextpdf.text.Chunk;
 import com.itextpdf.text.Document;
@@ -21,14 +21,16 @@ import com.itextpdf.text.Image;
 import com.itextpdf.text.PageSize;
 import com.itextpdf.text.Paragraph;
 import com.itextpdf.text.Phrase;
+import com.itextpdf.text.pdf.ColumnText;
 import com.itextpdf.text.pdf.PdfPCell;
 import com.itextpdf.text.pdf.PdfPTable;
-import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.PdfTemplate;
 import com.itextpdf.text.pdf.PdfWriter;
 
 import fll.documents.elements.RowElement;
 import fll.documents.elements.SheetElement;
 import fll.documents.elements.TableElement;
+import fll.scheduler.SubjectiveTime;
 import fll.scheduler.TeamScheduleInfo;
 import fll.scheduler.TournamentSchedule;
 import fll.util.LogUtils;
@@ -121,7 +123,43 @@ public class SubjectivePdfWriter {
   }
 
   /**
-   * Write out a subjective sheet for the specified team.
+   * Write out a subjective sheet for the specified team. Only the header is
+   * written for each team, the rest of the page is the rubric template.
+   * 
+   * @param doc where to write to
+   * @param pdfWriter the writer for doc
+   * @param teamInfo the team information to use when writing
+   * @param rubric the rubric from
+   *          {@link #createRubricTemplate(PdfWriter, Font, int, float)} for
+   *          pdfWriter
+   * @throws MalformedURLException
+   * @throws IOException
+   * @throws DocumentException
+   */
+  public void writeTeamSubjectivePdf(final Document doc,
+                                     final PdfWriter pdfWriter,
+                                     final TeamScheduleInfo teamInfo,
+                                     final PdfTemplate rubric)
+      throws MalformedURLException, IOException, DocumentException {
+    doc.add(createHeader(teamInfo));
+
+    float top = pdfWriter.getVerticalPosition(true);
+    if (top
+        - rubric.getHeight() < doc.bottom()) {
+      // the header is taller than expected, put the rubric on its own page
+      doc.newPage();
+      top = doc.top();
+    }
+    pdfWriter.getDirectContent().addTemplate(rubric, doc.left(), top
+        - rubric.getHeight());
+
+    doc.newPage();
+  }
+
+  /**
+   * Write out a subjective sheet for the specified team with the rubric
+   * flowing onto as many pages as it needs. This is used when the rubric is
+   * too tall to fit on a page as a template.
    * 
    * @param doc where to write to
    * @param teamInfo the team information to use when writing
@@ -135,46 +173,116 @@ public class SubjectivePdfWriter {
                                      final TeamScheduleInfo teamInfo,
                                      final Font font,
                                      final int commentHeight)
-                                         throws MalformedURLException, IOException, DocumentException {
+      throws MalformedURLException, IOException, DocumentException {
+    doc.add(createHeader(teamInfo));
+    for (final Element element : createRubricElements(font, commentHeight)) {
+      doc.add(element);
+    }
+
+    doc.newPage();
+  }
+
+  /**
+   * Render the parts of the sheet that are the same for every team: the
+   * directions, the rubric and the comment sections. The template can only be
+   * used with the writer that it was created with.
+   * 
+   * @param pdfWriter the writer that the template will be used with
+   * @param font the font to use for comments and the rubric
+   * @param commentHeight number of rows to put in the comment section
+   * @param width the width of the template
+   * @return the template, sized to fit the contents
+   * @throws DocumentException
+   */
+  public PdfTemplate createRubricTemplate(final PdfWriter pdfWriter,
+                                          final Font font,
+                                          final int commentHeight,
+                                          final float width)
+      throws DocumentException {
+    final float height = computeRubricHeight(font, commentHeight, width);
+
+    final PdfTemplate template = pdfWriter.getDirectContent().createTemplate(width, height);
+    final ColumnText column = new ColumnText(template);
+    column.setSimpleColumn(0, 0, width, height);
+    for (final Element element : createRubricElements(font, commentHeight)) {
+      column.addElement(element);
+    }
+    column.go();
+    return template;
+  }
+
+  /**
+   * Height that the rubric needs, see
+   * {@link #createRubricTemplate(PdfWriter, Font, int, float)}.
+   */
+  private float computeRubricHeight(final Font font,
+                                    final int commentHeight,
+                                    final float width)
+      throws DocumentException {
+    final ColumnText column = new ColumnText(null);
+    column.setSimpleColumn(0, 0, width, MAX_RUBRIC_HEIGHT);
+    for (final Element element : createRubricElements(font, commentHeight)) {
+      column.addElement(element);
+    }
+    column.go(true);
+    // allow for rounding so that the last row isn't dropped
+    return MAX_RUBRIC_HEIGHT
+        - column.getYLine()
+        + 1;
+  }
+
+  /**
+   * Larger than any rubric, used to measure rubrics.
+   */
+  private static final float MAX_RUBRIC_HEIGHT = 10000;
+
+  private List<Element> createRubricElements(final Font font,
+                                             final int commentHeight)
+      throws DocumentException {
+    final List<Element> elements = new LinkedList<>();
+    elements.add(createDirections());
+    elements.add(createColumnTitlesTable());
+
     final PdfPTable table = createStandardRubricTable();
-    writeHeader(doc, teamInfo);
     for (final String category : sheetElement.getCategories()) {
       writeRubricTable(table, sheetElement.getTableElement(category), font);
       writeCommentsSection(table, font, commentHeight);
     }
+    elements.add(table);
 
-    doc.add(table);
-
-    writeEndOfPageRow(doc);
+    elements.add(createEndOfPageTable());
+    return elements;
   }
 
-  private void writeHeader(final Document doc,
-                           final TeamScheduleInfo teamInfo)
-                               throws MalformedURLException, IOException, DocumentException {
-    Image image = null;
-    PdfPTable pageHeaderTable = null;
-    PdfPTable columnTitlesTable = null;
-    PdfPCell headerCell = null;
-    Paragraph directions = null;
-    String dirText = null;
-    Phrase text = null;
+  /**
+   * The FLL image at the top of each page. The same image is used for every
+   * page so that it is only stored once in the document.
+   */
+  private Image headerImage = null;
+
+  private Image getHeaderImage() throws BadElementException, MalformedURLException, IOException {
+    if (null == headerImage) {
+      // get the FLL image to put on the document
+      final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+      final URL imageUrl = classLoader.getResource("fll/resources/documents/FLLHeader.png");
+      headerImage = Image.getInstance(imageUrl);
+
+      // make it a little smaller
+      headerImage.scalePercent(85);
+    }
+    return headerImage;
+  }
 
+  private PdfPTable createHeader(final TeamScheduleInfo teamInfo)
+      throws MalformedURLException, IOException, DocumentException {
     // set up the header for proper spacing
-    pageHeaderTable = new PdfPTable(4);
+    final PdfPTable pageHeaderTable = new PdfPTable(4);
     pageHeaderTable.setSpacingAfter(5f);
     pageHeaderTable.setWidthPercentage(100f);
     pageHeaderTable.setSpacingBefore(0f);
 
-    // get the FLL image to put on the document
-    final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
-    final URL imageUrl = classLoader.getResource("fll/resources/documents/FLLHeader.png");
-    image = Image.getInstance(imageUrl);
-
-    // make it a little smaller
-    image.scalePercent(85);
-
     // put the image in the header cell
-    headerCell = new PdfPCell(image, false);
+    final PdfPCell headerCell = new PdfPCell(getHeaderImage(), false);
     headerCell.setRowspan(2);
     headerCell.setBorder(0);
     headerCell.setVerticalAlignment(Element.ALIGN_TOP);
@@ -203,16 +311,23 @@ public class SubjectivePdfWriter {
     c.setVerticalAlignment(Element.ALIGN_LEFT);
     pageHeaderTable.addCell(c);
 
+    return pageHeaderTable;
+  }
+
+  private Paragraph createDirections() {
     // add the instructions to the header
-    dirText = "Directions: For each skill area, clearly mark the box that best describes the team's accomplishments.  "
+    final String dirText = "Directions: For each skill area, clearly mark the box that best describes the team's accomplishments.  "
         + "If the team does not demonstrate skill in a particular area, then put an 'X' in the first box for Not Demonstrated (ND).  "
         + "Please provide as many written comments as you can to acknowledge each teams's hard work and to help teams improve. "
         + "When you have completed the evaluation, please circle the team's areas of strength.";
-    text = new Phrase(dirText, f9b);
-    directions = new Paragraph();
+    final Phrase text = new Phrase(dirText, f9b);
+    final Paragraph directions = new Paragraph();
     directions.add(text);
     directions.setLeading(10f);
+    return directions;
+  }
 
+  private PdfPTable createColumnTitlesTable() throws DocumentException {
     ///////////////////////////////////////////////////////////////////////////////////////////////////////////////
     // TOP TITLE BAR START
     //
@@ -225,7 +340,7 @@ public class SubjectivePdfWriter {
 
     final List<String> rubricRangeTitles = sheetElement.getRubricRangeTitles();
 
-    columnTitlesTable = new PdfPTable(rubricRangeTitles.size()
+    final PdfPTable columnTitlesTable = new PdfPTable(rubricRangeTitles.size()
         + 2);
     columnTitlesTable.setSpacingBefore(5);
     columnTitlesTable.setWidthPercentage(100f);
@@ -237,18 +352,10 @@ public class SubjectivePdfWriter {
       columnTitlesTable.addCell(createCell(title, f10b, NO_BORDERS));
     }
     columnTitlesTable.setSpacingAfter(3);
-
-    // add the header, instructions and section column titles to the document
-    try {
-      doc.add(pageHeaderTable);
-      doc.add(directions);
-      doc.add(columnTitlesTable);
-    } catch (DocumentException de) {
-      LOGGER.error("Unable to write out the document.", de);
-    }
+    return columnTitlesTable;
   }
 
-  public void writeEndOfPageRow(final Document doc) throws DocumentException {
+  private PdfPTable createEndOfPageTable() {
     PdfPTable closingTable = new PdfPTable(1);
 
     closingTable.setWidthPercentage(100f);
@@ -284,16 +391,14 @@ public class SubjectivePdfWriter {
       closingTable.addCell(copyrightC);
     }
 
-    doc.add(closingTable);
-
-    doc.newPage();
+    return closingTable;
   }
 
   public static Document createStandardDocument() {
     return new Document(PageSize.LETTER, 36, 36, 20, 36);
   }
 
-  public PdfPTable createStandardRubricTable() throws DocumentException {
+  private PdfPTable createStandardRubricTable() throws DocumentException {
     PdfPTable table = new PdfPTable(6);
     table.setWidths(colWidths);
     table.setWidthPercentage(100f);
@@ -466,48 +571,46 @@ public class SubjectivePdfWriter {
   }
 
   /**
-   * @param sheetElement describes the subjective category to output
+   * Find the largest font and comment section that fit the sheet on one page.
+   * 
+   * @param doc the document that will be written to, used for the page size
    * @return Font to use and the number of rows for the comment sheet
    * @throws MalformedURLException
    * @throws IOException
    * @throws DocumentException
    */
-  private static Pair<Font, Integer> determineParameters(final ChallengeDescription description,
-                                                         final SheetElement sheetElement) throws MalformedURLException,
-                                                             IOException, DocumentException {
+  private Pair<Font, Integer> determineParameters(final Document doc)
+      throws MalformedURLException, IOException, DocumentException {
+    final float width = doc.right()
+        - doc.left();
+
+    final TeamScheduleInfo teamInfo = new TeamScheduleInfo(1, 1);
+    teamInfo.setDivision("dummy");
+    teamInfo.setJudgingGroup("Dummy");
+    teamInfo.setOrganization("Dummy");
+    teamInfo.setTeamName("Dummy");
+    if (null != scheduleColumn) {
+      teamInfo.addSubjectiveTime(new SubjectiveTime(scheduleColumn, LocalTime.NOON));
+    }
+    final PdfPTable header = createHeader(teamInfo);
+    header.setTotalWidth(width);
+    header.setLockedWidth(true);
+    final float available = doc.top()
+        - doc.bottom()
+        - header.getTotalHeight()
+        - header.spacingAfter();
 
     for (int commentHeight = 2; commentHeight > 0; --commentHeight) {
       for (int pointSize = 12; pointSize >= 6; --pointSize) {
         final Font font = new Font(Font.FontFamily.HELVETICA, pointSize);
-
-        com.itextpdf.text.Document pdf = SubjectivePdfWriter.createStandardDocument();
-
-        final ByteArrayOutputStream out = new ByteArrayOutputStream();
-
-        PdfWriter.getInstance(pdf, out);
-
-        pdf.open();
-
-        final SubjectivePdfWriter writer = new SubjectivePdfWriter(description, sheetElement, null);
-
-        final TeamScheduleInfo teamInfo = new TeamScheduleInfo(1, 1);
-        teamInfo.setDivision("dummy");
-        teamInfo.setJudgingGroup("Dummy");
-        teamInfo.setOrganization("Dummy");
-        teamInfo.setTeamName("Dummy");
-        writer.writeTeamSubjectivePdf(pdf, teamInfo, font, commentHeight);
-
-        pdf.close();
-
-        final ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
-        final PdfReader reader = new PdfReader(in);
-        if (reader.getNumberOfPages() == 1) {
+        if (computeRubricHeight(font, commentHeight, width) <= available) {
           return new Pair<>(font, commentHeight);
         }
       } // font size
     } // comment height
 
-    // no font size fit, just use 10 with comment height 2
+    // no font size fit, just use 10 with comment height 2, the rubric will
+    // flow onto a second page
     return new Pair<>(new Font(Font.FontFamily.HELVETICA, 10), 2);
   }
 
@@ -530,21 +633,36 @@ public class SubjectivePdfWriter {
                                     final List<TeamScheduleInfo> schedule)
                                         throws DocumentException, MalformedURLException, IOException {
 
-    final Pair<Font, Integer> parameters = determineParameters(description, sheetElement);
-    final Font font = parameters.getOne();
-    final int commentHeight = parameters.getTwo();
-
     com.itextpdf.text.Document pdf = SubjectivePdfWriter.createStandardDocument();
 
-    PdfWriter.getInstance(pdf, new FileOutputStream(filename));
+    final PdfWriter pdfWriter = PdfWriter.getInstance(pdf, new FileOutputStream(filename));
 
     pdf.open();
 
     final SubjectivePdfWriter writer = new SubjectivePdfWriter(description, sheetElement, schedulerColumn);
 
-    // Go through all of the team schedules and put them all into a pdf
-    for (final TeamScheduleInfo teamInfo : schedule) {
-      writer.writeTeamSubjectivePdf(pdf, teamInfo, font, commentHeight);
+    final Pair<Font, Integer> parameters = writer.determineParameters(pdf);
+    final Font font = parameters.getOne();
+    final int commentHeight = parameters.getTwo();
+
+    final float width = pdf.right()
+        - pdf.left();
+    if (writer.computeRubricHeight(font, commentHeight, width) > pdf.top()
+        - pdf.bottom()) {
+      // a template can't span pages, let the rubric flow onto the next page
+      LOGGER.warn("The rubric for "
+          + sheetElement.getSheetName() + " doesn't fit on one page");
+      for (final TeamScheduleInfo teamInfo : schedule) {
+        writer.writeTeamSubjectivePdf(pdf, teamInfo, font, commentHeight);
+      }
+    } else {
+      // the rubric is the same for every team, only render it once
+      final PdfTemplate rubric = writer.createRubricTemplate(pdfWriter, font, commentHeight, width);
+
+      // Go through all of the team schedules and put them all into a pdf
+      for (final TeamScheduleInfo teamInfo : schedule) {
+        writer.writeTeamSubjectivePdf(pdf, pdfWriter, teamInfo, rubric);
+      }
     }
 
     pdf.close();
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.scheduler;
+
+import java.io.File;
+
+/**
+ * The best solution found by one or more {@link GreedySolver} instances
+ * working on the same problem. To check and update the solution atomically
+ * callers synchronize on this object.
+ */
+/* package */ final class BestSolution {
+
+  private volatile ObjectiveValue objective = null;
+
+  private File file = null;
+
+  /**
+   * The objective value of the best solution. This can be read without holding
+   * the lock so that solvers can check it frequently to prune their search.
+   *
+   * @return the objective value or null if no solution has been found
+   */
+  public ObjectiveValue getObjective() {
+    return objective;
+  }
+
+  /**
+   * @return the file that contains the best solution or null if no solution
+   *         has been found
+   */
+  public synchronized File getFile() {
+    return file;
+  }
+
+  /**
+   * @param objective the objective to check
+   * @return true if objective is better than the current best solution
+   */
+  public synchronized boolean isBetter(final ObjectiveValue objective) {
+    return null == this.objective
+        || objective.compareTo(this.objective) < 0;
+  }
+
+  /**
+   * Store a new best solution. The file for the previous best solution is
+   * deleted.
+   *
+   * @param objective the objective value of the new solution
+   * @param file the file the new solution is stored in
+   */
+  public synchronized void update(final ObjectiveValue objective,
+                                  final File file) {
+    if (null != this.file) {
+      if (!this.file.delete()) {
+        this.file.deleteOnExit();
+      }
+    }
+    this.objective = objective;
+    this.file = file;
+  }
+
+}
@@ -26,8 +26,10 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.cli.CommandLine;
@@ -68,34 +70,74 @@ public class GreedySolver {
   }
 
   /**
-   * group, team, station
+   * Index of the first team of each group in the per team arrays, see
+   * {@link #teamId(int, int)}.
    */
-  private final boolean[][][] subjectiveScheduled;
+  private final int[] groupOffset;
 
   /**
-   * group, team
+   * Subjective start time for team id, station. -1 if the team hasn't been
+   * scheduled at the station.
    */
-  private final int[][] performanceScheduled;
+  private final int[][] subjectiveStart;
 
   /**
-   * group, team, station, time
+   * Number of subjective stations scheduled for each team id.
    */
-  private final boolean[][][][] sy;
+  private final int[] subjectiveScheduled;
 
   /**
-   * group, team, station, time
+   * Number of subjective stations scheduled for each group.
    */
-  private final boolean[][][][] sz;
+  private final int[] groupSubjectiveScheduled;
 
   /**
-   * group, team, table, side, time
+   * Number of performances scheduled for each team id.
    */
-  private final boolean[][][][][] py;
+  private final int[] performanceScheduled;
+
+  private int numSubjectiveScheduled = 0;
+
+  private int numPerformanceScheduled = 0;
+
+  /**
+   * Row per team id, timeslots that the team is in subjective judging.
+   */
+  private final TimeslotBitsets teamSubjectiveBusy;
+
+  /**
+   * Row per team id, timeslots that the team is in performance.
+   */
+  private final TimeslotBitsets teamPerformanceBusy;
 
   /**
-   * group, team, table, side, time
+   * Row per team id, timeslots that the team starts a performance.
    */
-  private final boolean[][][][][] pz;
+  private final TimeslotBitsets teamPerformanceStart;
+
+  /**
+   * Row per group, station (see {@link #stationRow(int, int)}), timeslots
+   * that the judges are seeing a team.
+   */
+  private final TimeslotBitsets stationBusy;
+
+  /**
+   * Row per table, side (see {@link #tableRow(int, int)}), timeslots that
+   * a team is on the table.
+   */
+  private final TimeslotBitsets tableBusy;
+
+  /**
+   * Team id on each table row at each timeslot, -1 if no team is there.
+   * Indexed by table row * number of timeslots + timeslot.
+   */
+  private final int[] tableOccupant;
+
+  /**
+   * The number of timeslots that the state arrays were created with.
+   * {@link #numTimeslots} may be reduced as the search progresses.
+   */
+  private final int maxTimeslots;
 
   /**
    * next available time for group, station
@@ -115,18 +157,30 @@ public class GreedySolver {
 
   private final File datafile;
 
-  private File mBestSchedule = null;
+  private final BestSolution bestSolution;
 
   /**
    * File that contains the best schedule found.
    */
   public File getBestSchedule() {
-    return mBestSchedule;
+    return bestSolution.getFile();
   }
 
-  private int solutionsFound = 0;
+  private final AtomicInteger solutionsFound = new AtomicInteger(0);
+
+  /**
+   * The number of solutions found by this solver. This may be called from any
+   * thread while the solver is running.
+   */
+  public int getNumSolutionsFound() {
+    return solutionsFound.get();
+  }
 
-  private ObjectiveValue bestObjective = null;
+  /**
+   * Index of this solver when part of a {@link ParallelGreedySolver}, 0
+   * otherwise.
+   */
+  private final int worker;
 
   private final boolean optimize;
 
@@ -212,8 +266,31 @@ public class GreedySolver {
   public GreedySolver(final File datafile,
                       final boolean optimize)
       throws IOException, ParseException, InvalidParametersException {
+    this(datafile, optimize, 0, new BestSolution());
+  }
+
+  /**
+   * Create a solver that is one of several solvers working on the same
+   * problem. Worker 0 searches in the same order as a standalone solver, the
+   * other workers start with a different team ordering and subjective start
+   * offset so that they explore different parts of the search space.
+   * 
+   * @param datafile the datafile for the schedule to solve
+   * @param optimize if true, keep searching for better solutions
+   * @param worker the index of this solver, used to seed the search
+   * @param bestSolution the best solution shared between all solvers
+   * @throws ParseException
+   * @throws InvalidParametersException
+   */
+  /* package */ GreedySolver(final File datafile,
+                             final boolean optimize,
+                             final int worker,
+                             final BestSolution bestSolution)
+      throws IOException, ParseException, InvalidParametersException {
     this.datafile = datafile;
     this.optimize = optimize;
+    this.worker = worker;
+    this.bestSolution = bestSolution;
     if (this.optimize) {
       LOGGER.info("Optimization is turned on");
     }
@@ -245,13 +322,10 @@ public class GreedySolver {
 
     performanceChangetime = this.solverParameters.getPerformanceChangetimeMinutes();
 
-    sz = new boolean[solverParameters.getNumGroups()][][][];
-    sy = new boolean[solverParameters.getNumGroups()][][][];
-    pz = new boolean[solverParameters.getNumGroups()][][][][];
-    py = new boolean[solverParameters.getNumGroups()][][][][];
-    subjectiveScheduled = new boolean[solverParameters.getNumGroups()][][];
+    maxTimeslots = numTimeslots;
     subjectiveStations = new int[solverParameters.getNumGroups()][getNumSubjectiveStations()];
-    performanceScheduled = new int[solverParameters.getNumGroups()][];
+    groupOffset = new int[solverParameters.getNumGroups()];
+    groupSubjectiveScheduled = new int[solverParameters.getNumGroups()];
 
     final List<Integer> performanceOffsets = new ArrayList<Integer>();
     performanceOffsets.addAll(solverParameters.getPerformanceAttemptOffsetMinutes());
@@ -297,44 +371,82 @@ public class GreedySolver {
 
     final Map<String, Integer> judgingGroups = solverParameters.getJudgingGroups();
     int group = 0;
+    int numTeams = 0;
     groupNames = new String[judgingGroups.size()];
     for (final Map.Entry<String, Integer> entry : judgingGroups.entrySet()) {
       final int count = entry.getValue();
 
       groupNames[group] = entry.getKey();
-      sz[group] = new boolean[count][getNumSubjectiveStations()][getNumTimeslots()];
-      sy[group] = new boolean[count][getNumSubjectiveStations()][getNumTimeslots()];
-      pz[group] = new boolean[count][solverParameters.getNumTables()][2][getNumTimeslots()];
-      py[group] = new boolean[count][solverParameters.getNumTables()][2][getNumTimeslots()];
-      subjectiveScheduled[group] = new boolean[count][getNumSubjectiveStations()];
+      groupOffset[group] = numTeams;
       for (int team = 0; team < count; ++team) {
         teams.add(new SchedTeam(team, group));
-
-        for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-          Arrays.fill(sz[group][team][station], false);
-          Arrays.fill(sy[group][team][station], false);
-        }
-
-        for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-          Arrays.fill(pz[group][team][table][0], false);
-          Arrays.fill(pz[group][team][table][1], false);
-          Arrays.fill(py[group][team][table][0], false);
-          Arrays.fill(py[group][team][table][1], false);
-        }
-        Arrays.fill(subjectiveScheduled[group][team], false);
-        Arrays.fill(subjectiveStations[group], 0);
       } // foreach team in a judging group
+      Arrays.fill(subjectiveStations[group], 0);
+      groupSubjectiveScheduled[group] = 0;
 
-      performanceScheduled[group] = new int[count];
-      Arrays.fill(performanceScheduled[group], 0);
-
+      numTeams += count;
       ++group;
     } // foreach judging group
 
+    subjectiveStart = new int[numTeams][getNumSubjectiveStations()];
+    for (final int[] starts : subjectiveStart) {
+      Arrays.fill(starts, -1);
+    }
+    subjectiveScheduled = new int[numTeams];
+    performanceScheduled = new int[numTeams];
+    teamSubjectiveBusy = new TimeslotBitsets(numTeams, maxTimeslots);
+    teamPerformanceBusy = new TimeslotBitsets(numTeams, maxTimeslots);
+    teamPerformanceStart = new TimeslotBitsets(numTeams, maxTimeslots);
+    stationBusy = new TimeslotBitsets(solverParameters.getNumGroups()
+        * getNumSubjectiveStations(), maxTimeslots);
+    tableBusy = new TimeslotBitsets(solverParameters.getNumTables()
+        * 2, maxTimeslots);
+    tableOccupant = new int[tableBusy.getNumRows()
+        * maxTimeslots];
+    Arrays.fill(tableOccupant, -1);
+
     populatePerfEarliestTimes();
 
     // sort list of teams to make sure that the scheduler is deterministic
     Collections.sort(teams, lowestTeamIndex);
+
+    seedSearch();
+  }
+
+  /**
+   * Change the initial team order and subjective start times based on
+   * {@link #worker}. Teams with the same number of assignments are tried in
+   * the order of {@link #teams}, so changing the order changes the search.
+   */
+  private void seedSearch() {
+    if (0 == worker) {
+      return;
+    }
+
+    if (1 == worker) {
+      Collections.sort(teams, Collections.reverseOrder(lowestTeamIndex));
+    } else {
+      Collections.shuffle(teams, new Random(worker));
+    }
+
+    // worker 0 starts at 0, give the other workers a different start offset
+    // when there is more than one possible offset
+    final int subjectiveStartOffset = getSubjectiveAttemptOffset() > 1 ? 1
+        + (worker
+            - 1)
+            % (getSubjectiveAttemptOffset()
+                - 1)
+        : 0;
+    for (int group = 0; group < subjectiveStations.length; ++group) {
+      Arrays.fill(subjectiveStations[group], subjectiveStartOffset);
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Worker "
+          + worker
+          + " subjective start offset: "
+          + subjectiveStartOffset);
+    }
   }
 
   private boolean assignSubjective(final int group,
@@ -360,14 +472,11 @@ public class GreedySolver {
       return false;
     }
 
-    for (int otherCat = 0; otherCat < getNumSubjectiveStations(); ++otherCat) {
-      if (!checkSubjFree(group, team, otherCat, timeslot, getSubjectiveDuration(station))) {
-        if (LOGGER.isTraceEnabled()) {
-          LOGGER.trace("FAILED: overlap with other subjective category: "
-              + otherCat);
-        }
-        return false;
+    if (!checkSubjFree(group, team, timeslot, getSubjectiveDuration(station))) {
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace("FAILED: overlap with other subjective category");
       }
+      return false;
     }
     if (!checkPerfFree(group, team, timeslot, getSubjectiveDuration(station))) {
       if (LOGGER.isTraceEnabled()) {
@@ -383,12 +492,15 @@ public class GreedySolver {
       return false;
     }
 
-    subjectiveScheduled[group][team][station] = true;
-    sz[group][team][station][timeslot] = true;
-    for (int slot = timeslot; slot < timeslot
-        + getSubjectiveDuration(station); ++slot) {
-      sy[group][team][station][slot] = true;
-    }
+    final int teamId = teamId(group, team);
+    subjectiveStart[teamId][station] = timeslot;
+    ++subjectiveScheduled[teamId];
+    ++groupSubjectiveScheduled[group];
+    ++numSubjectiveScheduled;
+    teamSubjectiveBusy.set(teamId, timeslot, timeslot
+        + getSubjectiveDuration(station));
+    stationBusy.set(stationRow(group, station), timeslot, timeslot
+        + getSubjectiveDuration(station));
 
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace("    SUCCESS");
@@ -396,23 +508,43 @@ public class GreedySolver {
     return true;
   }
 
+  /**
+   * Index into the per team state.
+   */
+  private int teamId(final int group,
+                     final int team) {
+    return groupOffset[group]
+        + team;
+  }
+
+  /**
+   * Row in {@link #stationBusy} for a group and station.
+   */
+  private int stationRow(final int group,
+                         final int station) {
+    return group
+        * getNumSubjectiveStations()
+        + station;
+  }
+
+  /**
+   * Row in {@link #tableBusy} for a table and side.
+   */
+  private static int tableRow(final int table,
+                              final int side) {
+    return table
+        * 2
+        + side;
+  }
+
   /**
    * Check that there isn't an overlap at timeslot on the specified station
    */
   private boolean checkSubjStationNoOverlap(final int group,
                                             final int station,
                                             final int timeslot) {
-    for (final SchedTeam team : getAllTeams()) {
-      if (team.getGroup() == group) {
-        for (int slot = timeslot; slot < Math.min(getNumTimeslots(), timeslot
-            + getSubjectiveDuration(station)); ++slot) {
-          if (sy[group][team.getIndex()][station][slot]) {
-            return false;
-          }
-        }
-      }
-    }
-    return true;
+    return !stationBusy.any(stationRow(group, station), timeslot, Math.min(getNumTimeslots(), timeslot
+        + getSubjectiveDuration(station)));
   }
 
   /**
@@ -421,15 +553,8 @@ public class GreedySolver {
   private boolean checkPerfNoOverlap(final int table,
                                      final int side,
                                      final int timeslot) {
-    for (final SchedTeam team : getAllTeams()) {
-      for (int slot = timeslot; slot < Math.min(getNumTimeslots(), timeslot
-          + getPerformanceDuration()); ++slot) {
-        if (py[team.getGroup()][team.getIndex()][table][side][slot]) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return !tableBusy.any(tableRow(table, side), timeslot, Math.min(getNumTimeslots(), timeslot
+        + getPerformanceDuration()));
   }
 
   /**
@@ -465,32 +590,29 @@ public class GreedySolver {
           + timeslot);
     }
 
-    subjectiveScheduled[group][team][station] = false;
-    sz[group][team][station][timeslot] = false;
-    for (int slot = timeslot; slot < timeslot
-        + getSubjectiveDuration(station); ++slot) {
-      sy[group][team][station][slot] = false;
-    }
+    final int teamId = teamId(group, team);
+    subjectiveStart[teamId][station] = -1;
+    --subjectiveScheduled[teamId];
+    --groupSubjectiveScheduled[group];
+    --numSubjectiveScheduled;
+    teamSubjectiveBusy.clear(teamId, timeslot, timeslot
+        + getSubjectiveDuration(station));
+    stationBusy.clear(stationRow(group, station), timeslot, timeslot
+        + getSubjectiveDuration(station));
   }
 
   /**
-   * Make sure that the station for a given team is available and there is
-   * enough changetime.
+   * Make sure that the subjective stations for a given team are available and
+   * there is enough changetime.
    */
   private boolean checkSubjFree(final int group,
                                 final int team,
-                                final int station,
                                 final int timeslot,
                                 final int duration) {
-    for (int slot = Math.max(0, timeslot
-        - getChangetime()); slot < Math.min(getNumTimeslots(), timeslot
+    return !teamSubjectiveBusy.any(teamId(group, team), Math.max(0, timeslot
+        - getChangetime()), Math.min(getNumTimeslots(), timeslot
             + duration
-            + getChangetime()); ++slot) {
-      if (sy[group][team][station][slot]) {
-        return false;
-      }
-    }
-    return true;
+            + getChangetime()));
   }
 
   private final int changetime;
@@ -511,20 +633,10 @@ public class GreedySolver {
                                 final int duration) {
     // check [timeslot - changetime, timeslot + duration + changetime) for
     // conflicts
-    for (int slot = Math.max(0, timeslot
-        - getChangetime()); slot < Math.min(getNumTimeslots(), timeslot
+    return !teamPerformanceBusy.any(teamId(group, team), Math.max(0, timeslot
+        - getChangetime()), Math.min(getNumTimeslots(), timeslot
             + duration
-            + getChangetime()); ++slot) {
-      for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-        if (py[group][team][table][0][slot]) {
-          return false;
-        }
-        if (py[group][team][table][1][slot]) {
-          return false;
-        }
-      }
-    }
-    return true;
+            + getChangetime()));
   }
 
   private boolean assignPerformance(final int group,
@@ -578,14 +690,11 @@ public class GreedySolver {
       }
       return false;
     }
-    for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-      if (!checkSubjFree(group, team, station, timeslot, getPerformanceDuration())) {
-        if (LOGGER.isTraceEnabled()) {
-          LOGGER.trace("FAILED: overlap with subjective station: "
-              + station);
-        }
-        return false;
+    if (!checkSubjFree(group, team, timeslot, getPerformanceDuration())) {
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace("FAILED: overlap with subjective station");
       }
+      return false;
     }
     if (!checkPerfFree(group, team, timeslot, getPerformanceDuration())) {
       if (LOGGER.isTraceEnabled()) {
@@ -621,12 +730,23 @@ public class GreedySolver {
             + timeslot);
       }
 
-      ++performanceScheduled[group][team];
-      pz[group][team][table][side][timeslot] = true;
-      for (int slot = timeslot; slot < timeslot
-          + getPerformanceDuration(); ++slot) {
-        py[group][team][table][side][slot] = true;
-      }
+      final int teamId = teamId(group, team);
+      ++performanceScheduled[teamId];
+      ++numPerformanceScheduled;
+      teamPerformanceStart.set(teamId, timeslot, timeslot
+          + 1);
+      teamPerformanceBusy.set(teamId, timeslot, timeslot
+          + getPerformanceDuration());
+      final int row = tableRow(table, side);
+      tableBusy.set(row, timeslot, timeslot
+          + getPerformanceDuration());
+      Arrays.fill(tableOccupant, row
+          * maxTimeslots
+          + timeslot, row
+              * maxTimeslots
+              + timeslot
+              + getPerformanceDuration(),
+                  teamId);
 
       if (LOGGER.isTraceEnabled()) {
         LOGGER.trace("SUCCESS");
@@ -639,20 +759,10 @@ public class GreedySolver {
   private boolean checkPerfChangetime(final int group,
                                       final int team,
                                       final int timeslot) {
-    for (int slot = Math.max(0, timeslot
-        - getPerformanceChangetime()); slot < Math.min(getNumTimeslots(), timeslot
+    return !teamPerformanceBusy.any(teamId(group, team), Math.max(0, timeslot
+        - getPerformanceChangetime()), Math.min(getNumTimeslots(), timeslot
             + getPerformanceChangetime()
-            + getPerformanceDuration()); ++slot) {
-      for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-        if (py[group][team][table][0][slot]) {
-          return false;
-        }
-        if (py[group][team][table][1][slot]) {
-          return false;
-        }
-      }
-    }
-    return true;
+            + getPerformanceDuration()));
   }
 
   private final int performanceChangetime;
@@ -683,12 +793,23 @@ public class GreedySolver {
           + timeslot);
     }
 
-    --performanceScheduled[group][team];
-    pz[group][team][table][side][timeslot] = false;
-    for (int slot = timeslot; slot < timeslot
-        + getPerformanceDuration(); ++slot) {
-      py[group][team][table][side][slot] = false;
-    }
+    final int teamId = teamId(group, team);
+    --performanceScheduled[teamId];
+    --numPerformanceScheduled;
+    teamPerformanceStart.clear(teamId, timeslot, timeslot
+        + 1);
+    teamPerformanceBusy.clear(teamId, timeslot, timeslot
+        + getPerformanceDuration());
+    final int row = tableRow(table, side);
+    tableBusy.clear(row, timeslot, timeslot
+        + getPerformanceDuration());
+    Arrays.fill(tableOccupant, row
+        * maxTimeslots
+        + timeslot, row
+            * maxTimeslots
+            + timeslot
+            + getPerformanceDuration(),
+                -1);
   }
 
   private final int performanceDuration;
@@ -766,7 +887,8 @@ public class GreedySolver {
 
     // undo partial assignment if not allowed
     if (null != team1) {
-      final boolean lastRoundForTeam1 = performanceScheduled[team1.getGroup()][team1.getIndex()] == solverParameters.getNumPerformanceRounds();
+      final boolean lastRoundForTeam1 = performanceScheduled[teamId(team1.getGroup(),
+                                                                    team1.getIndex())] == solverParameters.getNumPerformanceRounds();
 
       boolean foundOtherTeam = false;
       if (lastRoundForTeam1
@@ -905,15 +1027,29 @@ public class GreedySolver {
   private SchedTeam findPrevTeamOnTable(final int timeslot,
                                         final int table,
                                         final int side) {
-    for (int slot = timeslot
-        - 1; slot >= 0; --slot) {
-      for (final SchedTeam team : getAllTeams()) {
-        if (py[team.getGroup()][team.getIndex()][table][side][slot]) {
-          return team;
-        }
+    final int row = tableRow(table, side);
+    final int slot = tableBusy.last(row, timeslot);
+    if (slot < 0) {
+      return null;
+    }
+    return findTeam(tableOccupant[row
+        * maxTimeslots
+        + slot]);
+  }
+
+  /**
+   * Find the team for a team id.
+   */
+  private SchedTeam findTeam(final int teamId) {
+    for (int group = groupOffset.length
+        - 1; group >= 0; --group) {
+      if (teamId >= groupOffset[group]) {
+        return new SchedTeam(teamId
+            - groupOffset[group], group);
       }
     }
-    return null;
+    throw new FLLInternalException("Cannot find team with id "
+        + teamId);
   }
 
   /**
@@ -925,7 +1061,7 @@ public class GreedySolver {
     List<SchedTeam> possibles = new LinkedList<SchedTeam>();
     for (final SchedTeam team : getAllTeams()) {
       if (team.getGroup() == group
-          && !subjectiveScheduled[team.getGroup()][team.getIndex()][station]) {
+          && subjectiveStart[teamId(team.getGroup(), team.getIndex())][station] < 0) {
         possibles.add(team);
       }
     }
@@ -935,18 +1071,7 @@ public class GreedySolver {
       // if this is the first assignment to any station in this group, then only
       // return 1
       // possible value so that we don't try all teams.
-      boolean firstAssignment = true;
-      for (int s = 0; s < getNumSubjectiveStations()
-          && firstAssignment; ++s) {
-        for (final SchedTeam team : getAllTeams()) {
-          if (team.getGroup() == group) {
-            if (subjectiveScheduled[group][team.getIndex()][s]) {
-              firstAssignment = false;
-            }
-          }
-        }
-      }
-      if (firstAssignment) {
+      if (0 == groupSubjectiveScheduled[group]) {
         return Collections.singletonList(possibles.get(0));
       }
     }
@@ -982,7 +1107,7 @@ public class GreedySolver {
   private List<SchedTeam> getPossiblePerformanceTeams(final int timeslot) {
     List<SchedTeam> possibles = new LinkedList<SchedTeam>();
     for (final SchedTeam team : getAllTeams()) {
-      final int teamNextRound = performanceScheduled[team.getGroup()][team.getIndex()];
+      final int teamNextRound = performanceScheduled[teamId(team.getGroup(), team.getIndex())];
       if (teamNextRound < perfEarliestTimes.length) {
         if (timeslot >= perfEarliestTimes[teamNextRound]) {
           possibles.add(team);
@@ -1021,32 +1146,18 @@ public class GreedySolver {
   }
 
   private boolean subjectiveFinished() {
-    for (final SchedTeam team : getAllTeams()) {
-      for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-        if (!subjectiveScheduled[team.getGroup()][team.getIndex()][station]) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return numSubjectiveScheduled == getAllTeams().size()
+        * getNumSubjectiveStations();
   }
 
+  /**
+   * Teams are never scheduled for more than the number of performance rounds,
+   * so the schedule is finished when the totals match.
+   */
   private boolean scheduleFinished() {
-    for (final SchedTeam team : getAllTeams()) {
-      for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-        if (!subjectiveScheduled[team.getGroup()][team.getIndex()][station]) {
-          return false;
-        }
-      }
-
-      for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-        if (performanceScheduled[team.getGroup()][team.getIndex()] < solverParameters.getNumPerformanceRounds()) {
-          return false;
-        }
-      }
-
-    }
-    return true;
+    return subjectiveFinished()
+        && numPerformanceScheduled == getAllTeams().size()
+            * solverParameters.getNumPerformanceRounds();
   }
 
   private final List<SchedTeam> teams = new LinkedList<SchedTeam>();
@@ -1077,7 +1188,7 @@ public class GreedySolver {
       LOGGER.debug("Solver interrupted");
     }
 
-    if (solutionsFound < 1) {
+    if (solutionsFound.get() < 1) {
       if (null != checkCanceled
           && checkCanceled.isCanceled()) {
         LOGGER.info("Solver canceled before a solution was found");
@@ -1086,78 +1197,62 @@ public class GreedySolver {
       }
     } else {
       LOGGER.info("Found "
-          + solutionsFound
+          + solutionsFound.get()
           + " solutions");
     }
-    return solutionsFound;
+    return solutionsFound.get();
   }
 
   /**
    * Get the number of warnings.
    * 
-   * @param scheduleFile
+   * @param schedule the schedule to check
    * @return the number of warnings or -1 if there are hard violations
    */
-  private int getNumWarnings(final File scheduleFile) {
-    final List<SubjectiveStation> subjectiveParams = this.solverParameters.getSubjectiveStations();
-    final Collection<String> subjectiveHeaders = subjectiveParams.stream().map(ss -> ss.getName())
-                                                                 .collect(Collectors.toList());
-
-    try {
-      final TournamentSchedule schedule = new TournamentSchedule(datafile.getName(), scheduleFile, subjectiveHeaders);
-      final ScheduleChecker checker = new ScheduleChecker(this.solverParameters, schedule);
-      final List<ConstraintViolation> violations = checker.verifySchedule();
-      for (final ConstraintViolation violation : violations) {
-        if (ConstraintViolation.Type.HARD == violation.getType()) {
-          LOGGER.debug("Found hard constraint violations from autosched: "
-              + violation.getMessage());
-          return -1;
-        }
+  private int getNumWarnings(final TournamentSchedule schedule) {
+    final ScheduleChecker checker = new ScheduleChecker(this.solverParameters, schedule);
+    final List<ConstraintViolation> violations = checker.verifySchedule();
+    for (final ConstraintViolation violation : violations) {
+      if (ConstraintViolation.Type.HARD == violation.getType()) {
+        LOGGER.debug("Found hard constraint violations from autosched: "
+            + violation.getMessage());
+        return -1;
       }
-      return violations.size();
-    } catch (final IOException e) {
-      throw new FLLRuntimeException("Should not have an IOException trying to get warnings from CSV file", e);
-    } catch (ParseException e) {
-      throw new FLLRuntimeException("Should not have an ParseException trying to get warnings from CSV file", e);
-    } catch (ScheduleParseException e) {
-      throw new FLLRuntimeException("Should not have an ScheduleParseException trying to get warnings from CSV file",
-                                    e);
     }
+    return violations.size();
   }
 
   /**
-   * @param scheduleFile
+   * @param schedule the current solution converted to a schedule
    * @return the objective value, null on failure
    */
-  private ObjectiveValue computeObjectiveValue(final File scheduleFile) {
+  private ObjectiveValue computeObjectiveValue(final TournamentSchedule schedule) {
     final int[] numTeams = new int[solverParameters.getNumGroups()];
     final int[] latestSubjectiveTime = new int[solverParameters.getNumGroups()];
     for (int group = 0; group < numTeams.length; ++group) {
-      numTeams[group] = subjectiveScheduled[group].length;
+      numTeams[group] = (group
+          + 1 < groupOffset.length ? groupOffset[group
+              + 1] : subjectiveScheduled.length)
+          - groupOffset[group];
       latestSubjectiveTime[group] = findLatestSubjectiveTime(group);
     }
-    final int numWarnings = getNumWarnings(scheduleFile);
+    final int numWarnings = getNumWarnings(schedule);
     if (numWarnings == -1) {
       return null;
     }
-    return new ObjectiveValue(solutionsFound, findLatestPerformanceTime(), numTeams, latestSubjectiveTime, numWarnings);
+    return new ObjectiveValue(solutionsFound.get(), findLatestPerformanceTime(), numTeams, latestSubjectiveTime, numWarnings);
   }
 
   /**
    * The slot that has the latest subjective time for a group of teams.
    */
   private int findLatestSubjectiveTime(final int group) {
-    for (int slot = getNumTimeslots()
-        - 1; slot >= 0; --slot) {
-      for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-        for (final SchedTeam team : getAllTeams()) {
-          if (team.getGroup() == group) {
-            if (sy[team.getGroup()][team.getIndex()][station][slot]) {
-              return slot;
-            }
-          }
-        }
-      }
+    int latest = -1;
+    for (int station = 0; station < getNumSubjectiveStations(); ++station) {
+      latest = Math.max(latest, stationBusy.last(stationRow(group, station), maxTimeslots));
+    }
+    if (latest >= 0) {
+      return latest;
     }
     LOGGER.warn("Got to end of findLatestSubjectiveTime("
         + group
@@ -1169,18 +1264,12 @@ public class GreedySolver {
    * The slot that has the last performance time.
    */
   private int findLatestPerformanceTime() {
-    for (int slot = getNumTimeslots()
-        - 1; slot >= 0; --slot) {
-      for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-        for (final SchedTeam team : getAllTeams()) {
-          if (py[team.getGroup()][team.getIndex()][table][0][slot]) {
-            return slot;
-          }
-          if (py[team.getGroup()][team.getIndex()][table][1][slot]) {
-            return slot;
-          }
-        }
-      }
+    int latest = -1;
+    for (int row = 0; row < tableBusy.getNumRows(); ++row) {
+      latest = Math.max(latest, tableBusy.last(row, maxTimeslots));
+    }
+    if (latest >= 0) {
+      return latest;
     }
     LOGGER.warn("Got to end of findLatestPerformanceTime, this implies that nothing was scheduled");
     return 0;
@@ -1196,11 +1285,13 @@ public class GreedySolver {
       throw new InterruptedException();
     }
 
+    tightenToBestSolution();
+
     if (scheduleFinished()) {
       if (outputCurrentSolution()) {
-        ++solutionsFound;
+        final int numSolutions = solutionsFound.incrementAndGet();
         LOGGER.info("Schedule finished num solutions: "
-            + solutionsFound);
+            + numSolutions);
 
         return true;
       } else {
@@ -1376,61 +1467,81 @@ public class GreedySolver {
     return nextAvailableSubjSlot;
   }
 
+  /**
+   * Check the current solution and if it is better than the best solution
+   * found so far, write it out. The solution is checked in memory, only the
+   * best solutions are written to disk.
+   * 
+   * @return true if the current solution is valid
+   */
   private boolean outputCurrentSolution() {
-    final File scheduleFile = new File(Utilities.extractAbsoluteBasename(datafile)
-        + "-"
-        + solutionsFound
-        + ".csv");
-
-    try {
-      outputSchedule(scheduleFile);
-    } catch (final IOException ioe) {
-      throw new FLLRuntimeException("Error writing schedule", ioe);
-    }
+    final TournamentSchedule schedule = createCurrentSchedule();
 
-    LOGGER.info("Solution output to "
-        + scheduleFile.getAbsolutePath());
-
-    final ObjectiveValue objective = computeObjectiveValue(scheduleFile);
+    final ObjectiveValue objective = computeObjectiveValue(schedule);
     if (null == objective) {
       LOGGER.info("Objective is null, solution is not valid");
-      if (!scheduleFile.delete()) {
-        scheduleFile.deleteOnExit();
-      }
       return false;
     }
 
-    if (null == bestObjective
-        || objective.compareTo(bestObjective) < 0) {
-      LOGGER.info("Schedule provides a better objective value");
-      bestObjective = objective;
-
-      if (null != mBestSchedule) {
-        if (!mBestSchedule.delete()) {
-          mBestSchedule.deleteOnExit();
+    synchronized (bestSolution) {
+      if (bestSolution.isBetter(objective)) {
+        LOGGER.info("Schedule provides a better objective value");
+
+        final File scheduleFile = new File(Utilities.extractAbsoluteBasename(datafile)
+            + "-"
+            + (0 == worker ? "" : worker
+                + "-")
+            + solutionsFound.get()
+            + ".csv");
+
+        try {
+          outputSchedule(scheduleFile, schedule);
+        } catch (final IOException ioe) {
+          throw new FLLRuntimeException("Error writing schedule", ioe);
         }
-      }
-      mBestSchedule = scheduleFile;
 
-      // tighten down the constraints so that we find a better solution
-      final int newNumTimeslots = objective.getLatestPerformanceTime()
-          + 1;
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Tightening numTimeslots from "
-            + numTimeslots
-            + " to "
-            + newNumTimeslots);
-      }
-      numTimeslots = newNumTimeslots;
-    } else {
-      if (!scheduleFile.delete()) {
-        scheduleFile.deleteOnExit();
+        LOGGER.info("Solution output to "
+            + scheduleFile.getAbsolutePath());
+
+        bestSolution.update(objective, scheduleFile);
       }
     }
 
+    // tighten down the constraints so that we find a better solution
+    tightenToBestSolution();
+
     return true;
   }
 
+  /**
+   * Limit the number of timeslots to those needed to beat the best solution
+   * found so far, including those found by other solvers working on the same
+   * problem. Only done when optimizing, otherwise each solver looks for the
+   * same first solution it would find on its own.
+   * Assignments made before the limit was lowered may be at or past the new
+   * limit, so the latest times are found by looking at all timeslots.
+   */
+  private void tightenToBestSolution() {
+    if (!optimize) {
+      return;
+    }
+
+    final ObjectiveValue best = bestSolution.getObjective();
+    if (null != best) {
+      final int newNumTimeslots = best.getLatestPerformanceTime()
+          + 1;
+      if (newNumTimeslots < numTimeslots) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Tightening numTimeslots from "
+              + numTimeslots
+              + " to "
+              + newNumTimeslots);
+        }
+        numTimeslots = newNumTimeslots;
+      }
+    }
+  }
+
   public int getNumSubjectiveStations() {
     return this.solverParameters.getNumSubjectiveStations();
   }
@@ -1454,10 +1565,100 @@ public class GreedySolver {
     return numTimeslots;
   }
 
-  private void outputSchedule(final File schedule) throws IOException {
+  /**
+   * Convert the current state of the solver into a schedule. The team numbers,
+   * names and organizations are generated from the group and index of each
+   * team.
+   */
+  private TournamentSchedule createCurrentSchedule() {
     final List<SubjectiveStation> subjectiveStations = solverParameters.getSubjectiveStations();
+    final List<String> subjectiveHeaders = subjectiveStations.stream().map(ss -> ss.getName())
+                                                             .collect(Collectors.toList());
 
-    try (final CSVWriter csv = new CSVWriter(new OutputStreamWriter(new FileOutputStream(schedule),
+    final List<TeamScheduleInfo> schedule = new LinkedList<TeamScheduleInfo>();
+    for (final SchedTeam team : getAllTeams()) {
+      final int teamNum = (team.getGroup()
+          + 1)
+          * 100
+          + team.getIndex();
+      final TeamScheduleInfo ti = new TeamScheduleInfo(solverParameters.getNumPerformanceRounds(), teamNum);
+      ti.setTeamName("Team "
+          + teamNum);
+      ti.setOrganization("Org "
+          + teamNum);
+      // the CSV output doesn't have an award group column, so the judging
+      // group is used for both
+      ti.setJudgingGroup(groupNames[team.getGroup()]);
+      ti.setDivision(groupNames[team.getGroup()]);
+
+      for (int subj = 0; subj < subjectiveStations.size(); ++subj) {
+        final SubjectiveStation station = subjectiveStations.get(subj);
+
+        final int start = subjectiveStart[teamId(team.getGroup(), team.getIndex())][subj];
+        if (start < 0) {
+          throw new RuntimeException("Could not find a subjective start for group: "
+              + groupNames[team.getGroup()]
+              + " team: "
+              + (team.getIndex()
+                  + 1)
+              + " subj: "
+              + station.getName());
+        }
+        ti.addSubjectiveTime(new SubjectiveTime(station.getName(), getTime(start)));
+      }
+
+      // find all performances for a team and then sort by time
+      final int teamId = teamId(team.getGroup(), team.getIndex());
+      final SortedSet<PerformanceTime> perfTimes = new TreeSet<PerformanceTime>();
+      for (int slot = teamPerformanceStart.next(teamId, 0); slot >= 0; slot = teamPerformanceStart.next(teamId, slot
+          + 1)) {
+        for (int table = 0; table < solverParameters.getNumTables(); ++table) {
+          for (int side = 0; side < 2; ++side) {
+            if (tableOccupant[tableRow(table, side)
+                * maxTimeslots
+                + slot] == teamId) {
+              final String tableName = String.format("Table%d", (table
+                  + 1));
+              final int displayedSide = side
+                  + 1;
+              perfTimes.add(new PerformanceTime(getTime(slot), tableName, displayedSide));
+            }
+          }
+        }
+      }
+      if (perfTimes.size() != solverParameters.getNumPerformanceRounds()) {
+        throw new FLLRuntimeException("Expecting "
+            + solverParameters.getNumPerformanceRounds()
+            + " performance times, but found "
+            + perfTimes.size()
+            + " group: "
+            + (team.getGroup()
+                + 1)
+            + " team: "
+            + (team.getIndex()
+                + 1)
+            + " perfs: "
+            + perfTimes);
+      }
+      int round = 0;
+      for (final PerformanceTime perfTime : perfTimes) {
+        ti.setPerf(round, perfTime);
+        ++round;
+      }
+
+      schedule.add(ti);
+    }
+
+    return new TournamentSchedule(datafile.getName(), solverParameters.getNumPerformanceRounds(), subjectiveHeaders,
+                                  schedule);
+  }
+
+  private void outputSchedule(final File scheduleFile,
+                              final TournamentSchedule schedule)
+      throws IOException {
+    final List<SubjectiveStation> subjectiveStations = solverParameters.getSubjectiveStations();
+
+    try (final CSVWriter csv = new CSVWriter(new OutputStreamWriter(new FileOutputStream(scheduleFile),
                                                                     Utilities.DEFAULT_CHARSET))) {
       final List<String> line = new ArrayList<String>();
       line.add(TournamentSchedule.TEAM_NUMBER_HEADER);
@@ -1476,66 +1677,17 @@ public class GreedySolver {
       csv.writeNext(line.toArray(new String[line.size()]));
       line.clear();
 
-      for (final SchedTeam team : getAllTeams()) {
-        final int teamNum = (team.getGroup()
-            + 1)
-            * 100
-            + team.getIndex();
-        final int judgingGroup = team.getGroup();
-        line.add(String.valueOf(teamNum));
-        line.add("Team "
-            + teamNum);
-        line.add("Org "
-            + teamNum);
-        line.add(groupNames[judgingGroup]); // judging group
-        for (int subj = 0; subj < subjectiveStations.size(); ++subj) {
-          final SubjectiveStation station = subjectiveStations.get(subj);
-
-          final LocalTime time = getTime(sz[team.getGroup()][team.getIndex()][subj], 1);
-          if (null == time) {
-            throw new RuntimeException("Could not find a subjective start for group: "
-                + groupNames[team.getGroup()]
-                + " team: "
-                + (team.getIndex()
-                    + 1)
-                + " subj: "
-                + station.getName());
-          }
-          line.add(TournamentSchedule.formatTime(time));
+      for (final TeamScheduleInfo ti : schedule.getSchedule()) {
+        line.add(String.valueOf(ti.getTeamNumber()));
+        line.add(ti.getTeamName());
+        line.add(ti.getOrganization());
+        line.add(ti.getJudgingGroup());
+        for (final SubjectiveStation station : subjectiveStations) {
+          line.add(TournamentSchedule.formatTime(ti.getSubjectiveTimeByName(station.getName()).getTime()));
         }
 
-        // find all performances for a team and then sort by time
-        final SortedSet<PerformanceTime> perfTimes = new TreeSet<PerformanceTime>();
         for (int round = 0; round < solverParameters.getNumPerformanceRounds(); ++round) {
-          for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-            for (int side = 0; side < 2; ++side) {
-              final LocalTime time = getTime(pz[team.getGroup()][team.getIndex()][table][side], round
-                  + 1);
-              if (null != time) {
-                final String tableName = String.format("Table%d", (table
-                    + 1));
-                final int displayedSide = side
-                    + 1;
-                perfTimes.add(new PerformanceTime(time, tableName, displayedSide));
-              }
-            }
-          }
-        }
-        if (perfTimes.size() != solverParameters.getNumPerformanceRounds()) {
-          throw new FLLRuntimeException("Expecting "
-              + solverParameters.getNumPerformanceRounds()
-              + " performance times, but found "
-              + perfTimes.size()
-              + " group: "
-              + (team.getGroup()
-                  + 1)
-              + " team: "
-              + (team.getIndex()
-                  + 1)
-              + " perfs: "
-              + perfTimes);
-        }
-        for (final PerformanceTime perfTime : perfTimes) {
+          final PerformanceTime perfTime = ti.getPerf(round);
           line.add(TournamentSchedule.formatTime(perfTime.getTime()));
           line.add(perfTime.getTable()
               + " "
@@ -1549,25 +1701,10 @@ public class GreedySolver {
   }
 
   /**
-   * Get the nth time from slot that is true.
-   * 
-   * @param slots the slots to look in
-   * @param count which time to find, 1 based count
-   * @return
+   * Convert a timeslot to a time.
    */
-  private LocalTime getTime(final boolean[] slots,
-                            final int count) {
-    int n = 0;
-    for (int i = 0; i < slots.length; ++i) {
-      if (slots[i]) {
-        ++n;
-        if (n == count) {
-          LocalTime slotTime = solverParameters.getStartTime().plusMinutes(i);
-          return slotTime;
-        }
-      }
-    }
-    return null;
+  private LocalTime getTime(final int slot) {
+    return solverParameters.getStartTime().plusMinutes(slot);
   }
 
   /**
@@ -1649,19 +1786,16 @@ public class GreedySolver {
         int oneAssignments = 0;
         int twoAssignments = 0;
 
-        for (int station = 0; station < getNumSubjectiveStations(); ++station) {
-          if (subjectiveScheduled[one.getGroup()][one.getIndex()][station]) {
-            ++oneAssignments;
-          }
-          if (subjectiveScheduled[two.getGroup()][two.getIndex()][station]) {
-            ++twoAssignments;
-          }
-        }
+        final int oneId = teamId(one.getGroup(), one.getIndex());
+        final int twoId = teamId(two.getGroup(), two.getIndex());
+        oneAssignments += subjectiveScheduled[oneId];
+        twoAssignments += subjectiveScheduled[twoId];
 
-        for (int table = 0; table < solverParameters.getNumTables(); ++table) {
-          oneAssignments += performanceScheduled[one.getGroup()][one.getIndex()];
-          twoAssignments += performanceScheduled[two.getGroup()][two.getIndex()];
-        }
+        // performances are weighted by the number of tables
+        oneAssignments += performanceScheduled[oneId]
+            * solverParameters.getNumTables();
+        twoAssignments += performanceScheduled[twoId]
+            * solverParameters.getNumTables();
 
         if (oneAssignments < twoAssignments) {
           return -1;
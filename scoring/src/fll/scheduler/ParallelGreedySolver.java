@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.PosixParser;
+import org.apache.log4j.Logger;
+
+import fll.scheduler.SchedParams.InvalidParametersException;
+import fll.util.CheckCanceled;
+import fll.util.FLLRuntimeException;
+import fll.util.LogUtils;
+
+/**
+ * Run several {@link GreedySolver} searches on the same problem in parallel.
+ * Each worker starts with a different team ordering and subjective start
+ * offset. The workers share the best solution found so far, so that each
+ * worker only looks for schedules that are better than what any worker has
+ * already found. Without optimization a search stops at its first solution,
+ * so there is nothing to share and only one worker is run.
+ */
+public class ParallelGreedySolver {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private final List<GreedySolver> workers;
+
+  private final BestSolution bestSolution = new BestSolution();
+
+  private final int numThreads;
+
+  private static final String OPTIMIZE_OPTION = "o";
+
+  private static final String DATA_FILE_OPTION = "d";
+
+  private static final String WORKERS_OPTION = "w";
+
+  private static Options buildOptions() {
+    final Options options = new Options();
+    Option option = new Option(DATA_FILE_OPTION, "datafile", true, "<file> the file ");
+    option.setRequired(true);
+    options.addOption(option);
+
+    option = new Option(OPTIMIZE_OPTION, "optimize", false, "Turn on optimization (default: false)");
+    options.addOption(option);
+
+    option = new Option(WORKERS_OPTION, "workers", true,
+                        "<num> the number of searches to run when optimizing (default: number of processors)");
+    options.addOption(option);
+
+    return options;
+  }
+
+  private static void usage(final Options options) {
+    final HelpFormatter formatter = new HelpFormatter();
+    formatter.printHelp("ParallelGreedySolver", options);
+  }
+
+  public static void main(final String[] args) {
+    LogUtils.initializeLogging();
+
+    final Options options = buildOptions();
+
+    // parse options
+    boolean optimize = false;
+    File datafile = null;
+    int numWorkers = Runtime.getRuntime().availableProcessors();
+    try {
+      final CommandLineParser parser = new PosixParser();
+      final CommandLine cmd = parser.parse(options, args);
+
+      if (cmd.hasOption(OPTIMIZE_OPTION)) {
+        optimize = true;
+      }
+
+      if (cmd.hasOption(WORKERS_OPTION)) {
+        numWorkers = Integer.parseInt(cmd.getOptionValue(WORKERS_OPTION));
+      }
+
+      datafile = new File(cmd.getOptionValue(DATA_FILE_OPTION));
+    } catch (final org.apache.commons.cli.ParseException | NumberFormatException pe) {
+      LOGGER.error(pe.getMessage());
+      usage(options);
+      System.exit(1);
+    }
+
+    try {
+      if (!datafile.canRead()) {
+        LOGGER.fatal(datafile.getAbsolutePath()
+            + " is not readable");
+        System.exit(4);
+      }
+
+      final ParallelGreedySolver solver = new ParallelGreedySolver(datafile, optimize, numWorkers);
+      final long start = System.currentTimeMillis();
+      solver.solve(null);
+      final long stop = System.currentTimeMillis();
+      LOGGER.info("Solve took: "
+          + (stop
+              - start)
+              / 1000.0
+          + " seconds");
+      LOGGER.info("Best schedule: "
+          + solver.getBestSchedule());
+
+    } catch (final ParseException e) {
+      LOGGER.fatal(e, e);
+      System.exit(5);
+    } catch (final IOException e) {
+      LOGGER.fatal("Error reading file", e);
+      System.exit(4);
+    } catch (final InvalidParametersException e) {
+      LOGGER.fatal(e, e);
+      System.exit(6);
+    }
+  }
+
+  /**
+   * Create a parallel solver that uses at most one thread per processor.
+   *
+   * @param datafile the datafile for the schedule to solve
+   * @param optimize if true, keep searching for better solutions, otherwise
+   *          a single worker stops at its first solution
+   * @param numWorkers the number of searches to run when optimizing, must be
+   *          at least 1
+   * @throws ParseException
+   * @throws InvalidParametersException
+   */
+  public ParallelGreedySolver(final File datafile,
+                              final boolean optimize,
+                              final int numWorkers)
+      throws IOException, ParseException, InvalidParametersException {
+    if (numWorkers < 1) {
+      throw new IllegalArgumentException("Must have at least 1 worker");
+    }
+
+    // without optimization the other workers don't prune anything, they only
+    // use processor time
+    final int actualWorkers = optimize ? numWorkers : 1;
+    this.numThreads = Math.min(actualWorkers, Runtime.getRuntime().availableProcessors());
+
+    final List<GreedySolver> workers = new ArrayList<>(actualWorkers);
+    for (int worker = 0; worker < actualWorkers; ++worker) {
+      workers.add(new GreedySolver(datafile, optimize, worker, bestSolution));
+    }
+    this.workers = Collections.unmodifiableList(workers);
+  }
+
+  /**
+   * The parameters used by the solvers.
+   */
+  public final SolverParams getParameters() {
+    return workers.get(0).getParameters();
+  }
+
+  /**
+   * File that contains the best schedule found by any of the workers.
+   */
+  public File getBestSchedule() {
+    return bestSolution.getFile();
+  }
+
+  /**
+   * @return the number of workers
+   */
+  public int getNumWorkers() {
+    return workers.size();
+  }
+
+  /**
+   * The number of solutions found by a worker. This may be called from any
+   * thread while the solver is running.
+   *
+   * @param worker the index of the worker
+   */
+  public int getNumSolutionsFound(final int worker) {
+    return workers.get(worker).getNumSolutionsFound();
+  }
+
+  /**
+   * The number of solutions found by all workers. This may be called from any
+   * thread while the solver is running.
+   */
+  public int getNumSolutionsFound() {
+    int total = 0;
+    for (final GreedySolver solver : workers) {
+      total += solver.getNumSolutionsFound();
+    }
+    return total;
+  }
+
+  /**
+   * Solve the problem.
+   *
+   * @param checkCanceled if non-null, used to check if the schedule should be
+   *          interrupted
+   * @return the number of solutions found by all workers
+   */
+  public int solve(final CheckCanceled checkCanceled) {
+    LOGGER.info("Starting "
+        + workers.size()
+        + " solvers on "
+        + numThreads
+        + " threads");
+
+    final ExecutorService pool = Executors.newWorkStealingPool(numThreads);
+    try {
+      final List<Callable<Integer>> tasks = new ArrayList<>(workers.size());
+      for (final GreedySolver solver : workers) {
+        tasks.add(() -> solver.solve(checkCanceled));
+      }
+
+      int solutionsFound = 0;
+      for (final Future<Integer> result : pool.invokeAll(tasks)) {
+        solutionsFound += result.get();
+      }
+
+      LOGGER.info("Found "
+          + solutionsFound
+          + " solutions, best objective: "
+          + bestSolution.getObjective());
+      return solutionsFound;
+    } catch (final InterruptedException e) {
+      LOGGER.debug("Parallel solver interrupted");
+      return getNumSolutionsFound();
+    } catch (final ExecutionException e) {
+      throw new FLLRuntimeException("Error running solver", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+}
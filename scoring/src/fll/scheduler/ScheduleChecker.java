@@ -6,17 +6,19 @@
 
 package fll.scheduler;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.time.LocalTime;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.TreeMap;
 import java.util.TreeSet;
 
 import javax.annotation.Nonnull;
@@ -48,53 +50,43 @@ public class ScheduleChecker {
     this.schedule = schedule;
   }
 
-  private void verifyNumTeamsAtTable(final Collection<ConstraintViolation> violations) {
-    for (final Map.Entry<LocalTime, Map<String, List<TeamScheduleInfo>>> dateEntry : schedule.getMatches().entrySet()) {
-      for (final Map.Entry<String, List<TeamScheduleInfo>> timeEntry : dateEntry.getValue().entrySet()) {
-        final List<TeamScheduleInfo> tableMatches = timeEntry.getValue();
-        if (tableMatches.size() > 2) {
-          final List<Integer> teams = new LinkedList<Integer>();
-          for (final TeamScheduleInfo team : tableMatches) {
-            teams.add(team.getTeamNumber());
-          }
-          final String message = String.format("Too many teams competing on table: %s at time: %s. Teams: %s",
-                                               timeEntry.getKey(), TournamentSchedule.formatTime(dateEntry.getKey()),
-                                               teams);
-          violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null, null,
-                                                 message));
+  private void verifyNumTeamsAtTable(final Collection<ConstraintViolation> violations,
+                                     final LocalTime time,
+                                     final Map<String, List<TeamScheduleInfo>> tables) {
+    for (final Map.Entry<String, List<TeamScheduleInfo>> timeEntry : tables.entrySet()) {
+      final List<TeamScheduleInfo> tableMatches = timeEntry.getValue();
+      if (tableMatches.size() > 2) {
+        final List<Integer> teams = new LinkedList<Integer>();
+        for (final TeamScheduleInfo team : tableMatches) {
+          teams.add(team.getTeamNumber());
         }
+        final String message = String.format("Too many teams competing on table: %s at time: %s. Teams: %s",
+                                             timeEntry.getKey(), TournamentSchedule.formatTime(time), teams);
+        violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null, null,
+                                               message));
       }
     }
   }
 
   /**
    * Verify that there are no more than <code>numberOfTables</code> teams
-   * performing at the same time.
+   * performing at the specified time.
    */
-  private void verifyPerformanceAtTime(final Collection<ConstraintViolation> violations) {
+  private void verifyPerformanceAtTime(final Collection<ConstraintViolation> violations,
+                                       final LocalTime time,
+                                       final Map<String, List<TeamScheduleInfo>> tables) {
     // constraint: tournament:1
-    final Map<LocalTime, Set<TeamScheduleInfo>> teamsAtTime = new HashMap<>();
-    for (final TeamScheduleInfo si : schedule.getSchedule()) {
-      for (int round = 0; round < schedule.getNumberOfRounds(); ++round) {
-        final Set<TeamScheduleInfo> teams;
-        if (teamsAtTime.containsKey(si.getPerfTime(round))) {
-          teams = teamsAtTime.get(si.getPerfTime(round));
-        } else {
-          teams = new HashSet<TeamScheduleInfo>();
-          teamsAtTime.put(si.getPerfTime(round), teams);
-        }
-        teams.add(si);
-      }
+    final Set<TeamScheduleInfo> teams = new HashSet<TeamScheduleInfo>();
+    for (final List<TeamScheduleInfo> tableMatches : tables.values()) {
+      teams.addAll(tableMatches);
     }
 
-    for (final Map.Entry<LocalTime, Set<TeamScheduleInfo>> entry : teamsAtTime.entrySet()) {
-      if (entry.getValue().size() > schedule.getTableColors().size()
-          * 2) {
-        final String message = String.format("There are too many teams in performance at %s",
-                                             TournamentSchedule.formatTime(entry.getKey()));
-        violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null, null,
-                                               message));
-      }
+    if (teams.size() > schedule.getTableColors().size()
+        * 2) {
+      final String message = String.format("There are too many teams in performance at %s",
+                                           TournamentSchedule.formatTime(time));
+      violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null, null,
+                                             message));
     }
   }
 
@@ -149,6 +141,20 @@ public class ScheduleChecker {
     }
   }
 
+  /**
+   * Check the constraints for a single team. This only finds the violations
+   * that {@link #verifySchedule()} finds by looking at the team's own schedule
+   * and opponents, not the violations that involve the whole schedule.
+   * 
+   * @param ti the team to check
+   * @return the violations found for the team
+   */
+  /* package */ List<ConstraintViolation> verifyTeam(final TeamScheduleInfo ti) {
+    final List<ConstraintViolation> violations = new LinkedList<ConstraintViolation>();
+    verifyTeam(violations, ti);
+    return violations;
+  }
+
   @SuppressFBWarnings(value = "IM_BAD_CHECK_FOR_ODD", justification = "The size of a container cannot be negative")
   private void verifyTeam(final Collection<ConstraintViolation> violations,
                           final TeamScheduleInfo ti) {
@@ -459,33 +465,379 @@ public class ScheduleChecker {
   }
 
   /**
-   * Verify the schedule.
+   * Verify the schedule. The violations are cached so that
+   * {@link #verifyChanges(Collection, Collection)} can check just the parts of
+   * the schedule that change.
    * 
    * @return the constraint violations found, empty if no violations
-   * @throws IOException
    */
   public List<ConstraintViolation> verifySchedule() {
-    final List<ConstraintViolation> constraintViolations = new LinkedList<ConstraintViolation>();
+    numViolations = 0;
+    nextTeamDependencies = new TreeMap<>();
 
+    teamViolations = new LinkedHashMap<>();
     for (final TeamScheduleInfo verify : schedule.getSchedule()) {
-      verifyTeam(constraintViolations, verify);
+      updateTeam(verify);
+    }
+
+    performanceViolations = new TreeMap<>();
+    tableKeysAtTime = new HashMap<>();
+    timesOnTable = new HashMap<>();
+    for (final LocalTime time : schedule.getMatches().keySet()) {
+      updatePerformanceTime(time);
+    }
+
+    tableViolations = new TreeMap<>();
+    updateTables(timesOnTable.keySet());
+
+    subjectiveViolations = Collections.emptyList();
+    updateSubjective();
+
+    return collectViolations();
+  }
+
+  /**
+   * Verify the parts of the schedule that have changed since the last call to
+   * {@link #verifySchedule()} or this method. The checks for the changed
+   * teams, the teams at the changed times, the teams that may need to stay for
+   * an extra performance with a team at a changed time and the tables used at
+   * the changed times are run again, all other violations come from the cache.
+   * If the schedule hasn't been verified yet the whole schedule is verified.
+   * 
+   * @param changedTeams the teams whose schedule has changed, teams that only
+   *          moved between tables at one of the changed times don't need to be
+   *          included
+   * @param changedTimes the performance times that teams were moved to or from
+   * @return the constraint violations found, empty if no violations
+   */
+  public List<ConstraintViolation> verifyChanges(final Collection<TeamScheduleInfo> changedTeams,
+                                                 final Collection<LocalTime> changedTimes) {
+    if (null == teamViolations) {
+      return verifySchedule();
+    }
+
+    updateChanges(changedTeams, changedTimes);
+    return collectViolations();
+  }
+
+  /**
+   * Same as {@link #verifyChanges(Collection, Collection)}, but only counts
+   * the violations. This avoids building the list of all violations when only
+   * the number is needed.
+   * 
+   * @return the number of constraint violations
+   */
+  /* package */ int countViolationsAfterChanges(final Collection<TeamScheduleInfo> changedTeams,
+                                                final Collection<LocalTime> changedTimes) {
+    if (null == teamViolations) {
+      return verifySchedule().size();
+    }
+
+    updateChanges(changedTeams, changedTimes);
+    return numViolations;
+  }
+
+  private void updateChanges(final Collection<TeamScheduleInfo> changedTeams,
+                             final Collection<LocalTime> changedTimes) {
+    // the extra performance check only looks at teams performing before the
+    // time being checked, so only later times are affected
+    for (final LocalTime time : changedTimes) {
+      nextTeamDependencies.tailMap(time, false).clear();
+    }
+
+    final Set<TeamScheduleInfo> teams = new HashSet<>(changedTeams);
+    final Set<String> tableKeys = new HashSet<>();
+    for (final LocalTime time : changedTimes) {
+      final Set<String> previousKeys = tableKeysAtTime.get(time);
+      if (null != previousKeys) {
+        tableKeys.addAll(previousKeys);
+      }
+
+      final Map<String, List<TeamScheduleInfo>> tables = schedule.getMatches().get(time);
+      if (null != tables) {
+        for (final List<TeamScheduleInfo> tableMatches : tables.values()) {
+          teams.addAll(tableMatches);
+        }
+      }
+
+      updatePerformanceTime(time);
+      tableKeys.addAll(tableKeysAtTime.get(time));
+    }
+
+    for (final LocalTime time : changedTimes) {
+      final Map<String, List<TeamScheduleInfo>> tables = schedule.getMatches().get(time);
+      if (null != tables) {
+        // the extra performance check for teams earlier on these tables may
+        // find a team at this time
+        teams.addAll(findTeamsCheckingNextTeam(time, tables.keySet(), null).keySet());
+      }
+    }
+
+    for (final TeamScheduleInfo ti : teams) {
+      updateTeam(ti);
+    }
+
+    updateTables(tableKeys);
+
+    for (final TeamScheduleInfo ti : changedTeams) {
+      if (!getSubjectiveTimes(ti).equals(subjectiveTimes.get(ti.getTeamNumber()))) {
+        updateSubjective();
+        break;
+      }
+    }
+  }
+
+  /**
+   * Find the teams whose check for an extra performance
+   * ({@link TournamentSchedule#checkIfTeamNeedsToStay(TeamScheduleInfo, int)})
+   * may look at a team performing at the specified time. The violations for
+   * these teams can change when the teams at the specified time change even
+   * though the teams aren't competing at that time.
+   * 
+   * @param time the time to check
+   * @param tables the tables that may be used at time
+   * @param rounds the rounds that may be performed at time, null for all
+   *          rounds
+   * @return the teams that are affected and the tables at time that they
+   *         depend on
+   */
+  /* package */ Map<TeamScheduleInfo, Set<String>> findTeamsCheckingNextTeam(final LocalTime time,
+                                                                           final Collection<String> tables,
+                                                                           final Collection<Integer> rounds) {
+    Map<TeamScheduleInfo, Map<Integer, String>> dependencies = null == nextTeamDependencies ? null
+        : nextTeamDependencies.get(time);
+    if (null == dependencies) {
+      dependencies = computeNextTeamDependencies(time);
+      if (null != nextTeamDependencies) {
+        nextTeamDependencies.put(time, dependencies);
+      }
+    }
+
+    final Map<TeamScheduleInfo, Set<String>> teams = new HashMap<>();
+    for (final Map.Entry<TeamScheduleInfo, Map<Integer, String>> entry : dependencies.entrySet()) {
+      for (final Map.Entry<Integer, String> roundEntry : entry.getValue().entrySet()) {
+        if ((null == rounds
+            || rounds.contains(roundEntry.getKey()))
+            && tables.contains(roundEntry.getValue())) {
+          Set<String> dependsOn = teams.get(entry.getKey());
+          if (null == dependsOn) {
+            dependsOn = new HashSet<>();
+            teams.put(entry.getKey(), dependsOn);
+          }
+          dependsOn.add(roundEntry.getValue());
+        }
+      }
+    }
+    return teams;
+  }
+
+  /**
+   * Find the performances before time that are the last on their table side
+   * for the round, for all tables and rounds.
+   * 
+   * @return team -> round -> table
+   */
+  private Map<TeamScheduleInfo, Map<Integer, String>> computeNextTeamDependencies(final LocalTime time) {
+    // table, side, round -> performance times before time
+    final Map<String, TreeSet<LocalTime>> earlierPerformances = new HashMap<>();
+    for (final TeamScheduleInfo si : schedule.getSchedule()) {
+      for (int round = 0; round < schedule.getNumberOfRounds(); ++round) {
+        if (si.getPerfTime(round).isBefore(time)) {
+          final String key = getTableKey(si.getPerfTableColor(round), si.getPerfTableSide(round))
+              + " "
+              + round;
+          TreeSet<LocalTime> times = earlierPerformances.get(key);
+          if (null == times) {
+            times = new TreeSet<>();
+            earlierPerformances.put(key, times);
+          }
+          times.add(si.getPerfTime(round));
+        }
+      }
+    }
+
+    final Map<TeamScheduleInfo, Map<Integer, String>> teams = new HashMap<>();
+    for (final TeamScheduleInfo si : schedule.getSchedule()) {
+      for (int round = 0; round < schedule.getNumberOfRounds(); ++round) {
+        if (si.getPerfTime(round).isBefore(time)) {
+          final int otherSide = 2 == si.getPerfTableSide(round) ? 1 : 2;
+          final TreeSet<LocalTime> times = earlierPerformances.get(getTableKey(si.getPerfTableColor(round), otherSide)
+              + " "
+              + round);
+          if (null == times
+              || null == times.higher(si.getPerfTime(round))) {
+            // no other team before time, so the next team may be at time
+            Map<Integer, String> dependsOn = teams.get(si);
+            if (null == dependsOn) {
+              dependsOn = new HashMap<>();
+              teams.put(si, dependsOn);
+            }
+            dependsOn.put(round, si.getPerfTableColor(round));
+          }
+        }
+      }
     }
+    return teams;
+  }
+
+  // cached violations, null until the schedule is verified
+
+  // team number -> violations
+  private Map<Integer, List<ConstraintViolation>> teamViolations = null;
+
+  // time -> violations
+  private Map<LocalTime, List<ConstraintViolation>> performanceViolations = null;
+
+  // time -> table keys used
+  private Map<LocalTime, Set<String>> tableKeysAtTime = null;
+
+  // table key -> violations
+  private Map<String, List<ConstraintViolation>> tableViolations = null;
+
+  private List<ConstraintViolation> subjectiveViolations = null;
+
+  // number of violations in the caches
+  private int numViolations = 0;
 
-    verifyPerformanceAtTime(constraintViolations);
-    verifyNumTeamsAtTable(constraintViolations);
-    verifySubjectiveAtTime(constraintViolations);
-    verifyNoOverlap(constraintViolations);
+  // table key -> performance times on the table side
+  private Map<String, SortedSet<LocalTime>> timesOnTable = null;
 
+  // time -> result of computeNextTeamDependencies
+  private TreeMap<LocalTime, Map<TeamScheduleInfo, Map<Integer, String>>> nextTeamDependencies = null;
+
+  // team number -> subjective station -> time
+  private Map<Integer, Map<String, LocalTime>> subjectiveTimes = null;
+
+  private List<ConstraintViolation> collectViolations() {
+    final List<ConstraintViolation> constraintViolations = new LinkedList<ConstraintViolation>();
+    for (final List<ConstraintViolation> violations : teamViolations.values()) {
+      constraintViolations.addAll(violations);
+    }
+    for (final List<ConstraintViolation> violations : performanceViolations.values()) {
+      constraintViolations.addAll(violations);
+    }
+    constraintViolations.addAll(subjectiveViolations);
+    for (final List<ConstraintViolation> violations : tableViolations.values()) {
+      constraintViolations.addAll(violations);
+    }
     return constraintViolations;
   }
 
+  private void updateTeam(final TeamScheduleInfo ti) {
+    final List<ConstraintViolation> violations = new LinkedList<ConstraintViolation>();
+    verifyTeam(violations, ti);
+    final List<ConstraintViolation> previous = teamViolations.put(ti.getTeamNumber(), violations);
+    numViolations += violations.size()
+        - (null == previous ? 0 : previous.size());
+  }
+
+  /**
+   * Store the violations for key, keeping {@link #numViolations} up to date.
+   * Empty lists aren't stored.
+   */
+  private <K> void cacheViolations(final Map<K, List<ConstraintViolation>> cache,
+                                   final K key,
+                                   final List<ConstraintViolation> violations) {
+    final List<ConstraintViolation> previous;
+    if (violations.isEmpty()) {
+      previous = cache.remove(key);
+    } else {
+      previous = cache.put(key, violations);
+    }
+    numViolations += violations.size()
+        - (null == previous ? 0 : previous.size());
+  }
+
+  private void updatePerformanceTime(final LocalTime time) {
+    final Map<String, List<TeamScheduleInfo>> tables = schedule.getMatches().get(time);
+    final List<ConstraintViolation> violations = new LinkedList<ConstraintViolation>();
+    final Set<String> tableKeys = new HashSet<>();
+    if (null != tables) {
+      verifyPerformanceAtTime(violations, time, tables);
+      verifyNumTeamsAtTable(violations, time, tables);
+
+      for (final Map.Entry<String, List<TeamScheduleInfo>> entry : tables.entrySet()) {
+        final String table = entry.getKey();
+        for (final TeamScheduleInfo ti : entry.getValue()) {
+          for (int round = 0; round < schedule.getNumberOfRounds(); ++round) {
+            if (time.equals(ti.getPerfTime(round))
+                && table.equals(ti.getPerfTableColor(round))) {
+              tableKeys.add(getTableKey(table, ti.getPerfTableSide(round)));
+            }
+          }
+        }
+      }
+    }
+
+    cacheViolations(performanceViolations, time, violations);
+
+    final Set<String> previousKeys = tableKeysAtTime.put(time, tableKeys);
+    if (null != previousKeys) {
+      for (final String tableKey : previousKeys) {
+        timesOnTable.get(tableKey).remove(time);
+      }
+    }
+    for (final String tableKey : tableKeys) {
+      SortedSet<LocalTime> times = timesOnTable.get(tableKey);
+      if (null == times) {
+        times = new TreeSet<>();
+        timesOnTable.put(tableKey, times);
+      }
+      times.add(time);
+    }
+  }
+
+  private static String getTableKey(final String table,
+                                    final int side) {
+    return table
+        + " "
+        + side;
+  }
+
   /**
-   * Make sure that there are no overlaps in times at each scheduling location.
+   * Check for overlaps on the specified tables.
+   * 
+   * @param tableKeys the table and side for each table to check
+   */
+  private void updateTables(final Set<String> tableKeys) {
+    for (final String tableKey : tableKeys) {
+      final SortedSet<LocalTime> times = timesOnTable.get(tableKey);
+      final List<ConstraintViolation> violations = new LinkedList<ConstraintViolation>();
+      if (null != times) {
+        verifyNoTableOverlap(violations, tableKey, times);
+      }
+      cacheViolations(tableViolations, tableKey, violations);
+    }
+  }
+
+  private void updateSubjective() {
+    final List<ConstraintViolation> violations = new LinkedList<ConstraintViolation>();
+    verifySubjectiveAtTime(violations);
+    verifyNoSubjectiveOverlap(violations);
+    numViolations += violations.size()
+        - subjectiveViolations.size();
+    subjectiveViolations = violations;
+
+    subjectiveTimes = new HashMap<>();
+    for (final TeamScheduleInfo si : schedule.getSchedule()) {
+      subjectiveTimes.put(si.getTeamNumber(), getSubjectiveTimes(si));
+    }
+  }
+
+  private static Map<String, LocalTime> getSubjectiveTimes(final TeamScheduleInfo si) {
+    final Map<String, LocalTime> times = new HashMap<>();
+    for (final SubjectiveTime subj : si.getSubjectiveTimes()) {
+      times.put(subj.getName(), subj.getTime());
+    }
+    return times;
+  }
+
+  /**
+   * Make sure that there are no overlaps in times for each judge.
    * 
    * @param constraintViolations
    */
-  private void verifyNoOverlap(final List<ConstraintViolation> violations) {
-    final Map<String, SortedSet<LocalTime>> tableToTime = new HashMap<>();
+  private void verifyNoSubjectiveOverlap(final List<ConstraintViolation> violations) {
     // category -> judge -> times
     final Map<String, Map<String, SortedSet<LocalTime>>> subjectiveToTime = new HashMap<>();
     for (final TeamScheduleInfo si : schedule.getSchedule()) {
@@ -503,20 +855,6 @@ public class ScheduleChecker {
         }
         times.add(subj.getTime());
       }
-
-      for (int round = 0; round < schedule.getNumberOfRounds(); ++round) {
-        final String table = si.getPerfTableColor(round);
-        final int side = si.getPerfTableSide(round);
-        final String tableKey = table
-            + " "
-            + side;
-        SortedSet<LocalTime> performance = tableToTime.get(tableKey);
-        if (null == performance) {
-          performance = new TreeSet<>();
-          tableToTime.put(tableKey, performance);
-        }
-        performance.add(si.getPerfTime(round));
-      }
     }
 
     // find violations
@@ -542,24 +880,31 @@ public class ScheduleChecker {
         }
       }
     }
+  }
 
-    for (final Map.Entry<String, SortedSet<LocalTime>> entry : tableToTime.entrySet()) {
-      LocalTime prev = null;
-      for (final LocalTime current : entry.getValue()) {
-        if (null != prev) {
-          if (prev.plus(getPerformanceDuration()).isAfter(current)) {
-            final String message = String.format("Overlap in performance for table %s between %s and %s",
-                                                 entry.getKey(), TournamentSchedule.formatTime(prev),
-                                                 TournamentSchedule.formatTime(current));
-            violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null,
-                                                   prev, message));
-          }
+  /**
+   * Make sure that there are no overlaps in times on a table.
+   * 
+   * @param tableKey the table and side
+   * @param times the performance times on the table
+   */
+  private void verifyNoTableOverlap(final List<ConstraintViolation> violations,
+                                    final String tableKey,
+                                    final SortedSet<LocalTime> times) {
+    LocalTime prev = null;
+    for (final LocalTime current : times) {
+      if (null != prev) {
+        if (prev.plus(getPerformanceDuration()).isAfter(current)) {
+          final String message = String.format("Overlap in performance for table %s between %s and %s", tableKey,
+                                               TournamentSchedule.formatTime(prev),
+                                               TournamentSchedule.formatTime(current));
+          violations.add(new ConstraintViolation(ConstraintViolation.Type.HARD, Team.NULL_TEAM_NUMBER, null, null,
+                                                 prev, message));
         }
-
-        prev = current;
       }
-    }
 
+      prev = current;
+    }
   }
 
   /**
@@ -67,6 +67,7 @@ import javax.swing.JToolBar;
 import javax.swing.KeyStroke;
 import javax.swing.SwingConstants;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.WindowConstants;
@@ -376,7 +377,7 @@ public class SchedulerUI extends JFrame {
         @Override
         public void componentShown(final ComponentEvent e) {
           _progressDialog.removeComponentListener(this);
-          worker.execute();
+          worker.start();
         }
       });
 
@@ -405,10 +406,20 @@ public class SchedulerUI extends JFrame {
   }
 
   private final class SchedulerWorker extends SwingWorker<Integer, Void> {
-    private final GreedySolver solver;
+    private final ParallelGreedySolver solver;
+
+    /**
+     * Updates the progress dialog with the number of solutions found.
+     */
+    private final Timer progressTimer;
 
     public SchedulerWorker() throws IOException, ParseException, InvalidParametersException {
-      this.solver = new GreedySolver(mScheduleDescriptionFile, false);
+      // not optimizing, so a single search is run
+      this.solver = new ParallelGreedySolver(mScheduleDescriptionFile, false, 1);
+      this.progressTimer = new Timer(1000, e -> {
+        _progressDialog.setNote(String.format("Running Scheduler - solutions found: %d",
+                                              solver.getNumSolutionsFound()));
+      });
     }
 
     @Override
@@ -416,8 +427,17 @@ public class SchedulerUI extends JFrame {
       return solver.solve(_progressDialog);
     }
 
+    /**
+     * Start the solver and the progress updates.
+     */
+    public void start() {
+      progressTimer.start();
+      execute();
+    }
+
     @Override
     protected void done() {
+      progressTimer.stop();
       _progressDialog.setVisible(false);
 
       try {
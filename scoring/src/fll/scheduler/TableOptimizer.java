@@ -13,12 +13,20 @@ import java.text.ParseException;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.CommandLineParser;
@@ -29,7 +37,6 @@ import org.apache.commons.cli.PosixParser;
 import org.apache.log4j.Logger;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 
-import fll.Team;
 import fll.Utilities;
 import fll.scheduler.TournamentSchedule.ColumnInformation;
 import fll.util.CSVCellReader;
@@ -58,10 +65,50 @@ public class TableOptimizer {
 
   private File mBestScheduleOutputFile = null;
 
-  private Map<PerformanceTime, Integer> bestPermutation = null;
-
   private int bestScore;
 
+  /**
+   * Number of violations that is worse than any difference in table use.
+   */
+  private static final int WARNING_WEIGHT = 1000;
+
+  /**
+   * Prefix for the table names used while searching for teams that haven't
+   * been assigned a table yet.
+   */
+  private static final String UNASSIGNED_TABLE_PREFIX = "__unassigned_";
+
+  private final SchedParams params;
+
+  private int numThreads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Maximum number of times to search at once.
+   */
+  /* package */ void setNumThreads(final int numThreads) {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Must have at least 1 thread");
+    }
+    this.numThreads = numThreads;
+  }
+
+  private boolean pruneSearch = true;
+
+  /**
+   * If false, check every ordering of the teams at a time instead of skipping
+   * orderings that cannot be better than the best found so far.
+   */
+  /* package */ void setPruneSearch(final boolean pruneSearch) {
+    this.pruneSearch = pruneSearch;
+  }
+
+  /**
+   * @return the score of the best schedule found, lower is better
+   */
+  /* package */ int getBestScore() {
+    return bestScore;
+  }
+
   /**
    * List of table colors from the schedule. Each list inside the list is a
    * group of tables that are scheduled together.
@@ -90,13 +137,25 @@ public class TableOptimizer {
    * Compute score for the current schedule. The lowest score is best.
    */
   private int computeScheduleScore() {
-    final int numWarnings = checker.verifySchedule().size();
+    return computeScheduleScore(checker.verifySchedule(), schedule);
+  }
 
-    final int tableUseScore = computeTableUseScore();
+  /**
+   * Compute score for a schedule. The lowest score is best.
+   * 
+   * @param violations the violations in schedule
+   * @param schedule the schedule to compute the score for
+   */
+  private static int computeScheduleScore(final Collection<ConstraintViolation> violations,
+                                          final TournamentSchedule schedule) {
+    return computeScheduleScore(violations.size(), computeTableUseScore(countTableUse(schedule)));
+  }
 
+  private static int computeScheduleScore(final int numWarnings,
+                                          final int tableUseScore) {
     // warnings is most important, then table use
     return numWarnings
-        * 1000
+        * WARNING_WEIGHT
         + tableUseScore;
   }
 
@@ -105,24 +164,11 @@ public class TableOptimizer {
    * number of times any table is used and the maximum number of times any table
    * is used. This should even out the table use.
    * 
+   * @param tableUse the number of times each table is used, see
+   *          {@link #countTableUse(TournamentSchedule)}
    * @return score, lower is better
    */
-  private int computeTableUseScore() {
-    final Map<String, Integer> tableUse = new HashMap<>();
-    for (final TeamScheduleInfo ti : this.schedule.getSchedule()) {
-      for (int round = 0; round < ti.getNumberOfRounds(); ++round) {
-        final String tableColor = ti.getPerfTableColor(round);
-        int count;
-        if (tableUse.containsKey(tableColor)) {
-          count = tableUse.get(tableColor);
-        } else {
-          count = 0;
-        }
-        ++count;
-        tableUse.put(tableColor, count);
-      } // foreach round
-    } // foreach team
-
+  private static int computeTableUseScore(final Map<String, Integer> tableUse) {
     int minUse = Integer.MAX_VALUE;
     int maxUse = 0;
     for (Map.Entry<String, Integer> entry : tableUse.entrySet()) {
@@ -138,6 +184,30 @@ public class TableOptimizer {
     }
   }
 
+  /**
+   * Count the number of times each table is used in the schedule.
+   * 
+   * @return table -> number of performances, tables that aren't used are not
+   *         included
+   */
+  private static Map<String, Integer> countTableUse(final TournamentSchedule schedule) {
+    final Map<String, Integer> tableUse = new HashMap<>();
+    for (final TeamScheduleInfo ti : schedule.getSchedule()) {
+      for (int round = 0; round < ti.getNumberOfRounds(); ++round) {
+        final String tableColor = ti.getPerfTableColor(round);
+        int count;
+        if (tableUse.containsKey(tableColor)) {
+          count = tableUse.get(tableColor);
+        } else {
+          count = 0;
+        }
+        ++count;
+        tableUse.put(tableColor, count);
+      } // foreach round
+    } // foreach team
+    return tableUse;
+  }
+
   /**
    * Get the current table assignments for the specified time so that
    * they can be re-applied if needed.
@@ -159,231 +229,410 @@ public class TableOptimizer {
     return assignments;
   }
 
+  private void applyPerformanceOrdering(final Map<PerformanceTime, Integer> possibleValue) {
+    for (Map.Entry<PerformanceTime, Integer> entry : possibleValue.entrySet()) {
+      final int teamNumber = entry.getValue();
+      final PerformanceTime perfTime = entry.getKey();
+
+      // can use perfTime.getTime() as oldTime since we know that we're just
+      // moving teams across tables
+      schedule.reassignTable(teamNumber, perfTime.getTime(), perfTime);
+    }
+
+  }
+
   /**
-   * Compute the best table ordering for a set of teams at the
-   * specified time.
-   * 
-   * @param checkCanceled if non-null, check if the optimization should finish
-   *          early
-   * @return best score found
+   * Search for the best ordering of a set of teams on the tables at a single
+   * time. The search runs on a copy of the schedule so that searches for
+   * times that don't share any teams can run at the same time.
+   * Orderings are generated one at a time by a depth first search that fills
+   * the tables in order. Once both sides of a table are filled the violations
+   * for the teams that only depend on the tables filled so far are known, so a
+   * partial ordering whose violations already make it worse than the best score
+   * is skipped along with everything that would be generated from it.
    */
-  private void computeBestTableOrdering(final List<Integer> teams,
-                                        final LocalTime time,
-                                        final List<String> tables,
-                                        final CheckCanceled checkCanceled) {
-    if (teams.isEmpty()) {
-      throw new IllegalArgumentException("Must have some teams to check");
-    }
+  private final class TableOrderingSearch implements Callable<Map<PerformanceTime, Integer>> {
+
+    private final LocalTime time;
+
+    private final List<Integer> teams;
+
+    private final List<String> tables;
+
+    private final CheckCanceled checkCanceled;
+
+    private final TournamentSchedule searchSchedule;
+
+    private final ScheduleChecker searchChecker;
+
+    private final TeamScheduleInfo[] teamInfos;
+
+    /**
+     * Performance for each position, 2 sides for each table.
+     */
+    private final PerformanceTime[] positions;
+
+    /**
+     * Performance used for each team while it isn't assigned to a table.
+     */
+    private final PerformanceTime[] unassigned;
+
+    /**
+     * Index into {@link #teams} for each position, -1 for an empty position.
+     */
+    private final int[] ordering;
+
+    private final boolean[] assigned;
+
+    /**
+     * For each team competing at time, the index of the last table other than
+     * its own that its violations depend on, -1 if none.
+     */
+    private final int[] lastDependentTable;
+
+    /**
+     * For each table, the teams not competing at time whose violations are
+     * known once the table is filled.
+     */
+    private final List<List<TeamScheduleInfo>> dependentTeams;
+
+    /**
+     * Table use for the performances that aren't at time, computed once the
+     * teams at time are unassigned.
+     */
+    private Map<String, Integer> otherTableUse = null;
+
+    private int searchBestScore;
+
+    private Map<PerformanceTime, Integer> searchBestOrdering = null;
+
+    /**
+     * @param time the time to optimize
+     * @param teams the teams competing at time
+     * @param tables the tables to use
+     * @param bestScore the score to improve on
+     * @param checkCanceled if non-null, check if the search should finish
+     *          early
+     */
+    TableOrderingSearch(final LocalTime time,
+                        final List<Integer> teams,
+                        final List<String> tables,
+                        final int bestScore,
+                        final CheckCanceled checkCanceled) {
+      if (teams.isEmpty()) {
+        throw new IllegalArgumentException("Must have some teams to check");
+      }
+
+      this.time = time;
+      this.teams = teams;
+      this.tables = tables;
+      this.checkCanceled = checkCanceled;
+      this.searchBestScore = bestScore;
+      this.searchSchedule = new TournamentSchedule(schedule);
+      this.searchChecker = new ScheduleChecker(params, searchSchedule);
+
+      teamInfos = new TeamScheduleInfo[teams.size()];
+      unassigned = new PerformanceTime[teams.size()];
+      assigned = new boolean[teams.size()];
+      for (int i = 0; i < teams.size(); ++i) {
+        teamInfos[i] = searchSchedule.getSchedInfoForTeam(teams.get(i));
+        // a table name that isn't in the schedule so that the team doesn't
+        // have an opponent while it's waiting to be assigned
+        unassigned[i] = new PerformanceTime(time, String.format("%s%d", UNASSIGNED_TABLE_PREFIX, i), 1);
+      }
+
+      positions = new PerformanceTime[tables.size()
+          * 2];
+      for (int position = 0; position < positions.length; ++position) {
+        positions[position] = new PerformanceTime(time, tables.get(position
+            / 2), position
+                % 2
+                + 1);
+      }
+      ordering = new int[positions.length];
 
-    if (null == bestPermutation) {
-      bestPermutation = getCurrentTableAssignments(time);
-      bestScore = computeScheduleScore();
+      lastDependentTable = new int[teams.size()];
+      dependentTeams = new ArrayList<>(tables.size());
+      for (int table = 0; table < tables.size(); ++table) {
+        dependentTeams.add(new LinkedList<TeamScheduleInfo>());
+      }
     }
 
-    final List<Map<PerformanceTime, Integer>> possibleValues = computePossibleValues(teams, time, tables);
-    for (final Map<PerformanceTime, Integer> possibleValue : possibleValues) {
-      if (null != checkCanceled
-          && checkCanceled.isCanceled()) {
-        // user interrupt
-        break;
+    /**
+     * @return the best ordering found, null if no ordering was better than the
+     *         score passed to the constructor; key=table information,
+     *         value=team number
+     */
+    @Override
+    public Map<PerformanceTime, Integer> call() {
+      if (teams.size() > positions.length) {
+        LOGGER.warn(String.format("Not enough tables for %d teams at %s", teams.size(),
+                                  TournamentSchedule.formatTime(time)));
+        return null;
       }
 
-      applyPerformanceOrdering(possibleValue);
+      searchChecker.verifySchedule();
 
-      // check for better value
-      final int score = computeScheduleScore();
-      if (score < bestScore) {
-        try {
-          final File outputFile = new File(basedir, String.format("%s-opt-%d.csv", schedule.getName(), numSolutions));
-          LOGGER.info(String.format("Found better schedule (%d -> %d), writing to: %s", bestScore, score,
-                                    outputFile.getAbsolutePath()));
-          schedule.writeToCSV(outputFile);
+      // teams earlier on the tables may need to stay for an extra performance
+      // with a team at this time
+      final Set<Integer> rounds = new HashSet<>();
+      for (final TeamScheduleInfo ti : teamInfos) {
+        rounds.add(ti.findRoundFortime(time));
+      }
+      final Map<TeamScheduleInfo, Set<String>> dependencies = searchChecker.findTeamsCheckingNextTeam(time, tables,
+                                                                                                      rounds);
 
-          ++numSolutions;
+      for (int i = 0; i < teams.size(); ++i) {
+        searchSchedule.reassignTable(teams.get(i), time, unassigned[i]);
+      }
 
-          if (null != mBestScheduleOutputFile) {
-            if (!mBestScheduleOutputFile.delete()) {
-              mBestScheduleOutputFile.deleteOnExit();
-            }
+      // each ordering only adds the tables at this time
+      otherTableUse = countTableUse(searchSchedule);
+      for (final PerformanceTime pt : unassigned) {
+        otherTableUse.remove(pt.getTable());
+      }
+
+      // violations for the teams that don't depend on the tables at this time
+      // don't change
+      int otherWarnings = 0;
+      for (final TeamScheduleInfo si : searchSchedule.getSchedule()) {
+        int lastTable = -1;
+        final Set<String> dependsOn = dependencies.get(si);
+        if (null != dependsOn) {
+          for (final String table : dependsOn) {
+            lastTable = Math.max(lastTable, tables.indexOf(table));
           }
-          mBestScheduleOutputFile = outputFile;
-        } catch (final IOException e) {
-          throw new RuntimeException(e);
         }
 
-        bestPermutation = possibleValue;
-        bestScore = score;
-
-        if (bestScore == 0) {
-          break;
+        final int team = teams.indexOf(si.getTeamNumber());
+        if (-1 != team) {
+          lastDependentTable[team] = lastTable;
+        } else if (-1 == lastTable) {
+          otherWarnings += searchChecker.verifyTeam(si).size();
+        } else {
+          dependentTeams.get(lastTable).add(si);
         }
       }
+
+      search(0, 0, Utilities.isOdd(teams.size()), otherWarnings);
+
+      return searchBestOrdering;
     }
 
-    // assign the best value
-    applyPerformanceOrdering(bestPermutation);
-  }
+    private boolean isFinished() {
+      return 0 == searchBestScore
+          || (null != checkCanceled
+              && checkCanceled.isCanceled());
+    }
 
-  /**
-   * Compute all possible orderings of teams on the current set
-   * of tables.
-   * 
-   * @param teams
-   * @return list of possible orderings, key=table information, value=team
-   *         number
-   */
-  private List<Map<PerformanceTime, Integer>> computePossibleValues(final List<Integer> teams,
-                                                                    final LocalTime time,
-                                                                    final List<String> tables) {
-    final List<Map<PerformanceTime, Integer>> possibleValues = new LinkedList<>();
-
-    final boolean oddNumberOfTeams = Utilities.isOdd(teams.size());
-
-    final List<List<Integer>> possibleTableOrderings = permutate(tables.size()
-        * 2);
-    for (final List<Integer> ordering : possibleTableOrderings) {
-      if (ordering.size() != tables.size()
-          * 2) {
-        throw new FLLInternalException(String.format("All possible orderings must be twice the number of tables. ordering.size: %d tableColors: %d",
-                                                     ordering.size(), tables.size()));
-      }
-
-      boolean validToHaveNullTeam = oddNumberOfTeams;
-
-      // convert to valid ordering
-      final Map<PerformanceTime, Integer> assignments = new HashMap<>();
-      for (int tableColorIndex = 0; tableColorIndex < tables.size(); ++tableColorIndex) {
-        final String tableColor = tables.get(tableColorIndex);
-
-        // check in pairs to make sure we have a valid table assignment
-        final int side1 = 1;
-        final int orderIndex1 = tableColorIndex
-            * 2;
-        final int teamIndex1 = ordering.get(orderIndex1);
-        final int teamNumber1 = getTeamNumber(teams, teamIndex1);
-
-        final int side2 = 2;
-        final int orderIndex2 = orderIndex1
-            + 1;
-        final int teamIndex2 = ordering.get(orderIndex2);
-        final int teamNumber2 = getTeamNumber(teams, teamIndex2);
-
-        if (Team.NULL_TEAM_NUMBER != teamNumber1
-            && Team.NULL_TEAM_NUMBER != teamNumber2) {
-          assignments.put(new PerformanceTime(time, tableColor, side1), teamNumber1);
-          assignments.put(new PerformanceTime(time, tableColor, side2), teamNumber2);
-        } else if (Team.NULL_TEAM_NUMBER != teamNumber1
-            && Team.NULL_TEAM_NUMBER == teamNumber2
-            && validToHaveNullTeam) {
-          assignments.put(new PerformanceTime(time, tableColor, side1), teamNumber1);
-
-          // can only have 1 uneven pairing at a time
-          validToHaveNullTeam = false;
-        } else if (Team.NULL_TEAM_NUMBER == teamNumber1
-            && Team.NULL_TEAM_NUMBER != teamNumber2
-            && validToHaveNullTeam) {
-          assignments.put(new PerformanceTime(time, tableColor, side2), teamNumber2);
-
-          // can only have 1 uneven pairing at a time
-          validToHaveNullTeam = false;
+    /**
+     * Fill in the position and everything after it.
+     * 
+     * @param position the position to fill
+     * @param numAssigned the number of teams assigned so far
+     * @param validToHaveNullTeam if a table with only 1 team is allowed
+     * @param warnings the number of violations that are known to be in any
+     *          ordering that starts with the current partial ordering
+     */
+    private void search(final int position,
+                        final int numAssigned,
+                        final boolean validToHaveNullTeam,
+                        final int warnings) {
+      if (isFinished()) {
+        return;
+      }
+
+      if (position == positions.length) {
+        if (numAssigned == teams.size()) {
+          checkOrdering();
         }
+        return;
+      }
+
+      if (teams.size()
+          - numAssigned > positions.length
+              - position) {
+        // not enough positions left for the remaining teams
+        return;
+      }
 
-        if (!assignments.isEmpty()) {
-          possibleValues.add(assignments);
+      for (int i = 0; i < teams.size(); ++i) {
+        if (!assigned[i]) {
+          assigned[i] = true;
+          ordering[position] = i;
+          searchSchedule.reassignTable(teams.get(i), time, positions[position]);
+
+          searchNextPosition(position, numAssigned
+              + 1, validToHaveNullTeam, warnings);
+
+          searchSchedule.reassignTable(teams.get(i), time, unassigned[i]);
+          assigned[i] = false;
         }
-      } // foreach table
+      }
 
-    } // foreach possible ordering
+      // all empty positions are the same, so only try an empty position once
+      ordering[position] = -1;
+      searchNextPosition(position, numAssigned, validToHaveNullTeam, warnings);
+    }
 
-    return possibleValues;
-  }
+    private void searchNextPosition(final int position,
+                                    final int numAssigned,
+                                    final boolean validToHaveNullTeam,
+                                    final int warnings) {
+      if (0 == position
+          % 2) {
+        // finish the table
+        search(position
+            + 1, numAssigned, validToHaveNullTeam, warnings);
+        return;
+      }
 
-  /**
-   * Get team number from teams using teamIndex.
-   * 
-   * @param teams list of teams
-   * @param teamIndex index into teams
-   * @return the team number or {@see Team#NULL_TEAM_NUMBER} if the index is
-   *         larger than the list of teams
-   */
-  private static int getTeamNumber(final List<Integer> teams,
-                                   final int teamIndex) {
-    final int teamNumber;
-    if (teamIndex < teams.size()) {
-      teamNumber = teams.get(teamIndex);
-    } else {
-      teamNumber = Team.NULL_TEAM_NUMBER;
+      final int team1 = ordering[position
+          - 1];
+      final int team2 = ordering[position];
+      boolean nullTeamAllowed = validToHaveNullTeam;
+      if ((-1 == team1) != (-1 == team2)) {
+        if (!nullTeamAllowed) {
+          return;
+        }
+        // can only have 1 uneven pairing at a time
+        nullTeamAllowed = false;
+      }
+
+      int tableWarnings = warnings;
+      if (pruneSearch) {
+        final int table = position
+            / 2;
+        for (final TeamScheduleInfo si : dependentTeams.get(table)) {
+          tableWarnings += searchChecker.verifyTeam(si).size();
+        }
+        for (int p = 0; p <= position; ++p) {
+          final int team = ordering[p];
+          if (-1 != team
+              && Math.max(p
+                  / 2, lastDependentTable[team]) == table) {
+            tableWarnings += searchChecker.verifyTeam(teamInfos[team]).size();
+          }
+        }
+
+        if (tableWarnings
+            * WARNING_WEIGHT >= searchBestScore) {
+          return;
+        }
+      }
+
+      search(position
+          + 1, numAssigned, nullTeamAllowed, tableWarnings);
     }
-    return teamNumber;
-  }
 
-  private void applyPerformanceOrdering(final Map<PerformanceTime, Integer> possibleValue) {
-    for (Map.Entry<PerformanceTime, Integer> entry : possibleValue.entrySet()) {
-      final int teamNumber = entry.getValue();
-      final PerformanceTime perfTime = entry.getKey();
+    /**
+     * Check if the current ordering is better than the best found so far.
+     */
+    private void checkOrdering() {
+      // only the teams at this time have moved
+      final int numWarnings = searchChecker.countViolationsAfterChanges(Collections.<TeamScheduleInfo> emptyList(),
+                                                                        Collections.singleton(time));
+
+      final Map<String, Integer> tableUse = new HashMap<>(otherTableUse);
+      for (int position = 0; position < positions.length; ++position) {
+        if (-1 != ordering[position]) {
+          final String table = positions[position].getTable();
+          final Integer count = tableUse.get(table);
+          tableUse.put(table, null == count ? 1 : count
+              + 1);
+        }
+      }
 
-      // can use perfTime.getTime() as oldTime since we know that we're just
-      // moving teams across tables
-      schedule.reassignTable(teamNumber, perfTime.getTime(), perfTime);
+      final int score = computeScheduleScore(numWarnings, computeTableUseScore(tableUse));
+      if (score < searchBestScore) {
+        final Map<PerformanceTime, Integer> assignments = new HashMap<>();
+        for (int position = 0; position < positions.length; ++position) {
+          if (-1 != ordering[position]) {
+            assignments.put(positions[position], teams.get(ordering[position]));
+          }
+        }
+
+        searchBestOrdering = assignments;
+        searchBestScore = score;
+      }
     }
 
   }
 
   /**
-   * Compute permutations of the integers [0, numElements]
+   * Split the times into groups of times that don't share any teams. The
+   * violations for a team only depend on the tables it is assigned to and its
+   * opponents, so the times in a group can be searched at the same time.
    * 
-   * @param numElements how many elements to be permuted
-   * @return all possible orderings
+   * @param times the times to group
+   * @param teamsAtTime the teams competing at each time
+   * @return groups of independent times
    */
-  static public List<List<Integer>> permutate(final int numElements) {
-    final List<Integer> allElements = new ArrayList<>();
-    for (int i = 0; i < numElements; ++i) {
-      allElements.add(i);
-    }
+  private static List<List<LocalTime>> groupIndependentTimes(final Collection<LocalTime> times,
+                                                             final Map<LocalTime, List<Integer>> teamsAtTime) {
+    final List<List<LocalTime>> groups = new ArrayList<>();
+    final List<Set<Integer>> groupTeams = new ArrayList<>();
+    for (final LocalTime time : times) {
+      final List<Integer> teams = teamsAtTime.get(time);
 
-    final List<Integer> order = new ArrayList<>(numElements);
-    for (int i = 0; i < numElements; ++i) {
-      order.add(i);
-    }
+      boolean found = false;
+      for (int i = 0; i < groups.size()
+          && !found; ++i) {
+        final Set<Integer> usedTeams = groupTeams.get(i);
+        if (Collections.disjoint(usedTeams, teams)) {
+          usedTeams.addAll(teams);
+          groups.get(i).add(time);
+          found = true;
+        }
+      }
 
-    final List<List<Integer>> permutations = new LinkedList<>();
-    permutate(numElements, allElements, order, permutations);
-    return permutations;
+      if (!found) {
+        final List<LocalTime> group = new ArrayList<>();
+        group.add(time);
+        groups.add(group);
+        groupTeams.add(new HashSet<>(teams));
+      }
+    }
+    return groups;
   }
 
   /**
-   * Recursive function that computes permutations. To
-   * be called from {@see #permutate(int)}.
-   * 
-   * @param arrayCount
-   * @param elements the elements to compute permutations of
-   * @param order
-   * @param permutations the resulting permutations
+   * Apply an ordering found by a search to the schedule. The search only knew
+   * about the schedule as it was when the search was created, so the ordering
+   * is only kept if it still improves the score.
    */
-  static private void permutate(final int arrayCount,
-                                final List<Integer> elements,
-                                final List<Integer> order,
-                                final List<List<Integer>> permutations) {
-    if (elements.isEmpty()) {
-      throw new IllegalArgumentException("Cannot permutate 0 elements");
-    }
-
-    final int position = arrayCount
-        - elements.size();
+  private void applyIfBetter(final LocalTime time,
+                             final Map<PerformanceTime, Integer> ordering) {
+    final Map<PerformanceTime, Integer> previousOrdering = getCurrentTableAssignments(time);
+    applyPerformanceOrdering(ordering);
+
+    // check for better value
+    final int score = computeScheduleScore(checker.verifyChanges(Collections.<TeamScheduleInfo> emptyList(),
+                                                                 Collections.singleton(time)),
+                                           schedule);
+    if (score < bestScore) {
+      try {
+        final File outputFile = new File(basedir, String.format("%s-opt-%d.csv", schedule.getName(), numSolutions));
+        LOGGER.info(String.format("Found better schedule (%d -> %d), writing to: %s", bestScore, score,
+                                  outputFile.getAbsolutePath()));
+        schedule.writeToCSV(outputFile);
 
-    if (elements.size() == 1) {
-      order.set(position, elements.get(0));
-      permutations.add(order);
-    } else {
-      for (int i = 0; i < elements.size(); ++i) {
-        final int element = elements.get(i);
-        final List<Integer> newOrder = new ArrayList<Integer>(order);
-        newOrder.set(position, element);
+        ++numSolutions;
 
-        final List<Integer> newElements = new ArrayList<Integer>(elements);
-        newElements.remove(i);
-        permutate(arrayCount, newElements, newOrder, permutations);
+        if (null != mBestScheduleOutputFile) {
+          if (!mBestScheduleOutputFile.delete()) {
+            mBestScheduleOutputFile.deleteOnExit();
+          }
+        }
+        mBestScheduleOutputFile = outputFile;
+      } catch (final IOException e) {
+        throw new RuntimeException(e);
       }
+
+      bestScore = score;
+    } else {
+      applyPerformanceOrdering(previousOrdering);
+      checker.verifyChanges(Collections.<TeamScheduleInfo> emptyList(), Collections.singleton(time));
     }
   }
 
@@ -405,7 +654,9 @@ public class TableOptimizer {
    * Pick team with most violations and isn't in the set of optimizedTeams.
    */
   private List<ConstraintViolation> pickTeamWithMostViolations(final Set<Integer> optimizedTeams) {
-    final List<ConstraintViolation> violations = checker.verifySchedule();
+    // the checker is kept up to date as times are optimized
+    final List<ConstraintViolation> violations = checker.verifyChanges(Collections.<TeamScheduleInfo> emptyList(),
+                                                                       Collections.<LocalTime> emptyList());
     // team->violations
     final Map<Integer, List<ConstraintViolation>> teamViolations = new HashMap<Integer, List<ConstraintViolation>>();
     for (final ConstraintViolation violation : violations) {
@@ -673,6 +924,7 @@ public class TableOptimizer {
                         final TournamentSchedule schedule,
                         final File basedir)
       throws IllegalArgumentException {
+    this.params = params;
     this.schedule = schedule;
     this.basedir = basedir;
     this.checker = new ScheduleChecker(params, schedule);
@@ -693,6 +945,8 @@ public class TableOptimizer {
     if (!this.basedir.isDirectory()) {
       throw new IllegalArgumentException("Basedir must be a directory");
     }
+
+    this.bestScore = computeScheduleScore();
   }
 
   /**
@@ -801,7 +1055,10 @@ public class TableOptimizer {
    */
   private void optimize(final Set<LocalTime> perfTimes,
                         final CheckCanceled checkCanceled) {
-    for (final LocalTime time : perfTimes) {
+    final SortedSet<LocalTime> sortedTimes = new TreeSet<>(perfTimes);
+    final Map<LocalTime, List<Integer>> teamsAtTime = new HashMap<>();
+    final Map<LocalTime, List<String>> tablesAtTime = new HashMap<>();
+    for (final LocalTime time : sortedTimes) {
       final List<Integer> teams = new ArrayList<Integer>();
 
       List<String> tables = null;
@@ -830,9 +1087,56 @@ public class TableOptimizer {
         }
       } // foreach schedule item
 
-      computeBestTableOrdering(teams, time, tables, checkCanceled);
-
+      teamsAtTime.put(time, teams);
+      tablesAtTime.put(time, tables);
     } // foreach time
+
+    final ExecutorService pool = numThreads > 1 ? Executors.newWorkStealingPool(numThreads) : null;
+    try {
+      for (final List<LocalTime> group : groupIndependentTimes(sortedTimes, teamsAtTime)) {
+        if (0 == bestScore
+            || (null != checkCanceled
+                && checkCanceled.isCanceled())) {
+          break;
+        }
+
+        if (null == pool
+            || group.size() < 2) {
+          for (final LocalTime time : group) {
+            final TableOrderingSearch search = new TableOrderingSearch(time, teamsAtTime.get(time),
+                                                                       tablesAtTime.get(time), bestScore,
+                                                                       checkCanceled);
+            final Map<PerformanceTime, Integer> ordering = search.call();
+            if (null != ordering) {
+              applyIfBetter(time, ordering);
+            }
+          }
+        } else {
+          final List<TableOrderingSearch> searches = new ArrayList<>(group.size());
+          for (final LocalTime time : group) {
+            searches.add(new TableOrderingSearch(time, teamsAtTime.get(time), tablesAtTime.get(time), bestScore,
+                                                 checkCanceled));
+          }
+
+          final List<Future<Map<PerformanceTime, Integer>>> results = pool.invokeAll(searches);
+          for (int i = 0; i < group.size(); ++i) {
+            final Map<PerformanceTime, Integer> ordering = results.get(i).get();
+            if (null != ordering) {
+              applyIfBetter(group.get(i), ordering);
+            }
+          }
+        }
+      } // foreach group of times
+    } catch (final InterruptedException e) {
+      LOGGER.debug("Table optimizer interrupted");
+      Thread.currentThread().interrupt();
+    } catch (final ExecutionException e) {
+      throw new FLLRuntimeException("Error optimizing tables", e.getCause());
+    } finally {
+      if (null != pool) {
+        pool.shutdownNow();
+      }
+    }
   }
 
 }
@@ -71,6 +71,23 @@ public final class TeamScheduleInfo implements Serializable {
     this.teamNumber = teamNumber;
   }
 
+  /**
+   * Create a copy of a team's schedule. The copy can be modified without
+   * changing the original.
+   * 
+   * @param other the schedule to copy
+   */
+  /* package */ TeamScheduleInfo(final TeamScheduleInfo other) {
+    this.numberOfRounds = other.numberOfRounds;
+    this.perf = other.perf.clone();
+    this.teamNumber = other.teamNumber;
+    this.teamName = other.teamName;
+    this.organization = other.organization;
+    this.awardGroup = other.awardGroup;
+    this.judgingGroup = other.judgingGroup;
+    this.subjectiveTimes.putAll(other.subjectiveTimes);
+  }
+
   /**
    * Find the performance round for the matching time.
    * 
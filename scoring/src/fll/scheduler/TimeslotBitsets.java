@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.scheduler;
+
+import java.util.Arrays;
+
+/**
+ * A fixed number of bitsets over timeslots packed into a single array of
+ * longs. Used by {@link GreedySolver} to track which timeslots are used.
+ * Range operations work on whole words at a time.
+ */
+/* package */ final class TimeslotBitsets {
+
+  private static final int ADDRESS_BITS_PER_WORD = 6;
+
+  private static final long WORD_MASK = 0xffffffffffffffffL;
+
+  private final int numRows;
+
+  private final int numSlots;
+
+  private final int wordsPerRow;
+
+  private final long[] words;
+
+  /**
+   * @param numRows the number of bitsets
+   * @param numSlots the number of timeslots in each bitset
+   */
+  public TimeslotBitsets(final int numRows,
+                         final int numSlots) {
+    this.numRows = numRows;
+    this.numSlots = numSlots;
+    this.wordsPerRow = wordIndex(numSlots
+        - 1)
+        + 1;
+    this.words = new long[numRows
+        * wordsPerRow];
+    Arrays.fill(this.words, 0L);
+  }
+
+  private static int wordIndex(final int slot) {
+    return slot >> ADDRESS_BITS_PER_WORD;
+  }
+
+  /**
+   * @return the number of bitsets
+   */
+  public int getNumRows() {
+    return numRows;
+  }
+
+  /**
+   * @return the number of timeslots in each bitset
+   */
+  public int getNumSlots() {
+    return numSlots;
+  }
+
+  /**
+   * @param row the bitset to check
+   * @param slot the timeslot to check
+   * @return if the timeslot is set
+   */
+  public boolean get(final int row,
+                     final int slot) {
+    return (words[row
+        * wordsPerRow
+        + wordIndex(slot)]
+        & (1L << slot)) != 0;
+  }
+
+  /**
+   * Set the timeslots [from, to).
+   */
+  public void set(final int row,
+                  final int from,
+                  final int to) {
+    if (from >= to) {
+      return;
+    }
+
+    final int base = row
+        * wordsPerRow;
+    final int startWord = wordIndex(from);
+    final int endWord = wordIndex(to
+        - 1);
+    final long firstWordMask = WORD_MASK << from;
+    final long lastWordMask = WORD_MASK >>> -to;
+    if (startWord == endWord) {
+      words[base
+          + startWord] |= (firstWordMask
+              & lastWordMask);
+    } else {
+      words[base
+          + startWord] |= firstWordMask;
+      for (int i = startWord
+          + 1; i < endWord; ++i) {
+        words[base
+            + i] = WORD_MASK;
+      }
+      words[base
+          + endWord] |= lastWordMask;
+    }
+  }
+
+  /**
+   * Clear the timeslots [from, to).
+   */
+  public void clear(final int row,
+                    final int from,
+                    final int to) {
+    if (from >= to) {
+      return;
+    }
+
+    final int base = row
+        * wordsPerRow;
+    final int startWord = wordIndex(from);
+    final int endWord = wordIndex(to
+        - 1);
+    final long firstWordMask = WORD_MASK << from;
+    final long lastWordMask = WORD_MASK >>> -to;
+    if (startWord == endWord) {
+      words[base
+          + startWord] &= ~(firstWordMask
+              & lastWordMask);
+    } else {
+      words[base
+          + startWord] &= ~firstWordMask;
+      for (int i = startWord
+          + 1; i < endWord; ++i) {
+        words[base
+            + i] = 0;
+      }
+      words[base
+          + endWord] &= ~lastWordMask;
+    }
+  }
+
+  /**
+   * Check if any timeslot in [from, to) is set. The range is limited to the
+   * timeslots in the bitset.
+   */
+  public boolean any(final int row,
+                     final int from,
+                     final int to) {
+    final int begin = Math.max(0, from);
+    final int end = Math.min(numSlots, to);
+    if (begin >= end) {
+      return false;
+    }
+
+    final int base = row
+        * wordsPerRow;
+    final int startWord = wordIndex(begin);
+    final int endWord = wordIndex(end
+        - 1);
+    final long firstWordMask = WORD_MASK << begin;
+    final long lastWordMask = WORD_MASK >>> -end;
+    if (startWord == endWord) {
+      return (words[base
+          + startWord]
+          & firstWordMask
+          & lastWordMask) != 0;
+    } else {
+      if ((words[base
+          + startWord]
+          & firstWordMask) != 0) {
+        return true;
+      }
+      for (int i = startWord
+          + 1; i < endWord; ++i) {
+        if (words[base
+            + i] != 0) {
+          return true;
+        }
+      }
+      return (words[base
+          + endWord]
+          & lastWordMask) != 0;
+    }
+  }
+
+  /**
+   * Find the latest timeslot that is set and is before the specified
+   * timeslot.
+   *
+   * @param row the bitset to check
+   * @param before the timeslot to search before, exclusive
+   * @return the timeslot or -1 if no timeslot is set
+   */
+  public int last(final int row,
+                  final int before) {
+    final int end = Math.min(numSlots, before);
+    if (end <= 0) {
+      return -1;
+    }
+
+    final int base = row
+        * wordsPerRow;
+    int wordIdx = wordIndex(end
+        - 1);
+    long word = words[base
+        + wordIdx]
+        & (WORD_MASK >>> -end);
+    while (true) {
+      if (word != 0) {
+        return (wordIdx
+            + 1)
+            * Long.SIZE
+            - 1
+            - Long.numberOfLeadingZeros(word);
+      }
+      if (wordIdx == 0) {
+        return -1;
+      }
+      --wordIdx;
+      word = words[base
+          + wordIdx];
+    }
+  }
+
+  /**
+   * Find the earliest timeslot that is set at or after the specified
+   * timeslot.
+   *
+   * @param row the bitset to check
+   * @param from the timeslot to start searching at, inclusive
+   * @return the timeslot or -1 if no timeslot is set
+   */
+  public int next(final int row,
+                  final int from) {
+    final int begin = Math.max(0, from);
+    if (begin >= numSlots) {
+      return -1;
+    }
+
+    final int base = row
+        * wordsPerRow;
+    int wordIdx = wordIndex(begin);
+    long word = words[base
+        + wordIdx]
+        & (WORD_MASK << begin);
+    while (true) {
+      if (word != 0) {
+        final int slot = wordIdx
+            * Long.SIZE
+            + Long.numberOfTrailingZeros(word);
+        return slot < numSlots ? slot : -1;
+      }
+      ++wordIdx;
+      if (wordIdx >= wordsPerRow) {
+        return -1;
+      }
+      word = words[base
+          + wordIdx];
+    }
+  }
+
+}
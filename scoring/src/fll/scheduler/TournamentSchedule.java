@@ -42,6 +42,10 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.xml.XMLConstants;
 import javax.xml.transform.Source;
@@ -337,15 +341,59 @@ public class TournamentSchedule implements Serializable {
   }
 
   /**
-   * Common construction.
+   * Create a schedule from team information that is already in memory. This is
+   * used by the scheduler to check solutions without writing them to a file
+   * and parsing them back in.
+   *
+   * @param name the name of the tournament
+   * @param numRounds the number of performance rounds
+   * @param subjectiveHeaders the names of the subjective stations
+   * @param teams the schedule information for each team, each must have
+   *          numRounds performances and a time for each subjective station
+   */
+  /* package */ TournamentSchedule(final String name,
+                                  final int numRounds,
+                                  final Collection<String> subjectiveHeaders,
+                                  final Collection<TeamScheduleInfo> teams) {
+    this.name = name;
+    this.numRounds = numRounds;
+    for (final TeamScheduleInfo ti : teams) {
+      cacheTeamScheduleInformation(ti);
+    }
+    this.subjectiveStations.addAll(subjectiveHeaders);
+  }
+
+  /**
+   * Create a copy of a schedule. Changing the copy does not change the
+   * original, which allows a copy to be modified on another thread.
+   *
+   * @param other the schedule to copy
+   */
+  /* package */ TournamentSchedule(final TournamentSchedule other) {
+    this.name = other.name;
+    this.numRounds = other.numRounds;
+    for (final TeamScheduleInfo ti : other._schedule) {
+      cacheTeamScheduleInformation(new TeamScheduleInfo(ti));
+    }
+    this._tableColors.addAll(other._tableColors);
+    this.subjectiveStations.addAll(other.subjectiveStations);
+  }
+
+  /**
+   * Read the tournament schedule from a cell reader, see
+   * {@link CellFileReader#createCellReader(File, String)}. The reader is
+   * closed once the schedule is read.
    * 
+   * @param name the name of the tournament
+   * @param reader where to read the schedule from
+   * @param subjectiveHeaders the headers for the subjective columns
    * @throws IOException
    * @throws ScheduleParseException
    * @throws ParseException
    */
-  private TournamentSchedule(final String name,
-                             final CellFileReader reader,
-                             final Collection<String> subjectiveHeaders)
+  public TournamentSchedule(final String name,
+                            final CellFileReader reader,
+                            final Collection<String> subjectiveHeaders)
       throws IOException, ParseException, ScheduleParseException {
     this.name = name;
     final ColumnInformation columnInfo = findColumns(reader, subjectiveHeaders);
@@ -1083,28 +1131,83 @@ public class TournamentSchedule implements Serializable {
                                      final ChallengeDescription description,
                                      final Map<ScoreCategory, String> categoryToSchedule)
       throws DocumentException, MalformedURLException, IOException {
+    outputSubjectiveSheets(dir, baseFileName, description, categoryToSchedule,
+                           Runtime.getRuntime().availableProcessors());
+  }
 
-    // setup the sheets from the sucked in xml
-    for (final ScoreCategory category : description.getSubjectiveCategories()) {
-      final SheetElement sheetElement = createSubjectiveSheetElement(category);
-
-      final String filename = dir
-          + File.separator
-          + baseFileName
-          + "_SubjectiveSheets-"
-          + category.getName()
-          + ".pdf";
-
-      // sort the schedule by the category we're working with
-      final String subjectiveStation = categoryToSchedule.get(category);
-      if (null != subjectiveStation) {
-        Collections.sort(_schedule, getComparatorForSubjectiveByDivision(subjectiveStation));
+  /**
+   * Each category is written to its own file, so the categories are written
+   * in parallel.
+   *
+   * @param numThreads the number of categories to write at once
+   * @see #outputSubjectiveSheets(String, String, ChallengeDescription, Map)
+   */
+  /* package */ void outputSubjectiveSheets(final String dir,
+                                            final String baseFileName,
+                                            final ChallengeDescription description,
+                                            final Map<ScoreCategory, String> categoryToSchedule,
+                                            final int numThreads)
+      throws DocumentException, MalformedURLException, IOException {
+    final List<ScoreCategory> categories = description.getSubjectiveCategories();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(numThreads,
+                                                                                        categories.size())));
+    try {
+      final List<Future<Void>> futures = new LinkedList<>();
+
+      // setup the sheets from the sucked in xml
+      for (final ScoreCategory category : categories) {
+        final SheetElement sheetElement = createSubjectiveSheetElement(category);
+
+        final String filename = dir
+            + File.separator
+            + baseFileName
+            + "_SubjectiveSheets-"
+            + category.getName()
+            + ".pdf";
+
+        // sort the schedule by the category we're working with, each category
+        // gets its own copy as they are written at the same time
+        final List<TeamScheduleInfo> schedule = new ArrayList<>(_schedule);
+        final String subjectiveStation = categoryToSchedule.get(category);
+        if (null != subjectiveStation) {
+          Collections.sort(schedule, getComparatorForSubjectiveByDivision(subjectiveStation));
+        }
+
+        final ScoreCategory scoreCategory = sheetElement.getSheetData();
+        final String schedulerColumn = categoryToSchedule.get(scoreCategory);
+
+        futures.add(executor.submit(() -> {
+          SubjectivePdfWriter.createDocument(filename, description, sheetElement, schedulerColumn, schedule);
+          return null;
+        }));
       }
 
-      final ScoreCategory scoreCategory = sheetElement.getSheetData();
-      final String schedulerColumn = categoryToSchedule.get(scoreCategory);
+      for (final Future<Void> future : futures) {
+        waitForSubjectiveSheet(future);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 
-      SubjectivePdfWriter.createDocument(filename, description, sheetElement, schedulerColumn, _schedule);
+  private static void waitForSubjectiveSheet(final Future<Void> future)
+      throws DocumentException, IOException {
+    try {
+      future.get();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new FLLRuntimeException("Interrupted while writing the subjective sheets", e);
+    } catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof DocumentException) {
+        throw (DocumentException) cause;
+      } else if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else {
+        throw new FLLInternalException("Unexpected error writing the subjective sheets", cause);
+      }
     }
   }
 
@@ -9,8 +9,10 @@ import java.text.ParseException;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.table.AbstractTableModel;
 
@@ -27,6 +29,7 @@ import fll.scheduler.TournamentSchedule;
 import fll.util.LogUtils;
 import fll.web.admin.DownloadSubjectiveData;
 import fll.xml.AbstractGoal;
+import fll.xml.CompiledScoreCategory;
 import fll.xml.EnumeratedValue;
 import fll.xml.ScoreCategory;
 import fll.xml.ScoreType;
@@ -65,10 +68,19 @@ public final class SubjectiveTableModel extends AbstractTableModel {
       _scheduleColumnMappings.addAll(scheduleColumnMappings);
     }
     _goals = new LinkedList<AbstractGoal>(_subjectiveCategory.getGoals());
+    _compiledCategory = CompiledScoreCategory.compile(_subjectiveCategory);
+    _goalSlots = new int[_goals.size()];
+    for (int i = 0; i < _goalSlots.length; ++i) {
+      _goalSlots[i] = _compiledCategory.getSlot(_goals.get(i).getName());
+    }
+
     final List<Element> scoreElements = getScoreElements(_scoreDocument, _subjectiveCategory.getName());
     _scoreElements = new Element[scoreElements.size()];
+    _rows = new Row[scoreElements.size()];
     for (int i = 0; i < scoreElements.size(); i++) {
       _scoreElements[i] = scoreElements.get(i);
+      _rows[i] = readRow(_scoreElements[i]);
+      _rowIndex.put(getRowKey(_rows[i].teamNumber, _rows[i].judge), i);
     }
     _schedule = schedule;
   }
@@ -173,82 +185,92 @@ public final class SubjectiveTableModel extends AbstractTableModel {
 
   public Object getValueAt(final int row,
                            final int column) {
-    try {
-      final Element scoreEle = getScoreElement(row);
-      final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(scoreEle.getAttribute("teamNumber")).intValue();
-      switch (column) {
-      case 0:
-        if (scoreEle.hasAttribute("teamNumber")) {
-          return teamNumber;
-        } else {
-          return null;
-        }
-      case 1:
-        if (scoreEle.hasAttribute("teamName")) {
-          return scoreEle.getAttribute("teamName");
+    final Row rowData = _rows[row];
+    switch (column) {
+    case 0:
+      return rowData.teamNumber;
+    case 1:
+      return rowData.teamName;
+    case 2:
+      return rowData.division;
+    case 3:
+      return rowData.judgingStation;
+    case 4:
+      return rowData.judge;
+    case 5:
+      if (null != _schedule) {
+        final TeamScheduleInfo schedInfo = _schedule.getSchedInfoForTeam(rowData.teamNumber);
+        final String categoryName = _subjectiveCategory.getName();
+        final String schedColumn = getSchedColumnForCategory(categoryName);
+        final SubjectiveTime subjTime = schedInfo.getSubjectiveTimeByName(schedColumn);
+        if (null != subjTime) {
+          return subjTime.getTime();
         } else {
           return null;
         }
-      case 2:
-        return scoreEle.getAttribute("division");
-      case 3:
-        return scoreEle.getAttribute("judging_station");
-      case 4:
-        return scoreEle.getAttribute("judge");
-      case 5:
-        if (null != _schedule) {
-          final TeamScheduleInfo schedInfo = _schedule.getSchedInfoForTeam(teamNumber);
-          final String categoryName = _subjectiveCategory.getName();
-          final String schedColumn = getSchedColumnForCategory(categoryName);
-          final SubjectiveTime subjTime = schedInfo.getSubjectiveTimeByName(schedColumn);
-          if (null != subjTime) {
-            return subjTime.getTime();
-          } else {
-            return null;
-          }
-        }
-      default:
-        if (column == getNumGoals()
-            + getNumColumnsLeftOfScores()) {
-          return Boolean.valueOf(scoreEle.getAttribute("NoShow"));
-        } else if (column == getNumGoals()
-            + getNumColumnsLeftOfScores() + 1) {
-          if (Boolean.valueOf(scoreEle.getAttribute("NoShow"))) {
-            return (double) 0;
-          } else {
-            // compute total score
-            final double newTotalScore = _subjectiveCategory.evaluate(getTeamScore(row));
-            return newTotalScore;
-          }
-        } else {
-          final AbstractGoal goalDescription = getGoalDescription(column
-              - getNumColumnsLeftOfScores());
-          final String goalName = goalDescription.getName();
-          // the order really matters here because a computed goal will never
-          // have an entry in scoreEle
-
-          if (goalDescription.isComputed()) {
-            return goalDescription.getComputedScore(getTeamScore(row));
-          } else if (null == SubjectiveUtils.getSubscoreElement(scoreEle, goalName)) {
-            return null;
-          } else if (goalDescription.isEnumerated()) {
-            return getTeamScore(row).getEnumRawScore(goalName);
-          } else {
-            final double score = getTeamScore(row).getRawScore(goalName);
-            final ScoreType scoreType = XMLUtils.getScoreType(scoreEle);
-            if (Double.isNaN(score)) {
-              return null;
-            } else if (ScoreType.FLOAT == scoreType) {
-              return score;
-            } else {
-              return (int) score;
-            }
-          }
-        }
       }
+    default:
+      if (column == getNumGoals()
+          + getNumColumnsLeftOfScores()) {
+        return rowData.noShow;
+      } else if (column == getNumGoals()
+          + getNumColumnsLeftOfScores() + 1) {
+        return rowData.total;
+      } else {
+        return rowData.goalValues[column
+            - getNumColumnsLeftOfScores()];
+      }
+    }
+  }
+
+  /**
+   * Read the values displayed for a score element and compute its total
+   * score.
+   */
+  private Row readRow(final Element scoreEle) {
+    final SubjectiveTeamScore teamScore;
+    try {
+      teamScore = new SubjectiveTeamScore(scoreEle);
     } catch (final ParseException pe) {
       throw new RuntimeException("Error in challenge.xml!!! Unparsable number", pe);
     }
+
+    final boolean noShow = Boolean.valueOf(scoreEle.getAttribute("NoShow"));
+    final ScoreType scoreType = XMLUtils.getScoreType(scoreEle);
+
+    final double[] values = new double[_compiledCategory.getNumSlots()];
+    final String[] enumValues = new String[_compiledCategory.getSimpleGoalNames().size()];
+    _compiledCategory.readRawScores(teamScore, values, enumValues);
+    final double total = _compiledCategory.evaluate(values, enumValues);
+
+    final Object[] goalValues = new Object[getNumGoals()];
+    for (int i = 0; i < goalValues.length; ++i) {
+      final AbstractGoal goalDescription = getGoalDescription(i);
+      final String goalName = goalDescription.getName();
+      // the order really matters here because a computed goal will never
+      // have an entry in scoreEle
+      if (goalDescription.isComputed()) {
+        goalValues[i] = values[_goalSlots[i]];
+      } else if (null == SubjectiveUtils.getSubscoreElement(scoreEle, goalName)) {
+        goalValues[i] = null;
+      } else if (goalDescription.isEnumerated()) {
+        goalValues[i] = teamScore.getEnumRawScore(goalName);
+      } else {
+        final double score = teamScore.getRawScore(goalName);
+        if (Double.isNaN(score)) {
+          goalValues[i] = null;
+        } else if (ScoreType.FLOAT == scoreType) {
+          goalValues[i] = score;
+        } else {
+          goalValues[i] = (int) score;
+        }
+      }
+    }
+
+    final String teamName = scoreEle.hasAttribute("teamName") ? scoreEle.getAttribute("teamName") : null;
+    return new Row(teamScore.getTeamNumber(), teamName, scoreEle.getAttribute("division"),
+                   scoreEle.getAttribute("judging_station"), scoreEle.getAttribute("judge"), noShow, goalValues,
+                   noShow ? 0 : total);
   }
 
   /**
@@ -306,8 +328,7 @@ public final class SubjectiveTableModel extends AbstractTableModel {
         return false;
       } else {
         // if no show, then no scores can be entered
-        final Element scoreEle = getScoreElement(row);
-        if (Boolean.valueOf(scoreEle.getAttribute("NoShow"))) {
+        if (_rows[row].noShow) {
           return false;
         }
 
@@ -441,6 +462,9 @@ public final class SubjectiveTableModel extends AbstractTableModel {
       // reset
       setValueAt(getValueAt(row, column), row, column, false);
     } else {
+      // only this row changed, so only its total needs to be computed again
+      _rows[row] = readRow(element);
+
       fireTableCellUpdated(row, column);
       forceComputedGoalUpdates(row);
       fireTableCellUpdated(row, getColumnCount()
@@ -483,33 +507,81 @@ public final class SubjectiveTableModel extends AbstractTableModel {
    */
   public int getRowForTeamAndJudge(final int teamNumber,
                                    final String judge) {
-    try {
-      for (int index = 0; index < _scoreElements.length; ++index) {
-        final Element scoreEle = _scoreElements[index];
-        final int num = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(scoreEle.getAttribute("teamNumber")).intValue();
-        final String j = scoreEle.getAttribute("judge");
-        if (teamNumber == num
-            && judge.equals(j)) {
-          return index;
-        }
-      }
+    final Integer index = _rowIndex.get(getRowKey(teamNumber, judge));
+    if (null == index) {
       return -1;
-    } catch (final ParseException e) {
-      throw new RuntimeException(e);
+    } else {
+      return index;
     }
   }
 
+  private static String getRowKey(final int teamNumber,
+                                  final String judge) {
+    return teamNumber
+        + "\t" + judge;
+  }
+
   /**
-   * Get the score element at index.
+   * The values displayed for each row, read from {@link #_scoreElements} so
+   * that painting the table doesn't need to read the XML. Updated when a value
+   * is set.
    */
-  private SubjectiveTeamScore getTeamScore(final int index) {
-    try {
-      return new SubjectiveTeamScore(getScoreElement(index));
-    } catch (final ParseException pe) {
-      throw new RuntimeException(pe);
+  private final Row[] _rows;
+
+  /**
+   * team number and judge, see {@link #getRowKey(int, String)} -> row index
+   */
+  private final Map<String, Integer> _rowIndex = new HashMap<>();
+
+  /**
+   * Values of a row in the table.
+   */
+  private static final class Row {
+    Row(final int teamNumber,
+        final String teamName,
+        final String division,
+        final String judgingStation,
+        final String judge,
+        final boolean noShow,
+        final Object[] goalValues,
+        final double total) {
+      this.teamNumber = teamNumber;
+      this.teamName = teamName;
+      this.division = division;
+      this.judgingStation = judgingStation;
+      this.judge = judge;
+      this.noShow = noShow;
+      this.goalValues = goalValues;
+      this.total = total;
     }
+
+    private final int teamNumber;
+
+    private final String teamName;
+
+    private final String division;
+
+    private final String judgingStation;
+
+    private final String judge;
+
+    private final boolean noShow;
+
+    /**
+     * Value of each goal column in the order of {@link #_goals}.
+     */
+    private final Object[] goalValues;
+
+    private final double total;
   }
 
+  private final CompiledScoreCategory _compiledCategory;
+
+  /**
+   * Slot in {@link #_compiledCategory} for each goal in {@link #_goals}.
+   */
+  private final int[] _goalSlots;
+
   private final ScoreCategory _subjectiveCategory;
 
   /**
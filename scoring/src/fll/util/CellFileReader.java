@@ -61,6 +61,10 @@ public abstract class CellFileReader implements Closeable {
                                                 final String sheetName)
       throws InvalidFormatException, IOException {
     if (ExcelCellReader.isExcelFile(file)) {
+      if (XlsxCellReader.isXlsxFile(file)) {
+        return new XlsxCellReader(file.toFile(), sheetName);
+      }
+
       try (final InputStream fis = Files.newInputStream(file)) {
         return new ExcelCellReader(fis, sheetName);
       }
@@ -96,6 +96,10 @@ public class ExcelCellReader extends CellFileReader {
   }
 
   public static List<String> getAllSheetNames(final File file) throws InvalidFormatException, IOException {
+    if (XlsxCellReader.isXlsxFile(file.toPath())) {
+      return XlsxCellReader.getAllSheetNames(file);
+    }
+
     FileInputStream fis = null;
     try {
       fis = new FileInputStream(file);
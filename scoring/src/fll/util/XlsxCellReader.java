@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.log4j.Logger;
+import org.apache.poi.POIXMLDocument;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.SAXException;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fll.scheduler.TournamentSchedule;
+
+/**
+ * Read Excel 2007 (.xlsx) files one row at a time without loading the
+ * workbook into memory. The shared strings are read once when the reader is
+ * created and the rows of the sheet are parsed as they are read. Cells are
+ * formatted the same way as {@link ExcelCellReader}, except that the values
+ * of formulas are the values saved in the file rather than evaluated again.
+ */
+public class XlsxCellReader extends CellFileReader {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final String SPREADSHEET_NAMESPACE = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+
+  private final OPCPackage pkg;
+
+  private final ReadOnlySharedStringsTable sharedStrings;
+
+  private final StylesTable styles;
+
+  private final DataFormatter formatter = new DataFormatter();
+
+  private final InputStream sheetStream;
+
+  private final XMLStreamReader sheetReader;
+
+  private int lineNumber = -1;
+
+  /**
+   * The next row in the sheet, null if it hasn't been read yet.
+   */
+  private Row nextRow = null;
+
+  /**
+   * True once the end of the sheet data has been found.
+   */
+  private boolean endOfSheet = false;
+
+  private boolean closed = false;
+
+  /**
+   * Check if the file is an Excel 2007 file by checking the contents.
+   *
+   * @throws IOException
+   */
+  public static boolean isXlsxFile(final Path path) throws IOException {
+    try (final InputStream stream = new BufferedInputStream(Files.newInputStream(path))) {
+      return POIXMLDocument.hasOOXMLHeader(stream);
+    }
+  }
+
+  /**
+   * Get the names of all sheets in the file. Only the list of sheets is read.
+   *
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public static List<String> getAllSheetNames(final File file) throws InvalidFormatException, IOException {
+    final OPCPackage pkg = OPCPackage.open(file.getAbsolutePath(), PackageAccess.READ);
+    try {
+      final List<String> sheetNames = new LinkedList<>();
+      final XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) new XSSFReader(pkg).getSheetsData();
+      while (iter.hasNext()) {
+        // the name is known once the sheet is opened, its data isn't needed
+        iter.next().close();
+        sheetNames.add(iter.getSheetName());
+      }
+      return sheetNames;
+    } catch (final OpenXML4JException e) {
+      throw invalidFormat(e);
+    } finally {
+      pkg.revert();
+    }
+  }
+
+  /**
+   * Open an excel file for reading. The file is kept open until the reader is
+   * closed.
+   *
+   * @param file the file to read
+   * @param sheetName the sheet to read
+   * @throws IOException
+   * @throws InvalidFormatException
+   */
+  public XlsxCellReader(final File file,
+                        final String sheetName)
+      throws IOException, InvalidFormatException {
+    pkg = OPCPackage.open(file.getAbsolutePath(), PackageAccess.READ);
+    InputStream stream = null;
+    try {
+      final XSSFReader reader = new XSSFReader(pkg);
+      sharedStrings = new ReadOnlySharedStringsTable(pkg);
+      styles = reader.getStylesTable();
+
+      final XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) reader.getSheetsData();
+      while (null == stream
+          && iter.hasNext()) {
+        final InputStream sheet = iter.next();
+        if (iter.getSheetName().equals(sheetName)) {
+          stream = sheet;
+        } else {
+          sheet.close();
+        }
+      }
+      if (null == stream) {
+        throw new InvalidFormatException("Cannot find sheet '"
+            + sheetName + "'");
+      }
+
+      final XMLInputFactory factory = XMLInputFactory.newInstance();
+      factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+      factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+      sheetReader = factory.createXMLStreamReader(stream);
+      sheetStream = stream;
+    } catch (final OpenXML4JException | SAXException | XMLStreamException e) {
+      closeAfterError(stream);
+      throw invalidFormat(e);
+    } catch (final IOException | RuntimeException e) {
+      closeAfterError(stream);
+      throw e;
+    }
+  }
+
+  /**
+   * {@link InvalidFormatException} doesn't take a cause, so set it after
+   * creating the exception.
+   */
+  private static InvalidFormatException invalidFormat(final Exception cause) {
+    final InvalidFormatException e = new InvalidFormatException("Error reading the workbook: "
+        + cause.getMessage());
+    e.initCause(cause);
+    return e;
+  }
+
+  private void closeAfterError(final InputStream stream) {
+    if (null != stream) {
+      try {
+        stream.close();
+      } catch (final IOException e) {
+        LOGGER.debug("Error closing sheet after error", e);
+      }
+    }
+    pkg.revert();
+  }
+
+  /**
+   * @see fll.util.CellFileReader#getLineNumber()
+   */
+  @Override
+  public int getLineNumber() {
+    return lineNumber;
+  }
+
+  /**
+   * @see fll.util.CellFileReader#readNext()
+   */
+  @Override
+  @SuppressFBWarnings(value = "PZLA_PREFER_ZERO_LENGTH_ARRAYS", justification = "Return null rather than zero length array so that we know when we hit EFO")
+  public String[] readNext() throws IOException {
+    if (null == nextRow
+        && !endOfSheet) {
+      try {
+        nextRow = parseNextRow();
+      } catch (final XMLStreamException e) {
+        throw new IOException("Error reading the sheet", e);
+      }
+    }
+
+    if (null == nextRow) {
+      return null;
+    }
+
+    ++lineNumber;
+    if (nextRow.index > lineNumber) {
+      // rows without data aren't in the file
+      return new String[0];
+    } else {
+      final List<String> data = nextRow.data;
+      nextRow = null;
+      return data.toArray(new String[data.size()]);
+    }
+  }
+
+  /**
+   * A row read from the sheet.
+   */
+  private static final class Row {
+    Row(final int index) {
+      this.index = index;
+    }
+
+    private final int index;
+
+    private final List<String> data = new ArrayList<>();
+  }
+
+  /**
+   * @return the next row or null if there are no more rows
+   */
+  private Row parseNextRow() throws XMLStreamException {
+    Row row = null;
+    int column = -1;
+    String type = null;
+    int style = 0;
+    boolean formula = false;
+    String value = null;
+
+    while (sheetReader.hasNext()) {
+      final int event = sheetReader.next();
+      if (XMLStreamConstants.START_ELEMENT == event) {
+        final String element = sheetReader.getLocalName();
+        if ("row".equals(element)) {
+          final String r = sheetReader.getAttributeValue(null, "r");
+          row = new Row(null == r ? lineNumber
+              + 1 : Integer.parseInt(r)
+                  - 1);
+          column = -1;
+        } else if ("c".equals(element)) {
+          final String r = sheetReader.getAttributeValue(null, "r");
+          column = null == r ? column
+              + 1 : new CellReference(r).getCol();
+          type = sheetReader.getAttributeValue(null, "t");
+          final String s = sheetReader.getAttributeValue(null, "s");
+          style = null == s ? 0 : Integer.parseInt(s);
+          formula = false;
+          value = null;
+        } else if ("f".equals(element)) {
+          formula = true;
+          sheetReader.getElementText();
+        } else if ("v".equals(element)) {
+          value = sheetReader.getElementText();
+        } else if ("t".equals(element)
+            && SPREADSHEET_NAMESPACE.equals(sheetReader.getNamespaceURI())) {
+          // text of an inline string, possibly in multiple runs
+          value = (null == value ? "" : value)
+              + sheetReader.getElementText();
+        }
+      } else if (XMLStreamConstants.END_ELEMENT == event) {
+        final String element = sheetReader.getLocalName();
+        if ("c".equals(element)) {
+          while (row.data.size() <= column) {
+            row.data.add(null);
+          }
+          row.data.set(column, formatCell(type, style, formula, value));
+        } else if ("row".equals(element)) {
+          return row;
+        } else if ("sheetData".equals(element)) {
+          endOfSheet = true;
+          return null;
+        }
+      }
+    }
+
+    endOfSheet = true;
+    return null;
+  }
+
+  /**
+   * Convert a cell value to a string like {@link ExcelCellReader}.
+   *
+   * @param type the type attribute of the cell, may be null
+   * @param style the index of the cell style
+   * @param formula true if the value is the result of a formula
+   * @param value the value in the file, null for a blank cell
+   * @return the value of the cell, empty for a blank cell
+   */
+  private String formatCell(final String type,
+                            final int style,
+                            final boolean formula,
+                            final String value) {
+    if (null == value) {
+      // blank cells are only in the file when they have formatting
+      return "";
+    } else if ("s".equals(type)) {
+      return sharedStrings.getEntryAt(Integer.parseInt(value));
+    } else if ("b".equals(type)) {
+      return String.valueOf(!"0".equals(value));
+    } else if ("str".equals(type)
+        || "inlineStr".equals(type)
+        || "e".equals(type)) {
+      return value;
+    }
+
+    final double d = Double.parseDouble(value);
+    final XSSFCellStyle cellStyle = styles.getStyleAt(style);
+    final int formatIndex = cellStyle.getDataFormat();
+    final String formatString = cellStyle.getDataFormatString();
+    if (formula) {
+      return formatter.formatRawCellContents(d, formatIndex, formatString);
+    } else if (DateUtil.isValidExcelDate(d)
+        && DateUtil.isADateFormat(formatIndex, formatString)) {
+      // make sure to format times like we expect them
+      final Date date = DateUtil.getJavaDate(d);
+      return TournamentSchedule.DATE_FORMAT_AM_PM_SS.get().format(date);
+    } else if (FP.equals(d, Math.round(d), 1e-10)) {
+      // check for integer
+      return String.valueOf((int) d);
+    } else {
+      return formatter.formatRawCellContents(d, formatIndex, formatString);
+    }
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    try {
+      sheetReader.close();
+    } catch (final XMLStreamException e) {
+      LOGGER.debug("Error closing sheet reader", e);
+    }
+    sheetStream.close();
+    pkg.revert();
+  }
+
+}
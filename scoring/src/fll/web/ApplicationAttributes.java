@@ -29,8 +29,10 @@ public final class ApplicationAttributes {
   public static final String DATASOURCE = "datasource";
 
   /**
-   * Application attribute to hold names of all displays. Type is
-   * SortedSet&lt;{@link DisplayInfo}&gt;. The default display is sorted first.
+   * Application attribute to hold all displays. Only accessed through
+   * {@link DisplayInfo}, use
+   * {@link DisplayInfo#getDisplayInformation(javax.servlet.ServletContext)} to
+   * get the displays.
    */
   public static final String DISPLAY_INFORMATION = "displayInformation";
 
@@ -12,8 +12,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -107,13 +105,9 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
     }
     session.setAttribute(SessionAttributes.DISPLAY_NAME, sanitized);
 
-    synchronized (LOCK) {
-      final Collection<DisplayInfo> displayInformation = internalGetDisplayInformation(application);
-      final DisplayInfo check = new DisplayInfo(sanitized);
-      if (!displayInformation.contains(check)) {
-        displayInformation.add(check);
-        application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, displayInformation);
-      }
+    final DisplayRegistry registry = getRegistry(application);
+    if (null == registry.get(sanitized)) {
+      registry.addIfAbsent(new DisplayInfo(sanitized));
     }
   }
 
@@ -128,14 +122,7 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
    */
   public static void deleteDisplay(@Nonnull final ServletContext application,
                                    @Nonnull final DisplayInfo displayInfo) {
-    if (!displayInfo.isDefaultDisplay()) {
-      synchronized (LOCK) {
-        final SortedSet<DisplayInfo> displayInformation = internalGetDisplayInformation(application);
-
-        displayInformation.remove(displayInfo);
-        application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, displayInformation);
-      }
-    }
+    getRegistry(application).remove(displayInfo);
   }
 
   /**
@@ -183,34 +170,36 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
   }
 
   /**
-   * Get the display information from the application context. If the default
-   * display isn't there, then it's added.
+   * Get the display information from the application context.
    * 
-   * @return an unmodifiable collection sorted by display name with the default
-   *         display first
+   * @return an unmodifiable snapshot of the displays sorted by display name
+   *         with the default display first
    */
   @Nonnull
   public static Collection<DisplayInfo> getDisplayInformation(@Nonnull final ServletContext application) {
-    return Collections.unmodifiableCollection(internalGetDisplayInformation(application));
+    return getRegistry(application).getSnapshot();
   }
 
+  /**
+   * Get the registry of displays, creating it with the default display if
+   * needed.
+   */
   @Nonnull
-  private static SortedSet<DisplayInfo> internalGetDisplayInformation(@Nonnull final ServletContext application) {
-    @SuppressWarnings("unchecked")
-    SortedSet<DisplayInfo> displayInformation = ApplicationAttributes.getAttribute(application,
-                                                                                   ApplicationAttributes.DISPLAY_INFORMATION,
-                                                                                   SortedSet.class);
-    if (null == displayInformation) {
-      displayInformation = new TreeSet<DisplayInfo>();
-      // don't need set as it will happen in the next if statement body
-    }
-    if (displayInformation.isEmpty()
-        || !displayInformation.first().isDefaultDisplay()) {
-      displayInformation.add(createDefault());
-      application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, displayInformation);
+  private static DisplayRegistry getRegistry(@Nonnull final ServletContext application) {
+    DisplayRegistry registry = ApplicationAttributes.getAttribute(application,
+                                                                  ApplicationAttributes.DISPLAY_INFORMATION,
+                                                                  DisplayRegistry.class);
+    if (null == registry) {
+      synchronized (LOCK) {
+        registry = ApplicationAttributes.getAttribute(application, ApplicationAttributes.DISPLAY_INFORMATION,
+                                                      DisplayRegistry.class);
+        if (null == registry) {
+          registry = new DisplayRegistry(createDefault());
+          application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, registry);
+        }
+      }
     }
-
-    return displayInformation;
+    return registry;
   }
 
   /**
@@ -222,18 +211,7 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
    */
   @Nonnull
   public static DisplayInfo findOrCreateDefaultDisplay(@Nonnull final ServletContext application) {
-    final Collection<DisplayInfo> displayInformation = getDisplayInformation(application);
-    for (final DisplayInfo info : displayInformation) {
-      if (info.getName().equals(DEFAULT_DISPLAY_NAME)) {
-        return info;
-      }
-    }
-
-    final DisplayInfo info = createDefault();
-    displayInformation.add(info);
-    application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, displayInformation);
-
-    return info;
+    return getRegistry(application).getDefaultDisplay();
   }
 
   /**
@@ -246,13 +224,7 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
   @CheckForNull
   public static DisplayInfo getNamedDisplay(@Nonnull final ServletContext application,
                                             final String name) {
-    final Collection<DisplayInfo> displayInformation = getDisplayInformation(application);
-    for (final DisplayInfo info : displayInformation) {
-      if (info.getName().equals(name)) {
-        return info;
-      }
-    }
-    return null;
+    return getRegistry(application).get(name);
   }
 
   /**
@@ -275,7 +247,7 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
     return mName;
   }
 
-  private LocalTime mLastSeen;
+  private volatile LocalTime mLastSeen;
 
   /**
    * @return when the display was last seen
@@ -297,22 +269,9 @@ public final class DisplayInfo implements Serializable, Comparable<DisplayInfo>
         + getName() + " -> " + mLastSeen + " default: " + isDefaultDisplay());
 
     if (!isDefaultDisplay()) {
-      synchronized (LOCK) {
-        final SortedSet<DisplayInfo> displayInformation = internalGetDisplayInformation(application);
-
-        final boolean removed = displayInformation.remove(this); // remove
-                                                                 // possible
-                                                                 // outdated
-                                                                 // copy
-        if (LOGGER.isTraceEnabled()) {
-          LOGGER.trace("updateLastSeen: removed display  "
-              + getName() + "? " + removed);
-        }
-
-        displayInformation.add(this); // insert updated version
-
-        application.setAttribute(ApplicationAttributes.DISPLAY_INFORMATION, displayInformation);
-      }
+      // replace a possible outdated copy, this also brings back a display
+      // that was deleted while it is still active
+      getRegistry(application).put(this);
     }
   }
 
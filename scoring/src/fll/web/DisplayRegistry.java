@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * The known displays keyed by name. Lookups and updates don't lock, so
+ * display heartbeats don't wait on each other or on messages being sent.
+ * The default display is always present.
+ */
+/* package */ final class DisplayRegistry {
+
+  DisplayRegistry(@Nonnull final DisplayInfo defaultDisplay) {
+    mDefaultDisplay = defaultDisplay;
+    mDisplays.put(defaultDisplay.getName(), defaultDisplay);
+  }
+
+  private final DisplayInfo mDefaultDisplay;
+
+  /**
+   * display name -> display
+   */
+  private final ConcurrentMap<String, DisplayInfo> mDisplays = new ConcurrentHashMap<>();
+
+  /**
+   * @return the default display
+   */
+  @Nonnull
+  public DisplayInfo getDefaultDisplay() {
+    return mDefaultDisplay;
+  }
+
+  /**
+   * @param name the name of the display, may be null
+   * @return the display or null if not known
+   */
+  @CheckForNull
+  public DisplayInfo get(final String name) {
+    if (null == name) {
+      return null;
+    } else {
+      return mDisplays.get(name);
+    }
+  }
+
+  /**
+   * Add a display if there isn't one with the same name.
+   */
+  public void addIfAbsent(@Nonnull final DisplayInfo display) {
+    mDisplays.putIfAbsent(display.getName(), display);
+  }
+
+  /**
+   * Add a display replacing any display with the same name.
+   */
+  public void put(@Nonnull final DisplayInfo display) {
+    mDisplays.put(display.getName(), display);
+  }
+
+  /**
+   * Remove a display. The default display cannot be removed.
+   */
+  public void remove(@Nonnull final DisplayInfo display) {
+    if (!display.isDefaultDisplay()) {
+      mDisplays.remove(display.getName());
+    }
+  }
+
+  /**
+   * @return the displays sorted by name with the default display first, later
+   *         changes to the registry are not reflected
+   */
+  @Nonnull
+  public List<DisplayInfo> getSnapshot() {
+    final List<DisplayInfo> snapshot = new ArrayList<>(mDisplays.values());
+    Collections.sort(snapshot);
+    return Collections.unmodifiableList(snapshot);
+  }
+
+}
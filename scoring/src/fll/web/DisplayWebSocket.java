@@ -6,11 +6,8 @@
 
 package fll.web;
 
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpSession;
@@ -34,9 +31,11 @@ public class DisplayWebSocket {
   /**
    * session -> display name
    */
-  private static final Map<Session, String> ALL_SESSIONS = new HashMap<>();
+  private static final Map<Session, String> DISPLAY_NAMES = new ConcurrentHashMap<>();
 
-  private static final Object SESSIONS_LOCK = new Object();
+  private static final WebSocketSessions SESSIONS = new WebSocketSessions("DisplayWebSocket",
+                                                                          WebSocketSessions.DEFAULT_MAX_BACKLOG,
+                                                                          DisplayWebSocket::sessionRemoved);
 
   @OnOpen
   public void onOpen(final Session session) {
@@ -44,88 +43,73 @@ public class DisplayWebSocket {
                                                          .get(GetHttpSessionConfigurator.HTTP_SESSION_KEY);
     final String displayName = SessionAttributes.getDisplayName(httpSession);
 
-    synchronized (SESSIONS_LOCK) {
-      ALL_SESSIONS.put(session, displayName);
+    if (null != displayName) {
+      DISPLAY_NAMES.put(session, displayName);
+    }
+    SESSIONS.add(session);
 
-      if (LOGGER.isTraceEnabled()) {
-        LOGGER.trace("Adding session "
-            + session + " display: " + displayName);
-      }
+    if (LOGGER.isTraceEnabled()) {
+      LOGGER.trace("Adding session "
+          + session + " display: " + displayName);
     }
   }
 
   /**
-   * Notify all clients that they should update.
+   * Notify all clients that they should update. The messages are sent
+   * asynchronously.
    */
   public static void notifyToUpdate(final ServletContext httpApplication) {
-    synchronized (SESSIONS_LOCK) {
-      final Set<Session> toRemove = new HashSet<>();
+    final String messageText = "update"; // message text doesn't matter
+    for (final Session session : SESSIONS.getSessions()) {
+      final String displayName = DISPLAY_NAMES.get(session);
 
-      final String messageText = "update"; // message text doesn't matter
-      for (final Map.Entry<Session, String> entry : ALL_SESSIONS.entrySet()) {
-        final Session session = entry.getKey();
-        final String displayName = entry.getValue();
+      if (session.isOpen()) {
+        SESSIONS.send(session, messageText);
 
+        // if this is a named display, update the time last seen
         final DisplayInfo displayInfo = DisplayInfo.getNamedDisplay(httpApplication, displayName);
-        if (session.isOpen()) {
-
-          try {
-            session.getBasicRemote().sendText(messageText);
-          } catch (final IOException ioe) {
-            LOGGER.error("Got error sending message to session ("
-                + session.getId() + "), dropping session", ioe);
-            toRemove.add(session);
-            if (null != displayInfo) {
-              DisplayInfo.deleteDisplay(httpApplication, displayInfo);
-            }
-          }
-
-          // if this is a named display, update the time last seen
-          if (null != displayInfo) {
-            if (LOGGER.isTraceEnabled()) {
-              LOGGER.trace("Updating last seen time for display: "
-                  + displayName + " display: " + displayInfo.getName());
-            }
-
-            displayInfo.updateLastSeen(httpApplication);
-          } // non-null DisplayInfo
-        } else {
-          toRemove.add(session);
-          if (null != displayInfo) {
-            DisplayInfo.deleteDisplay(httpApplication, displayInfo);
+        if (null != displayInfo) {
+          if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace("Updating last seen time for display: "
+                + displayName + " display: " + displayInfo.getName());
           }
-        }
-      } // foreach session
 
-      // cleanup dead sessions
-      for (final Session session : toRemove) {
-        internalRemoveSession(session);
+          displayInfo.updateLastSeen(httpApplication);
+        } // non-null DisplayInfo
+      } else {
+        SESSIONS.remove(session);
       }
-    }
+    } // foreach session
+  }
+
+  /**
+   * @return statistics about the messages sent to the displays
+   */
+  public static String getSendStatistics() {
+    return SESSIONS.toString();
   }
 
   @OnError
   public void error(final Session session,
                     final Throwable t) {
-    synchronized (SESSIONS_LOCK) {
-      LOGGER.error("Caught websocket error, closing session", t);
+    LOGGER.error("Caught websocket error, closing session", t);
 
-      internalRemoveSession(session);
-    }
+    SESSIONS.remove(session);
   }
 
   /**
-   * Close the session and remove it from the global list without locking.
+   * Forget the display of a session that is no longer usable.
    */
-  private static void internalRemoveSession(final Session session) {
-    try {
-      session.close();
-    } catch (final IOException ioe) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Got error closing session, ignoring", ioe);
+  private static void sessionRemoved(final Session session) {
+    final String displayName = DISPLAY_NAMES.remove(session);
+    if (null != displayName) {
+      final HttpSession httpSession = (HttpSession) session.getUserProperties()
+                                                           .get(GetHttpSessionConfigurator.HTTP_SESSION_KEY);
+      final ServletContext httpApplication = httpSession.getServletContext();
+      final DisplayInfo displayInfo = DisplayInfo.getNamedDisplay(httpApplication, displayName);
+      if (null != displayInfo) {
+        DisplayInfo.deleteDisplay(httpApplication, displayInfo);
       }
     }
-
-    ALL_SESSIONS.remove(session);
   }
 }
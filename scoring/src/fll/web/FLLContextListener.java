@@ -19,8 +19,10 @@ import javax.sql.DataSource;
 import org.apache.log4j.Logger;
 
 import fll.Utilities;
+import fll.db.DataSourcePool;
 import fll.flltools.MhubMessageHandler;
 import fll.util.LogUtils;
+import fll.web.report.BackgroundSummarizer;
 
 /**
  * Take care of initializing some variables in the servlet context.
@@ -61,6 +63,9 @@ public class FLLContextListener implements ServletContextListener {
       mhubMessageHandler.shutdown();
     }
 
+    // finish any summary before the database goes away
+    BackgroundSummarizer.shutdown();
+
     // shutdown the database
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
     if (null != datasource) {
@@ -73,6 +78,12 @@ public class FLLContextListener implements ServletContextListener {
       } catch (final SQLException e) {
         LOGGER.error("Error getting connection to shutdown the database", e);
       }
+
+      if (datasource instanceof org.apache.tomcat.jdbc.pool.DataSource) {
+        LOGGER.info("Database connection pool: "
+            + DataSourcePool.getStatistics(datasource));
+        ((org.apache.tomcat.jdbc.pool.DataSource) datasource).close();
+      }
     }
 
     Utilities.unloadDBDriver();
@@ -86,7 +97,7 @@ public class FLLContextListener implements ServletContextListener {
       if (LOGGER.isTraceEnabled()) {
         LOGGER.trace("Datasource not available, creating");
       }
-      final DataSource datasource = Utilities.createFileDataSource(database);
+      final DataSource datasource = DataSourcePool.createPool(Utilities.createFileDataSource(database));
       application.setAttribute(ApplicationAttributes.DATASOURCE, datasource);
 
       // make sure that the database has started everything by doing a query on
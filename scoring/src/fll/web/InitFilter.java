@@ -8,6 +8,7 @@ package fll.web;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -224,6 +225,41 @@ public class InitFilter implements Filter {
   private static final Object initLock = new Object();
 
   /**
+   * Whether the database is known to be initialized with the challenge
+   * description loaded. Each reset creates a new object so that a check that
+   * was started before the reset can't mark the new state as initialized.
+   */
+  private static final class InitState {
+    InitState(final boolean initialized) {
+      this.initialized = initialized;
+    }
+
+    private final boolean initialized;
+  }
+
+  private static final AtomicReference<InitState> INIT_STATE = new AtomicReference<>(new InitState(false));
+
+  /**
+   * Check the database again on the next request and reload the challenge
+   * description. Must be called when the database is replaced or its
+   * challenge description changes.
+   * 
+   * @param application the application to remove the challenge description
+   *          from
+   */
+  public static void resetInitialization(final ServletContext application) {
+    // remove the old description first so that an initialize running now
+    // can't mark the new state initialized with it
+    application.removeAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT);
+    application.removeAttribute(ApplicationAttributes.CHALLENGE_DESCRIPTION);
+    INIT_STATE.set(new InitState(false));
+  }
+
+  /**
+   * Once the database has been found to be initialized this doesn't lock or
+   * touch the database until {@link #resetInitialization(ServletContext)} is
+   * called.
+   * 
    * @param request
    * @param response
    * @return true if everything is OK, false if a redirect happened
@@ -233,6 +269,10 @@ public class InitFilter implements Filter {
                                     final HttpSession session,
                                     final ServletContext application)
       throws IOException, RuntimeException {
+    final InitState state = INIT_STATE.get();
+    if (state.initialized) {
+      return true;
+    }
 
     try {
 
@@ -273,7 +313,7 @@ public class InitFilter implements Filter {
               }
               application.setAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT, document);
 
-              final ChallengeDescription challengeDescription = new ChallengeDescription(document.getDocumentElement());
+              final ChallengeDescription challengeDescription = GlobalParameters.getChallengeDescription(connection);
               application.setAttribute(ApplicationAttributes.CHALLENGE_DESCRIPTION, challengeDescription);
             } catch (final FLLRuntimeException e) {
               LOGGER.error("Error getting challenge document", e);
@@ -291,6 +331,10 @@ public class InitFilter implements Filter {
 
       }
 
+      // fails if there was a reset while checking, the next request checks
+      // again
+      INIT_STATE.compareAndSet(state, new InitState(true));
+
       return true;
     } catch (final SQLException e) {
       throw new RuntimeException(e);
@@ -0,0 +1,415 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.web;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.apache.log4j.Logger;
+
+import fll.util.LogUtils;
+
+/**
+ * The open sessions of a WebSocket endpoint. Messages are sent to each
+ * session asynchronously from its own queue so that a slow client only delays
+ * its own messages and never the thread that sends them.
+ * A message that is the same as one still waiting in a session's queue
+ * replaces the waiting one at the end of the queue, the client would only
+ * get the same information twice. When a
+ * session has too many messages waiting, its queue is discarded and the
+ * session is closed. The clients reconnect and get the current state when
+ * the connection is lost.
+ */
+public final class WebSocketSessions {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  /**
+   * Default maximum number of messages waiting to be sent to a session.
+   */
+  public static final int DEFAULT_MAX_BACKLOG = 50;
+
+  /**
+   * How long a send may take before the session is considered dead.
+   */
+  public static final long SEND_TIMEOUT_MILLIS = 10000;
+
+  private final String name;
+
+  private final int maxBacklog;
+
+  private final Consumer<Session> removeListener;
+
+  private final ConcurrentMap<Session, SessionQueue> sessions = new ConcurrentHashMap<>();
+
+  private final AtomicLong numSent = new AtomicLong();
+
+  private final AtomicLong totalSendNanos = new AtomicLong();
+
+  private final AtomicLong maxSendNanos = new AtomicLong();
+
+  private final AtomicLong maxQueueDepth = new AtomicLong();
+
+  private final AtomicLong numDropped = new AtomicLong();
+
+  private final AtomicLong numOverflows = new AtomicLong();
+
+  private final AtomicLong numFailures = new AtomicLong();
+
+  /**
+   * @param name used in log messages
+   * @param maxBacklog the maximum number of messages waiting to be sent to a
+   *          session
+   * @param removeListener called with each session after it is removed, may
+   *          be null
+   */
+  public WebSocketSessions(final String name,
+                           final int maxBacklog,
+                           final Consumer<Session> removeListener) {
+    if (maxBacklog < 1) {
+      throw new IllegalArgumentException("Backlog must be at least 1: "
+          + maxBacklog);
+    }
+    this.name = name;
+    this.maxBacklog = maxBacklog;
+    this.removeListener = removeListener;
+  }
+
+  /**
+   * Use {@link #DEFAULT_MAX_BACKLOG} and no remove listener.
+   *
+   * @param name used in log messages
+   */
+  public WebSocketSessions(final String name) {
+    this(name, DEFAULT_MAX_BACKLOG, null);
+  }
+
+  /**
+   * Start sending messages to a session.
+   *
+   * @param session the session to add, nothing happens if it was already
+   *          added
+   */
+  public void add(final Session session) {
+    session.getAsyncRemote().setSendTimeout(SEND_TIMEOUT_MILLIS);
+    sessions.putIfAbsent(session, new SessionQueue(session));
+  }
+
+  /**
+   * Close a session and stop sending messages to it.
+   *
+   * @param session the session to remove
+   */
+  public void remove(final Session session) {
+    final SessionQueue queue = sessions.remove(session);
+    if (null != queue) {
+      queue.discard();
+
+      try {
+        session.close();
+      } catch (final IOException ioe) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("Got error closing session, ignoring", ioe);
+        }
+      }
+
+      if (null != removeListener) {
+        removeListener.accept(session);
+      }
+    }
+  }
+
+  /**
+   * @return the current sessions, changes as sessions are added and removed
+   */
+  public Set<Session> getSessions() {
+    return Collections.unmodifiableSet(sessions.keySet());
+  }
+
+  /**
+   * @return true if there are no sessions
+   */
+  public boolean isEmpty() {
+    return sessions.isEmpty();
+  }
+
+  /**
+   * Queue a message for a session. Sessions that are closed or were never
+   * added are removed.
+   *
+   * @param session where to send the message
+   * @param messageText the message
+   */
+  public void send(final Session session,
+                   final String messageText) {
+    final SessionQueue queue = sessions.get(session);
+    if (null == queue
+        || !session.isOpen()) {
+      remove(session);
+    } else {
+      queue.enqueue(messageText);
+    }
+  }
+
+  /**
+   * Queue a message for all sessions.
+   *
+   * @param messageText the message
+   */
+  public void sendAll(final String messageText) {
+    for (final Session session : sessions.keySet()) {
+      send(session, messageText);
+    }
+  }
+
+  /**
+   * @return the number of messages waiting to be sent across all sessions
+   */
+  public int getQueueDepth() {
+    int depth = 0;
+    for (final SessionQueue queue : sessions.values()) {
+      depth += queue.getDepth();
+    }
+    return depth;
+  }
+
+  /**
+   * @return the largest number of messages that have been waiting for a
+   *         single session
+   */
+  public long getMaxQueueDepth() {
+    return maxQueueDepth.get();
+  }
+
+  /**
+   * @return the number of messages that have been sent successfully
+   */
+  public long getNumSent() {
+    return numSent.get();
+  }
+
+  /**
+   * @return average time from queuing a message to the send completing
+   */
+  public long getAverageSendMillis() {
+    final long sent = numSent.get();
+    return 0 == sent ? 0 : TimeUnit.NANOSECONDS.toMillis(totalSendNanos.get()
+        / sent);
+  }
+
+  /**
+   * @return longest time from queuing a message to the send completing
+   */
+  public long getMaxSendMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(maxSendNanos.get());
+  }
+
+  /**
+   * @return the number of messages that were not sent because they were
+   *         stale or the session fell too far behind
+   */
+  public long getNumDropped() {
+    return numDropped.get();
+  }
+
+  /**
+   * @return the number of sessions closed for having too many messages
+   *         waiting
+   */
+  public long getNumOverflows() {
+    return numOverflows.get();
+  }
+
+  /**
+   * @return the number of sends that failed
+   */
+  public long getNumFailures() {
+    return numFailures.get();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("sessions: %d queued: %d max queued: %d sent: %d average send: %dms max send: %dms dropped: %d overflows: %d failures: %d",
+                         sessions.size(), getQueueDepth(), getMaxQueueDepth(), getNumSent(), getAverageSendMillis(),
+                         getMaxSendMillis(), getNumDropped(), getNumOverflows(), getNumFailures());
+  }
+
+  private static final class PendingMessage {
+    PendingMessage(final String text) {
+      this.text = text;
+      this.queued = System.nanoTime();
+    }
+
+    private final String text;
+
+    private final long queued;
+  }
+
+  /**
+   * The messages waiting for a session. At most one message is being sent at
+   * a time.
+   */
+  private final class SessionQueue implements SendHandler {
+    SessionQueue(final Session session) {
+      this.session = session;
+    }
+
+    private final Session session;
+
+    /**
+     * Protected by this.
+     */
+    private final Deque<PendingMessage> pending = new ArrayDeque<>();
+
+    /**
+     * The message being sent, null if nothing is being sent. Protected by
+     * this.
+     */
+    private PendingMessage inFlight = null;
+
+    /**
+     * Protected by this.
+     */
+    private boolean discarded = false;
+
+    public synchronized int getDepth() {
+      return pending.size();
+    }
+
+    public void enqueue(final String messageText) {
+      final PendingMessage toSend;
+      final boolean overflow;
+      synchronized (this) {
+        if (discarded) {
+          return;
+        }
+
+        // the new message replaces a waiting copy so that the client still
+        // sees the messages in the order that they were sent
+        final Iterator<PendingMessage> iter = pending.iterator();
+        while (iter.hasNext()) {
+          if (iter.next().text.equals(messageText)) {
+            iter.remove();
+            numDropped.incrementAndGet();
+            break;
+          }
+        }
+
+        if (pending.size() >= maxBacklog) {
+          numDropped.incrementAndGet();
+          overflow = true;
+          toSend = null;
+        } else {
+          overflow = false;
+          pending.add(new PendingMessage(messageText));
+          updateMax(maxQueueDepth, pending.size());
+
+          if (null == inFlight) {
+            inFlight = pending.poll();
+            toSend = inFlight;
+          } else {
+            toSend = null;
+          }
+        }
+      }
+
+      if (overflow) {
+        numOverflows.incrementAndGet();
+        LOGGER.warn(name
+            + ": session "
+            + session.getId()
+            + " has "
+            + maxBacklog
+            + " messages waiting, closing it");
+        remove(session);
+      } else if (null != toSend) {
+        startSend(toSend);
+      }
+    }
+
+    private void startSend(final PendingMessage message) {
+      try {
+        session.getAsyncRemote().sendText(message.text, this);
+      } catch (final IllegalStateException | IllegalArgumentException e) {
+        numFailures.incrementAndGet();
+        LOGGER.error(name
+            + ": got error sending message to session ("
+            + session.getId()
+            + "), dropping session", e);
+        remove(session);
+      }
+    }
+
+    @Override
+    public void onResult(final SendResult result) {
+      final PendingMessage next;
+      synchronized (this) {
+        // failed sends are counted in numFailures below
+        if (null != inFlight
+            && result.isOK()) {
+          final long elapsed = System.nanoTime()
+              - inFlight.queued;
+          numSent.incrementAndGet();
+          totalSendNanos.addAndGet(elapsed);
+          updateMax(maxSendNanos, elapsed);
+        }
+
+        if (!result.isOK()
+            || discarded) {
+          inFlight = null;
+          next = null;
+        } else {
+          inFlight = pending.poll();
+          next = inFlight;
+        }
+      }
+
+      if (!result.isOK()) {
+        numFailures.incrementAndGet();
+        LOGGER.error(name
+            + ": got error sending message to session ("
+            + session.getId()
+            + "), dropping session", result.getException());
+        remove(session);
+      } else if (null != next) {
+        startSend(next);
+      }
+    }
+
+    /**
+     * Drop all waiting messages and stop sending.
+     */
+    public synchronized void discard() {
+      discarded = true;
+      numDropped.addAndGet(pending.size());
+      pending.clear();
+    }
+  }
+
+  private static void updateMax(final AtomicLong max,
+                                final long value) {
+    long current = max.get();
+    while (value > current
+        && !max.compareAndSet(current, value)) {
+      current = max.get();
+    }
+  }
+
+}
@@ -29,6 +29,7 @@ import net.mtu.eggplant.util.sql.SQLFunctions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import fll.db.LoginCache;
 import fll.db.Queries;
 import fll.util.FLLRuntimeException;
 
@@ -219,6 +220,16 @@ public final class WebUtils {
       throw new FLLRuntimeException("Database is not initialized and security is required, you must initialize the database from localhost");
     }
 
+    final Collection<String> loginKeys = CookieUtils.findLoginKey(request);
+    final String cachedUser = LoginCache.findUser(loginKeys);
+    if (null != cachedUser) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Returning true from checkAuthenticated for cached login user: "
+            + cachedUser);
+      }
+      return true;
+    }
+
     Connection connection = null;
     try {
       connection = datasource.getConnection();
@@ -228,7 +239,6 @@ public final class WebUtils {
         return true;
       }
 
-      final Collection<String> loginKeys = CookieUtils.findLoginKey(request);
       final String user = Queries.checkValidLogin(connection, loginKeys);
       if (null != user) {
         LOGGER.debug("Returning true from checkSecurity for valid login: "
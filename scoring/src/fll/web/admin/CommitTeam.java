@@ -31,6 +31,7 @@ import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.SessionAttributes;
+import fll.web.report.BackgroundSummarizer;
 import fll.xml.ChallengeDescription;
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
@@ -192,6 +193,9 @@ public class CommitTeam extends BaseFLLServlet {
 
       } // not deleting team
 
+      // the teams and their scores may have changed
+      BackgroundSummarizer.scheduleUpdate(application);
+
       if (message.length() > 0) {
         session.setAttribute(SessionAttributes.MESSAGE, message.toString());
       }
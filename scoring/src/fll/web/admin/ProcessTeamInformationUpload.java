@@ -109,87 +109,88 @@ public final class ProcessTeamInformationUpload extends BaseFLLServlet {
           + file.toString());
     }
 
-    final CellFileReader reader = CellFileReader.createCellReader(file, sheetName);
+    try (final CellFileReader reader = CellFileReader.createCellReader(file, sheetName)) {
 
-    // parse out the first non-blank line as the names of the columns
-    String[] columnNames = reader.readNext();
-    while (columnNames.length < 1) {
-      columnNames = reader.readNext();
-    }
-    if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace("Column names size: "
-          + columnNames.length //
-          + " names: " + Arrays.asList(columnNames).toString() //
-          + " teamNumber column: " + teamNumberColumnName);
-    }
-
-    int teamNumColumnIdx = -1;
-    int teamNameColumnIdx = -1;
-    int organizationColumnIdx = -1;
-    int index = 0;
-    while (index < columnNames.length
-        && (-1 == teamNumColumnIdx
-            || -1 == teamNameColumnIdx || -1 == organizationColumnIdx)) {
-      if (-1 == teamNumColumnIdx
-          && teamNumberColumnName.equals(columnNames[index])) {
-        teamNumColumnIdx = index;
-      }
-
-      if (-1 == teamNameColumnIdx
-          && teamNameColumnName.equals(columnNames[index])) {
-        teamNameColumnIdx = index;
+      // parse out the first non-blank line as the names of the columns
+      String[] columnNames = reader.readNext();
+      while (columnNames.length < 1) {
+        columnNames = reader.readNext();
       }
-
-      if (-1 == organizationColumnIdx
-          && organizationColumnName.equals(columnNames[index])) {
-        organizationColumnIdx = index;
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace("Column names size: "
+            + columnNames.length //
+            + " names: " + Arrays.asList(columnNames).toString() //
+            + " teamNumber column: " + teamNumberColumnName);
       }
 
-      ++index;
-    }
+      int teamNumColumnIdx = -1;
+      int teamNameColumnIdx = -1;
+      int organizationColumnIdx = -1;
+      int index = 0;
+      while (index < columnNames.length
+          && (-1 == teamNumColumnIdx
+              || -1 == teamNameColumnIdx || -1 == organizationColumnIdx)) {
+        if (-1 == teamNumColumnIdx
+            && teamNumberColumnName.equals(columnNames[index])) {
+          teamNumColumnIdx = index;
+        }
 
-    if (-1 == teamNumColumnIdx) {
-      throw new FLLInternalException("Cannot find index for team number column '"
-          + teamNumberColumnName + "'");
-    }
+        if (-1 == teamNameColumnIdx
+            && teamNameColumnName.equals(columnNames[index])) {
+          teamNameColumnIdx = index;
+        }
 
-    int rowsProcessed = 0;
-    String[] data = reader.readNext();
-    while (null != data) {
-      if (teamNumColumnIdx < data.length) {
-        final String teamNumStr = data[teamNumColumnIdx];
-        if (null != teamNumStr
-            && !"".equals(teamNumStr.trim())) {
-          final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(teamNumStr).intValue();
-
-          final Team team = Team.getTeamFromDatabase(connection, teamNumber);
-
-          final String teamName;
-          if (teamNameColumnIdx < 0) {
-            teamName = team.getTeamName();
-          } else {
-            teamName = data[teamNameColumnIdx];
-          }
+        if (-1 == organizationColumnIdx
+            && organizationColumnName.equals(columnNames[index])) {
+          organizationColumnIdx = index;
+        }
 
-          final String organization;
-          if (organizationColumnIdx < 0) {
-            organization = team.getOrganization();
-          } else {
-            organization = data[organizationColumnIdx];
-          }
+        ++index;
+      }
 
-          Queries.updateTeam(connection, teamNumber, teamName, organization);
+      if (-1 == teamNumColumnIdx) {
+        throw new FLLInternalException("Cannot find index for team number column '"
+            + teamNumberColumnName + "'");
+      }
 
-          ++rowsProcessed;
+      int rowsProcessed = 0;
+      String[] data = reader.readNext();
+      while (null != data) {
+        if (teamNumColumnIdx < data.length) {
+          final String teamNumStr = data[teamNumColumnIdx];
+          if (null != teamNumStr
+              && !"".equals(teamNumStr.trim())) {
+            final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(teamNumStr).intValue();
+
+            final Team team = Team.getTeamFromDatabase(connection, teamNumber);
+
+            final String teamName;
+            if (teamNameColumnIdx < 0) {
+              teamName = team.getTeamName();
+            } else {
+              teamName = data[teamNameColumnIdx];
+            }
+
+            final String organization;
+            if (organizationColumnIdx < 0) {
+              organization = team.getOrganization();
+            } else {
+              organization = data[organizationColumnIdx];
+            }
+
+            Queries.updateTeam(connection, teamNumber, teamName, organization);
+
+            ++rowsProcessed;
+          }
         }
+
+        data = reader.readNext();
       }
 
-      data = reader.readNext();
+      message.append("<p>Successfully processed "
+          + rowsProcessed + " rows of data</p>");
     }
 
-    message.append("<p>Successfully processed "
-        + rowsProcessed + " rows of data</p>");
-
   }
 
 }
@@ -139,105 +139,106 @@ public final class ProcessTeamTournamentAssignmentsUpload extends BaseFLLServlet
           + file.getName());
     }
 
-    final CellFileReader reader = CellFileReader.createCellReader(file, sheetName);
+    try (final CellFileReader reader = CellFileReader.createCellReader(file, sheetName)) {
 
-    // parse out the first non-blank line as the names of the columns
-    String[] columnNames = reader.readNext();
-    while (columnNames.length < 1) {
-      columnNames = reader.readNext();
-    }
-    if (LOGGER.isTraceEnabled()) {
-      LOGGER.trace("Column names size: "
-          + columnNames.length //
-          + " names: " + Arrays.asList(columnNames).toString() //
-          + " teamNumber column: " + teamNumberColumnName);
-    }
-
-    int teamNumColumnIdx = -1;
-    int tournamentColumnIdx = -1;
-    int eventDivisionColumnIdx = -1;
-    int judgingStationColumnIdx = -1;
-    int index = 0;
-    while (index < columnNames.length
-        && (-1 == teamNumColumnIdx
-            || -1 == tournamentColumnIdx || -1 == eventDivisionColumnIdx || -1 == judgingStationColumnIdx)) {
-      if (-1 == teamNumColumnIdx
-          && teamNumberColumnName.equals(columnNames[index])) {
-        teamNumColumnIdx = index;
-      }
-
-      if (-1 == tournamentColumnIdx
-          && tournamentColumnName.equals(columnNames[index])) {
-        tournamentColumnIdx = index;
+      // parse out the first non-blank line as the names of the columns
+      String[] columnNames = reader.readNext();
+      while (columnNames.length < 1) {
+        columnNames = reader.readNext();
       }
-      if (-1 == eventDivisionColumnIdx
-          && eventDivisionColumnName.equals(columnNames[index])) {
-        eventDivisionColumnIdx = index;
-      }
-      if (-1 == judgingStationColumnIdx
-          && judgingStationColumnName.equals(columnNames[index])) {
-        judgingStationColumnIdx = index;
+      if (LOGGER.isTraceEnabled()) {
+        LOGGER.trace("Column names size: "
+            + columnNames.length //
+            + " names: " + Arrays.asList(columnNames).toString() //
+            + " teamNumber column: " + teamNumberColumnName);
       }
 
-      ++index;
-    }
+      int teamNumColumnIdx = -1;
+      int tournamentColumnIdx = -1;
+      int eventDivisionColumnIdx = -1;
+      int judgingStationColumnIdx = -1;
+      int index = 0;
+      while (index < columnNames.length
+          && (-1 == teamNumColumnIdx
+              || -1 == tournamentColumnIdx || -1 == eventDivisionColumnIdx || -1 == judgingStationColumnIdx)) {
+        if (-1 == teamNumColumnIdx
+            && teamNumberColumnName.equals(columnNames[index])) {
+          teamNumColumnIdx = index;
+        }
 
-    if (-1 == teamNumColumnIdx
-        || -1 == tournamentColumnIdx) {
-      throw new FLLInternalException("Cannot find index for team number column '"
-          + teamNumberColumnName + "' or tournament '" + tournamentColumnName + "'");
-    }
+        if (-1 == tournamentColumnIdx
+            && tournamentColumnName.equals(columnNames[index])) {
+          tournamentColumnIdx = index;
+        }
+        if (-1 == eventDivisionColumnIdx
+            && eventDivisionColumnName.equals(columnNames[index])) {
+          eventDivisionColumnIdx = index;
+        }
+        if (-1 == judgingStationColumnIdx
+            && judgingStationColumnName.equals(columnNames[index])) {
+          judgingStationColumnIdx = index;
+        }
 
-    int rowsProcessed = 0;
-    String[] data = reader.readNext();
-    while (null != data) {
-      if (teamNumColumnIdx < data.length
-          && tournamentColumnIdx < data.length) {
-        final String teamNumStr = data[teamNumColumnIdx];
-        if (null != teamNumStr
-            && !"".equals(teamNumStr.trim())) {
-          final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(teamNumStr).intValue();
-
-          final String tournamentName = data[tournamentColumnIdx];
-          Tournament tournament = Tournament.findTournamentByName(connection, tournamentName);
-          if (null == tournament) {
-            // create the tournament
-            Tournament.createTournament(connection, tournamentName, tournamentName);
-            tournament = Tournament.findTournamentByName(connection, tournamentName);
+        ++index;
+      }
+
+      if (-1 == teamNumColumnIdx
+          || -1 == tournamentColumnIdx) {
+        throw new FLLInternalException("Cannot find index for team number column '"
+            + teamNumberColumnName + "' or tournament '" + tournamentColumnName + "'");
+      }
+
+      int rowsProcessed = 0;
+      String[] data = reader.readNext();
+      while (null != data) {
+        if (teamNumColumnIdx < data.length
+            && tournamentColumnIdx < data.length) {
+          final String teamNumStr = data[teamNumColumnIdx];
+          if (null != teamNumStr
+              && !"".equals(teamNumStr.trim())) {
+            final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(teamNumStr).intValue();
+
+            final String tournamentName = data[tournamentColumnIdx];
+            Tournament tournament = Tournament.findTournamentByName(connection, tournamentName);
             if (null == tournament) {
-              throw new FLLInternalException("Created tournament '"
-                  + tournamentName + "', but can't find it.");
+              // create the tournament
+              Tournament.createTournament(connection, tournamentName, tournamentName);
+              tournament = Tournament.findTournamentByName(connection, tournamentName);
+              if (null == tournament) {
+                throw new FLLInternalException("Created tournament '"
+                    + tournamentName + "', but can't find it.");
+              } else {
+                message.append("<p>Created tournament '"
+                    + tournamentName + "'</p>");
+              }
+            }
+
+            final String eventDivision;
+            if (eventDivisionColumnIdx < 0) {
+              eventDivision = GenerateDB.DEFAULT_TEAM_DIVISION;
             } else {
-              message.append("<p>Created tournament '"
-                  + tournamentName + "'</p>");
+              eventDivision = data[eventDivisionColumnIdx];
+            }
+            final String judgingStation;
+            if (judgingStationColumnIdx < 0) {
+              judgingStation = GenerateDB.DEFAULT_TEAM_DIVISION;
+            } else {
+              judgingStation = data[judgingStationColumnIdx];
             }
-          }
 
-          final String eventDivision;
-          if (eventDivisionColumnIdx < 0) {
-            eventDivision = GenerateDB.DEFAULT_TEAM_DIVISION;
-          } else {
-            eventDivision = data[eventDivisionColumnIdx];
-          }
-          final String judgingStation;
-          if (judgingStationColumnIdx < 0) {
-            judgingStation = GenerateDB.DEFAULT_TEAM_DIVISION;
-          } else {
-            judgingStation = data[judgingStationColumnIdx];
+            Queries.addTeamToTournament(connection, teamNumber, tournament.getTournamentID(), eventDivision,
+                                        judgingStation);
+            ++rowsProcessed;
           }
-
-          Queries.addTeamToTournament(connection, teamNumber, tournament.getTournamentID(), eventDivision,
-                                      judgingStation);
-          ++rowsProcessed;
         }
+
+        data = reader.readNext();
       }
 
-      data = reader.readNext();
+      message.append("<p>Successfully processed "
+          + rowsProcessed + " rows of data</p>");
     }
 
-    message.append("<p>Successfully processed "
-        + rowsProcessed + " rows of data</p>");
-
   }
 
 }
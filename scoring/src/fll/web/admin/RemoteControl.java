@@ -22,6 +22,7 @@ import org.apache.log4j.Logger;
 import fll.db.Queries;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
+import fll.web.DisplayInfo;
 import fll.web.playoff.Playoff;
 import fll.web.report.finalist.FinalistSchedule;
 
@@ -62,6 +63,8 @@ public class RemoteControl {
       final Collection<String> finalistDivisions = FinalistSchedule.getAllDivisions(connection, currentTournament);
       pageContext.setAttribute("finalistDivisions", finalistDivisions);
 
+      pageContext.setAttribute("displayInformation", DisplayInfo.getDisplayInformation(application));
+
     } catch (final SQLException e) {
       LOGGER.error(e.getMessage(), e);
       throw new RuntimeException(e.getMessage(), e);
@@ -56,6 +56,7 @@ import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.UploadProcessor;
+import fll.web.report.BackgroundSummarizer;
 import fll.xml.AbstractGoal;
 import fll.xml.ChallengeDescription;
 import fll.xml.ScoreCategory;
@@ -89,6 +90,7 @@ public final class UploadSubjectiveData extends BaseFLLServlet {
       connection = datasource.getConnection();
       saveSubjectiveData(file, Queries.getCurrentTournament(connection),
                          ApplicationAttributes.getChallengeDescription(application), connection, application);
+      BackgroundSummarizer.scheduleUpdate(application);
       message.append("<p id='success'><i>Subjective data uploaded successfully</i></p>");
     } catch (final SAXParseException spe) {
       final String errorMessage = String.format("Error parsing file line: %d column: %d%n Message: %s%n This may be caused by using the wrong version of the software attempting to parse a file that is not subjective data.",
@@ -337,8 +339,10 @@ public final class UploadSubjectiveData extends BaseFLLServlet {
           + categoryName + " (TeamNumber, Tournament, Judge, NoShow");
       final StringBuffer insertSQLValues = new StringBuffer();
       insertSQLValues.append(") VALUES ( ?, ?, ?, ?");
+      // clear the total so that it's computed again, see
+      // Queries.updateModifiedScoreTotals
       updateStmt.append("UPDATE "
-          + categoryName + " SET NoShow = ? ");
+          + categoryName + " SET ComputedTotal = NULL, NoShow = ? ");
       final int numGoals = goalDescriptions.size();
       for (final AbstractGoal goalDescription : goalDescriptions) {
         insertSQLColumns.append(", "
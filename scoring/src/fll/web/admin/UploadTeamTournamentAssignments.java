@@ -81,16 +81,17 @@ public final class UploadTeamTournamentAssignments extends BaseFLLServlet {
                                          final String sheetName,
                                          final HttpSession session)
       throws IOException, InvalidFormatException {
-    final CellFileReader reader = CellFileReader.createCellReader(file, sheetName);
+    try (final CellFileReader reader = CellFileReader.createCellReader(file, sheetName)) {
 
-    // parse out the first non-blank line as the names of the columns
-    String[] columnNames = reader.readNext();
-    while (columnNames.length < 1) {
-      columnNames = reader.readNext();
-    }
+      // parse out the first non-blank line as the names of the columns
+      String[] columnNames = reader.readNext();
+      while (columnNames.length < 1) {
+        columnNames = reader.readNext();
+      }
 
-    // save this for other pages to use
-    session.setAttribute("fileHeaders", columnNames);
+      // save this for other pages to use
+      session.setAttribute("fileHeaders", columnNames);
+    }
   }
 
 }
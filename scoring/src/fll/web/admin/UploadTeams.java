@@ -46,6 +46,7 @@ import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.SessionAttributes;
 import fll.web.UploadSpreadsheet;
+import fll.web.scoreboard.AllTeams;
 
 /**
  * Java code for uploading team data to the database. Called from
@@ -122,77 +123,78 @@ public final class UploadTeams extends BaseFLLServlet {
                                final Connection connection,
                                final HttpSession session)
       throws SQLException, IOException, InvalidFormatException {
-    final CellFileReader reader = CellFileReader.createCellReader(file, sheetName);
+    try (final CellFileReader reader = CellFileReader.createCellReader(file, sheetName)) {
 
-    // stores <option value='columnName'>columnName</option> for each column
-    final StringBuffer selectOptions = new StringBuffer();
+      // stores <option value='columnName'>columnName</option> for each column
+      final StringBuffer selectOptions = new StringBuffer();
 
-    // parse out the first line as the names of the columns
-    // final List<String> columnNames = splitLine(reader.readLine());
-    final String[] columnNames = reader.readNext();
+      // parse out the first line as the names of the columns
+      // final List<String> columnNames = splitLine(reader.readLine());
+      final String[] columnNames = reader.readNext();
 
-    // build the SQL for inserting a row into the temporary table
-    final StringBuffer insertPrepSQL = new StringBuffer();
-    insertPrepSQL.append("INSERT INTO AllTeams VALUES(");
+      // build the SQL for inserting a row into the temporary table
+      final StringBuffer insertPrepSQL = new StringBuffer();
+      insertPrepSQL.append("INSERT INTO AllTeams VALUES(");
 
-    // build the SQL for creating the temporary tables
-    final StringBuffer createTable = new StringBuffer();
-    createTable.append("CREATE TABLE AllTeams (");
+      // build the SQL for creating the temporary tables
+      final StringBuffer createTable = new StringBuffer();
+      createTable.append("CREATE TABLE AllTeams (");
 
-    // iterate over each column name and append to appropriate buffers
-    boolean first = true;
-    final List<String> columnNamesSeen = new LinkedList<String>();
-    for (final String header : columnNames) {
-      final String columnName = sanitizeColumnName(header);
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("header: "
-            + header + " columnName: " + columnName);
-      }
-      if (columnNamesSeen.contains(columnName)) {
-        throw new RuntimeException("Duplicate column name found: "
-            + columnName);
-      } else {
-        columnNamesSeen.add(columnName);
-      }
+      // iterate over each column name and append to appropriate buffers
+      boolean first = true;
+      final List<String> columnNamesSeen = new LinkedList<String>();
+      for (final String header : columnNames) {
+        final String columnName = sanitizeColumnName(header);
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("header: "
+              + header + " columnName: " + columnName);
+        }
+        if (columnNamesSeen.contains(columnName)) {
+          throw new RuntimeException("Duplicate column name found: "
+              + columnName);
+        } else {
+          columnNamesSeen.add(columnName);
+        }
 
-      if (first) {
-        first = false;
-      } else {
-        createTable.append(", ");
-        insertPrepSQL.append(", ");
+        if (first) {
+          first = false;
+        } else {
+          createTable.append(", ");
+          insertPrepSQL.append(", ");
+        }
+        createTable.append(columnName
+            + " longvarchar");
+        insertPrepSQL.append("?");
+        selectOptions.append("<option value='"
+            + columnName + "'>" + columnName + "</option>");
       }
-      createTable.append(columnName
-          + " longvarchar");
-      insertPrepSQL.append("?");
-      selectOptions.append("<option value='"
-          + columnName + "'>" + columnName + "</option>");
-    }
-    createTable.append(")");
-    insertPrepSQL.append(")");
+      createTable.append(")");
+      insertPrepSQL.append(")");
+
+      PreparedStatement insertPrep = null;
+      Statement stmt = null;
+      try {
+        stmt = connection.createStatement();
+        stmt.executeUpdate("DROP TABLE IF EXISTS AllTeams"); // make sure the
+        // table doesn't yet
+        // exist
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("creating table: "
+              + createTable.toString());
+        }
+        stmt.executeUpdate(createTable.toString()); // create AllTeams
 
-    PreparedStatement insertPrep = null;
-    Statement stmt = null;
-    try {
-      stmt = connection.createStatement();
-      stmt.executeUpdate("DROP TABLE IF EXISTS AllTeams"); // make sure the
-      // table doesn't yet
-      // exist
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("creating table: "
-            + createTable.toString());
-      }
-      stmt.executeUpdate(createTable.toString()); // create AllTeams
+        insertPrep = connection.prepareStatement(insertPrepSQL.toString());
 
-      insertPrep = connection.prepareStatement(insertPrepSQL.toString());
+        insertLinesIntoAllTeams(reader, columnNamesSeen, insertPrep);
+      } finally {
+        SQLFunctions.close(insertPrep);
+        SQLFunctions.close(stmt);
+      }
 
-      insertLinesIntoAllTeams(reader, columnNamesSeen, insertPrep);
-    } finally {
-      SQLFunctions.close(insertPrep);
-      SQLFunctions.close(stmt);
+      // save this for other pages to use
+      session.setAttribute("columnSelectOptions", selectOptions.toString());
     }
-
-    // save this for other pages to use
-    session.setAttribute("columnSelectOptions", selectOptions.toString());
   }
 
   private static void insertLinesIntoAllTeams(final CellFileReader reader,
@@ -550,6 +552,8 @@ public final class UploadTeams extends BaseFLLServlet {
             + "   WHERE Teams.TeamNumber = AllTeams." + teamNumberColumn);
       }
 
+      AllTeams.invalidateCache();
+
     } finally {
       SQLFunctions.close(stmt);
       SQLFunctions.close(rs);
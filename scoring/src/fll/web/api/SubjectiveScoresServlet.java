@@ -16,7 +16,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
@@ -37,12 +39,14 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fll.IncrementalScoreSummary.SubjectiveScoreKey;
 import fll.SubjectiveScore;
 import fll.Tournament;
 import fll.db.Queries;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.admin.UploadSubjectiveData;
+import fll.web.report.BackgroundSummarizer;
 import fll.xml.AbstractGoal;
 import fll.xml.ChallengeDescription;
 import fll.xml.ScoreCategory;
@@ -177,6 +181,7 @@ public class SubjectiveScoresServlet extends HttpServlet {
 
       final Map<String, Map<String, Map<Integer, SubjectiveScore>>> allScores = jsonMapper.readValue(reader,
                                                                                                      ScoresTypeInfo.INSTANCE);
+      final Collection<SubjectiveScoreKey> modifiedScores = new LinkedList<>();
       for (final Map.Entry<String, Map<String, Map<Integer, SubjectiveScore>>> catEntry : allScores.entrySet()) {
         final String category = catEntry.getKey();
         final ScoreCategory categoryDescription = challengeDescription.getSubjectiveCategoryByName(category);
@@ -217,6 +222,7 @@ public class SubjectiveScoresServlet extends HttpServlet {
               insertPrep.setString(5, score.getNote());
 
               ++numModified;
+              modifiedScores.add(new SubjectiveScoreKey(category, teamNumber, judgeId));
               if (score.getDeleted()) {
                 if (LOGGER.isTraceEnabled()) {
                   LOGGER.trace("Deleting team: "
@@ -290,6 +296,7 @@ public class SubjectiveScoresServlet extends HttpServlet {
       
       final Tournament tournament = Tournament.findTournamentByID(connection, currentTournament);
       tournament.recordSubjectiveModified(connection);
+      BackgroundSummarizer.subjectiveModified(application, modifiedScores);
 
       final UploadResult result = new UploadResult(true, "Successfully uploaded scores", numModified);
       response.reset();
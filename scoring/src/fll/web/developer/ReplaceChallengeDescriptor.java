@@ -26,11 +26,13 @@ import org.apache.commons.fileupload.FileUploadException;
 import org.apache.log4j.Logger;
 import org.w3c.dom.Document;
 
+import fll.Tournament;
 import fll.Utilities;
 import fll.db.GenerateDB;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
+import fll.web.InitFilter;
 import fll.web.UploadProcessor;
 import fll.xml.ChallengeParser;
 
@@ -68,7 +70,12 @@ public class ReplaceChallengeDescriptor extends BaseFLLServlet {
       final String compareMessage = ChallengeParser.compareStructure(curDoc, newDoc);
       if (null == compareMessage) {
         GenerateDB.insertOrUpdateChallengeDocument(newDoc, connection);
-        application.setAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT, newDoc);
+        InitFilter.resetInitialization(application);
+
+        // the goals may be computed differently now
+        for (final Tournament tournament : Tournament.getTournaments(connection)) {
+          tournament.clearScoreSummariesUpdated(connection);
+        }
         message.append("<p><i>Successfully replaced challenge descriptor</i></p>");
       } else {
         message.append("<p class='error'>");
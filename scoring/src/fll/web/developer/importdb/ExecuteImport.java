@@ -20,7 +20,6 @@ import javax.sql.DataSource;
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
 import org.apache.log4j.Logger;
-import org.w3c.dom.Document;
 
 import fll.Tournament;
 import fll.db.GlobalParameters;
@@ -30,6 +29,8 @@ import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.SessionAttributes;
+import fll.web.report.BackgroundSummarizer;
+import fll.web.scoreboard.ScoreboardUpdateWebSocket;
 import fll.xml.ChallengeDescription;
 
 /**
@@ -68,9 +69,10 @@ public class ExecuteImport extends BaseFLLServlet {
         // update score totals
         final Tournament destTournament = Tournament.findTournamentByName(destConnection, tournament);
         final int destTournamentID = destTournament.getTournamentID();
-        final Document document = GlobalParameters.getChallengeDocument(destConnection);
-        final ChallengeDescription description = new ChallengeDescription(document.getDocumentElement());
+        final ChallengeDescription description = GlobalParameters.getChallengeDescription(destConnection);
         Queries.updateScoreTotals(description, destConnection, destTournamentID);
+        ScoreboardUpdateWebSocket.notifyToReload();
+        BackgroundSummarizer.scheduleUpdate(application);
 
         message.append(String.format("<p>Import of tournament %s successful. You may now optionally select another tournament to import.</p>", tournament));
         session.setAttribute(SessionAttributes.REDIRECT_URL, "selectTournament.jsp");
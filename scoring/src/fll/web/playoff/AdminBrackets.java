@@ -38,11 +38,7 @@ public class AdminBrackets {
 
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
 
-    // can't close the database connection here as it's used inside
-    // bracketInfo to create the output, which is called after this scope exits
-    try {
-
-      final Connection connection = datasource.getConnection();
+    try (Connection connection = datasource.getConnection()) {
 
       final String divisionStr = request.getParameter("division");
       if (null == divisionStr) {
@@ -95,6 +91,9 @@ public class AdminBrackets {
 
       pageContext.setAttribute("bracketInfo", bracketInfo);
 
+      // create the output while the connection is open
+      pageContext.setAttribute("bracketOutput", bracketInfo.getAdminBracketOutput());
+
       // expose all bracketInfo to the javascript
       final ObjectMapper jsonMapper = new ObjectMapper();
       final StringWriter writer = new StringWriter();
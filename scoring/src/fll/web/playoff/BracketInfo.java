@@ -6,6 +6,8 @@
 
 package fll.web.playoff;
 
+import java.util.Objects;
+
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
@@ -39,4 +41,21 @@ public class BracketInfo {
     return bracketName;
   }
 
-}
\ No newline at end of file
+  @Override
+  public boolean equals(final Object o) {
+    if (o instanceof BracketInfo) {
+      final BracketInfo other = (BracketInfo) o;
+      return other.getFirstRound() == getFirstRound()
+          && other.getLastRound() == getLastRound()
+          && Objects.equals(other.getBracketName(), getBracketName());
+    } else {
+      return false;
+    }
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(getBracketName(), getFirstRound(), getLastRound());
+  }
+
+}
@@ -9,16 +9,15 @@ package fll.web.playoff;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
-import java.io.StringWriter;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpSession;
@@ -30,9 +29,12 @@ import javax.websocket.server.ServerEndpoint;
 
 import org.apache.log4j.Logger;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import fll.db.Queries;
@@ -42,6 +44,7 @@ import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.DisplayInfo;
 import fll.web.GetHttpSessionConfigurator;
+import fll.web.WebSocketSessions;
 import fll.xml.ScoreType;
 
 /**
@@ -52,11 +55,26 @@ public class H2HUpdateWebSocket {
 
   private static final Logger LOGGER = LogUtils.getLogger();
 
-  private static final Map<String, Set<Session>> SESSIONS = new HashMap<>();
+  /**
+   * bracket name -> sessions displaying the bracket
+   */
+  private static final Map<String, Set<Session>> BRACKET_SESSIONS = new ConcurrentHashMap<>();
 
-  private static final Set<Session> ALL_SESSIONS = new HashSet<>();
+  private static final WebSocketSessions SESSIONS = new WebSocketSessions("H2HUpdateWebSocket",
+                                                                          WebSocketSessions.DEFAULT_MAX_BACKLOG,
+                                                                          H2HUpdateWebSocket::sessionRemoved);
 
-  private static final Object SESSIONS_LOCK = new Object();
+  /**
+   * Used for all messages sent, writers are immutable and thread-safe.
+   */
+  private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(BracketMessage.class);
+
+  /**
+   * May get passed a javascript object with extra fields, just ignore them.
+   * This happens when BracketInfo is subclassed and the subclass is passed in.
+   */
+  private static final ObjectReader BRACKET_INFO_READER = new ObjectMapper().readerFor(BracketInfoTypeInformation.INSTANCE)
+                                                                            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
 
   /**
    * Add the session and send out messages for all bracket information for the
@@ -64,51 +82,37 @@ public class H2HUpdateWebSocket {
    * 
    * @param session the session to add
    * @param allBracketInfo the brackets that the session is interested in
-   * @throws IOException
    * @throws SQLException
    */
   private static void addSession(final Session session,
                                  final Collection<BracketInfo> allBracketInfo,
                                  final Connection connection,
                                  final int currentTournament)
-      throws IOException, SQLException {
-    synchronized (SESSIONS_LOCK) {
-      final ObjectMapper jsonMapper = new ObjectMapper();
+      throws SQLException {
+    SESSIONS.add(session);
 
-      ALL_SESSIONS.add(session);
+    updateDisplayedBracket(session);
 
-      updateDisplayedBracket(session);
+    for (final BracketInfo bracketInfo : allBracketInfo) {
 
-      for (final BracketInfo bracketInfo : allBracketInfo) {
+      // register before reading the bracket so that no updates are missed
+      BRACKET_SESSIONS.computeIfAbsent(bracketInfo.getBracketName(), k -> ConcurrentHashMap.newKeySet()).add(session);
 
-        if (!SESSIONS.containsKey(bracketInfo.getBracketName())) {
-          SESSIONS.put(bracketInfo.getBracketName(), new HashSet<Session>());
-        }
+      // send the current information for the bracket to the session so that
+      // it's current
+      final Collection<BracketUpdate> updates = Queries.getH2HBracketData(connection, currentTournament,
+                                                                          bracketInfo.getBracketName(),
+                                                                          bracketInfo.getFirstRound(),
+                                                                          bracketInfo.getLastRound());
+      for (final BracketUpdate update : updates) {
 
-        SESSIONS.get(bracketInfo.getBracketName()).add(session);
-
-        // send the current information for the bracket to the session so that
-        // it's current
-        final Collection<BracketUpdate> updates = Queries.getH2HBracketData(connection, currentTournament,
-                                                                            bracketInfo.getBracketName(),
-                                                                            bracketInfo.getFirstRound(),
-                                                                            bracketInfo.getLastRound());
-        for (final BracketUpdate update : updates) {
-
-          final BracketMessage message = new BracketMessage();
-          message.isBracketUpdate = true;
-          message.bracketUpdate = update;
-
-          final StringWriter writer = new StringWriter();
-          try {
-            jsonMapper.writeValue(writer, message);
-          } catch (final IOException e) {
-            throw new FLLInternalException("Error writing JSON for brackets", e);
-          }
-          session.getBasicRemote().sendText(writer.toString());
-        } // foreach update
+        final BracketMessage message = new BracketMessage();
+        message.isBracketUpdate = true;
+        message.bracketUpdate = update;
+
+        SESSIONS.send(session, encode(message));
+      } // foreach update
 
-      }
     }
   }
 
@@ -124,14 +128,7 @@ public class H2HUpdateWebSocket {
     final Reader reader = new StringReader(msg);
 
     try {
-      final ObjectMapper jsonMapper = new ObjectMapper();
-
-      // may get passed a javascript object with extra fields, just ignore them
-      // this happens when BracketInfo is subclassed and the subclass is passed
-      // in
-      jsonMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-
-      final Collection<BracketInfo> allBracketInfo = jsonMapper.readValue(reader, BracketInfoTypeInformation.INSTANCE);
+      final Collection<BracketInfo> allBracketInfo = BRACKET_INFO_READER.readValue(reader);
 
       if (LOGGER.isTraceEnabled()) {
         for (final BracketInfo bracketInfo : allBracketInfo) {
@@ -162,51 +159,61 @@ public class H2HUpdateWebSocket {
     }
   }
 
-  private static void updateDisplayedBracket(final Session session) {
-
-    if (session.isOpen()) {
-
-      final HttpSession httpSession = (HttpSession) session.getUserProperties()
-                                                           .get(GetHttpSessionConfigurator.HTTP_SESSION_KEY);
-      final ServletContext httpApplication = httpSession.getServletContext();
-
-      final DisplayInfo displayInfo = DisplayInfo.getInfoForDisplay(httpApplication, httpSession);
-
-      final BracketMessage message = new BracketMessage();
-      message.isDisplayUpdate = true;
-
-      for (final DisplayInfo.H2HBracketDisplay h2hBracket : displayInfo.getBrackets()) {
-        final BracketInfo bracketInfo = new BracketInfo(h2hBracket.getBracket(), h2hBracket.getFirstRound(),
-                                                        h2hBracket.getFirstRound()
-                                                            + 2);
-
-        message.allBracketInfo.add(bracketInfo);
-      } // foreach h2h bracket
+  /**
+   * @return the brackets that the display for the session should show
+   */
+  private static List<BracketInfo> getDisplayedBrackets(final Session session) {
+    final HttpSession httpSession = (HttpSession) session.getUserProperties()
+                                                         .get(GetHttpSessionConfigurator.HTTP_SESSION_KEY);
+    final ServletContext httpApplication = httpSession.getServletContext();
+
+    final DisplayInfo displayInfo = DisplayInfo.getInfoForDisplay(httpApplication, httpSession);
+
+    final List<BracketInfo> allBracketInfo = new LinkedList<>();
+    for (final DisplayInfo.H2HBracketDisplay h2hBracket : displayInfo.getBrackets()) {
+      final BracketInfo bracketInfo = new BracketInfo(h2hBracket.getBracket(), h2hBracket.getFirstRound(),
+                                                      h2hBracket.getFirstRound()
+                                                          + 2);
+
+      allBracketInfo.add(bracketInfo);
+    } // foreach h2h bracket
+    return allBracketInfo;
+  }
 
-      // expose all bracketInfo to the javascript
-      final ObjectMapper jsonMapper = new ObjectMapper();
-      try (final StringWriter writer = new StringWriter()) {
-        jsonMapper.writeValue(writer, message);
-        final String allBracketInfoJson = writer.toString();
+  /**
+   * Encode the message that exposes all bracketInfo to the javascript.
+   */
+  private static String encodeDisplayUpdate(final List<BracketInfo> allBracketInfo) {
+    final BracketMessage message = new BracketMessage();
+    message.isDisplayUpdate = true;
+    message.allBracketInfo.addAll(allBracketInfo);
+    return encode(message);
+  }
 
-        session.getBasicRemote().sendText(allBracketInfoJson);
-      } catch (final IOException e) {
-        throw new FLLInternalException("Error writing JSON for allBracketInfo", e);
-      }
+  private static void updateDisplayedBracket(final Session session) {
+    if (session.isOpen()) {
+      SESSIONS.send(session, encodeDisplayUpdate(getDisplayedBrackets(session)));
     } // open session
   }
 
   /**
-   * Send each display the most recent bracket information to show.
+   * Send each display the most recent bracket information to show. Displays
+   * showing the same brackets share the encoded message.
    */
   public static void updateDisplayedBracket() {
-    synchronized (SESSIONS_LOCK) {
-      for (final Session session : ALL_SESSIONS) {
-        updateDisplayedBracket(session);
-      } // foreach session
-
-    } // sessions lock
+    final Map<List<BracketInfo>, List<Session>> sessionsByBrackets = new HashMap<>();
+    for (final Session session : SESSIONS.getSessions()) {
+      if (session.isOpen()) {
+        sessionsByBrackets.computeIfAbsent(getDisplayedBrackets(session), k -> new LinkedList<>()).add(session);
+      }
+    } // foreach session
 
+    for (final Map.Entry<List<BracketInfo>, List<Session>> entry : sessionsByBrackets.entrySet()) {
+      final String messageText = encodeDisplayUpdate(entry.getKey());
+      for (final Session session : entry.getValue()) {
+        SESSIONS.send(session, messageText);
+      }
+    } // foreach distinct set of brackets
   }
 
   /**
@@ -239,62 +246,49 @@ public class H2HUpdateWebSocket {
     message.bracketUpdate = new BracketUpdate(bracketName, dbLine, playoffRound, maxPlayoffRound, teamNumber, teamName,
                                               score, performanceScoreType, noShow, verified, table);
 
-    synchronized (SESSIONS_LOCK) {
-      if (!SESSIONS.containsKey(bracketName)) {
-        return;
-      }
-
-      final Set<Session> toRemove = new HashSet<>();
-
-      final ObjectMapper jsonMapper = new ObjectMapper();
+    final Set<Session> sessions = BRACKET_SESSIONS.get(bracketName);
+    if (null == sessions
+        || sessions.isEmpty()) {
+      return;
+    }
 
-      final StringWriter writer = new StringWriter();
+    final String messageText = encode(message);
 
-      try {
-        jsonMapper.writeValue(writer, message);
-      } catch (final IOException e) {
-        throw new FLLInternalException("Error writing JSON for brackets", e);
-      }
-      final String messageText = writer.toString();
-
-      final Set<Session> sessions = SESSIONS.get(bracketName);
-      for (final Session session : sessions) {
-        if (session.isOpen()) {
-          try {
-            session.getBasicRemote().sendText(messageText);
-          } catch (final IOException ioe) {
-            LOGGER.error("Got error sending message to session ("
-                + session.getId()
-                + "), dropping session", ioe);
-            toRemove.add(session);
-          }
-        } else {
-          toRemove.add(session);
-        }
-      } // foreach session
-
-      // cleanup dead sessions
-      for (final Session session : toRemove) {
-        try {
-          session.close();
-        } catch (final IOException ioe) {
-          if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("Got error closing session, ignoring", ioe);
-          }
-        }
+    for (final Session session : sessions) {
+      SESSIONS.send(session, messageText);
+    } // foreach session
+  }
 
-        sessions.remove(session);
-        ALL_SESSIONS.remove(session);
-      } // foreach session to remove
+  private static String encode(final BracketMessage message) {
+    try {
+      return MESSAGE_WRITER.writeValueAsString(message);
+    } catch (final JsonProcessingException e) {
+      throw new FLLInternalException("Error writing JSON for brackets", e);
+    }
+  }
 
-    } // end lock
+  /**
+   * @return statistics about the messages sent to the brackets
+   */
+  public static String getSendStatistics() {
+    return SESSIONS.toString();
+  }
 
+  /**
+   * Stop sending bracket updates to a session that is no longer usable.
+   */
+  private static void sessionRemoved(final Session session) {
+    for (final Set<Session> sessions : BRACKET_SESSIONS.values()) {
+      sessions.remove(session);
+    }
   }
 
   @OnError
-  public void error(@SuppressWarnings("unused") final Session session,
+  public void error(final Session session,
                     final Throwable t) {
-    LOGGER.error("Caught websocket error", t);
+    LOGGER.error("Caught websocket error, closing session", t);
+
+    SESSIONS.remove(session);
   }
 
   /**
@@ -45,14 +45,12 @@ public class RemoteControlBrackets {
 
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
 
-    // can't close the database connection here as it's used inside
-    // bracketData to create the output, which is called after this scope exits
-    try {
-      final Connection connection = datasource.getConnection();
+    try (Connection connection = datasource.getConnection()) {
 
       pageContext.setAttribute("maxNameLength", Team.MAX_TEAM_NAME_LEN);
 
       final List<BracketData> allBracketData = new LinkedList<>();
+      final List<String> allBracketOutput = new LinkedList<>();
 
       int numRows = 0;
       for (final DisplayInfo.H2HBracketDisplay h2hBracket : displayInfo.getBrackets()) {
@@ -67,9 +65,13 @@ public class RemoteControlBrackets {
         numRows += bracketData.getNumRows();
 
         allBracketData.add(bracketData);
+
+        // create the output while the connection is open
+        allBracketOutput.add(bracketData.getDisplayBracketOutput());
       }
 
       pageContext.setAttribute("allBracketData", allBracketData);
+      pageContext.setAttribute("allBracketOutput", allBracketOutput);
 
       // expose allBracketData to the javascript
       final ObjectMapper jsonMapper = new ObjectMapper();
@@ -31,6 +31,7 @@ import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.SessionAttributes;
 import fll.web.WebUtils;
+import fll.web.scoreboard.ScoreboardUpdateWebSocket;
 
 /**
  * Uninitialize a playoff division.
@@ -110,6 +111,8 @@ public class UninitializePlayoff extends BaseFLLServlet {
 
       connection.setAutoCommit(oldAutocommit);
 
+      ScoreboardUpdateWebSocket.notifyToReload();
+
       LOGGER.info("Uninitialized playoff division "
           + division);
 
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.web.report;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.servlet.ServletContext;
+import javax.sql.DataSource;
+
+import org.apache.log4j.Logger;
+
+import fll.IncrementalScoreSummary;
+import fll.IncrementalScoreSummary.SubjectiveScoreKey;
+import fll.ScoreStandardization;
+import fll.db.Queries;
+import fll.util.LogUtils;
+import fll.web.ApplicationAttributes;
+import fll.xml.ChallengeDescription;
+
+/**
+ * Keeps the summarized scores of the current tournament up to date on a
+ * background thread as scores are written, so that saving a score doesn't
+ * wait for the summary. Writers say which scores they wrote and
+ * {@link IncrementalScoreSummary} rewrites only the summarized scores that
+ * depend on them. Writes that may change any score, such as uploading
+ * subjective data, call {@link #scheduleUpdate(ServletContext)} and the
+ * summary is loaded again from the database. Until there are enough scores to
+ * standardize, nothing is written and the reports ask for the scores to be
+ * summarized as before.
+ */
+public final class BackgroundSummarizer {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private BackgroundSummarizer() {
+  }
+
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  /**
+   * Created on first use and cleared by {@link #shutdown()} so that the web
+   * application can be started again in the same JVM.
+   */
+  private static ExecutorService executor = null;
+
+  private static synchronized ExecutorService getExecutor() {
+    if (null == executor) {
+      executor = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "Score summarizer");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return executor;
+  }
+
+  /**
+   * Stop the background thread, waiting for a running or queued update to
+   * finish. Call before the database is shutdown.
+   */
+  public static void shutdown() {
+    final ExecutorService toShutdown;
+    synchronized (BackgroundSummarizer.class) {
+      toShutdown = executor;
+      executor = null;
+    }
+    if (null != toShutdown) {
+      toShutdown.shutdown();
+      try {
+        if (!toShutdown.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          LOGGER.warn("Background score summary didn't finish within "
+              + SHUTDOWN_TIMEOUT_SECONDS + " seconds");
+        }
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    synchronized (SUMMARY_LOCK) {
+      summary = null;
+    }
+    PENDING.set(false);
+    RELOAD.set(true);
+    PERFORMANCE_MODIFIED.clear();
+    SUBJECTIVE_MODIFIED.clear();
+  }
+
+  /**
+   * Guards {@link #summary}.
+   */
+  private static final Object SUMMARY_LOCK = new Object();
+
+  /**
+   * The summary of the current tournament, null until it's loaded.
+   */
+  private static IncrementalScoreSummary summary = null;
+
+  /**
+   * True when the summary needs to be loaded from the database again.
+   */
+  private static final AtomicBoolean RELOAD = new AtomicBoolean(true);
+
+  /**
+   * Teams that had a performance score written since the last update.
+   */
+  private static final Set<Integer> PERFORMANCE_MODIFIED = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Subjective scores written since the last update.
+   */
+  private static final Set<SubjectiveScoreKey> SUBJECTIVE_MODIFIED = ConcurrentHashMap.newKeySet();
+
+  /**
+   * True when an update has been submitted and hasn't started yet.
+   */
+  private static final AtomicBoolean PENDING = new AtomicBoolean(false);
+
+  private static final AtomicLong NUM_REQUESTS = new AtomicLong();
+
+  private static final AtomicLong NUM_LOADS = new AtomicLong();
+
+  private static final AtomicLong NUM_UPDATES = new AtomicLong();
+
+  private static final AtomicLong NUM_INCOMPLETE = new AtomicLong();
+
+  private static final AtomicLong NUM_FAILURES = new AtomicLong();
+
+  private static final AtomicLong LAST_UPDATE_NANOS = new AtomicLong();
+
+  /**
+   * Load the summarized scores of the current tournament from the database
+   * soon. Call after writing scores that aren't passed to
+   * {@link #performanceModified(ServletContext, int)} or
+   * {@link #subjectiveModified(ServletContext, Collection)}.
+   *
+   * @param application used to find the database and challenge description
+   */
+  public static void scheduleUpdate(final ServletContext application) {
+    RELOAD.set(true);
+    schedule(application);
+  }
+
+  /**
+   * Update the summarized scores soon. Call after a performance score has
+   * been written or deleted.
+   *
+   * @param application used to find the database and challenge description
+   * @param teamNumber the team the score is for
+   */
+  public static void performanceModified(final ServletContext application,
+                                         final int teamNumber) {
+    PERFORMANCE_MODIFIED.add(teamNumber);
+    schedule(application);
+  }
+
+  /**
+   * Update the summarized scores soon. Call after subjective scores have
+   * been written or deleted.
+   *
+   * @param application used to find the database and challenge description
+   * @param scores the scores that were written
+   */
+  public static void subjectiveModified(final ServletContext application,
+                                        final Collection<SubjectiveScoreKey> scores) {
+    SUBJECTIVE_MODIFIED.addAll(scores);
+    schedule(application);
+  }
+
+  /**
+   * Bring the summarized scores up to date now. Only the scores written
+   * since the last update are read unless the summary needs to be loaded.
+   *
+   * @param application used to find the database and challenge description
+   * @throws SQLException on an error talking to the database
+   * @throws ScoreStandardization.TooFewScoresException if there aren't
+   *           enough scores to standardize
+   */
+  public static void summarize(final ServletContext application) throws SQLException {
+    final DataSource datasource = ApplicationAttributes.getDataSource(application);
+    final ChallengeDescription description = ApplicationAttributes.getChallengeDescription(application);
+
+    update(datasource, description).checkComplete();
+  }
+
+  private static void schedule(final ServletContext application) {
+    NUM_REQUESTS.incrementAndGet();
+
+    final DataSource datasource = ApplicationAttributes.getDataSource(application);
+    final ChallengeDescription description = ApplicationAttributes.getChallengeDescription(application);
+
+    if (PENDING.compareAndSet(false, true)) {
+      getExecutor().execute(() -> {
+        // writes after this point need another update
+        PENDING.set(false);
+        try {
+          if (!update(datasource, description).isComplete()) {
+            // expected until each judge has scored enough teams
+            NUM_INCOMPLETE.incrementAndGet();
+          }
+        } catch (final SQLException | RuntimeException e) {
+          LOGGER.warn("Error summarizing scores in the background", e);
+        }
+      });
+    }
+  }
+
+  private static IncrementalScoreSummary update(final DataSource datasource,
+                                                final ChallengeDescription description)
+      throws SQLException {
+    synchronized (SUMMARY_LOCK) {
+      try (Connection connection = datasource.getConnection()) {
+        final int tournament = Queries.getCurrentTournament(connection);
+
+        final long start = System.nanoTime();
+        if (RELOAD.getAndSet(false)
+            || null == summary
+            || !summary.isCurrent(connection, description, tournament)) {
+          // the scores written so far are read by the load
+          PERFORMANCE_MODIFIED.clear();
+          SUBJECTIVE_MODIFIED.clear();
+          summary = null;
+
+          summary = IncrementalScoreSummary.load(connection, description, tournament);
+          NUM_LOADS.incrementAndGet();
+        } else {
+          final Collection<Integer> performanceTeams = drain(PERFORMANCE_MODIFIED);
+          final Collection<SubjectiveScoreKey> subjectiveScores = drain(SUBJECTIVE_MODIFIED);
+          if (performanceTeams.isEmpty()
+              && subjectiveScores.isEmpty()) {
+            return summary;
+          }
+
+          final IncrementalScoreSummary toUpdate = summary;
+          // load again if the update fails
+          summary = null;
+          toUpdate.update(connection, performanceTeams, subjectiveScores);
+          summary = toUpdate;
+          NUM_UPDATES.incrementAndGet();
+        }
+        LAST_UPDATE_NANOS.set(System.nanoTime()
+            - start);
+
+        return summary;
+      } catch (final SQLException | RuntimeException e) {
+        NUM_FAILURES.incrementAndGet();
+        throw e;
+      }
+    }
+  }
+
+  private static <T> Collection<T> drain(final Set<T> modified) {
+    final Collection<T> drained = new LinkedList<>();
+    final Iterator<T> iter = modified.iterator();
+    while (iter.hasNext()) {
+      drained.add(iter.next());
+      iter.remove();
+    }
+    return drained;
+  }
+
+  /**
+   * @return summary of what the background updates have done
+   */
+  public static String getStatistics() {
+    return String.format("requests: %d loads: %d updates: %d not enough scores: %d failures: %d last update: %dms",
+                         NUM_REQUESTS.get(), NUM_LOADS.get(), NUM_UPDATES.get(), NUM_INCOMPLETE.get(),
+                         NUM_FAILURES.get(), TimeUnit.NANOSECONDS.toMillis(LAST_UPDATE_NANOS.get()));
+  }
+
+}
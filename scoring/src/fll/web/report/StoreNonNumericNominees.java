@@ -47,10 +47,8 @@ public class StoreNonNumericNominees extends BaseFLLServlet {
 
     final StringBuilder message = new StringBuilder();
 
-    Connection connection = null;
-    try {
-      final DataSource datasource = ApplicationAttributes.getDataSource(application);
-      connection = datasource.getConnection();
+    final DataSource datasource = ApplicationAttributes.getDataSource(application);
+    try (final Connection connection = datasource.getConnection()) {
 
       final int tournament = Queries.getCurrentTournament(connection);
 
@@ -11,7 +11,6 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.text.ParseException;
 import java.util.Collection;
 import java.util.LinkedList;
 
@@ -22,10 +21,8 @@ import javax.sql.DataSource;
 
 import net.mtu.eggplant.util.sql.SQLFunctions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import fll.ScoreStandardization;
 import fll.db.Queries;
 import fll.web.ApplicationAttributes;
-import fll.xml.ChallengeDescription;
 
 /**
  * Do first part of summarizing scores and gather information to show the user
@@ -41,7 +38,6 @@ public class SummarizePhase1 {
   @SuppressFBWarnings(value = { "SQL_PREPARED_STATEMENT_GENERATED_FROM_NONCONSTANT_STRING" }, justification = "Need to generate table name from category")
   public static void populateContext(final ServletContext application,
                                      final PageContext pageContext) throws IOException, ServletException {
-    final ChallengeDescription challengeDescription = ApplicationAttributes.getChallengeDescription(application);
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
     PreparedStatement getJudges = null;
     PreparedStatement getExpected = null;
@@ -49,14 +45,10 @@ public class SummarizePhase1 {
     ResultSet judges = null;
     ResultSet actual = null;
     ResultSet expected = null;
-    try {
-      final Connection connection = datasource.getConnection();
+    try (final Connection connection = datasource.getConnection()) {
       final int tournament = Queries.getCurrentTournament(connection);
 
-      Queries.updateScoreTotals(challengeDescription, connection);
-
-      ScoreStandardization.standardizeSubjectiveScores(connection, challengeDescription, tournament);
-      ScoreStandardization.summarizeScores(connection, challengeDescription, tournament);
+      BackgroundSummarizer.summarize(application);
 
       final Collection<JudgeSummary> summary = new LinkedList<JudgeSummary>();
 
@@ -113,8 +105,6 @@ public class SummarizePhase1 {
 
     } catch (final SQLException e) {
       throw new RuntimeException(e);
-    } catch (ParseException e) {
-      throw new RuntimeException(e);
     } finally {
       SQLFunctions.close(judges);
       SQLFunctions.close(actual);
@@ -7,9 +7,7 @@
 package fll.web.schedule;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.text.ParseException;
@@ -39,7 +37,6 @@ import fll.scheduler.SubjectiveStation;
 import fll.scheduler.TournamentSchedule;
 import fll.scheduler.TournamentSchedule.ColumnInformation;
 import fll.util.CellFileReader;
-import fll.util.ExcelCellReader;
 import fll.util.FLLRuntimeException;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
@@ -80,8 +77,6 @@ public class CheckViolations extends BaseFLLServlet {
       // of subjective headers
       List<SubjectiveStation> subjectiveStations = uploadScheduleData.getSubjectiveStations();
 
-      final boolean isCsvFile = !ExcelCellReader.isExcelFile(scheduleFile);
-
       if (null == subjectiveStations) {
         // get unused headers
 
@@ -111,12 +106,8 @@ public class CheckViolations extends BaseFLLServlet {
         subjectiveHeaders.add(station.getName());
       }
       final TournamentSchedule schedule;
-      if (isCsvFile) {
-        schedule = new TournamentSchedule(name, scheduleFile, subjectiveHeaders);
-      } else {
-        try (final InputStream stream = new FileInputStream(scheduleFile)) {
-          schedule = new TournamentSchedule(name, stream, sheetName, subjectiveHeaders);
-        }
+      try (final CellFileReader reader = CellFileReader.createCellReader(scheduleFile, sheetName)) {
+        schedule = new TournamentSchedule(name, reader, subjectiveHeaders);
       }
       uploadScheduleData.setSchedule(schedule);
 
@@ -6,10 +6,6 @@
 
 package fll.web.scoreEntry;
 
-import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
-
 import javax.websocket.OnError;
 import javax.websocket.OnOpen;
 import javax.websocket.Session;
@@ -18,6 +14,7 @@ import javax.websocket.server.ServerEndpoint;
 import org.apache.log4j.Logger;
 
 import fll.util.LogUtils;
+import fll.web.WebSocketSessions;
 
 /**
  * Notify the select team page when it should reload because there are more
@@ -28,68 +25,34 @@ public class UnverifiedRunsWebSocket {
 
   private static final Logger LOGGER = LogUtils.getLogger();
 
-  private static final Set<Session> ALL_SESSIONS = new HashSet<>();
-
-  private static final Object SESSIONS_LOCK = new Object();
+  private static final WebSocketSessions SESSIONS = new WebSocketSessions("UnverifiedRunsWebSocket");
 
   @OnOpen
   public void onOpen(final Session session) {
-    synchronized (SESSIONS_LOCK) {
-      ALL_SESSIONS.add(session);
-    }
+    SESSIONS.add(session);
   }
 
   /**
-   * Notify all clients that they should update.
+   * Notify all clients that they should update. The messages are sent
+   * asynchronously.
    */
   public static void notifyToUpdate() {
-    synchronized (SESSIONS_LOCK) {
-      final Set<Session> toRemove = new HashSet<>();
-
-      final String messageText = "update"; // message text doesn't matter
-      for (final Session session : ALL_SESSIONS) {
-        if (session.isOpen()) {
-          try {
-            session.getBasicRemote().sendText(messageText);
-          } catch (final IOException ioe) {
-            LOGGER.error("Got error sending message to session ("
-                + session.getId() + "), dropping session", ioe);
-            toRemove.add(session);
-          }
-        } else {
-          toRemove.add(session);
-        }
-      } // foreach session
+    final String messageText = "update"; // message text doesn't matter
+    SESSIONS.sendAll(messageText);
+  }
 
-      // cleanup dead sessions
-      for (final Session session : toRemove) {
-        internalRemoveSession(session);
-      }
-    }
+  /**
+   * @return statistics about the messages sent to the clients
+   */
+  public static String getSendStatistics() {
+    return SESSIONS.toString();
   }
 
   @OnError
   public void error(final Session session,
                     final Throwable t) {
-    synchronized (SESSIONS_LOCK) {
-      LOGGER.error("Caught websocket error, closing session", t);
-
-      internalRemoveSession(session);
-    }
-  }
-
-  /**
-   * Close the session and remove it from the global list without locking.
-   */
-  private static void internalRemoveSession(final Session session) {
-    try {
-      session.close();
-    } catch (final IOException ioe) {
-      if (LOGGER.isDebugEnabled()) {
-        LOGGER.debug("Got error closing session, ignoring", ioe);
-      }
-    }
+    LOGGER.error("Caught websocket error, closing session", t);
 
-    ALL_SESSIONS.remove(session);
+    SESSIONS.remove(session);
   }
 }
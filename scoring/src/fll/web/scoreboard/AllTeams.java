@@ -11,6 +11,7 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -23,6 +24,7 @@ import javax.sql.DataSource;
 
 import org.apache.log4j.Logger;
 
+import fll.Team;
 import fll.TournamentTeam;
 import fll.Utilities;
 import fll.db.Queries;
@@ -42,6 +44,32 @@ public class AllTeams {
 
   private static final int TEAMS_BETWEEN_LOGOS = 2;
 
+  private static final Object CACHE_LOCK = new Object();
+
+  /**
+   * The most recently built model, null if it needs to be rebuilt. Protected
+   * by {@link #CACHE_LOCK}.
+   */
+  private static CachedModel cachedModel = null;
+
+  /**
+   * Incremented each time the cache is invalidated so that a model built from
+   * data that changed while it was being built isn't cached. Protected by
+   * {@link #CACHE_LOCK}.
+   */
+  private static long cacheGeneration = 0;
+
+  /**
+   * Discard the cached scores. Must be called whenever the verified
+   * performance scores or the teams in a tournament change.
+   */
+  public static void invalidateCache() {
+    synchronized (CACHE_LOCK) {
+      cachedModel = null;
+      ++cacheGeneration;
+    }
+  }
+
   public static void populateContext(final ServletContext application,
                                      final HttpSession session,
                                      final PageContext pageContext) {
@@ -52,54 +80,30 @@ public class AllTeams {
     }
 
     final ChallengeDescription challengeDescription = ApplicationAttributes.getChallengeDescription(application);
-    final boolean floatingPointScores = challengeDescription.getPerformance().getScoreType() == ScoreType.FLOAT;
 
-    int numScores = 0;
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
-    try (final Connection connection = datasource.getConnection();
-        final PreparedStatement prep = connection.prepareStatement("SELECT " //
-            + " verified_performance.RunNumber, verified_performance.NoShow, verified_performance.ComputedTotal"
-            + " FROM verified_performance" //
-            + " WHERE verified_performance.Tournament = ?" //
-            + "   AND verified_performance.TeamNumber = ?" //
-            + "   AND verified_performance.Bye = False" //
-            + "   AND verified_performance.RunNumber <= ?" //
-            + " ORDER BY verified_performance.RunNumber")) {
+    try (final Connection connection = datasource.getConnection()) {
 
       final int tournamentId = Queries.getCurrentTournament(connection);
       final int maxScoreboardRound = TournamentParameters.getMaxScoreboardPerformanceRound(connection, tournamentId);
-      final Map<Integer, TournamentTeam> tournamentTeams = Queries.getTournamentTeams(connection, tournamentId);
-
-      prep.setInt(1, tournamentId);
-      prep.setInt(3, maxScoreboardRound);
-
-      final List<String> awardGroups = Queries.getAwardGroups(connection, tournamentId);
-      final List<TournamentTeam> teamsWithScores = new LinkedList<>();
-      final Map<Integer, String> teamHeaderColor = new HashMap<>();
-      final Map<Integer, List<ComputedPerformanceScore>> scores = new HashMap<>();
-      for (final Map.Entry<Integer, TournamentTeam> entry : tournamentTeams.entrySet()) {
 
-        final String headerColor = Queries.getColorForIndex(awardGroups.indexOf(entry.getValue().getAwardGroup()));
-        teamHeaderColor.put(entry.getKey(), headerColor);
-
-        prep.setInt(2, entry.getKey());
+      CachedModel model;
+      final long generation;
+      synchronized (CACHE_LOCK) {
+        model = cachedModel;
+        generation = cacheGeneration;
+      }
 
-        final List<ComputedPerformanceScore> teamScores = new LinkedList<>();
-        try (final ResultSet rs = prep.executeQuery()) {
-          while (rs.next()) {
-            final ComputedPerformanceScore score = new ComputedPerformanceScore(floatingPointScores, rs.getInt(1),
-                                                                                rs.getBoolean(2), rs.getDouble(3));
-            teamScores.add(score);
+      if (null == model
+          || model.tournamentId != tournamentId
+          || model.maxScoreboardRound != maxScoreboardRound) {
+        model = buildModel(connection, challengeDescription, tournamentId, maxScoreboardRound);
 
-            ++numScores;
+        synchronized (CACHE_LOCK) {
+          if (generation == cacheGeneration) {
+            cachedModel = model;
           }
         }
-
-        if (!teamScores.isEmpty()) {
-          teamsWithScores.add(entry.getValue());
-          scores.put(entry.getKey(), teamScores);
-        }
-
       }
 
       final List<String> sponsorLogos = getSponsorLogos(application);
@@ -107,19 +111,19 @@ public class AllTeams {
       // estimate how many rows there are
       final int scrollDuration = 1000 // 1 second per row
           * (1
-              * teamsWithScores.size() // award group, organization, team
-                                       // name, hr, scores header
-              + numScores // one row for each score
-              + (teamsWithScores.size()
+              * model.teamsWithScores.size() // award group, organization, team
+              // name, hr, scores header
+              + model.numScores // one row for each score
+              + (model.teamsWithScores.size()
                   / TEAMS_BETWEEN_LOGOS)// one row for each sponsor logo
           );
 
       pageContext.setAttribute("sponsorLogos", sponsorLogos);
       pageContext.setAttribute("teamsBetweenLogos", Integer.valueOf(TEAMS_BETWEEN_LOGOS));
-      pageContext.setAttribute("teamsWithScores", teamsWithScores);
-      pageContext.setAttribute("scores", scores);
+      pageContext.setAttribute("teamsWithScores", model.teamsWithScores);
+      pageContext.setAttribute("scores", model.scores);
       pageContext.setAttribute("scrollDuration", Integer.valueOf(scrollDuration));
-      pageContext.setAttribute("teamHeaderColor", teamHeaderColor);
+      pageContext.setAttribute("teamHeaderColor", model.teamHeaderColor);
 
     } catch (final SQLException sqle) {
       message.append("<p class='error'>Error talking to the database: "
@@ -132,6 +136,108 @@ public class AllTeams {
 
   }
 
+  /**
+   * Load all verified scores for the tournament with a single query and group
+   * them by team.
+   */
+  private static CachedModel buildModel(final Connection connection,
+                                        final ChallengeDescription challengeDescription,
+                                        final int tournamentId,
+                                        final int maxScoreboardRound)
+      throws SQLException {
+    final boolean floatingPointScores = challengeDescription.getPerformance().getScoreType() == ScoreType.FLOAT;
+
+    final Map<Integer, List<ComputedPerformanceScore>> allScores = new HashMap<>();
+    int numScores = 0;
+    try (final PreparedStatement prep = connection.prepareStatement("SELECT " //
+        + " verified_performance.TeamNumber, verified_performance.RunNumber," //
+        + " verified_performance.NoShow, verified_performance.ComputedTotal" //
+        + " FROM verified_performance" //
+        + " WHERE verified_performance.Tournament = ?" //
+        + "   AND verified_performance.Bye = False" //
+        + "   AND verified_performance.RunNumber <= ?" //
+        + " ORDER BY verified_performance.TeamNumber, verified_performance.RunNumber")) {
+      prep.setInt(1, tournamentId);
+      prep.setInt(2, maxScoreboardRound);
+
+      try (final ResultSet rs = prep.executeQuery()) {
+        List<ComputedPerformanceScore> teamScores = null;
+        int prevTeamNumber = Team.NULL_TEAM_NUMBER;
+        while (rs.next()) {
+          final int teamNumber = rs.getInt(1);
+          if (null == teamScores
+              || teamNumber != prevTeamNumber) {
+            teamScores = new LinkedList<>();
+            allScores.put(teamNumber, teamScores);
+            prevTeamNumber = teamNumber;
+          }
+
+          teamScores.add(new ComputedPerformanceScore(floatingPointScores, rs.getInt(2), rs.getBoolean(3),
+                                                      rs.getDouble(4)));
+        }
+      }
+    }
+
+    final Map<Integer, TournamentTeam> tournamentTeams = Queries.getTournamentTeams(connection, tournamentId);
+
+    final List<String> awardGroups = Queries.getAwardGroups(connection, tournamentId);
+    final Map<String, String> awardGroupColors = new HashMap<>();
+    for (int index = 0; index < awardGroups.size(); ++index) {
+      awardGroupColors.put(awardGroups.get(index), Queries.getColorForIndex(index));
+    }
+    final String unknownAwardGroupColor = Queries.getColorForIndex(-1);
+
+    final List<TournamentTeam> teamsWithScores = new LinkedList<>();
+    final Map<Integer, String> teamHeaderColor = new HashMap<>();
+    final Map<Integer, List<ComputedPerformanceScore>> scores = new HashMap<>();
+    for (final Map.Entry<Integer, TournamentTeam> entry : tournamentTeams.entrySet()) {
+      final String headerColor = awardGroupColors.get(entry.getValue().getAwardGroup());
+      teamHeaderColor.put(entry.getKey(), null == headerColor ? unknownAwardGroupColor : headerColor);
+
+      final List<ComputedPerformanceScore> teamScores = allScores.get(entry.getKey());
+      if (null != teamScores) {
+        teamsWithScores.add(entry.getValue());
+        scores.put(entry.getKey(), Collections.unmodifiableList(teamScores));
+        numScores += teamScores.size();
+      }
+    }
+
+    return new CachedModel(tournamentId, maxScoreboardRound, Collections.unmodifiableList(teamsWithScores),
+                           Collections.unmodifiableMap(scores), Collections.unmodifiableMap(teamHeaderColor),
+                           numScores);
+  }
+
+  /**
+   * The part of the page model that only changes when scores or teams change.
+   */
+  private static final class CachedModel {
+    public CachedModel(final int tournamentId,
+                       final int maxScoreboardRound,
+                       final List<TournamentTeam> teamsWithScores,
+                       final Map<Integer, List<ComputedPerformanceScore>> scores,
+                       final Map<Integer, String> teamHeaderColor,
+                       final int numScores) {
+      this.tournamentId = tournamentId;
+      this.maxScoreboardRound = maxScoreboardRound;
+      this.teamsWithScores = teamsWithScores;
+      this.scores = scores;
+      this.teamHeaderColor = teamHeaderColor;
+      this.numScores = numScores;
+    }
+
+    private final int tournamentId;
+
+    private final int maxScoreboardRound;
+
+    private final List<TournamentTeam> teamsWithScores;
+
+    private final Map<Integer, List<ComputedPerformanceScore>> scores;
+
+    private final Map<Integer, String> teamHeaderColor;
+
+    private final int numScores;
+  }
+
   /**
    * Get the URsponsor logo filenames relative to "/sponsor_logos".
    * 
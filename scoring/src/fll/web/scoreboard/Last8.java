@@ -45,6 +45,11 @@ public class Last8 extends BaseFLLServlet {
 
   private static final Logger LOGGER = LogUtils.getLogger();
 
+  /**
+   * Number of scores to display.
+   */
+  private static final int MAX_SCORES = 20;
+
   protected void processRequest(final HttpServletRequest request,
                                 final HttpServletResponse response,
                                 final ServletContext application,
@@ -63,7 +68,15 @@ public class Last8 extends BaseFLLServlet {
     formatter.format("<head>%n");
     formatter.format("<link rel='stylesheet' type='text/css' href='../style/fll-sw.css' />%n");
     formatter.format("<link rel='stylesheet' type='text/css' href='score_style.css' />%n");
-    formatter.format("<meta http-equiv='refresh' content='30' />%n");
+    formatter.format("<script type='text/javascript' src='scoreboard.js'></script>%n");
+    formatter.format("<script type='text/javascript'>%n");
+    formatter.format("window.onload = function() {%n");
+    formatter.format("  openScoreboardSocket(function(update) {%n");
+    formatter.format("    updateMostRecentScores(document.getElementById('scores'), update, %b, %d);%n", showOrg,
+                     MAX_SCORES);
+    formatter.format("  }, false);%n");
+    formatter.format("};%n");
+    formatter.format("</script>%n");
     formatter.format("</head>%n");
 
     formatter.format("<body class='scoreboard'>%n");
@@ -79,6 +92,7 @@ public class Last8 extends BaseFLLServlet {
     formatter.format("<col width='75px' />%n");
     formatter.format("</colgroup>%n");
 
+    formatter.format("<thead>%n");
     formatter.format("<tr>%n");
     int numColumns = 5;
     if (!showOrg) {
@@ -86,15 +100,22 @@ public class Last8 extends BaseFLLServlet {
     }
     formatter.format("<th colspan='%d' bgcolor='#800080'>Most Recent Performance Scores</th>%n", numColumns);
     formatter.format("</tr>%n");
+    formatter.format("</thead>%n");
+
+    // rows are updated by scoreboard.js when scores change
+    formatter.format("<tbody id='scores'>%n");
 
     // scores here
     try {
       processScores(application, (teamNumber,
+                                  runNumber,
+                                  timestamp,
                                   teamName,
                                   organization,
                                   awardGroup,
                                   formattedScore) -> {
-        formatter.format("<tr>%n");
+        formatter.format("<tr id='run-%d-%d' data-timestamp='%d' data-team='%d'>%n", teamNumber, runNumber, timestamp,
+                         teamNumber);
         formatter.format("<td class='left'>%d</td>%n", teamNumber);
         if (null == teamName) {
           teamName = "&nbsp;";
@@ -115,6 +136,11 @@ public class Last8 extends BaseFLLServlet {
       throw new FLLInternalException("Got an error getting the most recent scores from the database", e);
     }
 
+    formatter.format("</tbody>%n");
+    formatter.format("</table>%n");
+    formatter.format("</body>%n");
+    formatter.format("</html>%n");
+
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace("Exiting doPost");
     }
@@ -130,6 +156,8 @@ public class Last8 extends BaseFLLServlet {
 
     final List<List<String>> data = new LinkedList<>();
     processScores(application, (teamNumber,
+                                runNumber,
+                                timestamp,
                                 teamName,
                                 organization,
                                 awardGroup,
@@ -162,6 +190,8 @@ public class Last8 extends BaseFLLServlet {
 
   private static interface ProcessScoreEntry {
     public void execute(final int teamNumber,
+                        final int runNumber,
+                        final long timestamp,
                         final String teamName,
                         final String organization,
                         @Nonnull final String awardGroup,
@@ -171,7 +201,7 @@ public class Last8 extends BaseFLLServlet {
   /**
    * @param application the context to get the database connection from
    * @param processor passed the {@link ResultSet} for each row. (Team Number,
-   *          Organization, Team
+   *          run number, timestamp, Organization, Team
    *          Name, award group, bye, no show, computed total)
    */
   private static void processScores(@Nonnull final ServletContext application,
@@ -192,13 +222,16 @@ public class Last8 extends BaseFLLServlet {
           + ", verified_performance.Bye" //
           + ", verified_performance.NoShow" //
           + ", verified_performance.ComputedTotal" //
+          + ", verified_performance.RunNumber" //
+          + ", verified_performance.TimeStamp" //
           + " FROM Teams,verified_performance,current_tournament_teams"//
           + " WHERE verified_performance.Tournament = ?" //
           + "  AND Teams.TeamNumber = verified_performance.TeamNumber" //
           + "  AND Teams.TeamNumber = current_tournament_teams.TeamNumber" //
           + "  AND verified_performance.Bye = False" //
           + "  AND verified_performance.RunNumber <= ?"
-          + " ORDER BY verified_performance.TimeStamp DESC, Teams.TeamNumber ASC LIMIT 20")) {
+          + " ORDER BY verified_performance.TimeStamp DESC, Teams.TeamNumber ASC LIMIT "
+          + MAX_SCORES)) {
         prep.setInt(1, currentTournament);
         prep.setInt(2, maxScoreboardRound);
         try (ResultSet rs = prep.executeQuery()) {
@@ -219,7 +252,8 @@ public class Last8 extends BaseFLLServlet {
                                         .format(rs.getDouble("ComputedTotal"));
             }
 
-            processor.execute(teamNumber, teamName, organization, awardGroup, formattedScore);
+            processor.execute(teamNumber, rs.getInt("RunNumber"), rs.getTimestamp("TimeStamp").getTime(), teamName,
+                              organization, awardGroup, formattedScore);
           } // end while next
         } // try ResultSet
       } // try PreparedStatement
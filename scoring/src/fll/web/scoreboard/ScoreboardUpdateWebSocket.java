@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.web.scoreboard;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.websocket.OnError;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+
+import org.apache.log4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import fll.Team;
+import fll.Utilities;
+import fll.db.Queries;
+import fll.db.TournamentParameters;
+import fll.util.FLLInternalException;
+import fll.util.LogUtils;
+import fll.web.WebSocketSessions;
+import fll.web.scoreboard.AllTeams.ComputedPerformanceScore;
+import fll.xml.ChallengeDescription;
+import fll.xml.ScoreType;
+import fll.xml.WinnerType;
+
+/**
+ * Push performance score changes to the scoreboard pages so that they only
+ * need to update the rows that changed.
+ */
+@ServerEndpoint(value = "/scoreboard/ScoreboardUpdateWebSocket")
+public class ScoreboardUpdateWebSocket {
+
+  private static final Logger LOGGER = LogUtils.getLogger();
+
+  private static final WebSocketSessions SESSIONS = new WebSocketSessions("ScoreboardUpdateWebSocket");
+
+  /**
+   * Used for all messages sent, writers are immutable and thread-safe.
+   */
+  private static final ObjectWriter MESSAGE_WRITER = new ObjectMapper().writerFor(ScoreboardMessage.class);
+
+  @OnOpen
+  public void onOpen(final Session session) {
+    SESSIONS.add(session);
+  }
+
+  /**
+   * Send the current performance scores for a team to all scoreboards. Called
+   * after a performance score for the team has been committed.
+   * Errors are logged rather than thrown as the score has already been saved.
+   * If the update cannot be built the scoreboards are told to reload.
+   *
+   * @param connection the database connection
+   * @param description the challenge description, used to format scores
+   * @param tournament the tournament the score is for
+   * @param teamNumber the team whose score changed
+   * @param runNumber the run that changed
+   */
+  public static void updateTeam(final Connection connection,
+                                final ChallengeDescription description,
+                                final int tournament,
+                                final int teamNumber,
+                                final int runNumber) {
+    AllTeams.invalidateCache();
+
+    if (SESSIONS.isEmpty()) {
+      // no need to query the database
+      return;
+    }
+
+    try {
+      final ScoreboardMessage message = new ScoreboardMessage();
+      message.isTeamUpdate = true;
+      message.teamUpdate = TeamUpdate.create(connection, description, tournament, teamNumber, runNumber);
+      sendMessage(message);
+    } catch (final SQLException | RuntimeException e) {
+      LOGGER.error("Error sending the score for team "
+          + teamNumber
+          + " run "
+          + runNumber
+          + " to the scoreboards, asking them to reload", e);
+      try {
+        notifyToReload();
+      } catch (final RuntimeException reloadError) {
+        LOGGER.error("Error asking the scoreboards to reload", reloadError);
+      }
+    }
+  }
+
+  /**
+   * Notify all scoreboards that they should reload everything. Used when
+   * something other than a single score changes.
+   */
+  public static void notifyToReload() {
+    AllTeams.invalidateCache();
+
+    final ScoreboardMessage message = new ScoreboardMessage();
+    message.isReload = true;
+    sendMessage(message);
+  }
+
+  private static void sendMessage(final ScoreboardMessage message) {
+    final String messageText;
+    try {
+      messageText = MESSAGE_WRITER.writeValueAsString(message);
+    } catch (final JsonProcessingException e) {
+      throw new FLLInternalException("Error writing JSON for scoreboard update", e);
+    }
+    SESSIONS.sendAll(messageText);
+  }
+
+  /**
+   * @return statistics about the messages sent to the scoreboards
+   */
+  public static String getSendStatistics() {
+    return SESSIONS.toString();
+  }
+
+  @OnError
+  public void error(final Session session,
+                    final Throwable t) {
+    LOGGER.error("Caught websocket error, closing session", t);
+
+    SESSIONS.remove(session);
+  }
+
+  /**
+   * Message sent on the WebSocket.
+   */
+  public static final class ScoreboardMessage {
+
+    /**
+     * If true, then {@link #teamUpdate} must be populated.
+     */
+    @SuppressFBWarnings(value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD", justification = "Used by JSON")
+    public boolean isTeamUpdate = false;
+
+    @SuppressFBWarnings(value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD", justification = "Used by JSON")
+    public TeamUpdate teamUpdate;
+
+    /**
+     * If true, the scoreboard should reload all of its data.
+     */
+    @SuppressFBWarnings(value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD", justification = "Used by JSON")
+    public boolean isReload = false;
+
+  }
+
+  /**
+   * The verified performance scores for a team that are shown on the
+   * scoreboard after one of the team's runs changed.
+   */
+  @SuppressFBWarnings(value = "URF_UNREAD_PUBLIC_OR_PROTECTED_FIELD", justification = "Used by JSON")
+  public static final class TeamUpdate {
+
+    public int teamNumber;
+
+    public String teamName;
+
+    public String organization;
+
+    public String awardGroup;
+
+    /**
+     * The run that changed.
+     */
+    public int runNumber;
+
+    /**
+     * The formatted score for {@link #runNumber}, null if the run isn't shown
+     * on the most recent scores.
+     */
+    public String runScore;
+
+    /**
+     * When {@link #runNumber} was entered as milliseconds since the epoch, used
+     * to order the most recent scores.
+     */
+    public long runTimestamp;
+
+    /**
+     * The score shown on the top scores, null if the team doesn't have one.
+     */
+    public Double bestScore;
+
+    public String formattedBestScore;
+
+    /**
+     * All scores shown for the team.
+     */
+    public List<ComputedPerformanceScore> scores = new LinkedList<>();
+
+    private static TeamUpdate create(final Connection connection,
+                                     final ChallengeDescription description,
+                                     final int tournament,
+                                     final int teamNumber,
+                                     final int runNumber)
+        throws SQLException {
+      final ScoreType performanceScoreType = description.getPerformance().getScoreType();
+      final boolean floatingPointScores = performanceScoreType == ScoreType.FLOAT;
+      final WinnerType winnerCriteria = description.getWinner();
+      final int maxScoreboardRound = TournamentParameters.getMaxScoreboardPerformanceRound(connection, tournament);
+
+      final TeamUpdate update = new TeamUpdate();
+      final Team team = Team.getTeamFromDatabase(connection, teamNumber);
+      update.teamNumber = teamNumber;
+      update.teamName = team.getTeamName();
+      update.organization = team.getOrganization();
+      update.awardGroup = Queries.getEventDivision(connection, teamNumber, tournament);
+      update.runNumber = runNumber;
+
+      try (PreparedStatement prep = connection.prepareStatement("SELECT RunNumber, NoShow, ComputedTotal, TimeStamp" //
+          + " FROM verified_performance" //
+          + " WHERE Tournament = ?" //
+          + "   AND TeamNumber = ?" //
+          + "   AND Bye = False" //
+          + "   AND RunNumber <= ?" //
+          + " ORDER BY RunNumber")) {
+        prep.setInt(1, tournament);
+        prep.setInt(2, teamNumber);
+        prep.setInt(3, maxScoreboardRound);
+        try (ResultSet rs = prep.executeQuery()) {
+          while (rs.next()) {
+            final int run = rs.getInt(1);
+            final boolean noShow = rs.getBoolean(2);
+            final double score = rs.getDouble(3);
+
+            update.scores.add(new ComputedPerformanceScore(floatingPointScores, run, noShow, score));
+
+            if (run == runNumber) {
+              update.runScore = noShow ? "No Show"
+                  : Utilities.getFormatForScoreType(performanceScoreType).format(score);
+              update.runTimestamp = rs.getTimestamp(4).getTime();
+            }
+
+            if (!noShow) {
+              if (null == update.bestScore
+                  || (WinnerType.HIGH == winnerCriteria ? score > update.bestScore : score < update.bestScore)) {
+                update.bestScore = score;
+              }
+            }
+          }
+        }
+      }
+
+      if (null != update.bestScore) {
+        update.formattedBestScore = Utilities.getFormatForScoreType(performanceScoreType).format(update.bestScore);
+      }
+
+      return update;
+    }
+  }
+
+}
@@ -13,6 +13,7 @@ import java.sql.SQLException;
 import java.util.Formatter;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nonnull;
 import javax.servlet.ServletContext;
@@ -36,6 +37,7 @@ import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
 import fll.web.SessionAttributes;
+import fll.web.WebUtils;
 import fll.xml.ChallengeDescription;
 import fll.xml.ScoreType;
 import fll.xml.WinnerType;
@@ -84,18 +86,37 @@ public class Top10 extends BaseFLLServlet {
       }
       session.setAttribute("divisionIndex", Integer.valueOf(awardGroupIndex));
 
+      final int flipRate = GlobalParameters.getIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE);
+      final WinnerType winnerCriteria = ApplicationAttributes.getChallengeDescription(application).getWinner();
+
       formatter.format("<!DOCTYPE html PUBLIC \"-//W3C//DTD XHTML 1.0 Transitional//EN\" \"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd\">%n");
       formatter.format("<html>%n");
       formatter.format("<head>%n");
       formatter.format("<link rel='stylesheet' type='text/css' href='../style/fll-sw.css' />%n");
       formatter.format("<link rel='stylesheet' type='text/css' href='score_style.css' />%n");
-      formatter.format("<meta http-equiv='refresh' content='%d' />%n",
-                       GlobalParameters.getIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE));
+      formatter.format("<script type='text/javascript' src='scoreboard.js'></script>%n");
+      formatter.format("<script type='text/javascript'>%n");
+      formatter.format("window.onload = function() {%n");
+      formatter.format("  var table = document.getElementById('scores');%n");
+      formatter.format("  openScoreboardSocket(function(update) {%n");
+      formatter.format("    updateTopScores(table, update, %b, %b);%n", showOrg, WinnerType.HIGH == winnerCriteria);
+      formatter.format("  }, false);%n");
+      // cycle through the award groups
+      formatter.format("  var current = %d;%n", awardGroupIndex);
+      formatter.format("  if (table.tBodies.length > 1) {%n");
+      formatter.format("    setInterval(function() {%n");
+      formatter.format("      table.tBodies[current].style.display = 'none';%n");
+      formatter.format("      current = (current + 1) %% table.tBodies.length;%n");
+      formatter.format("      table.tBodies[current].style.display = '';%n");
+      formatter.format("    }, %d);%n", TimeUnit.SECONDS.toMillis(flipRate));
+      formatter.format("  }%n");
+      formatter.format("};%n");
+      formatter.format("</script>%n");
       formatter.format("</head>%n");
 
       formatter.format("<body class='scoreboard'>%n");
 
-      formatter.format("<table border='1' cellpadding='2' cellspacing='0' width='98%%'>%n");
+      formatter.format("<table id='scores' border='1' cellpadding='2' cellspacing='0' width='98%%'>%n");
 
       formatter.format("<colgroup>%n");
       formatter.format("<col width='30px' />%n");
@@ -107,24 +128,30 @@ public class Top10 extends BaseFLLServlet {
       formatter.format("<col width='70px' />%n");
       formatter.format("</colgroup>%n");
 
-      if (!awardGroups.isEmpty()) {
-        final String awardGroupName = awardGroups.get(awardGroupIndex);
+      // all award groups are sent so that the page doesn't need to be
+      // reloaded to show the next one, rows are updated by scoreboard.js when
+      // scores change
+      for (int index = 0; index < awardGroups.size(); ++index) {
+        final String awardGroupName = awardGroups.get(index);
 
+        formatter.format("<tbody data-award-group='%s'%s>%n", WebUtils.escapeForHtmlFormValue(awardGroupName),
+                         index == awardGroupIndex ? "" : " style='display: none'");
         formatter.format("<tr>%n");
         int numColumns = 5;
         if (!showOrg) {
           --numColumns;
         }
         formatter.format("<th colspan='%d' bgcolor='%s'>Top Performance Scores: %s</th>", numColumns,
-                         Queries.getColorForIndex(awardGroupIndex), awardGroupName);
+                         Queries.getColorForIndex(index), awardGroupName);
         formatter.format("</tr>%n");
 
         processScores(application, awardGroupName, (teamName,
                                                     teamNumber,
                                                     organization,
+                                                    score,
                                                     formattedScore,
                                                     rank) -> {
-          formatter.format("<tr>%n");
+          formatter.format("<tr data-team='%d' data-score='%s'>%n", teamNumber, score);
           formatter.format("<td class='center'>%d</td>%n", rank);
           formatter.format("<td class='right'>%d</td>%n", teamNumber);
           if (null == teamName) {
@@ -142,7 +169,8 @@ public class Top10 extends BaseFLLServlet {
           formatter.format("</tr>");
         });
 
-      } // end divisions not empty
+        formatter.format("</tbody>%n");
+      } // foreach award group
 
     } catch (final SQLException e) {
       throw new RuntimeException("Error talking to the database", e);
@@ -164,6 +192,7 @@ public class Top10 extends BaseFLLServlet {
     public void execute(final String teamName,
                         final int teamNumber,
                         final String organization,
+                        final double score,
                         @Nonnull final String formattedScore,
                         final int rank);
   }
@@ -183,6 +212,7 @@ public class Top10 extends BaseFLLServlet {
     processScores(application, awardGroupName, (teamName,
                                                 teamNumber,
                                                 organization,
+                                                score,
                                                 formattedScore,
                                                 rank) -> {
       final List<String> row = new LinkedList<>();
@@ -268,7 +298,7 @@ public class Top10 extends BaseFLLServlet {
 
             final String formattedScore = Utilities.getFormatForScoreType(performanceScoreType).format(score);
 
-            processor.execute(teamName, teamNumber, organization, formattedScore, rank);
+            processor.execute(teamName, teamNumber, organization, score, formattedScore, rank);
             prevScore = score;
             ++i;
           } // end while next
@@ -33,7 +33,9 @@ import fll.util.FLLInternalException;
 import fll.util.LogUtils;
 import fll.web.ApplicationAttributes;
 import fll.web.BaseFLLServlet;
+import fll.web.InitFilter;
 import fll.web.UploadProcessor;
+import fll.web.scoreboard.ScoreboardUpdateWebSocket;
 import fll.xml.ChallengeParser;
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
@@ -71,7 +73,8 @@ public class CreateDB extends BaseFLLServlet {
 
           GenerateDB.generateDB(document, connection);
 
-          application.removeAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT);
+          InitFilter.resetInitialization(application);
+          ScoreboardUpdateWebSocket.notifyToReload();
 
           message.append("<p id='success'><i>Successfully initialized database</i></p>");
           redirect = "/admin/createUsername.jsp";
@@ -94,7 +97,8 @@ public class CreateDB extends BaseFLLServlet {
 
           GenerateDB.generateDB(document, connection);
 
-          application.removeAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT);
+          InitFilter.resetInitialization(application);
+          ScoreboardUpdateWebSocket.notifyToReload();
 
           message.append("<p id='success'><i>Successfully initialized database</i></p>");
           redirect = "/admin/createUsername.jsp";
@@ -112,7 +116,8 @@ public class CreateDB extends BaseFLLServlet {
           ImportDB.loadFromDumpIntoNewDB(new ZipInputStream(dumpFileItem.getInputStream()), connection);
 
           // remove application variables that depend on the database
-          application.removeAttribute(ApplicationAttributes.CHALLENGE_DOCUMENT);
+          InitFilter.resetInitialization(application);
+          ScoreboardUpdateWebSocket.notifyToReload();
 
           message.append("<p id='success'><i>Successfully initialized database from dump</i></p>");
           redirect = "/admin/createUsername.jsp";
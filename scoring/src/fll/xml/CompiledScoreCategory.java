@@ -0,0 +1,458 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.xml;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import fll.util.FLLInternalException;
+import fll.util.FP;
+import fll.web.playoff.TeamScore;
+
+/**
+ * A {@link ScoreCategory} compiled so that a score can be computed without
+ * walking the goal, switch, polynomial and term objects or looking up goals by
+ * name.
+ * Each goal of the category has a slot in an array of values. The raw scores
+ * of the simple goals are read from the {@link TeamScore} once into their
+ * slots, then the computed goals are evaluated in dependency order into their
+ * slots. The expressions are trees of closures that read the slots directly.
+ * The result is the same as {@link ScoreCategory#evaluate(TeamScore)} computed
+ * by walking the objects, including the order of floating point operations.
+ */
+public final class CompiledScoreCategory {
+
+  /**
+   * Compiled expression.
+   */
+  @FunctionalInterface
+  private interface Expression {
+    double evaluate(double[] values,
+                    String[] enumValues);
+  }
+
+  /**
+   * Compiled condition.
+   */
+  @FunctionalInterface
+  private interface Condition {
+    boolean isTrue(double[] values,
+                   String[] enumValues);
+  }
+
+  /**
+   * Compile a category.
+   *
+   * @param category the category to compile
+   * @return the compiled category
+   * @throws FLLInternalException if the computed goals reference each other
+   *           in a cycle
+   */
+  public static CompiledScoreCategory compile(final ScoreCategory category) {
+    return new Compiler(category).compile();
+  }
+
+  private CompiledScoreCategory(final Goal[] simpleGoals,
+                                final Expression[] computedGoals,
+                                final int[] computedSlots,
+                                final Expression[] goalScores,
+                                final Map<String, Integer> slots) {
+    this.simpleGoals = simpleGoals;
+    this.slots = Collections.unmodifiableMap(new HashMap<>(slots));
+    this.computedGoals = computedGoals;
+    this.computedSlots = computedSlots;
+    this.goalScores = goalScores;
+
+    final List<String> names = new ArrayList<>(simpleGoals.length);
+    for (final Goal goal : simpleGoals) {
+      names.add(goal.getName());
+    }
+    this.simpleGoalNames = Collections.unmodifiableList(names);
+  }
+
+  /**
+   * The simple goals, the index is the slot.
+   */
+  private final Goal[] simpleGoals;
+
+  private final List<String> simpleGoalNames;
+
+  /**
+   * goal name -> slot
+   */
+  private final Map<String, Integer> slots;
+
+  /**
+   * The computed goals in the order that they need to be evaluated.
+   */
+  private final Expression[] computedGoals;
+
+  /**
+   * The slot for each entry in {@link #computedGoals}.
+   */
+  private final int[] computedSlots;
+
+  /**
+   * The computed score of each goal in the order of
+   * {@link ScoreCategory#getGoals()}.
+   */
+  private final Expression[] goalScores;
+
+  /**
+   * @return the names of the simple goals, the index of a name is the slot
+   *         for the goal's raw score
+   */
+  public List<String> getSimpleGoalNames() {
+    return simpleGoalNames;
+  }
+
+  /**
+   * @param goalName the name of a goal in the category
+   * @return the slot for the goal, after
+   *         {@link #evaluate(double[], String[])} the slot of a computed goal
+   *         holds its score
+   * @throws IllegalArgumentException if the goal isn't in the category
+   */
+  public int getSlot(final String goalName) {
+    final Integer slot = slots.get(goalName);
+    if (null == slot) {
+      throw new IllegalArgumentException("Unknown goal: "
+          + goalName);
+    }
+    return slot;
+  }
+
+  /**
+   * @return the number of slots needed for the values of all goals
+   */
+  public int getNumSlots() {
+    return simpleGoals.length
+        + computedGoals.length;
+  }
+
+  /**
+   * Compute the score for a team.
+   *
+   * @param teamScore the team's raw scores
+   * @return the same value as {@link ScoreCategory#evaluate(TeamScore)}
+   */
+  public double evaluate(final TeamScore teamScore) {
+    if (!teamScore.scoreExists()) {
+      return Double.NaN;
+    } else if (teamScore.isNoShow()) {
+      return 0;
+    }
+
+    final double[] values = new double[getNumSlots()];
+    final String[] enumValues = new String[simpleGoals.length];
+    readRawScores(teamScore, values, enumValues);
+    return evaluate(values, enumValues);
+  }
+
+  /**
+   * Read the raw scores of the simple goals into their slots.
+   *
+   * @param teamScore where to read the scores from, the score must exist
+   * @param values at least {@link #getNumSlots()} long, the raw score of each
+   *          simple goal is stored in its slot with the goal's score type
+   *          applied
+   * @param enumValues at least as long as {@link #getSimpleGoalNames()}, the
+   *          value of each enumerated goal is stored in its slot
+   */
+  public void readRawScores(final TeamScore teamScore,
+                            final double[] values,
+                            final String[] enumValues) {
+    for (int slot = 0; slot < simpleGoals.length; ++slot) {
+      final Goal goal = simpleGoals[slot];
+      if (goal.isEnumerated()) {
+        final String value = teamScore.getEnumRawScore(goal.getName());
+        enumValues[slot] = value;
+        values[slot] = goal.applyScoreType(getEnumScore(goal, value));
+      } else {
+        values[slot] = goal.applyScoreType(teamScore.getRawScore(goal.getName()));
+      }
+    }
+  }
+
+  private static double getEnumScore(final Goal goal,
+                                     final String value) {
+    for (final EnumeratedValue ev : goal.getValues()) {
+      if (ev.getValue().equals(value)) {
+        return ev.getScore();
+      }
+    }
+    return Double.NaN;
+  }
+
+  /**
+   * Compute the score from raw scores that have already been read.
+   *
+   * @param values filled in by
+   *          {@link #readRawScores(TeamScore, double[], String[])}, the slots
+   *          of the computed goals are overwritten
+   * @param enumValues filled in by
+   *          {@link #readRawScores(TeamScore, double[], String[])}
+   * @return the total score of the category
+   */
+  public double evaluate(final double[] values,
+                         final String[] enumValues) {
+    for (int i = 0; i < computedGoals.length; ++i) {
+      values[computedSlots[i]] = computedGoals[i].evaluate(values, enumValues);
+    }
+
+    double total = 0;
+    for (final Expression goalScore : goalScores) {
+      total += goalScore.evaluate(values, enumValues);
+    }
+    return total;
+  }
+
+  /**
+   * State used while compiling a category.
+   */
+  private static final class Compiler {
+    Compiler(final ScoreCategory category) {
+      this.category = category;
+    }
+
+    private final ScoreCategory category;
+
+    private final Map<String, Integer> slots = new HashMap<>();
+
+    private final List<Goal> simpleGoals = new ArrayList<>();
+
+    private final List<Expression> computedGoals = new ArrayList<>();
+
+    private final List<ComputedGoal> computedGoalOrder = new ArrayList<>();
+
+    private final Set<String> inProgress = new HashSet<>();
+
+    CompiledScoreCategory compile() {
+      for (final AbstractGoal goal : category.getGoals()) {
+        if (!goal.isComputed()) {
+          slots.put(goal.getName(), simpleGoals.size());
+          simpleGoals.add((Goal) goal);
+        }
+      }
+
+      for (final AbstractGoal goal : category.getGoals()) {
+        if (goal.isComputed()) {
+          compileComputedGoal((ComputedGoal) goal);
+        }
+      }
+
+      final int[] computedSlots = new int[computedGoalOrder.size()];
+      for (int i = 0; i < computedSlots.length; ++i) {
+        computedSlots[i] = slots.get(computedGoalOrder.get(i).getName());
+      }
+
+      final List<Expression> goalScores = new ArrayList<>();
+      for (final AbstractGoal goal : category.getGoals()) {
+        goalScores.add(compileGoalRef(goal, GoalScoreType.COMPUTED));
+      }
+
+      return new CompiledScoreCategory(simpleGoals.toArray(new Goal[simpleGoals.size()]),
+                                       computedGoals.toArray(new Expression[computedGoals.size()]), computedSlots,
+                                       goalScores.toArray(new Expression[goalScores.size()]), slots);
+    }
+
+    /**
+     * Compile a computed goal after the computed goals that it references and
+     * give it a slot.
+     */
+    private void compileComputedGoal(final ComputedGoal goal) {
+      final String name = goal.getName();
+      if (slots.containsKey(name)) {
+        return;
+      }
+      if (!inProgress.add(name)) {
+        throw new FLLInternalException("Computed goal '"
+            + name + "' references itself");
+      }
+
+      final Expression switchExpr = compileSwitch(goal.getSwitch());
+      final Expression expr = (values,
+                               enumValues) -> goal.applyScoreType(switchExpr.evaluate(values, enumValues));
+
+      inProgress.remove(name);
+      slots.put(name, simpleGoals.size()
+          + computedGoals.size());
+      computedGoals.add(expr);
+      computedGoalOrder.add(goal);
+    }
+
+    private Expression compileGoalRef(final AbstractGoal goal,
+                                      final GoalScoreType scoreType) {
+      if (goal.isComputed()) {
+        compileComputedGoal((ComputedGoal) goal);
+        // computed goals have the same raw and computed score
+        final int slot = slots.get(goal.getName());
+        return (values,
+                enumValues) -> values[slot];
+      } else {
+        final int slot = slots.get(goal.getName());
+        switch (scoreType) {
+        case RAW:
+          return (values,
+                  enumValues) -> values[slot];
+        case COMPUTED:
+          final double multiplier = ((Goal) goal).getMultiplier();
+          return (values,
+                  enumValues) -> values[slot]
+                      * multiplier;
+        default:
+          throw new FLLInternalException("Unknown score type: "
+              + scoreType);
+        }
+      }
+    }
+
+    private Expression compileSwitch(final SwitchStatement switchStmt) {
+      final List<CaseStatement> caseStmts = switchStmt.getCases();
+      final Condition[] conditions = new Condition[caseStmts.size()];
+      final Expression[] results = new Expression[caseStmts.size()];
+      for (int i = 0; i < conditions.length; ++i) {
+        final CaseStatement caseStmt = caseStmts.get(i);
+        conditions[i] = compileCondition(caseStmt.getCondition());
+        if (null != caseStmt.getResultPoly()) {
+          results[i] = compilePolynomial(caseStmt.getResultPoly());
+        } else {
+          results[i] = compileSwitch(caseStmt.getResultSwitch());
+        }
+      }
+      final Expression defaultCase = compilePolynomial(switchStmt.getDefaultCase());
+
+      return (values,
+              enumValues) -> {
+        for (int i = 0; i < conditions.length; ++i) {
+          if (conditions[i].isTrue(values, enumValues)) {
+            return results[i].evaluate(values, enumValues);
+          }
+        }
+        return defaultCase.evaluate(values, enumValues);
+      };
+    }
+
+    private Condition compileCondition(final AbstractConditionStatement condition) {
+      if (condition instanceof ConditionStatement) {
+        return compileCondition((ConditionStatement) condition);
+      } else if (condition instanceof EnumConditionStatement) {
+        return compileCondition((EnumConditionStatement) condition);
+      } else {
+        throw new FLLInternalException("Unknown condition type: "
+            + condition.getClass());
+      }
+    }
+
+    private Condition compileCondition(final ConditionStatement condition) {
+      final Expression left = compilePolynomial(condition.getLeft());
+      final Expression right = compilePolynomial(condition.getRight());
+      final double tolerance = ChallengeParser.INITIAL_VALUE_TOLERANCE;
+
+      switch (condition.getComparison()) {
+      case GREATER_THAN:
+        return (values,
+                enumValues) -> FP.greaterThan(left.evaluate(values, enumValues), right.evaluate(values, enumValues),
+                                              tolerance);
+      case GREATER_THAN_OR_EQUAL:
+        return (values,
+                enumValues) -> FP.greaterThanOrEqual(left.evaluate(values, enumValues),
+                                                     right.evaluate(values, enumValues), tolerance);
+      case LESS_THAN:
+        return (values,
+                enumValues) -> FP.lessThan(left.evaluate(values, enumValues), right.evaluate(values, enumValues),
+                                           tolerance);
+      case LESS_THAN_OR_EQUAL:
+        return (values,
+                enumValues) -> FP.lessThanOrEqual(left.evaluate(values, enumValues),
+                                                  right.evaluate(values, enumValues), tolerance);
+      case EQUAL_TO:
+        return (values,
+                enumValues) -> FP.equals(left.evaluate(values, enumValues), right.evaluate(values, enumValues),
+                                         tolerance);
+      case NOT_EQUAL_TO:
+        return (values,
+                enumValues) -> !FP.equals(left.evaluate(values, enumValues), right.evaluate(values, enumValues),
+                                          tolerance);
+      default:
+        throw new FLLInternalException("Unknown comparison: "
+            + condition.getComparison());
+      }
+    }
+
+    private Condition compileCondition(final EnumConditionStatement condition) {
+      final int leftSlot = null == condition.getLeftGoal() ? -1 : slots.get(condition.getLeftGoal().getName());
+      final String leftString = condition.getLeftString();
+      final int rightSlot = null == condition.getRightGoal() ? -1 : slots.get(condition.getRightGoal().getName());
+      final String rightString = condition.getRightString();
+
+      final Condition equal = (values,
+                               enumValues) -> {
+        final String leftStr = leftSlot < 0 ? leftString : enumValues[leftSlot];
+        final String rightStr = rightSlot < 0 ? rightString : enumValues[rightSlot];
+        return leftStr.equalsIgnoreCase(rightStr);
+      };
+
+      switch (condition.getComparison()) {
+      case EQUAL_TO:
+        return equal;
+      case NOT_EQUAL_TO:
+        return (values,
+                enumValues) -> !equal.isTrue(values, enumValues);
+      default:
+        throw new FLLInternalException("Unknown comparison: "
+            + condition.getComparison());
+      }
+    }
+
+    private Expression compilePolynomial(final BasicPolynomial poly) {
+      final List<Term> termList = poly.getTerms();
+      final Expression[] terms = new Expression[termList.size()];
+      for (int i = 0; i < terms.length; ++i) {
+        terms[i] = compileTerm(termList.get(i));
+      }
+
+      return (values,
+              enumValues) -> {
+        double score = 0;
+        for (final Expression term : terms) {
+          score += term.evaluate(values, enumValues);
+        }
+        return poly.applyFloatingPointType(score);
+      };
+    }
+
+    private Expression compileTerm(final Term term) {
+      final double coefficient = term.getCoefficient();
+
+      final List<Expression> factorList = new ArrayList<>();
+      for (final GoalRef goalRef : term.getGoals()) {
+        factorList.add(compileGoalRef(goalRef.getGoal(), goalRef.getScoreType()));
+      }
+      for (final VariableRef variableRef : term.getVariables()) {
+        factorList.add(compilePolynomial(variableRef.getVariable()));
+      }
+      final Expression[] factors = factorList.toArray(new Expression[factorList.size()]);
+
+      return (values,
+              enumValues) -> {
+        double value = coefficient;
+        for (final Expression factor : factors) {
+          value = value
+              * factor.evaluate(values, enumValues);
+        }
+        return value;
+      };
+    }
+  }
+
+}
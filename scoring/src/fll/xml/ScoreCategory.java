@@ -88,8 +88,34 @@ public class ScoreCategory implements Evaluatable, Serializable, GoalScope {
 
   }
 
+  private transient volatile CompiledScoreCategory mCompiled;
+
+  /**
+   * @return this category compiled for evaluating scores, created on first
+   *         use
+   */
+  public CompiledScoreCategory getCompiled() {
+    CompiledScoreCategory compiled = mCompiled;
+    if (null == compiled) {
+      compiled = CompiledScoreCategory.compile(this);
+      mCompiled = compiled;
+    }
+    return compiled;
+  }
+
+  /**
+   * Computes the score using {@link #getCompiled()}.
+   */
   @Override
   public double evaluate(final TeamScore teamScore) {
+    return getCompiled().evaluate(teamScore);
+  }
+
+  /**
+   * Compute the score by walking the goals. This gives the same result as
+   * {@link #evaluate(TeamScore)}, which should be used instead.
+   */
+  /* package */ double interpret(final TeamScore teamScore) {
     if (!teamScore.scoreExists()) {
       return Double.NaN;
     } else if (teamScore.isNoShow()) {
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import fll.IncrementalScoreSummary.SubjectiveScoreKey;
+import fll.db.GenerateDB;
+import fll.db.GlobalParameters;
+import fll.db.Queries;
+import fll.util.LogUtils;
+import fll.xml.ChallengeDescription;
+import fll.xml.ChallengeParser;
+
+/**
+ * Test {@link IncrementalScoreSummary}.
+ */
+public class IncrementalScoreSummaryTest {
+
+  private static final double TOLERANCE = 1E-6;
+
+  private DataSource datasource;
+
+  private Connection connection;
+
+  private ChallengeDescription description;
+
+  private int tournament;
+
+  @Before
+  public void setUp() throws SQLException, IOException {
+    LogUtils.initializeLogging();
+
+    try (InputStream stream = IncrementalScoreSummaryTest.class.getResourceAsStream("db/data/challenge-test.xml")) {
+      Assert.assertNotNull(stream);
+      final Document document = ChallengeParser.parse(new InputStreamReader(stream, Charset.forName("UTF-8")));
+      description = new ChallengeDescription(document.getDocumentElement());
+
+      datasource = Utilities.createMemoryDataSource("incrementalsummary");
+      connection = datasource.getConnection();
+      GenerateDB.generateDB(document, connection);
+    }
+
+    tournament = Queries.getCurrentTournament(connection);
+    for (int teamNumber = 1; teamNumber <= 4; ++teamNumber) {
+      Queries.addTeam(connection, teamNumber, "Team "
+          + teamNumber, "Organization");
+      Queries.addTeamToTournament(connection, teamNumber, tournament, "Division", "Station");
+    }
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    try (Statement stmt = connection.createStatement()) {
+      stmt.executeUpdate("SHUTDOWN");
+    }
+    connection.close();
+  }
+
+  /**
+   * Updating the summary as scores are written gives the same summarized
+   * scores as summarizing the tournament.
+   */
+  @Test
+  public void testMatchesSummarizeTournament() throws SQLException, ParseException {
+    final IncrementalScoreSummary summary = IncrementalScoreSummary.load(connection, description, tournament);
+
+    insertPerformance(1, 1, 10);
+    insertPerformance(2, 1, 20);
+    insertPerformance(3, 1, 30);
+    insertPerformance(4, 1, 40);
+    insertSubjective("teamwork", 1, "A", 5);
+    insertSubjective("teamwork", 2, "A", 7);
+    insertSubjective("teamwork", 3, "A", 12);
+    insertSubjective("teamwork", 3, "B", 8);
+    insertSubjective("teamwork", 4, "B", 9);
+    insertSubjective("research", 1, "C", 14);
+    insertSubjective("research", 2, "C", 18);
+    summary.update(connection, Arrays.asList(1, 2, 3, 4),
+                   Arrays.asList(new SubjectiveScoreKey("teamwork", 1, "A"),
+                                 new SubjectiveScoreKey("teamwork", 2, "A"),
+                                 new SubjectiveScoreKey("teamwork", 3, "A"),
+                                 new SubjectiveScoreKey("teamwork", 3, "B"),
+                                 new SubjectiveScoreKey("teamwork", 4, "B"),
+                                 new SubjectiveScoreKey("research", 1, "C"),
+                                 new SubjectiveScoreKey("research", 2, "C")));
+    Assert.assertTrue(summary.isComplete());
+
+    // performance: mean 25, population standard deviation sqrt(125)
+    final double mean = GlobalParameters.getDoubleGlobalParameter(connection, GlobalParameters.STANDARDIZED_MEAN);
+    final double sigma = GlobalParameters.getDoubleGlobalParameter(connection, GlobalParameters.STANDARDIZED_SIGMA);
+    Assert.assertEquals(((10
+        - 25)
+        * sigma
+        / Math.sqrt(125))
+        + mean, readFinalScores().get(1)[0], TOLERANCE);
+
+    // a better run, a deleted score and a score for a new judge
+    insertPerformance(2, 2, 50);
+    deleteSubjective("teamwork", 3, "A");
+    insertSubjective("teamwork", 1, "D", 3);
+    insertSubjective("teamwork", 2, "D", 6);
+    summary.update(connection, Collections.singleton(2),
+                   Arrays.asList(new SubjectiveScoreKey("teamwork", 3, "A"),
+                                 new SubjectiveScoreKey("teamwork", 1, "D"),
+                                 new SubjectiveScoreKey("teamwork", 2, "D")));
+    Assert.assertTrue(summary.isComplete());
+
+    final Map<Integer, double[]> incremental = readFinalScores();
+    ScoreStandardization.summarizeTournament(connection, description, tournament);
+    assertFinalScoresEqual(readFinalScores(), incremental);
+  }
+
+  /**
+   * Nothing is written while a judge has only one score and everything is
+   * written once there are enough scores again.
+   */
+  @Test
+  public void testTooFewScores() throws SQLException, ParseException {
+    final IncrementalScoreSummary summary = IncrementalScoreSummary.load(connection, description, tournament);
+
+    insertPerformance(1, 1, 10);
+    insertPerformance(2, 1, 20);
+    insertSubjective("teamwork", 1, "A", 5);
+    insertSubjective("teamwork", 2, "A", 7);
+    summary.update(connection, Arrays.asList(1, 2),
+                   Arrays.asList(new SubjectiveScoreKey("teamwork", 1, "A"),
+                                 new SubjectiveScoreKey("teamwork", 2, "A")));
+    Assert.assertTrue(summary.isComplete());
+    final Map<Integer, double[]> before = readFinalScores();
+
+    insertSubjective("research", 1, "B", 14);
+    summary.update(connection, Collections.<Integer> emptyList(),
+                   Collections.singleton(new SubjectiveScoreKey("research", 1, "B")));
+    Assert.assertFalse(summary.isComplete());
+    try {
+      summary.checkComplete();
+      Assert.fail("Expected too few scores");
+    } catch (final ScoreStandardization.TooFewScoresException e) {
+      // expected
+    }
+    assertFinalScoresEqual(before, readFinalScores());
+
+    insertSubjective("research", 2, "B", 18);
+    summary.update(connection, Collections.<Integer> emptyList(),
+                   Collections.singleton(new SubjectiveScoreKey("research", 2, "B")));
+    Assert.assertTrue(summary.isComplete());
+
+    final Map<Integer, double[]> incremental = readFinalScores();
+    ScoreStandardization.summarizeTournament(connection, description, tournament);
+    assertFinalScoresEqual(readFinalScores(), incremental);
+  }
+
+  private void insertPerformance(final int teamNumber,
+                                 final int runNumber,
+                                 final double total)
+      throws SQLException {
+    try (PreparedStatement prep = connection.prepareStatement("INSERT INTO Performance"
+        + " (TeamNumber, Tournament, RunNumber, ComputedTotal) VALUES(?, ?, ?, ?)")) {
+      prep.setInt(1, teamNumber);
+      prep.setInt(2, tournament);
+      prep.setInt(3, runNumber);
+      prep.setDouble(4, total);
+      prep.executeUpdate();
+    }
+  }
+
+  private void insertSubjective(final String category,
+                                final int teamNumber,
+                                final String judge,
+                                final double total)
+      throws SQLException {
+    try (PreparedStatement prep = connection.prepareStatement("INSERT INTO "
+        + category + " (TeamNumber, Tournament, Judge, ComputedTotal) VALUES(?, ?, ?, ?)")) {
+      prep.setInt(1, teamNumber);
+      prep.setInt(2, tournament);
+      prep.setString(3, judge);
+      prep.setDouble(4, total);
+      prep.executeUpdate();
+    }
+  }
+
+  private void deleteSubjective(final String category,
+                                final int teamNumber,
+                                final String judge)
+      throws SQLException {
+    try (PreparedStatement prep = connection.prepareStatement("DELETE FROM "
+        + category + " WHERE TeamNumber = ? AND Tournament = ? AND Judge = ?")) {
+      prep.setInt(1, teamNumber);
+      prep.setInt(2, tournament);
+      prep.setString(3, judge);
+      prep.executeUpdate();
+    }
+  }
+
+  /**
+   * @return team number to performance, teamwork, research and overall
+   *         score, NaN for null
+   */
+  private Map<Integer, double[]> readFinalScores() throws SQLException {
+    final Map<Integer, double[]> scores = new HashMap<>();
+    try (PreparedStatement prep = connection.prepareStatement("SELECT TeamNumber, performance, teamwork, research, OverallScore"
+        + " FROM FinalScores WHERE Tournament = ?")) {
+      prep.setInt(1, tournament);
+      try (ResultSet rs = prep.executeQuery()) {
+        while (rs.next()) {
+          final double[] values = new double[4];
+          for (int i = 0; i < values.length; ++i) {
+            values[i] = rs.getDouble(i
+                + 2);
+            if (rs.wasNull()) {
+              values[i] = Double.NaN;
+            }
+          }
+          scores.put(rs.getInt(1), values);
+        }
+      }
+    }
+    return scores;
+  }
+
+  private static void assertFinalScoresEqual(final Map<Integer, double[]> expected,
+                                             final Map<Integer, double[]> actual) {
+    Assert.assertEquals(expected.keySet(), actual.keySet());
+    for (final Map.Entry<Integer, double[]> entry : expected.entrySet()) {
+      Assert.assertArrayEquals("Team "
+          + entry.getKey(), entry.getValue(), actual.get(entry.getKey()), TOLERANCE);
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import fll.Utilities;
+import fll.util.LogUtils;
+
+/**
+ * Test the pool created by {@link DataSourcePool}.
+ */
+public class DataSourcePoolTest {
+
+  private DataSource pool;
+
+  @Before
+  public void setUp() throws SQLException {
+    LogUtils.initializeLogging();
+
+    pool = DataSourcePool.createPool(Utilities.createMemoryDataSource("pooltest"), 2, 100);
+    try (Connection connection = pool.getConnection(); Statement stmt = connection.createStatement()) {
+      stmt.executeUpdate("CREATE TABLE pooltest (value INTEGER)");
+    }
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    try (Connection connection = pool.getConnection(); Statement stmt = connection.createStatement()) {
+      stmt.executeUpdate("SHUTDOWN");
+    }
+    pool.close();
+  }
+
+  /**
+   * Uncommitted changes are rolled back when a connection is returned.
+   */
+  @Test
+  public void testReset() throws SQLException {
+    try (Connection connection = pool.getConnection(); Statement stmt = connection.createStatement()) {
+      connection.setAutoCommit(false);
+      stmt.executeUpdate("INSERT INTO pooltest (value) VALUES(1)");
+    }
+
+    try (Connection connection = pool.getConnection();
+        Statement stmt = connection.createStatement();
+        ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM pooltest")) {
+      Assert.assertTrue(connection.getAutoCommit());
+      Assert.assertTrue(rs.next());
+      Assert.assertEquals(0, rs.getInt(1));
+    }
+  }
+
+  /**
+   * Read only and the transaction isolation are reset when a connection is
+   * handed out again.
+   */
+  @Test
+  public void testResetState() throws SQLException {
+    try (Connection connection = pool.getConnection()) {
+      connection.setReadOnly(true);
+      connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+    }
+
+    try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+      for (final Connection connection : new Connection[] { first, second }) {
+        Assert.assertFalse(connection.isReadOnly());
+        Assert.assertEquals(Connection.TRANSACTION_READ_COMMITTED, connection.getTransactionIsolation());
+      }
+    }
+  }
+
+  /**
+   * Only the maximum number of connections are handed out.
+   */
+  @Test
+  public void testBounded() throws SQLException {
+    try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+      Assert.assertNotSame(first, second);
+      Assert.assertEquals(2, pool.getNumActive());
+      try {
+        pool.getConnection().close();
+        Assert.fail("Expected a timeout with all connections in use");
+      } catch (final SQLException e) {
+        // expected
+      }
+    }
+    Assert.assertEquals(0, pool.getNumActive());
+    Assert.assertEquals(2, pool.getNumIdle());
+
+    // the timed out request waited for a connection
+    Assert.assertTrue(pool instanceof DataSourcePool.TimedDataSource);
+    Assert.assertTrue(((DataSourcePool.TimedDataSource) pool).getMaxWaitMillis() >= 90);
+  }
+
+}
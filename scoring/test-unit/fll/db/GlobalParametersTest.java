@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.db;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import fll.Utilities;
+import fll.util.LogUtils;
+import fll.xml.ChallengeDescription;
+import fll.xml.ChallengeParser;
+
+/**
+ * Test {@link GlobalParameters}.
+ */
+public class GlobalParametersTest {
+
+  @Before
+  public void setUp() {
+    LogUtils.initializeLogging();
+  }
+
+  /**
+   * The challenge description is shared until the challenge document is
+   * written and the documents handed out are copies.
+   */
+  @Test
+  public void testChallengeDescriptionCache() throws SQLException, UnsupportedEncodingException {
+    final InputStream stream = GlobalParametersTest.class.getResourceAsStream("data/challenge-test.xml");
+    Assert.assertNotNull(stream);
+    final Document document = ChallengeParser.parse(new InputStreamReader(stream, Utilities.DEFAULT_CHARSET));
+
+    final DataSource datasource = Utilities.createMemoryDataSource("challengecache");
+    try (Connection connection = datasource.getConnection()) {
+      GenerateDB.generateDB(document, connection);
+
+      final ChallengeDescription first = GlobalParameters.getChallengeDescription(connection);
+      Assert.assertSame(first, GlobalParameters.getChallengeDescription(connection));
+
+      final Document copy = GlobalParameters.getChallengeDocument(connection);
+      copy.getDocumentElement().setAttribute("title", "Changed");
+      Assert.assertEquals(first.getTitle(), GlobalParameters.getChallengeDocument(connection).getDocumentElement()
+                                                                                       .getAttribute("title"));
+
+      // writing the same document keeps the parsed description
+      GenerateDB.insertOrUpdateChallengeDocument(document, connection);
+      Assert.assertSame(first, GlobalParameters.getChallengeDescription(connection));
+
+      GenerateDB.insertOrUpdateChallengeDocument(copy, connection);
+      final ChallengeDescription changed = GlobalParameters.getChallengeDescription(connection);
+      Assert.assertNotSame(first, changed);
+      Assert.assertEquals("Changed", changed.getTitle());
+
+      try (Statement stmt = connection.createStatement()) {
+        stmt.executeUpdate("SHUTDOWN");
+      }
+    }
+  }
+
+  /**
+   * Parameter values are read from the cache until they are written.
+   */
+  @Test
+  public void testParameterCache() throws SQLException, UnsupportedEncodingException {
+    final InputStream stream = GlobalParametersTest.class.getResourceAsStream("data/challenge-test.xml");
+    Assert.assertNotNull(stream);
+    final Document document = ChallengeParser.parse(new InputStreamReader(stream, Utilities.DEFAULT_CHARSET));
+
+    final DataSource datasource = Utilities.createMemoryDataSource("parametercache");
+    try (Connection connection = datasource.getConnection()) {
+      GenerateDB.generateDB(document, connection);
+
+      Assert.assertEquals(GlobalParameters.DIVISION_FLIP_RATE_DEFAULT,
+                          GlobalParameters.getIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE));
+      final long hits = ParameterCache.getNumHits();
+      Assert.assertEquals(GlobalParameters.DIVISION_FLIP_RATE_DEFAULT,
+                          GlobalParameters.getIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE));
+      Assert.assertEquals(hits
+          + 1, ParameterCache.getNumHits());
+
+      GlobalParameters.setIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE, 45);
+      Assert.assertEquals(45, GlobalParameters.getIntGlobalParameter(connection, GlobalParameters.DIVISION_FLIP_RATE));
+
+      // changing the default is seen by tournaments without their own value
+      final int tournament = Queries.getCurrentTournament(connection);
+      final int seedingRounds = TournamentParameters.getNumSeedingRounds(connection, tournament);
+      TournamentParameters.setDefaultNumSeedingRounds(connection, seedingRounds
+          + 1);
+      Assert.assertEquals(seedingRounds
+          + 1, TournamentParameters.getNumSeedingRounds(connection, tournament));
+
+      TournamentParameters.setNumSeedingRounds(connection, tournament, seedingRounds
+          + 2);
+      Assert.assertEquals(seedingRounds
+          + 2, TournamentParameters.getNumSeedingRounds(connection, tournament));
+      Assert.assertTrue(TournamentParameters.isNumSeedingRoundsSet(connection, tournament));
+
+      TournamentParameters.unsetNumSeedingRounds(connection, tournament);
+      Assert.assertFalse(TournamentParameters.isNumSeedingRoundsSet(connection, tournament));
+      Assert.assertEquals(seedingRounds
+          + 1, TournamentParameters.getNumSeedingRounds(connection, tournament));
+
+      try (Statement stmt = connection.createStatement()) {
+        stmt.executeUpdate("SHUTDOWN");
+      }
+    }
+  }
+
+}
@@ -5,6 +5,8 @@
  */
 package fll.db;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -14,9 +16,14 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import javax.sql.DataSource;
+
 import net.mtu.eggplant.util.sql.SQLFunctions;
 
 import org.junit.Assert;
@@ -152,4 +159,64 @@ public class ImportDBTest {
     }
     TestUtils.deleteDatabase(database);
   }
+
+  /**
+   * Dumping tables concurrently produces the same entries as dumping them one
+   * at a time.
+   */
+  @Test
+  public void testParallelDump() throws IOException, SQLException {
+    final InputStream dumpFileIS = TestUtils.class.getResourceAsStream("data/testdb.flldb");
+    Assert.assertNotNull("Cannot find test data", dumpFileIS);
+
+    final File tempFile = File.createTempFile("flltest", null);
+    final String database = tempFile.getAbsolutePath();
+    Connection connection = null;
+    try {
+      final DataSource datasource = Utilities.createFileDataSource(database);
+      connection = datasource.getConnection();
+
+      ImportDB.loadFromDumpIntoNewDB(new ZipInputStream(dumpFileIS), connection);
+      final Document challengeDocument = GlobalParameters.getChallengeDocument(connection);
+
+      final ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+      try (ZipOutputStream zipOut = new ZipOutputStream(sequential)) {
+        DumpDB.dumpDatabase(zipOut, connection, challengeDocument);
+      }
+
+      final ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+      try (ZipOutputStream zipOut = new ZipOutputStream(parallel)) {
+        zipOut.setLevel(DumpDB.FAST_COMPRESSION_LEVEL);
+        DumpDB.dumpDatabase(zipOut, datasource, challengeDocument, 3);
+      }
+
+      final Map<String, String> expected = readEntries(sequential.toByteArray());
+      final Map<String, String> actual = readEntries(parallel.toByteArray());
+      Assert.assertEquals(expected.keySet().toString(), actual.keySet().toString());
+      Assert.assertEquals(expected, actual);
+    } finally {
+      SQLFunctions.close(connection);
+      if (!tempFile.delete()) {
+        tempFile.deleteOnExit();
+      }
+    }
+    TestUtils.deleteDatabase(database);
+  }
+
+  private static Map<String, String> readEntries(final byte[] zip) throws IOException {
+    final Map<String, String> entries = new LinkedHashMap<>();
+    try (ZipInputStream zipIn = new ZipInputStream(new ByteArrayInputStream(zip))) {
+      ZipEntry entry;
+      while (null != (entry = zipIn.getNextEntry())) {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = zipIn.read(buffer)) != -1) {
+          content.write(buffer, 0, read);
+        }
+        entries.put(entry.getName(), new String(content.toByteArray(), Utilities.DEFAULT_CHARSET));
+      }
+    }
+    return entries;
+  }
 }
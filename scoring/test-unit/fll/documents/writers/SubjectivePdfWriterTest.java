@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.documents.writers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.FilteredTextRenderListener;
+import com.itextpdf.text.pdf.parser.LocationTextExtractionStrategy;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+import com.itextpdf.text.pdf.parser.RegionTextRenderFilter;
+import com.itextpdf.text.pdf.parser.RenderFilter;
+
+import fll.documents.elements.SheetElement;
+import fll.scheduler.TeamScheduleInfo;
+import fll.scheduler.TournamentSchedule;
+import fll.util.LogUtils;
+import fll.xml.ChallengeDescription;
+import fll.xml.ChallengeParser;
+import fll.xml.ScoreCategory;
+import net.mtu.eggplant.xml.NodelistElementCollectionAdapter;
+
+/**
+ * Test {@link SubjectivePdfWriter}.
+ */
+public class SubjectivePdfWriterTest {
+
+  /**
+   * Challenge description with rubrics for the subjective categories.
+   */
+  private static final String CHALLENGE_RESOURCE = "fll/resources/challenge-descriptors/fll-2016_animal-allies-MN.xml";
+
+  private static final int NUM_TEAMS = 3;
+
+  private File output;
+
+  @Before
+  public void setUp() throws IOException {
+    LogUtils.initializeLogging();
+    output = Files.createTempFile("fll-subjective-sheets", ".pdf").toFile();
+  }
+
+  @After
+  public void tearDown() {
+    if (!output.delete()) {
+      output.deleteOnExit();
+    }
+  }
+
+  /**
+   * A rubric that fits on a page is written one page per team.
+   */
+  @Test
+  public void testRubricFitsOnPage() throws IOException, DocumentException {
+    final ChallengeDescription description = loadChallengeDescription(0);
+    writeProjectSheets(description);
+
+    final PdfReader reader = new PdfReader(output.getAbsolutePath());
+    try {
+      Assert.assertEquals(NUM_TEAMS, reader.getNumberOfPages());
+      Assert.assertEquals(NUM_TEAMS, countVisible(reader, "Strengths:"));
+    } finally {
+      reader.close();
+    }
+  }
+
+  /**
+   * A rubric with many goals doesn't fit on a page. All of it must still be
+   * on the page, not cut off at the bottom.
+   */
+  @Test
+  public void testRubricTallerThanPage() throws IOException, DocumentException {
+    final ChallengeDescription description = loadChallengeDescription(40);
+    writeProjectSheets(description);
+
+    final PdfReader reader = new PdfReader(output.getAbsolutePath());
+    try {
+      Assert.assertTrue("Expected the rubric to span pages, pages: "
+          + reader.getNumberOfPages(), reader.getNumberOfPages() > NUM_TEAMS);
+      Assert.assertEquals(NUM_TEAMS, countVisible(reader, "Strengths:"));
+      Assert.assertEquals(NUM_TEAMS, countVisible(reader, "Extra goal 39"));
+    } finally {
+      reader.close();
+    }
+  }
+
+  private void writeProjectSheets(final ChallengeDescription description)
+      throws IOException, DocumentException {
+    ScoreCategory project = null;
+    for (final ScoreCategory category : description.getSubjectiveCategories()) {
+      if ("project".equals(category.getName())) {
+        project = category;
+      }
+    }
+    Assert.assertNotNull("Can't find the project category", project);
+
+    final SheetElement sheet = TournamentSchedule.createSubjectiveSheetElement(project);
+
+    final List<TeamScheduleInfo> schedule = new LinkedList<>();
+    for (int i = 1; i <= NUM_TEAMS; ++i) {
+      final TeamScheduleInfo team = new TeamScheduleInfo(0, i);
+      team.setTeamName("Team "
+          + i);
+      team.setOrganization("Organization");
+      team.setDivision("Division");
+      team.setJudgingGroup("Judges");
+      schedule.add(team);
+    }
+
+    SubjectivePdfWriter.createDocument(output.getAbsolutePath(), description, sheet, null, schedule);
+  }
+
+  /**
+   * Count the pages that show text inside the page boundaries.
+   */
+  private static int countVisible(final PdfReader reader,
+                                  final String text)
+      throws IOException {
+    int count = 0;
+    for (int page = 1; page <= reader.getNumberOfPages(); ++page) {
+      final RenderFilter onPage = new RegionTextRenderFilter(reader.getPageSize(page));
+      final String pageText = PdfTextExtractor.getTextFromPage(reader, page,
+                                                               new FilteredTextRenderListener(new LocationTextExtractionStrategy(),
+                                                                                              onPage));
+      if (pageText.contains(text)) {
+        ++count;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * @param extraGoals the number of goals to add to the project category, the
+   *          last one is titled "Extra goal N" where N is one less than this
+   */
+  private static ChallengeDescription loadChallengeDescription(final int extraGoals) throws IOException {
+    final ClassLoader classLoader = SubjectivePdfWriterTest.class.getClassLoader();
+    try (final InputStream stream = classLoader.getResourceAsStream(CHALLENGE_RESOURCE);
+        final Reader reader = new InputStreamReader(stream, Charset.forName("UTF-8"))) {
+      final Document document = ChallengeParser.parse(reader);
+      final Element root = document.getDocumentElement();
+
+      for (final Element category : new NodelistElementCollectionAdapter(root.getElementsByTagName("subjectiveCategory"))) {
+        if ("project".equals(category.getAttribute("name"))) {
+          final Element goal = (Element) category.getElementsByTagName("goal").item(0);
+          for (int i = 0; i < extraGoals; ++i) {
+            final Element copy = (Element) goal.cloneNode(true);
+            copy.setAttribute("name", "extra_goal_"
+                + i);
+            copy.setAttribute("title", "Extra goal "
+                + i);
+            category.appendChild(copy);
+          }
+        }
+      }
+
+      return new ChallengeDescription(root);
+    }
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.scheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfReader;
+
+import fll.util.LogUtils;
+import fll.xml.ChallengeDescription;
+import fll.xml.ChallengeParser;
+import fll.xml.ScoreCategory;
+import net.mtu.eggplant.xml.NodelistElementCollectionAdapter;
+
+/**
+ * Time writing the subjective sheets for a large tournament, 200 teams and 5
+ * subjective categories, with one thread and with a thread per processor.
+ * This isn't a unit test, run it from the scoring directory with the unit
+ * test classpath.
+ * The optional argument is the number of times to write the sheets with each
+ * number of threads, defaults to 3.
+ */
+public final class SubjectiveSheetsBenchmark {
+
+  private static final int NUM_TEAMS = 200;
+
+  private static final int NUM_CATEGORIES = 5;
+
+  /**
+   * Challenge description with rubrics for the subjective categories.
+   */
+  private static final String CHALLENGE_RESOURCE = "fll/resources/challenge-descriptors/fll-2016_animal-allies-MN.xml";
+
+  private SubjectiveSheetsBenchmark() {
+  }
+
+  public static void main(final String[] args) throws IOException, DocumentException {
+    LogUtils.initializeLogging();
+
+    final int numRuns = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+    final ChallengeDescription description = createChallengeDescription();
+    final List<ScoreCategory> categories = description.getSubjectiveCategories();
+    final Map<ScoreCategory, String> categoryToSchedule = new HashMap<>();
+    final List<String> stations = new LinkedList<>();
+    for (final ScoreCategory category : categories) {
+      categoryToSchedule.put(category, category.getName());
+      stations.add(category.getName());
+    }
+    final TournamentSchedule schedule = createSchedule(stations);
+
+    final int numThreads = Runtime.getRuntime().availableProcessors();
+    System.out.println(String.format("%d teams %d categories", NUM_TEAMS, categories.size()));
+    System.out.println(String.format("%-8s %10s %8s %12s", "threads", "seconds", "pages", "bytes"));
+    for (int run = 0; run < numRuns; ++run) {
+      for (final int threads : new int[] { 1, numThreads }) {
+        final File outputDir = Files.createTempDirectory("fll-subjective-sheets").toFile();
+        try {
+          final long start = System.nanoTime();
+          schedule.outputSubjectiveSheets(outputDir.getAbsolutePath(), "benchmark", description,
+                                          categoryToSchedule, threads);
+          final long stop = System.nanoTime();
+
+          int pages = 0;
+          long bytes = 0;
+          for (final File pdf : outputDir.listFiles()) {
+            final PdfReader reader = new PdfReader(pdf.getAbsolutePath());
+            pages += reader.getNumberOfPages();
+            reader.close();
+            bytes += pdf.length();
+          }
+
+          System.out.println(String.format("%-8d %9.3fs %8d %12d", threads, (stop
+              - start)
+              / 1e9, pages, bytes));
+        } finally {
+          FileUtils.deleteDirectory(outputDir);
+        }
+      }
+    }
+  }
+
+  /**
+   * The challenge description only has 4 categories with rubrics, copy one to
+   * get to {@link #NUM_CATEGORIES}.
+   */
+  private static ChallengeDescription createChallengeDescription() throws IOException {
+    final ClassLoader classLoader = SubjectiveSheetsBenchmark.class.getClassLoader();
+    try (final InputStream stream = classLoader.getResourceAsStream(CHALLENGE_RESOURCE);
+        final Reader reader = new InputStreamReader(stream, Charset.forName("UTF-8"))) {
+      final Document document = ChallengeParser.parse(reader);
+      final Element root = document.getDocumentElement();
+
+      final List<Element> categories = new LinkedList<>();
+      for (final Element category : new NodelistElementCollectionAdapter(root.getElementsByTagName("subjectiveCategory"))) {
+        categories.add(category);
+      }
+      final Element last = categories.get(categories.size()
+          - 1);
+      for (int i = categories.size(); i < NUM_CATEGORIES; ++i) {
+        final Element copy = (Element) categories.get(i
+            % categories.size()).cloneNode(true);
+        copy.setAttribute("name", "extra"
+            + i);
+        copy.setAttribute("title", "Extra "
+            + i);
+        root.insertBefore(copy, last.getNextSibling());
+      }
+
+      return new ChallengeDescription(root);
+    }
+  }
+
+  private static TournamentSchedule createSchedule(final List<String> stations) {
+    final List<TeamScheduleInfo> teams = new LinkedList<>();
+    for (int i = 0; i < NUM_TEAMS; ++i) {
+      final int teamNumber = i
+          + 1;
+      final TeamScheduleInfo team = new TeamScheduleInfo(0, teamNumber);
+      team.setTeamName("Team "
+          + teamNumber);
+      team.setOrganization("Organization "
+          + teamNumber);
+      team.setDivision("Division "
+          + (i
+              % 4));
+      team.setJudgingGroup("Judges "
+          + (i
+              % 8));
+      for (int s = 0; s < stations.size(); ++s) {
+        team.addSubjectiveTime(new SubjectiveTime(stations.get(s), LocalTime.of(8, 0).plusMinutes(20
+            * ((i
+                + s)
+                % 30))));
+      }
+      teams.add(team);
+    }
+    return new TournamentSchedule("benchmark", 0, stations, teams);
+  }
+
+}
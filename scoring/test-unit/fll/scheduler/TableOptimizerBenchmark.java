@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.scheduler;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.text.ParseException;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.SuffixFileFilter;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+
+import fll.Utilities;
+import fll.scheduler.TournamentSchedule.ColumnInformation;
+import fll.util.CellFileReader;
+import fll.util.ExcelCellReader;
+import fll.util.LogUtils;
+
+/**
+ * Compare the time taken by the original table optimizer,
+ * {@link BaselineTableOptimizer}, against {@link TableOptimizer} checking
+ * every table ordering on one thread and {@link TableOptimizer} with the
+ * pruned, parallel search. This isn't a unit test, run it from the scoring
+ * directory with the unit test classpath.
+ * Arguments are the schedules or directories of schedules to use, defaults to
+ * the schedules in scheduling/blank-schedules.
+ */
+public final class TableOptimizerBenchmark {
+
+  /**
+   * Longest time to let a single optimization run.
+   */
+  private static final long TIMEOUT_MINUTES = 10;
+
+  private TableOptimizerBenchmark() {
+  }
+
+  public static void main(final String[] args) throws IOException, InvalidFormatException, ParseException {
+    LogUtils.initializeLogging();
+
+    final List<File> schedules = new LinkedList<>();
+    final String[] paths = args.length > 0 ? args : new String[] { "../scheduling/blank-schedules" };
+    for (final String path : paths) {
+      final File file = new File(path);
+      if (file.isDirectory()) {
+        schedules.addAll(FileUtils.listFiles(file, new SuffixFileFilter(".xls"), TrueFileFilter.INSTANCE));
+      } else {
+        schedules.add(file);
+      }
+    }
+
+    final int numThreads = Runtime.getRuntime().availableProcessors();
+    System.out.println(String.format("%-30s %12s %8s %12s %8s %12s %8s", "schedule", "baseline", "score",
+                                     "exhaustive", "score", "pruned", "score"));
+    for (final File schedule : schedules) {
+      try {
+        final Result baseline = runBaseline(schedule);
+        final Result exhaustive = run(schedule, false, 1);
+        final Result pruned = run(schedule, true, numThreads);
+        System.out.println(String.format("%-30s %11.3fs %8d %11.3fs %8d %11.3fs %8d", schedule.getName(),
+                                         baseline.seconds, baseline.score, exhaustive.seconds, exhaustive.score,
+                                         pruned.seconds, pruned.score));
+      } catch (final ScheduleParseException | IllegalArgumentException e) {
+        System.out.println(String.format("%-30s skipped: %s", schedule.getName(), e.getMessage()));
+      }
+    }
+  }
+
+  private static final class Result {
+    private final double seconds;
+
+    private final int score;
+
+    Result(final double seconds,
+           final int score) {
+      this.seconds = seconds;
+      this.score = score;
+    }
+  }
+
+  private static Result runBaseline(final File scheduleFile)
+      throws IOException, InvalidFormatException, ParseException, ScheduleParseException {
+    final String sheetName = ExcelCellReader.getAllSheetNames(scheduleFile).get(0);
+    final List<String> subjectiveHeaders = findSubjectiveHeaders(scheduleFile, sheetName);
+    final SchedParams params = createParams(subjectiveHeaders);
+    final TournamentSchedule schedule = loadSchedule(scheduleFile, sheetName, subjectiveHeaders);
+
+    final File outputDir = Files.createTempDirectory("fll-table-optimizer").toFile();
+    try {
+      final BaselineTableOptimizer optimizer = new BaselineTableOptimizer(params, schedule, outputDir);
+
+      final long start = System.nanoTime();
+      final long deadline = start
+          + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+      optimizer.optimize(() -> System.nanoTime() > deadline);
+      final long stop = System.nanoTime();
+
+      return new Result((stop
+          - start)
+          / 1e9, optimizer.getScore());
+    } finally {
+      FileUtils.deleteDirectory(outputDir);
+    }
+  }
+
+  private static Result run(final File scheduleFile,
+                            final boolean pruneSearch,
+                            final int numThreads)
+      throws IOException, InvalidFormatException, ParseException, ScheduleParseException {
+    final String sheetName = ExcelCellReader.getAllSheetNames(scheduleFile).get(0);
+    final List<String> subjectiveHeaders = findSubjectiveHeaders(scheduleFile, sheetName);
+    final SchedParams params = createParams(subjectiveHeaders);
+    final TournamentSchedule schedule = loadSchedule(scheduleFile, sheetName, subjectiveHeaders);
+
+    final File outputDir = Files.createTempDirectory("fll-table-optimizer").toFile();
+    try {
+      final TableOptimizer optimizer = new TableOptimizer(params, schedule, outputDir);
+      optimizer.setPruneSearch(pruneSearch);
+      optimizer.setNumThreads(numThreads);
+
+      final long start = System.nanoTime();
+      final long deadline = start
+          + TimeUnit.MINUTES.toNanos(TIMEOUT_MINUTES);
+      optimizer.optimize(() -> System.nanoTime() > deadline);
+      final long stop = System.nanoTime();
+
+      return new Result((stop
+          - start)
+          / 1e9, optimizer.getBestScore());
+    } finally {
+      FileUtils.deleteDirectory(outputDir);
+    }
+  }
+
+  /**
+   * @return the extra columns in the schedule, these are treated as
+   *         subjective judging
+   */
+  private static List<String> findSubjectiveHeaders(final File scheduleFile,
+                                                    final String sheetName)
+      throws IOException, InvalidFormatException {
+    final ColumnInformation columnInfo;
+    try (final InputStream stream = new FileInputStream(scheduleFile)) {
+      final CellFileReader reader = new ExcelCellReader(stream, sheetName);
+      columnInfo = TournamentSchedule.findColumns(reader, new LinkedList<String>());
+    }
+
+    final List<String> subjectiveHeaders = new LinkedList<>();
+    for (final String column : columnInfo.getUnusedColumns()) {
+      if (null != column
+          && !column.isEmpty()) {
+        subjectiveHeaders.add(column);
+      }
+    }
+    return subjectiveHeaders;
+  }
+
+  private static SchedParams createParams(final Collection<String> subjectiveHeaders) {
+    final List<SubjectiveStation> stations = new LinkedList<>();
+    for (final String header : subjectiveHeaders) {
+      stations.add(new SubjectiveStation(header, SchedParams.DEFAULT_SUBJECTIVE_MINUTES));
+    }
+    return new SchedParams(stations, SchedParams.DEFAULT_PERFORMANCE_MINUTES, SchedParams.MINIMUM_CHANGETIME_MINUTES,
+                           SchedParams.MINIMUM_PERFORMANCE_CHANGETIME_MINUTES);
+  }
+
+  private static TournamentSchedule loadSchedule(final File scheduleFile,
+                                                 final String sheetName,
+                                                 final Collection<String> subjectiveHeaders)
+      throws IOException, InvalidFormatException, ParseException, ScheduleParseException {
+    try (final InputStream stream = new FileInputStream(scheduleFile)) {
+      return new TournamentSchedule(Utilities.extractBasename(scheduleFile), stream, sheetName, subjectiveHeaders);
+    }
+  }
+
+}
@@ -143,6 +143,13 @@ public class SubjectiveScoresTest {
         tableModel.setValueAt(5, row, column);
       }
 
+      // the total shown matches the total computed from the document
+      Assert.assertEquals(row, tableModel.getRowForTeamAndJudge(teamNumber, "jon"));
+      final Element scoreElement = SubjectiveTableModel.getScoreElements(scoreDocument, category).get(row);
+      final double expectedTotal = scoreCategory.evaluate(new SubjectiveTeamScore(scoreElement));
+      Assert.assertEquals(expectedTotal, (Double) tableModel.getValueAt(row, tableModel.getColumnCount()
+          - 1), 0.0001);
+
       
       // delete the scores for a team and category
       for(int goalIdx=0; goalIdx < tableModel.getNumGoals(); ++goalIdx) {
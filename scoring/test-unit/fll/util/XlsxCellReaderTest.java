@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFFormulaEvaluator;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test for {@link XlsxCellReader}.
+ */
+public class XlsxCellReaderTest {
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    LogUtils.initializeLogging();
+
+    file = File.createTempFile("fll", ".xlsx");
+    final XSSFWorkbook workbook = new XSSFWorkbook();
+    final CellStyle timeStyle = workbook.createCellStyle();
+    timeStyle.setDataFormat(workbook.createDataFormat().getFormat("h:mm AM/PM"));
+    final CellStyle blankStyle = workbook.createCellStyle();
+    blankStyle.setDataFormat(workbook.createDataFormat().getFormat("0.00"));
+
+    final Sheet schedule = workbook.createSheet("schedule");
+    final Row header = schedule.createRow(0);
+    header.createCell(0).setCellValue("Team #");
+    header.createCell(1).setCellValue("Team Name");
+    header.createCell(2).setCellValue("Time");
+    header.createCell(3).setCellValue("Score");
+    header.createCell(4).setCellValue("Advancing");
+    header.createCell(5).setCellValue("Total");
+
+    final Row first = schedule.createRow(1);
+    first.createCell(0).setCellValue(101);
+    first.createCell(1).setCellValue("Robots & Co");
+    final Cell time = first.createCell(2);
+    time.setCellValue((8 * 60
+        + 20)
+        / (24.0
+            * 60));
+    time.setCellStyle(timeStyle);
+    first.createCell(3).setCellValue(12.5);
+    first.createCell(4).setCellValue(true);
+    first.createCell(5).setCellFormula("A2+D2");
+
+    // missing first cell and a blank cell in the middle
+    final Row second = schedule.createRow(2);
+    second.createCell(1).setCellValue("Team Name");
+    second.createCell(2).setCellStyle(blankStyle);
+    second.createCell(3).setCellValue(7);
+
+    // gap in the rows
+    final Row last = schedule.createRow(5);
+    last.createCell(0).setCellValue(102);
+    last.createCell(1).setCellValue("Robots & Co");
+
+    workbook.createSheet("empty");
+
+    // Excel saves the value of each formula with the formula
+    XSSFFormulaEvaluator.evaluateAllFormulaCells(workbook);
+
+    try (final OutputStream stream = Files.newOutputStream(file.toPath())) {
+      workbook.write(stream);
+    }
+  }
+
+  @After
+  public void tearDown() {
+    if (null != file
+        && !file.delete()) {
+      file.deleteOnExit();
+    }
+  }
+
+  @Test
+  public void testSheetNames() throws InvalidFormatException, IOException {
+    Assert.assertTrue(XlsxCellReader.isXlsxFile(file.toPath()));
+    Assert.assertEquals(Arrays.asList("schedule", "empty"), XlsxCellReader.getAllSheetNames(file));
+    Assert.assertEquals(Arrays.asList("schedule", "empty"), ExcelCellReader.getAllSheetNames(file));
+  }
+
+  @Test
+  public void testCreateCellReader() throws InvalidFormatException, IOException {
+    try (final CellFileReader reader = CellFileReader.createCellReader(file, "schedule")) {
+      Assert.assertTrue(reader instanceof XlsxCellReader);
+    }
+  }
+
+  /**
+   * The streaming reader should return the same values as reading the whole
+   * workbook.
+   */
+  @Test
+  public void testSameAsWorkbook() throws InvalidFormatException, IOException {
+    final ExcelCellReader expected;
+    try (final InputStream stream = Files.newInputStream(file.toPath())) {
+      expected = new ExcelCellReader(stream, "schedule");
+    }
+
+    try (final XlsxCellReader reader = new XlsxCellReader(file, "schedule")) {
+      String[] expectedValues;
+      while (null != (expectedValues = expected.readNext())) {
+        final String[] values = reader.readNext();
+        Assert.assertNotNull("Missing line "
+            + expected.getLineNumber(), values);
+        Assert.assertArrayEquals("Line "
+            + expected.getLineNumber(), expectedValues, values);
+        Assert.assertEquals(expected.getLineNumber(), reader.getLineNumber());
+      }
+      Assert.assertNull(reader.readNext());
+    }
+  }
+
+  @Test
+  public void testValues() throws InvalidFormatException, IOException {
+    try (final XlsxCellReader reader = new XlsxCellReader(file, "schedule")) {
+      reader.readNext();
+      final List<String> first = Arrays.asList(reader.readNext());
+      Assert.assertEquals(Arrays.asList("101", "Robots & Co", "08:20:00 AM", "12.5", "true", "113.5"), first);
+
+      final String[] second = reader.readNext();
+      Assert.assertNull(second[0]);
+      Assert.assertEquals("", second[2]);
+      Assert.assertEquals("7", second[3]);
+
+      Assert.assertEquals(0, reader.readNext().length);
+      Assert.assertEquals(0, reader.readNext().length);
+      Assert.assertEquals("102", reader.readNext()[0]);
+      Assert.assertNull(reader.readNext());
+    }
+  }
+
+  @Test
+  public void testEmptySheet() throws InvalidFormatException, IOException {
+    try (final XlsxCellReader reader = new XlsxCellReader(file, "empty")) {
+      Assert.assertNull(reader.readNext());
+    }
+  }
+
+  @Test(expected = InvalidFormatException.class)
+  public void testMissingSheet() throws InvalidFormatException, IOException {
+    new XlsxCellReader(file, "missing").close();
+  }
+
+}
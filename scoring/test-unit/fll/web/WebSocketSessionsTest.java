@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.web;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.websocket.RemoteEndpoint;
+import javax.websocket.SendHandler;
+import javax.websocket.SendResult;
+import javax.websocket.Session;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import fll.util.LogUtils;
+
+/**
+ * Test {@link WebSocketSessions}.
+ */
+public class WebSocketSessionsTest {
+
+  @Before
+  public void setUp() {
+    LogUtils.initializeLogging();
+  }
+
+  /**
+   * Only one message is sent at a time and the rest are sent in order as each
+   * send completes.
+   */
+  @Test
+  public void testOrdered() {
+    final WebSocketSessions sessions = new WebSocketSessions("test", 10, null);
+    final FakeSession fake = new FakeSession();
+    sessions.add(fake.session);
+
+    sessions.send(fake.session, "one");
+    sessions.send(fake.session, "two");
+    sessions.send(fake.session, "three");
+    Assert.assertEquals(1, fake.sent.size());
+    Assert.assertEquals(2, sessions.getQueueDepth());
+
+    fake.completeAll();
+    Assert.assertEquals(3, fake.sent.size());
+    Assert.assertEquals("one", fake.sent.get(0));
+    Assert.assertEquals("two", fake.sent.get(1));
+    Assert.assertEquals("three", fake.sent.get(2));
+    Assert.assertEquals(3, sessions.getNumSent());
+    Assert.assertEquals(0, sessions.getQueueDepth());
+  }
+
+  /**
+   * A message that is already waiting isn't queued again.
+   */
+  @Test
+  public void testDuplicateDropped() {
+    final WebSocketSessions sessions = new WebSocketSessions("test", 10, null);
+    final FakeSession fake = new FakeSession();
+    sessions.add(fake.session);
+
+    sessions.send(fake.session, "update");
+    sessions.send(fake.session, "update");
+    sessions.send(fake.session, "update");
+    Assert.assertEquals(1, sessions.getQueueDepth());
+    Assert.assertEquals(1, sessions.getNumDropped());
+
+    fake.completeAll();
+    Assert.assertEquals(2, fake.sent.size());
+  }
+
+  /**
+   * A duplicate moves the waiting message to the end of the queue so that
+   * the last message sent is still the last one received.
+   */
+  @Test
+  public void testDuplicateKeepsOrder() {
+    final WebSocketSessions sessions = new WebSocketSessions("test", 10, null);
+    final FakeSession fake = new FakeSession();
+    sessions.add(fake.session);
+
+    sessions.send(fake.session, "one");
+    sessions.send(fake.session, "two");
+    sessions.send(fake.session, "three");
+    sessions.send(fake.session, "two");
+    Assert.assertEquals(2, sessions.getQueueDepth());
+    Assert.assertEquals(1, sessions.getNumDropped());
+
+    fake.completeAll();
+    Assert.assertEquals(Arrays.asList("one", "three", "two"), fake.sent);
+  }
+
+  /**
+   * A session that falls too far behind is closed and removed.
+   */
+  @Test
+  public void testOverflow() {
+    final List<Session> removed = new LinkedList<>();
+    final WebSocketSessions sessions = new WebSocketSessions("test", 2, removed::add);
+    final FakeSession fake = new FakeSession();
+    sessions.add(fake.session);
+
+    sessions.send(fake.session, "one");
+    sessions.send(fake.session, "two");
+    sessions.send(fake.session, "three");
+    Assert.assertFalse(fake.closed);
+
+    sessions.send(fake.session, "four");
+    Assert.assertTrue(fake.closed);
+    Assert.assertTrue(sessions.isEmpty());
+    Assert.assertEquals(1, sessions.getNumOverflows());
+    Assert.assertEquals(1, removed.size());
+
+    // the send in progress completes, nothing more is sent
+    fake.completeAll();
+    Assert.assertEquals(1, fake.sent.size());
+  }
+
+  /**
+   * A session whose send fails is removed.
+   */
+  @Test
+  public void testFailure() {
+    final WebSocketSessions sessions = new WebSocketSessions("test", 10, null);
+    final FakeSession fake = new FakeSession();
+    sessions.add(fake.session);
+
+    sessions.send(fake.session, "one");
+    sessions.send(fake.session, "two");
+    fake.fail();
+    Assert.assertTrue(fake.closed);
+    Assert.assertTrue(sessions.isEmpty());
+    Assert.assertEquals(1, sessions.getNumFailures());
+    Assert.assertEquals(0, sessions.getNumSent());
+    Assert.assertEquals(1, fake.sent.size());
+  }
+
+  /**
+   * A session whose sends complete when told to.
+   */
+  private static final class FakeSession {
+    private final List<String> sent = new LinkedList<>();
+
+    private SendHandler pendingHandler = null;
+
+    private boolean closed = false;
+
+    private final Session session;
+
+    FakeSession() {
+      final ClassLoader loader = WebSocketSessionsTest.class.getClassLoader();
+      final RemoteEndpoint.Async remote = (RemoteEndpoint.Async) Proxy.newProxyInstance(loader,
+                                                                                         new Class<?>[] { RemoteEndpoint.Async.class },
+                                                                                         this::invokeRemote);
+      session = (Session) Proxy.newProxyInstance(loader, new Class<?>[] { Session.class },
+                                                 (proxy,
+                                                  method,
+                                                  args) -> invokeSession(proxy, method, args, remote));
+    }
+
+    private Object invokeRemote(final Object proxy,
+                                final Method method,
+                                final Object[] args) {
+      if ("sendText".equals(method.getName())) {
+        Assert.assertNull("Only one send at a time", pendingHandler);
+        sent.add((String) args[0]);
+        pendingHandler = (SendHandler) args[1];
+      }
+      return null;
+    }
+
+    private Object invokeSession(final Object proxy,
+                                 final Method method,
+                                 final Object[] args,
+                                 final RemoteEndpoint.Async remote) {
+      switch (method.getName()) {
+      case "getAsyncRemote":
+        return remote;
+      case "isOpen":
+        return !closed;
+      case "close":
+        closed = true;
+        return null;
+      case "getId":
+        return "fake";
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      case "equals":
+        return proxy == args[0];
+      default:
+        return null;
+      }
+    }
+
+    void completeAll() {
+      while (null != pendingHandler) {
+        final SendHandler handler = pendingHandler;
+        pendingHandler = null;
+        handler.onResult(new SendResult());
+      }
+    }
+
+    void fail() {
+      final SendHandler handler = pendingHandler;
+      pendingHandler = null;
+      handler.onResult(new SendResult(new IOException("fake failure")));
+    }
+  }
+
+}
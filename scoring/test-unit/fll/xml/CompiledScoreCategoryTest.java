@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import fll.Utilities;
+import fll.util.DummyTeamScore;
+import fll.util.LogUtils;
+import fll.web.playoff.TeamScore;
+
+/**
+ * Test {@link CompiledScoreCategory}.
+ */
+public class CompiledScoreCategoryTest {
+
+  @Before
+  public void setUp() {
+    LogUtils.initializeLogging();
+  }
+
+  /**
+   * The compiled categories of all known challenge descriptors compute the
+   * same scores as walking the goals.
+   */
+  @Test
+  public void testAllDescriptors() throws IOException {
+    for (final URL url : XMLUtils.getAllKnownChallengeDescriptorURLs()) {
+      final ChallengeDescription description = loadDescription(url.openStream());
+      for (final ScoreCategory category : getAllCategories(description)) {
+        compareScores(url.toString(), category);
+      }
+    }
+  }
+
+  /**
+   * Computed goals that reference other computed goals are evaluated in the
+   * right order.
+   */
+  @Test
+  public void testComputedGoalReference() throws IOException {
+    final InputStream stream = CompiledScoreCategoryTest.class.getResourceAsStream("data/computed-goal-reference.xml");
+    Assert.assertNotNull(stream);
+    final ChallengeDescription description = loadDescription(stream);
+    for (final ScoreCategory category : getAllCategories(description)) {
+      compareScores("computed-goal-reference", category);
+    }
+  }
+
+  private static void compareScores(final String name,
+                                    final ScoreCategory category) {
+    final Random random = new Random(category.getName().hashCode());
+    for (final TeamScore score : createRandomScores(category, 200, random)) {
+      final double expected = category.interpret(score);
+      final double actual = category.getCompiled().evaluate(score);
+      Assert.assertEquals(name
+          + " category: "
+          + category.getName(), 0, Double.compare(expected, actual));
+    }
+  }
+
+  /* package */ static ChallengeDescription loadDescription(final InputStream stream) throws IOException {
+    try (Reader reader = new InputStreamReader(stream, Utilities.DEFAULT_CHARSET)) {
+      final Document document = ChallengeParser.parse(reader);
+      return new ChallengeDescription(document.getDocumentElement());
+    }
+  }
+
+  /* package */ static List<ScoreCategory> getAllCategories(final ChallengeDescription description) {
+    final List<ScoreCategory> categories = new ArrayList<>();
+    categories.add(description.getPerformance());
+    categories.addAll(description.getSubjectiveCategories());
+    return categories;
+  }
+
+  /**
+   * Create scores with random values between the minimum and maximum of each
+   * goal. Some simple goals are left without a score.
+   */
+  /* package */ static List<TeamScore> createRandomScores(final ScoreCategory category,
+                                                        final int count,
+                                                        final Random random) {
+    final List<TeamScore> scores = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) {
+      final Map<String, Double> simpleGoals = new HashMap<>();
+      final Map<String, String> enumGoals = new HashMap<>();
+      for (final AbstractGoal goal : category.getGoals()) {
+        if (goal.isComputed()) {
+          continue;
+        } else if (goal.isEnumerated()) {
+          final List<EnumeratedValue> values = goal.getValues();
+          enumGoals.put(goal.getName(), values.get(random.nextInt(values.size())).getValue());
+        } else if (random.nextInt(20) > 0) {
+          final double range = goal.getMax()
+              - goal.getMin();
+          final double value = goal.getMin()
+              + random.nextDouble()
+                  * range;
+          simpleGoals.put(goal.getName(), goal.getScoreType() == ScoreType.FLOAT ? value : Math.round(value));
+        }
+      }
+      scores.add(new DummyTeamScore(i, 1, simpleGoals, enumGoals));
+    }
+    return scores;
+  }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+package fll.xml;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.List;
+import java.util.Random;
+
+import fll.web.playoff.TeamScore;
+
+/**
+ * Compare the time to compute scores with {@link CompiledScoreCategory} and by
+ * walking the goals for the known challenge descriptors. This isn't run with
+ * the unit tests, run it from the test classpath with no arguments.
+ */
+public final class ScoreEvaluationBenchmark {
+
+  private static final int NUM_SCORES = 1000;
+
+  private static final int WARMUP_ITERATIONS = 20;
+
+  private static final int ITERATIONS = 50;
+
+  private ScoreEvaluationBenchmark() {
+  }
+
+  public static void main(final String[] args) throws IOException {
+    for (final URL url : XMLUtils.getAllKnownChallengeDescriptorURLs()) {
+      final ChallengeDescription description = CompiledScoreCategoryTest.loadDescription(url.openStream());
+      final ScoreCategory performance = description.getPerformance();
+      final List<TeamScore> scores = CompiledScoreCategoryTest.createRandomScores(performance, NUM_SCORES,
+                                                                                  new Random(0));
+
+      for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+        interpret(performance, scores);
+        compiled(performance, scores);
+      }
+
+      final long interpretStart = System.nanoTime();
+      double interpretTotal = 0;
+      for (int i = 0; i < ITERATIONS; ++i) {
+        interpretTotal += interpret(performance, scores);
+      }
+      final long interpretNanos = System.nanoTime()
+          - interpretStart;
+
+      final long compiledStart = System.nanoTime();
+      double compiledTotal = 0;
+      for (int i = 0; i < ITERATIONS; ++i) {
+        compiledTotal += compiled(performance, scores);
+      }
+      final long compiledNanos = System.nanoTime()
+          - compiledStart;
+
+      final long numEvaluations = (long) NUM_SCORES
+          * ITERATIONS;
+      System.out.format("%s: interpreted %dns/score compiled %dns/score (totals %f %f)%n", url.getPath()
+                                                                                             .replaceAll(".*/", ""),
+                        interpretNanos
+                            / numEvaluations,
+                        compiledNanos
+                            / numEvaluations,
+                        interpretTotal, compiledTotal);
+    }
+    System.out.format("%d performance scores per descriptor, %d iterations after %d warmup iterations%n", NUM_SCORES,
+                      ITERATIONS, WARMUP_ITERATIONS);
+  }
+
+  private static double interpret(final ScoreCategory category,
+                                  final List<TeamScore> scores) {
+    double total = 0;
+    for (final TeamScore score : scores) {
+      total += category.interpret(score);
+    }
+    return total;
+  }
+
+  private static double compiled(final ScoreCategory category,
+                                 final List<TeamScore> scores) {
+    final CompiledScoreCategory compiled = category.getCompiled();
+    double total = 0;
+    for (final TeamScore score : scores) {
+      total += compiled.evaluate(score);
+    }
+    return total;
+  }
+
+}
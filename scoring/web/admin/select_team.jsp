@@ -14,6 +14,7 @@
 <%
 final DataSource datasource = ApplicationAttributes.getDataSource(application);
 final Connection connection = datasource.getConnection();
+try {
 %>
 
 <html>
@@ -100,5 +101,10 @@ final Connection connection = datasource.getConnection();
       </table>
     </form>
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
   </body>
 </html>
@@ -12,6 +12,7 @@
 <%
   final DataSource datasource = ApplicationAttributes.getDataSource(application);
   final Connection connection = datasource.getConnection();
+  try {
 
   if (null == session.getAttribute("columnSelectOptions")) {
     throw new RuntimeException("Error columnSelectOptions not set.  Please start back at administration page and go forward.");
@@ -150,5 +151,10 @@
   </form>
 
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
 </body>
 </html>
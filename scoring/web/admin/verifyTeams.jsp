@@ -7,15 +7,15 @@
 <%@ page import="java.sql.Connection" %>
 
 <%
-final DataSource datasource = ApplicationAttributes.getDataSource(application);
-final Connection connection = datasource.getConnection();
-
 if(null == session.getAttribute("columnSelectOptions")) {
 	session.setAttribute(SessionAttributes.MESSAGE, 
 			"<p class='error'>Error columnSelectOptions not set.</p>");
 	response.sendRedirect(response.encodeRedirectURL("index.jsp"));
 	return;
 }
+
+final DataSource datasource = ApplicationAttributes.getDataSource(application);
+final Connection connection = datasource.getConnection();
 %>
   
 <html>
@@ -27,7 +27,15 @@ if(null == session.getAttribute("columnSelectOptions")) {
   <body>
     <h1>Verify Teams</h1>
 
-    <% if(UploadTeams.verifyTeams(connection, request, response, session, out)) { %>
+    <%
+    final boolean verified;
+    try {
+      verified = UploadTeams.verifyTeams(connection, request, response, session, out);
+    } finally {
+      connection.close();
+    }
+    if(verified) {
+    %>
     <c:set var="message" scope='session' value='<p id="success"><i>Teams successfully uploaded</i></p>'/>
     <c:redirect url="index.jsp"></c:redirect>
     <% } %>
@@ -62,6 +62,23 @@
 
   <li>Servlet container: <%=application.getServerInfo()%></li>
 
+  <li>Database connections: <%=fll.db.DataSourcePool.getStatistics(fll.web.ApplicationAttributes.getDataSource(application))%></li>
+
+  <li>Login cache: <%=fll.db.LoginCache.getStatistics()%></li>
+
+  <li>Parameter cache: <%=fll.db.ParameterCache.getStatistics()%></li>
+
+  <li>Background score summaries: <%=fll.web.report.BackgroundSummarizer.getStatistics()%></li>
+
+  <li>WebSocket messages
+   <ul>
+    <li>Displays: <%=fll.web.DisplayWebSocket.getSendStatistics()%></li>
+    <li>Head to head brackets: <%=fll.web.playoff.H2HUpdateWebSocket.getSendStatistics()%></li>
+    <li>Scoreboards: <%=fll.web.scoreboard.ScoreboardUpdateWebSocket.getSendStatistics()%></li>
+    <li>Unverified runs: <%=fll.web.scoreEntry.UnverifiedRunsWebSocket.getSendStatistics()%></li>
+   </ul>
+  </li>
+
  </ul>
 
 
@@ -10,6 +10,7 @@
 <%
   final DataSource datasource = ApplicationAttributes.getDataSource(application);
   final Connection connection = datasource.getConnection();
+  try {
   pageContext.setAttribute("urls", WebUtils.getAllURLs(request));
 %>
 
@@ -93,5 +94,10 @@
   <li><a href="credits/credits.jsp">Credits</a></li>
  </ul>
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
 </body>
 </html>
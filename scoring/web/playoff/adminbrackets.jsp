@@ -85,7 +85,7 @@ FONT.TIE {
 
   <h2>Playoff Bracket: ${bracketInfo.bracketName}</h2>
 
-  ${bracketInfo.adminBracketOutput}
+  ${bracketOutput}
 
 </body>
 </html>
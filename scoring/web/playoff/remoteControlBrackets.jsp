@@ -110,14 +110,15 @@ SPAN.TIE {
     <br />
     <c:forEach
       items="${allBracketData}"
-      var="bracketData">
+      var="bracketData"
+      varStatus="loopStatus">
 
       <div class='center'>Head to Head Round
         ${bracketData.firstRound}, Head to Head Bracket
         ${bracketData.bracketName}</div>
       <br />
                         
-   ${bracketData.displayBracketOutput}
+   ${allBracketOutput[loopStatus.index]}
      <c:if test="${allBracketData.size() > 1}">
         <br />
         <br />
@@ -29,6 +29,7 @@ fll.web.playoff.ScoregenBrackets.populateContext(application,
 			final DataSource datasource = ApplicationAttributes
 					.getDataSource(application);
 			final Connection connection = datasource.getConnection();
+			try {
 			final int currentTournament = Queries
 					.getCurrentTournament(connection);
 
@@ -151,5 +152,10 @@ FONT.TIE {
   </p>
  </form>
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
 </body>
 </html>
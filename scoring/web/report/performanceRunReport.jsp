@@ -9,6 +9,7 @@
 <%
     final DataSource datasource = ApplicationAttributes.getDataSource(application);
     final Connection connection = datasource.getConnection();
+    try {
     pageContext.setAttribute("tournament", Queries.getCurrentTournament(connection));
     pageContext.setAttribute("divisions", Queries.getAwardGroups(connection));
   %>
@@ -63,5 +64,10 @@
     </c:if>
       
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
   </body>
 </html>
@@ -14,10 +14,15 @@
   final ChallengeDescription description = ApplicationAttributes.getChallengeDescription(application);
   final DataSource datasource = ApplicationAttributes.getDataSource(application);
   final Connection connection = datasource.getConnection();
-  final int currentTournament = Queries.getCurrentTournament(connection);
+  final String errorMsg;
+  try {
+    final int currentTournament = Queries.getCurrentTournament(connection);
 
-  ScoreStandardization.updateTeamTotalScores(connection, description, currentTournament);
-  final String errorMsg = ScoreStandardization.checkDataConsistency(connection);
+    ScoreStandardization.updateTeamTotalScores(connection, description, currentTournament);
+    errorMsg = ScoreStandardization.checkDataConsistency(connection);
+  } finally {
+    connection.close();
+  }
   pageContext.setAttribute("errorMsg", errorMsg);
 
   final String url = SessionAttributes.getAttribute(session, PromptSummarizeScores.SUMMARY_REDIRECT_KEY,
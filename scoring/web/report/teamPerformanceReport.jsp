@@ -10,6 +10,7 @@
 final Document challengeDocument = ApplicationAttributes.getChallengeDocument(application);
 final DataSource datasource = ApplicationAttributes.getDataSource(application);
 final Connection connection = datasource.getConnection();
+try {
 pageContext.setAttribute("tournament", Queries.getCurrentTournament(connection));
 %>
 
@@ -46,5 +47,10 @@ pageContext.setAttribute("tournament", Queries.getCurrentTournament(connection))
       </c:forEach>
     </table>
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
   </body>
 </html>
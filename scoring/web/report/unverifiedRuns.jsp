@@ -9,6 +9,7 @@
 <%
 final DataSource datasource = ApplicationAttributes.getDataSource(application);
 final Connection connection = datasource.getConnection();
+try {
       pageContext.setAttribute("currentTournament", Queries.getCurrentTournament(connection));
 %>
 
@@ -44,5 +45,10 @@ final Connection connection = datasource.getConnection();
  </c:forEach>
 </table>
 
+<%
+  } finally {
+    connection.close();
+  }
+%>
 </body>
 </html>
@@ -7,12 +7,15 @@
 <%@ page import="javax.sql.DataSource" %>
 <%@ page import="fll.xml.ChallengeDescription"%>
 <%@ page import="fll.db.Queries"%>
+<%@ page import="fll.Utilities"%>
+<%@ page import="fll.web.report.BackgroundSummarizer"%>
 
 <%
 final ChallengeDescription challengeDescription = ApplicationAttributes.getChallengeDescription(application);
 
 final DataSource datasource = ApplicationAttributes.getDataSource(application);
 final Connection connection = datasource.getConnection();
+try {
 %>
 
 
@@ -27,12 +30,20 @@ final Connection connection = datasource.getConnection();
     <%-- save to database --%>
     <c:choose>
       <c:when test="${not empty param.delete}">
-        <%Queries.deletePerformanceScore(connection, request);%>
+        <%Queries.deletePerformanceScore(challengeDescription, connection, request);%>
       </c:when>
       <c:otherwise>
         <%Queries.insertOrUpdatePerformanceScore(challengeDescription, connection, request);%>
       </c:otherwise>
     </c:choose>
+    <%
+    } finally {
+      connection.close();
+    }
+    // the parameters have been checked when saving the score
+    final int teamNumber = Utilities.INTEGER_NUMBER_FORMAT_INSTANCE.parse(request.getParameter("TeamNumber")).intValue();
+    BackgroundSummarizer.performanceModified(application, teamNumber);
+    %>
     <c:redirect url="select_team.jsp"/>                    
   </body>
 </html>
@@ -20,6 +20,7 @@
 <%
   final DataSource datasource = ApplicationAttributes.getDataSource(application);
   final Connection connection = datasource.getConnection();
+  try {
   pageContext.setAttribute("currentTournament", Queries.getCurrentTournament(connection));
 %>
 
@@ -49,4 +50,9 @@
                 <%
    index = index + 1;
  %>
-</c:forEach>
\ No newline at end of file
+</c:forEach>
+<%
+  } finally {
+    connection.close();
+  }
+%>
\ No newline at end of file
@@ -34,17 +34,30 @@ TABLE.B {
 <script
   type="text/javascript"
   src="<c:url value='/extlib/jquery.scrollTo-2.1.2.min.js'/>"></script>
+<script
+  type="text/javascript"
+  src="scoreboard.js"></script>
 
 
 
 <script type="text/javascript">
+  // set when a score changes, the page only needs to be reloaded then
+  var scoresChanged = false;
+
   function reload() {
     $.scrollTo($("#top"));
     location.reload(true);
   }
   function bottomReload() {
-    // show the last scores for a bit and then reload
-    setTimeout(reload, 3000);
+    // show the last scores for a bit and then reload if needed
+    setTimeout(function() {
+      if (scoresChanged) {
+        reload();
+      } else {
+        $.scrollTo($("#top"));
+        scrollToBottom();
+      }
+    }, 3000);
   }
 </script>
 
@@ -63,6 +76,10 @@ TABLE.B {
               }
 
               $(document).ready(function() {
+                openScoreboardSocket(function(update) {
+                  scoresChanged = true;
+                }, false);
+
                 scrollToBottom();
               });
             </script>
@@ -70,8 +87,10 @@ TABLE.B {
     <c:otherwise>
       <script type="text/javascript">
               $(document).ready(function() {
-                // reload every 5 seconds
-                window.setInterval('reload()', 5000);
+                // reload once there are scores to show
+                openScoreboardSocket(function(update) {
+                  reload();
+                }, false);
               });
             </script>
     </c:otherwise>
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2017 High Tech Kids.  All rights reserved
+ * HighTechKids is on the web at: http://www.hightechkids.org
+ * This code is released under GPL; see LICENSE.txt for details.
+ */
+
+"use strict";
+
+/**
+ * Connect to the scoreboard WebSocket and call teamUpdateHandler with each
+ * team update that is received. The page is reloaded when the server asks for
+ * it and when the connection is opened again after being lost, since updates
+ * may have been missed while the connection was closed.
+ *
+ * @param teamUpdateHandler function that takes a TeamUpdate
+ * @param reconnecting true if the connection was lost
+ */
+function openScoreboardSocket(teamUpdateHandler, reconnecting) {
+  var url = window.location.pathname;
+  var directory = url.substring(0, url.lastIndexOf('/'));
+  var webSocketAddress = "ws://" + window.location.host + directory
+      + "/ScoreboardUpdateWebSocket";
+
+  var socket = new WebSocket(webSocketAddress);
+  socket.onopen = function(event) {
+    console.log("Scoreboard socket opened");
+    if (reconnecting) {
+      location.reload();
+    }
+  };
+  socket.onmessage = function(event) {
+    var message = JSON.parse(event.data);
+    if (message.isReload) {
+      location.reload();
+    } else if (message.isTeamUpdate) {
+      teamUpdateHandler(message.teamUpdate);
+    }
+  };
+  socket.onclose = function(event) {
+    console.log("Scoreboard socket closed");
+
+    // open the socket a second later
+    setTimeout(function() {
+      openScoreboardSocket(teamUpdateHandler, true);
+    }, 1000);
+  };
+}
+
+/**
+ * Create a table cell.
+ *
+ * @param className the class for the cell
+ * @param text the text for the cell, null or empty for a blank cell
+ */
+function createScoreboardCell(className, text) {
+  var cell = document.createElement("td");
+  cell.className = className;
+  cell.textContent = null == text || "" == text ? "\u00a0" : text;
+  return cell;
+}
+
+/**
+ * Update the most recent scores from a team update. The rows of tbody are
+ * ordered newest first and have data-timestamp and data-team attributes.
+ *
+ * @param tbody the table body holding the scores
+ * @param update the TeamUpdate
+ * @param showOrganization true if the organization column is shown
+ * @param maxScores the maximum number of scores shown
+ */
+function updateMostRecentScores(tbody, update, showOrganization, maxScores) {
+  var rowId = "run-" + update.teamNumber + "-" + update.runNumber;
+  var existing = document.getElementById(rowId);
+  var tableWasFull = tbody.rows.length >= maxScores;
+  if (null != existing) {
+    tbody.removeChild(existing);
+  }
+
+  if (null == update.runScore) {
+    if (null != existing && tableWasFull) {
+      // an older score that isn't displayed now needs to be
+      location.reload();
+    }
+    return;
+  }
+
+  var row = document.createElement("tr");
+  row.id = rowId;
+  row.setAttribute("data-timestamp", update.runTimestamp);
+  row.setAttribute("data-team", update.teamNumber);
+  row.appendChild(createScoreboardCell("left", String(update.teamNumber)));
+  row.appendChild(createScoreboardCell("left truncate", update.teamName));
+  if (showOrganization) {
+    row.appendChild(createScoreboardCell("left truncate", update.organization));
+  }
+  row.appendChild(createScoreboardCell("right truncate", update.awardGroup));
+  row.appendChild(createScoreboardCell("right", update.runScore));
+
+  // newest first, then by team number like the database query
+  var before = null;
+  for (var i = 0; i < tbody.rows.length && null == before; ++i) {
+    var timestamp = parseInt(tbody.rows[i].getAttribute("data-timestamp"));
+    var team = parseInt(tbody.rows[i].getAttribute("data-team"));
+    if (timestamp < update.runTimestamp
+        || (timestamp == update.runTimestamp && team > update.teamNumber)) {
+      before = tbody.rows[i];
+    }
+  }
+  tbody.insertBefore(row, before);
+
+  while (tbody.rows.length > maxScores) {
+    tbody.removeChild(tbody.rows[tbody.rows.length - 1]);
+  }
+}
+
+/**
+ * Update the top scores from a team update. Each award group is in its own
+ * tbody with a data-award-group attribute. The rows have data-team and
+ * data-score attributes and the rank in the first cell.
+ *
+ * @param table the table holding the scores
+ * @param update the TeamUpdate
+ * @param showOrganization true if the organization column is shown
+ * @param sortDescending true if higher scores are better
+ */
+function updateTopScores(table, update, showOrganization, sortDescending) {
+  for (var b = 0; b < table.tBodies.length; ++b) {
+    var tbody = table.tBodies[b];
+    for (var r = tbody.rows.length - 1; r >= 0; --r) {
+      if (tbody.rows[r].getAttribute("data-team") == update.teamNumber) {
+        tbody.removeChild(tbody.rows[r]);
+      }
+    }
+
+    if (tbody.getAttribute("data-award-group") != update.awardGroup) {
+      continue;
+    }
+
+    if (null != update.bestScore) {
+      var row = document.createElement("tr");
+      row.setAttribute("data-team", update.teamNumber);
+      row.setAttribute("data-score", update.bestScore);
+      row.appendChild(createScoreboardCell("center", ""));
+      row.appendChild(createScoreboardCell("right", String(update.teamNumber)));
+      row.appendChild(createScoreboardCell("left truncate", update.teamName));
+      if (showOrganization) {
+        row.appendChild(createScoreboardCell("left truncate",
+            update.organization));
+      }
+      row.appendChild(createScoreboardCell("right", update.formattedBestScore));
+
+      var before = null;
+      for (var i = 0; i < tbody.rows.length && null == before; ++i) {
+        var score = parseFloat(tbody.rows[i].getAttribute("data-score"));
+        if (!isNaN(score)
+            && (sortDescending ? score < update.bestScore
+                : score > update.bestScore)) {
+          before = tbody.rows[i];
+        }
+      }
+      tbody.insertBefore(row, before);
+    }
+
+    // rank the teams, ties get the same rank
+    var prevScore = null;
+    var rank = 0;
+    for (var i = 0; i < tbody.rows.length; ++i) {
+      var scoreAttr = tbody.rows[i].getAttribute("data-score");
+      if (null == scoreAttr) {
+        // header row
+        continue;
+      }
+
+      var score = parseFloat(scoreAttr);
+      ++rank;
+      if (null == prevScore || Math.abs(score - prevScore) > 1E-6) {
+        tbody.rows[i].cells[0].textContent = rank;
+      } else {
+        tbody.rows[i].cells[0].textContent = tbody.rows[i - 1].cells[0].textContent;
+      }
+      prevScore = score;
+    }
+  }
+}